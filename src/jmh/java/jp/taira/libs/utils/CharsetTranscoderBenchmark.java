@@ -0,0 +1,68 @@
+package jp.taira.libs.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CharsetTranscoderベンチマーククラス<br>
+ * UTF-8のファイルからMS932のファイルへの変換を、全体をメモリに読み込む変換(StringUtils.encodeCharset)と、
+ * ストリーミング変換(分割しない・並列)で比較する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CharsetTranscoderBenchmark {
+
+    /** 変換元のファイルの文字数 */
+    @Param({"50000000"})
+    public int length;
+
+    /** 変換元のファイル */
+    private Path source;
+
+    /** 変換先のファイル */
+    private Path target;
+
+    /** 変換 */
+    private CharsetTranscoder transcoder;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final String chars = "あいうアイウ漢字ABC123 ,\n";
+        final StringBuilder builder = new StringBuilder(length);
+        final Random random = new Random(1);
+        for (int i = 0; i < length; i++) {
+            builder.append(chars.charAt(random.nextInt(chars.length())));
+        }
+
+        source = Files.createTempFile("benchmark", ".txt");
+        target = Files.createTempFile("benchmark", ".txt");
+        Files.write(source, builder.toString().getBytes(StringUtils.UTF_8));
+        transcoder = CharsetTranscoder.of(StringUtils.UTF_8, StringUtils.MS932);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void encodeCharset() throws Exception {
+        Files.write(target, StringUtils.encodeCharset(Files.readAllBytes(source), StringUtils.UTF_8, StringUtils.MS932));
+    }
+
+    @Benchmark
+    public long sequential() {
+        return transcoder.transcode(source, target, 1);
+    }
+
+    @Benchmark
+    public long parallel() {
+        return transcoder.transcode(source, target);
+    }
+}
@@ -0,0 +1,178 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * ExcelBeanUtilsベンチマーククラス<br>
+ * 行からBeanへの変換のスループットを計測する(1操作 = ROWS * COLS セル)。<br>
+ * 書き込みは、セルごとにセルスタイルを生成する場合とExcelStyleRegistryで重複排除する場合を比較する(1操作 = WRITE_ROWS行)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelBeanUtilsBenchmark {
+
+    /** 行数 */
+    private static final int ROWS = 100000;
+
+    /** 列数 */
+    private static final int COLS = 10;
+
+    /** 書き込み行数 */
+    private static final int WRITE_ROWS = 3000;
+
+    /** Bean */
+    public static class Bean {
+        @ExcelColumn(header = "name")
+        private String name;
+        @ExcelColumn(header = "count")
+        private int count;
+        @ExcelColumn(header = "price")
+        private double price;
+        @ExcelColumn("D")
+        private String d;
+        @ExcelColumn("E")
+        private Long e;
+        @ExcelColumn("F")
+        private Double f;
+        @ExcelColumn("G")
+        private String g;
+        @ExcelColumn("H")
+        private Integer h;
+        @ExcelColumn("I")
+        private Double i;
+        @ExcelColumn("J")
+        private String j;
+    }
+
+    /** 書き込みのBean */
+    public static class WriteBean {
+        @ExcelColumn("A")
+        private String name;
+        @ExcelColumn(value = "B", format = "#,##0")
+        private double amount;
+        @ExcelColumn("C")
+        private LocalDate date;
+    }
+
+    /** 書き込みのBeanのリスト */
+    private List<WriteBean> writeBeanList;
+
+    /** 入力ファイル */
+    private Path path;
+
+    /** ワークブック */
+    private Workbook workbook;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        path = Files.createTempFile("benchmark", ".xlsx");
+
+        try (SXSSFWorkbook sxssfWorkbook = new SXSSFWorkbook(100)) {
+            final Sheet sheet = sxssfWorkbook.createSheet("Sheet1");
+            final Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("name");
+            header.createCell(1).setCellValue("count");
+            header.createCell(2).setCellValue("price");
+
+            for (int rowIndex = 1; rowIndex <= ROWS; rowIndex++) {
+                final Row row = sheet.createRow(rowIndex);
+                for (int colIndex = 0; colIndex < COLS; colIndex++) {
+                    if (colIndex % 3 == 0) {
+                        row.createCell(colIndex).setCellValue("value" + (rowIndex % 1000));
+                    } else {
+                        row.createCell(colIndex).setCellValue(rowIndex + colIndex);
+                    }
+                }
+            }
+
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                sxssfWorkbook.write(outputStream);
+            }
+            sxssfWorkbook.dispose();
+        }
+
+        workbook = ExcelUtils.getWorkbook(path);
+
+        writeBeanList = new ArrayList<>(WRITE_ROWS);
+        for (int rowIndex = 0; rowIndex < WRITE_ROWS; rowIndex++) {
+            final WriteBean bean = new WriteBean();
+            bean.name = "name" + rowIndex;
+            bean.amount = rowIndex * 1.5;
+            bean.date = LocalDate.of(2020, 1, 1).plusDays(rowIndex);
+            writeBeanList.add(bean);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        workbook.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void sheet(final Blackhole blackhole) {
+        blackhole.consume(ExcelBeanUtils.toBeans(workbook.getSheet("Sheet1"), Bean.class, 0));
+    }
+
+    @Benchmark
+    public void stream(final Blackhole blackhole) {
+        try (ExcelStreamReader reader = ExcelStreamReader.open(path);
+             Stream<Bean> beans = ExcelBeanUtils.toBeans(reader, "Sheet1", Bean.class, 0)) {
+            beans.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void writeNaive(final Blackhole blackhole) throws Exception {
+        try (Workbook xlsx = new XSSFWorkbook()) {
+            final Sheet sheet = xlsx.createSheet("Sheet1");
+            final DataFormat dataFormat = xlsx.createDataFormat();
+            for (int rowIndex = 0; rowIndex < WRITE_ROWS; rowIndex++) {
+                final WriteBean bean = writeBeanList.get(rowIndex);
+                final Row row = sheet.createRow(rowIndex);
+                row.createCell(0).setCellValue(bean.name);
+
+                final Cell amount = row.createCell(1);
+                final CellStyle amountStyle = xlsx.createCellStyle();
+                amountStyle.setDataFormat(dataFormat.getFormat("#,##0"));
+                amount.setCellStyle(amountStyle);
+                amount.setCellValue(bean.amount);
+
+                final Cell date = row.createCell(2);
+                final CellStyle dateStyle = xlsx.createCellStyle();
+                dateStyle.setDataFormat(dataFormat.getFormat("yyyy/m/d"));
+                date.setCellStyle(dateStyle);
+                date.setCellValue(bean.date);
+            }
+            blackhole.consume(ExcelUtils.getBytes(xlsx));
+        }
+    }
+
+    @Benchmark
+    public void writeBeans(final Blackhole blackhole) throws Exception {
+        try (Workbook xlsx = new XSSFWorkbook()) {
+            final Sheet sheet = xlsx.createSheet("Sheet1");
+            ExcelBeanUtils.writeBeans(sheet, 0, WriteBean.class, writeBeanList);
+            blackhole.consume(ExcelUtils.getBytes(xlsx));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExcelCalculationEngineベンチマーククラス<br>
+ * 毎回ワークブックを開いて評価する場合と、計算エンジンで入力セルのみ変更して評価する場合を比較する(1操作 = 入力1セル + 出力1セル)。
+ * ワークブックは、入力セル(A1)に依存しない数式をROWS個、依存する数式を1個持つ。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExcelCalculationEngineBenchmark {
+
+    /** 入力セルに依存しない数式の数 */
+    private static final int ROWS = 1000;
+
+    /** ワークブックのファイル */
+    private Path path;
+
+    /** 計算エンジン */
+    private ExcelCalculationEngine engine;
+
+    /** 入力値 */
+    private int input;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        path = Files.createTempFile("benchmark", ".xlsx");
+
+        try (Workbook workbook = new XSSFWorkbook()) {
+            final Sheet sheet = workbook.createSheet("calc");
+            sheet.createRow(0).createCell(0).setCellValue(1);
+            sheet.getRow(0).createCell(1).setCellFormula("A1*2+SUM(C2:C" + (ROWS + 1) + ")");
+            for (int i = 1; i <= ROWS; i++) {
+                final Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i);
+                row.createCell(2).setCellFormula("A" + (i + 1) + "*A" + (i + 1));
+            }
+            ExcelUtils.output(workbook, path);
+        }
+
+        engine = ExcelCalculationEngine.create(path, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        engine.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void reopen(final Blackhole blackhole) throws Exception {
+        try (Workbook workbook = ExcelUtils.getWorkbook(path)) {
+            final Sheet sheet = workbook.getSheet("calc");
+            sheet.getRow(0).getCell(0).setCellValue(++input);
+            blackhole.consume(workbook.getCreationHelper().createFormulaEvaluator().evaluate(sheet.getRow(0).getCell(1)).getNumberValue());
+        }
+    }
+
+    @Benchmark
+    public void engine(final Blackhole blackhole) {
+        blackhole.consume(engine.calculate(Collections.singletonMap("calc!A1", ++input), "calc!B1"));
+    }
+}
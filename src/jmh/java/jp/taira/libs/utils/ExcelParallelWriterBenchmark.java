@@ -0,0 +1,70 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExcelParallelWriterベンチマーククラス<br>
+ * シートごとのデータ行の書き込みを、並列数を変えて比較する(1操作 = SHEETS * ROWS行 + 出力)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelParallelWriterBenchmark {
+
+    /** 並列数 */
+    @Param({"1", "4", "8"})
+    public int parallelism;
+
+    /** シート数 */
+    private static final int SHEETS = 8;
+
+    /** 1シートあたりの行数 */
+    private static final int ROWS = 50000;
+
+    /** 列数 */
+    private static final int COLS = 10;
+
+    /** シート名 */
+    private final String[] sheetNames = new String[SHEETS];
+
+    /** 出力ファイル */
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        for (int i = 0; i < SHEETS; i++) {
+            sheetNames[i] = "Sheet" + (i + 1);
+        }
+        path = Files.createTempFile("benchmark", ".xlsx");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void write() {
+        final Workbook template = new XSSFWorkbook();
+        template.createSheet("template").createRow(0).createCell(0).setCellValue("header");
+
+        try (ExcelParallelWriter writer = ExcelParallelWriter.create(template, "template", 1, sheetNames)) {
+            writer.write((sheetName, rows) -> {
+                final Object[] values = new Object[COLS];
+                for (int i = 0; i < ROWS; i++) {
+                    for (int j = 0; j < COLS; j++) {
+                        values[j] = (j % 2 == 0) ? sheetName + i : (Object) (i * 1.5 + j);
+                    }
+                    rows.writeRow(values);
+                }
+            }, parallelism);
+            writer.output(path);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * ExcelStreamReaderベンチマーククラス<br>
+ * DOM読み込み(ExcelUtils.getWorkbook + getCellValue)とストリーミング読み込みのスループットを比較する。<br>
+ * ヒープ割り当て量はgcプロファイラ(gc.alloc.rate.norm)で確認する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelStreamReaderBenchmark {
+
+    /** 行数 */
+    @Param({"10000", "100000"})
+    public int rows;
+
+    /** 列数 */
+    private static final int COLS = 10;
+
+    /** 入力ファイル */
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        path = Files.createTempFile("benchmark", ".xlsx");
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            final Sheet sheet = workbook.createSheet("Sheet1");
+            final CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy/m/d"));
+            final Date date = new Date();
+
+            for (int i = 0; i < rows; i++) {
+                final Row row = sheet.createRow(i);
+                for (int j = 0; j < COLS; j++) {
+                    final Cell cell = row.createCell(j);
+                    switch (j % 3) {
+                        case 0:
+                            cell.setCellValue("value" + (i % 1000));
+                            break;
+                        case 1:
+                            cell.setCellValue(i * 1.5);
+                            break;
+                        default:
+                            cell.setCellValue(date);
+                            cell.setCellStyle(dateStyle);
+                            break;
+                    }
+                }
+            }
+
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                workbook.write(outputStream);
+            }
+            workbook.dispose();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void dom(final Blackhole blackhole) throws Exception {
+        try (Workbook workbook = ExcelUtils.getWorkbook(path)) {
+            for (final Row row : ExcelUtils.getSheet(workbook)) {
+                for (final Cell cell : row) {
+                    blackhole.consume(ExcelUtils.getCellValue(workbook, cell));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void stream(final Blackhole blackhole) {
+        try (ExcelStreamReader reader = ExcelStreamReader.open(path);
+             Stream<ExcelRow> rowStream = reader.rows()) {
+            rowStream.forEach(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExcelTemplateCacheベンチマーククラス<br>
+ * テンプレートを毎回読み込む場合と、キャッシュから作業用のワークブックを払い出す場合を比較する(1操作 = 1ワークブック + createSheets)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelTemplateCacheBenchmark {
+
+    /** テンプレートシートの行数 */
+    private static final int ROWS = 500;
+
+    /** 列数 */
+    private static final int COLS = 10;
+
+    /** テンプレートファイル */
+    private Path path;
+
+    /** キャッシュ(予備なし) */
+    private ExcelTemplateCache cache;
+
+    /** キャッシュ(予備あり) */
+    private ExcelTemplateCache spareCache;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        path = Files.createTempFile("benchmark", ".xlsx");
+
+        try (Workbook workbook = new XSSFWorkbook()) {
+            final Sheet sheet = workbook.createSheet("template");
+            for (int i = 0; i < ROWS; i++) {
+                final Row row = sheet.createRow(i);
+                for (int j = 0; j < COLS; j++) {
+                    row.createCell(j).setCellValue("label" + j);
+                }
+            }
+
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                workbook.write(outputStream);
+            }
+        }
+
+        cache = new ExcelTemplateCache(ExcelTemplateCache.DEFAULT_MAX_ENTRIES, Duration.ofHours(1), 0);
+        spareCache = new ExcelTemplateCache(ExcelTemplateCache.DEFAULT_MAX_ENTRIES, Duration.ofHours(1), ExcelTemplateCache.DEFAULT_SPARES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        cache.close();
+        spareCache.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void getWorkbook(final Blackhole blackhole) throws Exception {
+        try (Workbook workbook = ExcelUtils.getWorkbook(path)) {
+            blackhole.consume(ExcelUtils.createSheets(workbook, "template", "report"));
+        }
+    }
+
+    @Benchmark
+    public void checkout(final Blackhole blackhole) throws Exception {
+        try (Workbook workbook = cache.checkout(path)) {
+            blackhole.consume(ExcelUtils.createSheets(workbook, "template", "report"));
+        }
+    }
+
+    @Benchmark
+    public void checkoutSpare(final Blackhole blackhole) throws Exception {
+        try (Workbook workbook = spareCache.checkout(path)) {
+            blackhole.consume(ExcelUtils.createSheets(workbook, "template", "report"));
+        }
+    }
+}
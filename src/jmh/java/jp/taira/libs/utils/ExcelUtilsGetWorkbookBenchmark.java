@@ -0,0 +1,98 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExcelUtils.getWorkbookベンチマーククラス<br>
+ * 複数シートのワークブックから1シートのみ読む場合の、ストリーム読み込み・読み取り専用ファイル読み込み・遅延読み込み(ExcelLazyWorkbook)を比較する。<br>
+ * ヒープ割り当て量はgcプロファイラ(gc.alloc.rate.norm)で確認する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelUtilsGetWorkbookBenchmark {
+
+    /** シート数 */
+    @Param({"1", "10"})
+    public int sheets;
+
+    /** 1シートあたりの行数 */
+    private static final int ROWS = 20000;
+
+    /** 列数 */
+    private static final int COLS = 10;
+
+    /** 入力ファイル */
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        path = Files.createTempFile("benchmark", ".xlsx");
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            for (int s = 0; s < sheets; s++) {
+                final Sheet sheet = workbook.createSheet("Sheet" + (s + 1));
+                for (int i = 0; i < ROWS; i++) {
+                    final Row row = sheet.createRow(i);
+                    for (int j = 0; j < COLS; j++) {
+                        row.createCell(j).setCellValue(i * 1.5 + j);
+                    }
+                }
+            }
+
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                workbook.write(outputStream);
+            }
+            workbook.dispose();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void inputStream(final Blackhole blackhole) throws Exception {
+        try (Workbook workbook = ExcelUtils.getWorkbook(path)) {
+            read(workbook, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void readOnly(final Blackhole blackhole) throws Exception {
+        try (Workbook workbook = ExcelUtils.getWorkbook(path, true)) {
+            read(workbook, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void lazy(final Blackhole blackhole) {
+        try (ExcelLazyWorkbook workbook = ExcelLazyWorkbook.open(path)) {
+            for (final Row row : workbook.getSheet(0)) {
+                for (final Cell cell : row) {
+                    blackhole.consume(cell.getNumericCellValue());
+                }
+            }
+        }
+    }
+
+    private void read(final Workbook workbook, final Blackhole blackhole) {
+        for (final Row row : workbook.getSheetAt(0)) {
+            for (final Cell cell : row) {
+                blackhole.consume(cell.getNumericCellValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package jp.taira.libs.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StringUtilsベンチマーククラス<br>
+ * 全角半角変換を、変換表による1回の走査と、従来の変換対象の文字ごとのString.replaceで比較する(1操作 = 住所文字列1件)。<br>
+ * 半角カタカナ(濁点の合成あり)から全角カタカナへの変換、文字種別の判断・空白の削除も計測する。<br>
+ * 正規化は、各変換を順に呼び出す場合とTextNormalizerによる1回の走査で比較する。<br>
+ * 変換する文字がない場合・バッファを使い回す場合のヒープ割り当て量は、gcプロファイラ(gc.alloc.rate.norm)で確認する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StringUtilsBenchmark {
+
+    /** 全角を含む住所 */
+    private static final String FULL_ADDRESS = "東京都千代田区丸の内１－２－３　ＡＢＣビルディング４５Ｆ（受付）";
+
+    /** 半角に変換済みの住所 */
+    private static final String HALF_ADDRESS = "東京都千代田区丸の内1-2-3 ABCビルディング45F(受付)";
+
+    /** 半角カタカナの氏名 */
+    private static final String HALF_KATAKANA_NAME = "ﾔﾏﾀﾞ ﾀﾛｳ ｶﾞｯｺｳﾎｳｼﾞﾝ ﾊﾟｰﾄﾅｰｽﾞ";
+
+    /** 全角カタカナに変換済みの氏名 */
+    private static final String FULL_KATAKANA_NAME = "ヤマダ タロウ ガッコウホウジン パートナーズ";
+
+    /** 全角英数字・半角カタカナ・前後の空白を含む文字列 */
+    private static final String MIXED_TEXT = "　" + FULL_ADDRESS + "　" + HALF_KATAKANA_NAME + "　";
+
+    /** 従来の変換で使う全角半角の対応(変換表と同じ対応を、StringUtilsの変換結果から作る) */
+    private final Map<String, String> fullHalfMap = new LinkedHashMap<>();
+
+    /** 使い回すバッファ */
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for (char c = 1; c < Character.MAX_VALUE; c++) {
+            final String full = String.valueOf(c);
+            final String half = StringUtils.toHalfOfAscii(full);
+            if (!full.equals(half)) {
+                fullHalfMap.put(full, half);
+            }
+        }
+    }
+
+    @Benchmark
+    public String replaceLoop() {
+        String result = FULL_ADDRESS;
+        for (final Map.Entry<String, String> entry : fullHalfMap.entrySet()) {
+            result = result.replace(entry.getKey(), entry.getValue());
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public String table() {
+        return StringUtils.toHalfOfAscii(FULL_ADDRESS);
+    }
+
+    @Benchmark
+    public String tableUnchanged() {
+        return StringUtils.toHalfOfAscii(HALF_ADDRESS);
+    }
+
+    @Benchmark
+    public void tableBuffer(final Blackhole blackhole) {
+        buffer.setLength(0);
+        blackhole.consume(StringUtils.toHalfOfAscii(FULL_ADDRESS, buffer));
+    }
+
+    @Benchmark
+    public String katakana() {
+        return StringUtils.toFullOfKatakana(HALF_KATAKANA_NAME);
+    }
+
+    @Benchmark
+    public String katakanaUnchanged() {
+        return StringUtils.toFullOfKatakana(FULL_KATAKANA_NAME);
+    }
+
+    @Benchmark
+    public boolean isKatakana() {
+        return StringUtils.isKatakana(FULL_KATAKANA_NAME, true);
+    }
+
+    @Benchmark
+    public String trim() {
+        return StringUtils.trim(FULL_ADDRESS);
+    }
+
+    @Benchmark
+    public String normalizeChain() {
+        return StringUtils.trim(StringUtils.toFullOfKatakana(StringUtils.toHalfOfAscii(MIXED_TEXT)));
+    }
+
+    @Benchmark
+    public String normalize() {
+        return StringUtils.normalize(MIXED_TEXT);
+    }
+}
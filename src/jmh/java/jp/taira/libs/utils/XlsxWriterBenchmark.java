@@ -0,0 +1,108 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XlsxWriterベンチマーククラス<br>
+ * 表形式のデータ(ROWS * COLS セル)の出力を、SXSSF(POI)と直接書き込み(インライン文字列・共有文字列)で比較する。<br>
+ * セルごとのヒープ割り当て量はgcプロファイラ(gc.alloc.rate.norm)で確認する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class XlsxWriterBenchmark {
+
+    /** 行数 */
+    @Param({"100000"})
+    public int rows;
+
+    /** 列数 */
+    private static final int COLS = 10;
+
+    /** 文字列の値(事前に生成し、書き込み中に文字列を生成しない) */
+    private final String[] strings = new String[1000];
+
+    /** 出力ファイル */
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = "value" + i;
+        }
+        path = Files.createTempFile("benchmark", ".xlsx");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void sxssf() throws Exception {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            final Sheet sheet = workbook.createSheet("Sheet1");
+            for (int i = 0; i < rows; i++) {
+                final Row row = sheet.createRow(i);
+                for (int j = 0; j < COLS; j++) {
+                    switch (j % 3) {
+                        case 0:
+                            row.createCell(j).setCellValue(strings[i % strings.length]);
+                            break;
+                        case 1:
+                            row.createCell(j).setCellValue(i * 1.5);
+                            break;
+                        default:
+                            row.createCell(j).setCellValue(i);
+                            break;
+                    }
+                }
+            }
+
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                workbook.write(outputStream);
+            }
+            workbook.dispose();
+        }
+    }
+
+    @Benchmark
+    public void direct() {
+        write(false);
+    }
+
+    @Benchmark
+    public void directSharedStrings() {
+        write(true);
+    }
+
+    private void write(final boolean sharedStrings) {
+        try (XlsxWriter writer = XlsxWriter.create(path, sharedStrings)) {
+            writer.createSheet("Sheet1");
+            for (int i = 0; i < rows; i++) {
+                writer.startRow();
+                for (int j = 0; j < COLS; j++) {
+                    switch (j % 3) {
+                        case 0:
+                            writer.writeString(strings[i % strings.length]);
+                            break;
+                        case 1:
+                            writer.writeNumber(i * 1.5);
+                            break;
+                        default:
+                            writer.writeNumber(i);
+                            break;
+                    }
+                }
+            }
+        }
+    }
+}
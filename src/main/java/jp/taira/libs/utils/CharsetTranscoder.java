@@ -0,0 +1,508 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 文字コード変換クラス<br>
+ * バイト列を一定の大きさのバッファで読み込み、文字コードを変換して書き込む。メモリ使用量はデータの大きさによらない。<br>
+ * バッファはスレッドごとに使い回す。変換できない文字・不正なバイト列の扱いは{@link Policy}で指定する。<br>
+ * ファイルの変換では、大きなファイルを改行の直後で分割して並列に変換する
+ * (変換元・変換先が改行の直後で状態を持たない文字コードの場合のみ。{@link #isSplittable()})。
+ */
+@Slf4j
+public class CharsetTranscoder {
+
+    /**
+     * 変換できない文字・不正なバイト列の扱い
+     */
+    public enum Policy {
+        /** 変換を中止する */
+        REPORT(CodingErrorAction.REPORT),
+        /** 置換文字(デコード時は"�"、エンコード時は変換先の文字コードの置換文字。多くは"?")にする */
+        REPLACE(CodingErrorAction.REPLACE),
+        /** 無視する(出力しない) */
+        IGNORE(CodingErrorAction.IGNORE);
+
+        /** エラー時の動作 */
+        private final CodingErrorAction action;
+
+        /**
+         * コンストラクタ
+         *
+         * @param action エラー時の動作
+         */
+        Policy(final CodingErrorAction action) {
+            this.action = action;
+        }
+    }
+
+    /** 分割する1区間の最小バイト数(既定値) */
+    public static final long DEFAULT_MINIMUM_CHUNK_SIZE = 32L * 1024 * 1024;
+
+    /** 読み込み・書き込みバッファサイズ */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** 改行 */
+    private static final byte LF = '\n';
+
+    /** 改行の直後で分割できる変換元の文字コード(ASCIIの範囲のバイトが、常にASCIIの1文字を表す文字コード) */
+    private static final Set<Charset> SPLITTABLE_SOURCE_CHARSETS = new HashSet<>(Arrays.asList(
+            StringUtils.UTF_8, StringUtils.SHIFT_JIS, StringUtils.MS932, StringUtils.EUC_JP, StringUtils.ISO_8859_1, StandardCharsets.US_ASCII));
+
+    /** 改行の直後で分割できる変換先の文字コード(BOMを出力せず、改行の直後でエンコードの状態が初期状態に戻る文字コード) */
+    private static final Set<Charset> SPLITTABLE_TARGET_CHARSETS = new HashSet<>(Arrays.asList(
+            StringUtils.UTF_8, StringUtils.SHIFT_JIS, StringUtils.MS932, StringUtils.EUC_JP, StringUtils.ISO_8859_1, StandardCharsets.US_ASCII,
+            StringUtils.ISO_2022_JP));
+
+    /** スレッドごとのバッファ */
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    /** 変換元の文字コード */
+    private final Charset sourceCharset;
+
+    /** 変換先の文字コード */
+    private final Charset targetCharset;
+
+    /** 変換できない文字・不正なバイト列の扱い */
+    private final Policy policy;
+
+    /** 分割する1区間の最小バイト数 */
+    private final long minimumChunkSize;
+
+    /**
+     * 変換用のバッファ<br>
+     * 文字コード変換は配列を持つバッファで高速に動作するため、ヒープのバッファを使う(チャネルの入出力では、JDKがスレッドごとに保持するダイレクトバッファを経由する)。
+     */
+    private static final class Buffers {
+        /** 読み込みバッファ */
+        private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        /** 文字バッファ */
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        /** 書き込みバッファ */
+        private final ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE * 2);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param sourceCharset 変換元の文字コード
+     * @param targetCharset 変換先の文字コード
+     * @param policy 変換できない文字・不正なバイト列の扱い
+     * @param minimumChunkSize 分割する1区間の最小バイト数
+     */
+    CharsetTranscoder(final Charset sourceCharset, final Charset targetCharset, final Policy policy, final long minimumChunkSize) {
+        this.sourceCharset = sourceCharset;
+        this.targetCharset = targetCharset;
+        this.policy = policy;
+        this.minimumChunkSize = minimumChunkSize;
+    }
+
+    /**
+     * 文字コードと、変換できない文字・不正なバイト列の扱いを指定して生成する。
+     *
+     * @param sourceCharset 変換元の文字コード
+     * @param targetCharset 変換先の文字コード
+     * @param policy 変換できない文字・不正なバイト列の扱い
+     * @return CharsetTranscoderオブジェクト。引数がnullの場合はnull。
+     */
+    public static CharsetTranscoder of(final Charset sourceCharset, final Charset targetCharset, final Policy policy) {
+        if (sourceCharset == null || targetCharset == null || policy == null) {
+            log.error("sourceCharset, targetCharset or policy is null.");
+            return null;
+        }
+
+        return new CharsetTranscoder(sourceCharset, targetCharset, policy, DEFAULT_MINIMUM_CHUNK_SIZE);
+    }
+
+    /**
+     * 文字コードを指定して生成する。変換できない文字・不正なバイト列がある場合は変換を中止する。
+     *
+     * @param sourceCharset 変換元の文字コード
+     * @param targetCharset 変換先の文字コード
+     * @return CharsetTranscoderオブジェクト。引数がnullの場合はnull。
+     */
+    public static CharsetTranscoder of(final Charset sourceCharset, final Charset targetCharset) {
+        return of(sourceCharset, targetCharset, Policy.REPORT);
+    }
+
+    /**
+     * 変換元の文字コードを取得する。
+     *
+     * @return 変換元の文字コード
+     */
+    public Charset getSourceCharset() {
+        return sourceCharset;
+    }
+
+    /**
+     * 変換先の文字コードを取得する。
+     *
+     * @return 変換先の文字コード
+     */
+    public Charset getTargetCharset() {
+        return targetCharset;
+    }
+
+    /**
+     * 変換できない文字・不正なバイト列の扱いを取得する。
+     *
+     * @return 変換できない文字・不正なバイト列の扱い
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * ファイルを改行の直後で分割して並列に変換できるかを判断する。<br>
+     * ISO-2022-JPなど、エスケープシーケンスで状態が変わる文字コードから変換する場合は分割できない。
+     *
+     * @return 分割できる場合はtrue、そうでない場合はfalse
+     */
+    public boolean isSplittable() {
+        return SPLITTABLE_SOURCE_CHARSETS.contains(sourceCharset) && SPLITTABLE_TARGET_CHARSETS.contains(targetCharset);
+    }
+
+    /**
+     * チャネルから読み込み、文字コードを変換してチャネルに書き込む。チャネルは閉じない。
+     *
+     * @param input 読み込み元
+     * @param output 書き込み先
+     * @return 書き込んだバイト数。読み込み・書き込み・変換に失敗した場合は-1。
+     */
+    public long transcode(final ReadableByteChannel input, final WritableByteChannel output) {
+        if (input == null || output == null) {
+            log.error("input or output is null.");
+            return -1;
+        }
+
+        try {
+            return transcode(input, output, Long.MAX_VALUE);
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * ファイルの文字コードを変換する。利用可能なプロセッサ数で並列に変換する。
+     *
+     * @param source 変換元のファイルのパス
+     * @param target 変換先のファイルのパス
+     * @return 書き込んだバイト数。読み込み・書き込み・変換に失敗した場合は-1。
+     */
+    public long transcode(final Path source, final Path target) {
+        return transcode(source, target, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * ファイルの文字コードを変換する。<br>
+     * 分割できる文字コード({@link #isSplittable()})で、ファイルが大きい場合は、ファイルを改行の直後で分割し、
+     * 区間ごとに一時ファイルへ並列に変換してから連結する。変換結果は分割しない場合と同じ。
+     *
+     * @param source 変換元のファイルのパス
+     * @param target 変換先のファイルのパス
+     * @param parallelism 並列数
+     * @return 書き込んだバイト数。読み込み・書き込み・変換に失敗した場合は-1。
+     */
+    public long transcode(final Path source, final Path target, final int parallelism) {
+        if (source == null || target == null) {
+            log.error("source or target is null.");
+            return -1;
+        }
+        if (parallelism < 1) {
+            log.error("Parallelism must be positive: {}", parallelism);
+            return -1;
+        }
+
+        try {
+            final List<Long> boundaries = (parallelism > 1 && isSplittable()) ? split(source, parallelism) : null;
+            if (boundaries == null || boundaries.size() <= 2) {
+                try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+                     FileChannel output = openOutput(target)) {
+                    return transcode(input, output, Long.MAX_VALUE);
+                }
+            }
+
+            return transcodeParallel(source, target, boundaries);
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * ファイルを区間ごとに一時ファイルへ並列に変換し、変換先のファイルに連結する。
+     *
+     * @param source 変換元のファイルのパス
+     * @param target 変換先のファイルのパス
+     * @param boundaries 区間の境界(先頭は0、末尾はファイルサイズ)
+     * @return 書き込んだバイト数。変換に失敗した場合は-1。
+     * @throws IOException 入出力エラー
+     */
+    private long transcodeParallel(final Path source, final Path target, final List<Long> boundaries) throws IOException {
+        final Path directory = target.toAbsolutePath().getParent();
+        final int numberOfChunks = boundaries.size() - 1;
+        final List<Path> tempFiles = new ArrayList<>(numberOfChunks);
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfChunks);
+        try {
+            final List<Future<Long>> futures = new ArrayList<>(numberOfChunks);
+            for (int i = 0; i < numberOfChunks; i++) {
+                final long start = boundaries.get(i);
+                final long length = boundaries.get(i + 1) - start;
+                final Path tempFile = Files.createTempFile(directory, "transcode", ".tmp");
+                tempFiles.add(tempFile);
+                futures.add(executor.submit(() -> {
+                    try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+                         FileChannel output = openOutput(tempFile)) {
+                        input.position(start);
+                        return transcode(input, output, length);
+                    }
+                }));
+            }
+
+            long count = 0;
+            for (final Future<Long> future : futures) {
+                count += future.get();
+            }
+
+            try (FileChannel output = openOutput(target)) {
+                for (final Path tempFile : tempFiles) {
+                    try (FileChannel input = FileChannel.open(tempFile, StandardOpenOption.READ)) {
+                        final long size = input.size();
+                        long position = 0;
+                        while (position < size) {
+                            position += input.transferTo(position, size - position, output);
+                        }
+                    }
+                }
+            }
+
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error(e.getMessage());
+            return -1;
+        } catch (ExecutionException e) {
+            log.error(e.getCause().getMessage());
+            return -1;
+        } finally {
+            executor.shutdownNow();
+            for (final Path tempFile : tempFiles) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * ファイルを分割する境界を求める。<br>
+     * ファイルサイズを並列数で等分した位置から、次の改行の直後を境界とする。1区間は{@link #minimumChunkSize}以上にする。
+     *
+     * @param source 変換元のファイルのパス
+     * @param parallelism 並列数
+     * @return 区間の境界(先頭は0、末尾はファイルサイズ)
+     * @throws IOException 入出力エラー
+     */
+    private List<Long> split(final Path source, final int parallelism) throws IOException {
+        final List<Long> boundaries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final long numberOfChunks = Math.min(parallelism, size / Math.max(minimumChunkSize, 1));
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+            boundaries.add(0L);
+            for (long i = 1; i < numberOfChunks; i++) {
+                final long boundary = nextLine(channel, Math.max(size / numberOfChunks * i, boundaries.get(boundaries.size() - 1)), size, buffer);
+                if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+                    boundaries.add(boundary);
+                }
+            }
+            boundaries.add(size);
+        }
+
+        return boundaries;
+    }
+
+    /**
+     * 指定した位置以降で、最初の改行の直後の位置を求める。
+     *
+     * @param channel ファイルのチャネル
+     * @param position 検索を開始する位置
+     * @param size ファイルサイズ
+     * @param buffer 読み込みバッファ
+     * @return 改行の直後の位置。改行がない場合はファイルサイズ。
+     * @throws IOException 入出力エラー
+     */
+    private static long nextLine(final FileChannel channel, final long position, final long size, final ByteBuffer buffer) throws IOException {
+        long current = position;
+        while (current < size) {
+            buffer.clear();
+            final int length = channel.read(buffer, current);
+            if (length <= 0) {
+                break;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == LF) {
+                    return current + i + 1;
+                }
+            }
+            current += length;
+        }
+
+        return size;
+    }
+
+    /**
+     * 書き込み先のファイルを開く(既存の内容は破棄する)。
+     *
+     * @param path ファイルのパス
+     * @return ファイルのチャネル
+     * @throws IOException 入出力エラー
+     */
+    private static FileChannel openOutput(final Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * チャネルから指定したバイト数まで読み込み、文字コードを変換してチャネルに書き込む。
+     *
+     * @param input 読み込み元
+     * @param output 書き込み先
+     * @param length 読み込む最大バイト数
+     * @return 書き込んだバイト数
+     * @throws IOException 入出力エラー、変換エラー
+     */
+    private long transcode(final ReadableByteChannel input, final WritableByteChannel output, final long length) throws IOException {
+        final CharsetDecoder decoder = sourceCharset.newDecoder()
+                .onMalformedInput(policy.action)
+                .onUnmappableCharacter(policy.action);
+        final CharsetEncoder encoder = targetCharset.newEncoder()
+                .onMalformedInput(policy.action)
+                .onUnmappableCharacter(policy.action);
+
+        final Buffers buffers = BUFFERS.get();
+        final ByteBuffer in = buffers.input;
+        final CharBuffer chars = buffers.chars;
+        final ByteBuffer out = buffers.output;
+        in.clear();
+        chars.clear();
+        out.clear();
+
+        long remaining = length;
+        long count = 0;
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            if (remaining == 0) {
+                endOfInput = true;
+            } else {
+                if (remaining < in.remaining()) {
+                    in.limit(in.position() + (int) remaining);
+                }
+                final int read = input.read(in);
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    remaining -= read;
+                }
+            }
+
+            in.flip();
+            while (true) {
+                final CoderResult result = decoder.decode(in, chars, endOfInput);
+                count += encode(encoder, chars, out, output, false);
+                if (result.isUnderflow()) {
+                    break;
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+            }
+            in.compact();
+        }
+
+        while (decoder.flush(chars).isOverflow()) {
+            count += encode(encoder, chars, out, output, false);
+        }
+        count += encode(encoder, chars, out, output, true);
+        while (encoder.flush(out).isOverflow()) {
+            count += write(out, output);
+        }
+        count += write(out, output);
+
+        return count;
+    }
+
+    /**
+     * 文字バッファの内容をエンコードし、書き込みバッファがいっぱいになったら書き込む。
+     *
+     * @param encoder エンコーダ
+     * @param chars 文字バッファ(書き込み可能な状態)
+     * @param out 書き込みバッファ
+     * @param output 書き込み先
+     * @param endOfInput 入力の終わりの場合はtrue
+     * @return 書き込んだバイト数
+     * @throws IOException 入出力エラー、変換エラー
+     */
+    private static long encode(final CharsetEncoder encoder, final CharBuffer chars, final ByteBuffer out, final WritableByteChannel output,
+                               final boolean endOfInput) throws IOException {
+        long count = 0;
+        chars.flip();
+        while (true) {
+            final CoderResult result = encoder.encode(chars, out, endOfInput);
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (result.isOverflow()) {
+                count += write(out, output);
+            } else {
+                result.throwException();
+            }
+        }
+        chars.compact();
+
+        return count;
+    }
+
+    /**
+     * 書き込みバッファの内容を書き込み、書き込みバッファを空にする。
+     *
+     * @param out 書き込みバッファ
+     * @param output 書き込み先
+     * @return 書き込んだバイト数
+     * @throws IOException 入出力エラー
+     */
+    private static long write(final ByteBuffer out, final WritableByteChannel output) throws IOException {
+        long count = 0;
+        out.flip();
+        while (out.hasRemaining()) {
+            count += output.write(out);
+        }
+        out.clear();
+
+        return count;
+    }
+}
@@ -0,0 +1,378 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.util.CellReference;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Excel列バインディングクラス<br>
+ * {@link ExcelColumn}を付与したフィールドの設定・取得処理と型変換処理を、クラスごとに1回だけ生成して保持する。
+ * セルごとのリフレクションは行わない。
+ *
+ * @param <T> Beanの型
+ */
+@Slf4j
+final class ExcelBeanBinding<T> {
+
+    /** クラスごとのバインディング */
+    private static final ClassValue<ExcelBeanBinding<?>> BINDINGS = new ClassValue<ExcelBeanBinding<?>>() {
+        @Override
+        protected ExcelBeanBinding<?> computeValue(final Class<?> type) {
+            return new ExcelBeanBinding<>(type);
+        }
+    };
+
+    /** 生成処理(()Object) */
+    private final MethodHandle constructor;
+
+    /** 列 */
+    private final Column[] columns;
+
+    /**
+     * コンストラクタ
+     *
+     * @param type Beanのクラス
+     */
+    private ExcelBeanBinding(final Class<T> type) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            final Constructor<T> declaredConstructor = type.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            constructor = lookup.unreflectConstructor(declaredConstructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + " has no accessible no-arg constructor.", e);
+        }
+
+        final List<Column> columnList = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                final ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+                if (annotation == null || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                columnList.add(new Column(lookup, field, annotation));
+            }
+        }
+        if (columnList.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " has no @ExcelColumn field.");
+        }
+
+        columns = columnList.toArray(new Column[0]);
+    }
+
+    /**
+     * バインディングを取得する。クラスごとに1回だけ生成する。
+     *
+     * @param type Beanのクラス
+     * @param <T> Beanの型
+     * @return ExcelBeanBindingオブジェクト
+     * @throws IllegalArgumentException 引数なしのコンストラクタ、または{@link ExcelColumn}を付与したフィールドが存在しない場合
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ExcelBeanBinding<T> of(final Class<T> type) {
+        return (ExcelBeanBinding<T>) BINDINGS.get(type);
+    }
+
+    /**
+     * 列を取得する。
+     *
+     * @return 列
+     */
+    Column[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * ヘッダー名を持つ列が存在するか判定する。
+     *
+     * @return ヘッダー名を持つ列が存在する場合はtrue、そうでない場合はfalse。
+     */
+    boolean hasHeader() {
+        for (final Column column : columns) {
+            if (column.header != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * 列インデックスを解決する。<br>
+     * ヘッダー名で指定した列は、ヘッダー行の値(前後の空白を除く)と一致する列とする。一致しない場合は-1。
+     *
+     * @param headerValues ヘッダー行の値(列インデックス順)。ヘッダー行が存在しない場合はnull。
+     * @return 列インデックス(列の順)
+     */
+    int[] resolveColumnIndexes(final Object[] headerValues) {
+        final int[] colIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            colIndexes[i] = columns[i].colIndex;
+            if (columns[i].header == null) {
+                continue;
+            }
+
+            colIndexes[i] = -1;
+            if (headerValues == null) {
+                log.warn("Header \"{}\" is not found.", columns[i].header);
+                continue;
+            }
+            for (int j = 0; j < headerValues.length; j++) {
+                if (headerValues[j] != null && columns[i].header.equals(toStringValue(headerValues[j]).trim())) {
+                    colIndexes[i] = j;
+                    break;
+                }
+            }
+            if (colIndexes[i] < 0) {
+                log.warn("Header \"{}\" is not found.", columns[i].header);
+            }
+        }
+
+        return colIndexes;
+    }
+
+    /**
+     * 行の値からBeanを生成する。
+     *
+     * @param colIndexes 列インデックス(列の順)
+     * @param values 列インデックスからセルの値を取得する関数
+     * @param rowIndex 行インデックス(ログ出力用)
+     * @return Beanオブジェクト。対象の列の値が全てnullの場合はnull。
+     */
+    @SuppressWarnings("unchecked")
+    T toBean(final int[] colIndexes, final IntFunction<Object> values, final int rowIndex) {
+        Object bean = null;
+        for (int i = 0; i < columns.length; i++) {
+            if (colIndexes[i] < 0) {
+                continue;
+            }
+
+            final Object value = values.apply(colIndexes[i]);
+            if (value == null) {
+                continue;
+            }
+
+            final Column column = columns[i];
+            final Object converted;
+            try {
+                converted = column.converter.apply(value);
+            } catch (RuntimeException e) {
+                log.warn("Failed to convert cell({},{}) to {}: {}", rowIndex, colIndexes[i], column.fieldType.getSimpleName(), e.getMessage());
+                continue;
+            }
+            if (converted == null) {
+                log.warn("Failed to convert cell({},{}) to {}: {}", rowIndex, colIndexes[i], column.fieldType.getSimpleName(), value);
+                continue;
+            }
+
+            try {
+                if (bean == null) {
+                    bean = (Object) constructor.invokeExact();
+                }
+                column.setter.invokeExact(bean, converted);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return (T) bean;
+    }
+
+    /**
+     * セルの値を文字列に変換する。整数の数値は小数点以下を付けない。
+     *
+     * @param value セルの値
+     * @return 文字列
+     */
+    static String toStringValue(final Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof RichTextString) {
+            return ((RichTextString) value).getString();
+        }
+        if (value instanceof Double) {
+            final double number = (Double) value;
+            if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                return Long.toString((long) number);
+            }
+        }
+
+        return value.toString();
+    }
+
+    /**
+     * 型変換処理を取得する。
+     *
+     * @param type フィールドの型
+     * @return 型変換処理
+     */
+    private static Function<Object, Object> converterOf(final Class<?> type) {
+        if (type == String.class) {
+            return ExcelBeanBinding::toStringValue;
+        }
+        if (type == Double.class || type == double.class) {
+            return ExcelBeanBinding::toDouble;
+        }
+        if (type == Float.class || type == float.class) {
+            return value -> {
+                final Double number = toDouble(value);
+                return (number == null) ? null : number.floatValue();
+            };
+        }
+        if (type == Long.class || type == long.class) {
+            return ExcelBeanBinding::toLong;
+        }
+        if (type == Integer.class || type == int.class) {
+            return value -> {
+                final Long number = toLong(value);
+                return (number == null) ? null : Math.toIntExact(number);
+            };
+        }
+        if (type == BigDecimal.class) {
+            return value -> {
+                if (value instanceof Number) {
+                    return BigDecimal.valueOf(((Number) value).doubleValue());
+                }
+                return new BigDecimal(toStringValue(value).trim());
+            };
+        }
+        if (type == BigInteger.class) {
+            return value -> {
+                final Long number = toLong(value);
+                return (number == null) ? null : BigInteger.valueOf(number);
+            };
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return value -> {
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue() != 0;
+                }
+                return BooleanUtils.toBoolean(toStringValue(value).trim());
+            };
+        }
+        if (type == Date.class) {
+            return value -> {
+                final LocalDateTime localDateTime = toLocalDateTime(value);
+                return (localDateTime == null) ? null : Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+            };
+        }
+        if (type == LocalDateTime.class) {
+            return ExcelBeanBinding::toLocalDateTime;
+        }
+        if (type == LocalDate.class) {
+            return value -> {
+                final LocalDateTime localDateTime = toLocalDateTime(value);
+                return (localDateTime == null) ? null : localDateTime.toLocalDate();
+            };
+        }
+        if (type == Object.class) {
+            return value -> (value instanceof RichTextString) ? ((RichTextString) value).getString() : value;
+        }
+
+        throw new IllegalArgumentException("Unsupported field type: " + type.getName());
+    }
+
+    private static Double toDouble(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        return NumberUtils.parseDouble(toStringValue(value).trim(), null);
+    }
+
+    private static Long toLong(final Object value) {
+        if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            // 小数部分を持つ数値は切り捨てずに変換失敗とする。
+            return (number == Math.rint(number)) ? (long) number : null;
+        }
+
+        return NumberUtils.parseLong(toStringValue(value).trim(), null);
+    }
+
+    private static LocalDateTime toLocalDateTime(final Object value) {
+        if (value instanceof Date) {
+            // POIは既定のタイムゾーンで日付を生成する。
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof Double) {
+            return DateUtil.getLocalDateTime((Double) value);
+        }
+
+        final String text = toStringValue(value).trim();
+        final LocalDate localDate = DateTimeUtils.parseToLocalDate(text);
+        if (localDate != null) {
+            return localDate.atStartOfDay();
+        }
+
+        return DateTimeUtils.parseToLocalDateTime(text);
+    }
+
+    /**
+     * 列クラス
+     */
+    static final class Column {
+
+        /** フィールド名 */
+        final String name;
+        /** フィールドの型 */
+        final Class<?> fieldType;
+        /** 列インデックス(ヘッダー名で指定した場合は-1) */
+        final int colIndex;
+        /** ヘッダー名(列名で指定した場合はnull) */
+        final String header;
+        /** 書式(指定しない場合はnull) */
+        final String format;
+        /** 設定処理((Object,Object)void) */
+        final MethodHandle setter;
+        /** 取得処理((Object)Object) */
+        final MethodHandle getter;
+        /** 型変換処理 */
+        final Function<Object, Object> converter;
+
+        private Column(final MethodHandles.Lookup lookup, final Field field, final ExcelColumn annotation) {
+            final boolean hasColumn = !annotation.value().isEmpty();
+            final boolean hasHeader = !annotation.header().isEmpty();
+            if (hasColumn == hasHeader) {
+                throw new IllegalArgumentException("@ExcelColumn of " + field.getName() + " must have either value or header.");
+            }
+
+            name = field.getName();
+            fieldType = field.getType();
+            colIndex = hasColumn ? CellReference.convertColStringToIndex(annotation.value()) : -1;
+            header = hasHeader ? annotation.header() : null;
+            format = annotation.format().isEmpty() ? null : annotation.format();
+            converter = converterOf(fieldType);
+
+            try {
+                field.setAccessible(true);
+                setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+                getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(field.getName() + " is not accessible.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.lang.reflect.Array;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Excel Beanユーティリティクラス<br>
+ * {@link ExcelColumn}を付与したクラスと、Excelの行を相互に変換する。
+ */
+@Slf4j
+public class ExcelBeanUtils {
+
+    /** 日付列の既定の書式 */
+    private static final String DATE_FORMAT = "yyyy/m/d";
+
+    /** 日時列の既定の書式 */
+    private static final String DATETIME_FORMAT = "yyyy/m/d h:mm";
+
+    private ExcelBeanUtils() {
+        throw new IllegalAccessError("Constants class.");
+    }
+
+    /**
+     * シートの行をBeanのリストに変換する。<br>
+     * ヘッダー行は無いものとして、0行目から変換する。
+     *
+     * @param sheet シート
+     * @param type Beanのクラス
+     * @param <T> Beanの型
+     * @return Beanのリスト
+     */
+    public static <T> List<T> toBeans(final Sheet sheet, final Class<T> type) {
+        return toBeans(sheet, type, -1);
+    }
+
+    /**
+     * シートの行をBeanのリストに変換する。<br>
+     * ヘッダー行の次の行から変換する。対象の列の値が全て空の行は変換しない。
+     *
+     * @param sheet シート
+     * @param type Beanのクラス
+     * @param headerRowIndex ヘッダー行のインデックス(ヘッダー行が無い場合は-1)
+     * @param <T> Beanの型
+     * @return Beanのリスト
+     */
+    public static <T> List<T> toBeans(final Sheet sheet, final Class<T> type, final int headerRowIndex) {
+        if (sheet == null || type == null) {
+            return null;
+        }
+
+        final ExcelBeanBinding<T> binding = getBinding(type);
+        if (binding == null) {
+            return null;
+        }
+
+        final Workbook workbook = sheet.getWorkbook();
+        // 計算結果を保持していない数式の評価結果のキャッシュを、シート内で共有する
+        final FormulaEvaluator evaluator = ExcelUtils.createFormulaEvaluator(workbook);
+        final Object[] headerValues = (headerRowIndex < 0) ? null : getRowValues(evaluator, workbook, sheet.getRow(headerRowIndex));
+        final int[] colIndexes = binding.resolveColumnIndexes(headerValues);
+
+        final List<T> beans = new ArrayList<>();
+        for (int rowIndex = Math.max(headerRowIndex + 1, sheet.getFirstRowNum()); rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+            final Row row = sheet.getRow(rowIndex);
+            if (row == null) {
+                continue;
+            }
+
+            final T bean = binding.toBean(colIndexes, colIndex -> ExcelUtils.getCellValue(evaluator, workbook, row.getCell(colIndex)), rowIndex);
+            if (bean != null) {
+                beans.add(bean);
+            }
+        }
+
+        return beans;
+    }
+
+    /**
+     * ストリーミング読み込みの行をBeanのストリームに変換する。<br>
+     * ヘッダー行の次の行から変換する。対象の列の値が全て空の行は変換しない。ストリームは使用後に閉じること。
+     *
+     * @param reader ExcelStreamReaderオブジェクト
+     * @param sheetName シート名
+     * @param type Beanのクラス
+     * @param headerRowIndex ヘッダー行のインデックス(ヘッダー行が無い場合は-1)
+     * @param <T> Beanの型
+     * @return Beanのストリーム。シートが存在しない場合はnull。
+     */
+    public static <T> Stream<T> toBeans(final ExcelStreamReader reader, final String sheetName, final Class<T> type, final int headerRowIndex) {
+        if (reader == null || type == null) {
+            return null;
+        }
+
+        final ExcelBeanBinding<T> binding = getBinding(type);
+        if (binding == null) {
+            return null;
+        }
+
+        final Stream<ExcelRow> rows = reader.rows(sheetName);
+        if (rows == null) {
+            return null;
+        }
+
+        return rows.map(new RowMapper<>(binding, headerRowIndex)).filter(Objects::nonNull);
+    }
+
+    /**
+     * Beanのリストをシートに書き込む。<br>
+     * 書き込み開始行から、1件を1行として書き込む。ヘッダー名で指定した列は、書き込み開始行の前の行(ヘッダー行)から解決する。<br>
+     * 列のセルスタイルは、書き込み開始行の既存セル(テンプレート)または列のスタイルを使用する。
+     * 書式を指定した列と日付の列は{@link ExcelStyleRegistry}で重複排除したセルスタイルを使用するため、行数によらずセルスタイル数は一定。
+     *
+     * @param sheet シート
+     * @param startRowIndex 書き込み開始行のインデックス
+     * @param type Beanのクラス
+     * @param beans Beanのリスト
+     * @param <T> Beanの型
+     * @return 書き込んだ行数
+     */
+    public static <T> int writeBeans(final Sheet sheet, final int startRowIndex, final Class<T> type, final Iterable<? extends T> beans) {
+        return writeBeans(sheet, startRowIndex, type, (beans == null) ? null : beans.iterator());
+    }
+
+    /**
+     * Beanのストリームをシートに書き込む。<br>
+     * 書き込み方法は{@link #writeBeans(Sheet, int, Class, Iterable)}と同じ。
+     *
+     * @param sheet シート
+     * @param startRowIndex 書き込み開始行のインデックス
+     * @param type Beanのクラス
+     * @param beans Beanのストリーム
+     * @param <T> Beanの型
+     * @return 書き込んだ行数
+     */
+    public static <T> int writeBeans(final Sheet sheet, final int startRowIndex, final Class<T> type, final Stream<? extends T> beans) {
+        return writeBeans(sheet, startRowIndex, type, (beans == null) ? null : beans.iterator());
+    }
+
+    /**
+     * 列ごとの配列をシートに書き込む。<br>
+     * 配列(double[], long[], int[], boolean[], Object[]など)の要素を、書き込み開始行から行方向に書き込む。
+     * nullの列は書き込まない。セルスタイルは{@link #writeBeans(Sheet, int, Class, Iterable)}と同じ。
+     *
+     * @param sheet シート
+     * @param startRowIndex 書き込み開始行のインデックス
+     * @param startColIndex 書き込み開始列のインデックス
+     * @param columns 列ごとの配列
+     * @return 書き込んだ行数
+     */
+    public static int writeColumns(final Sheet sheet, final int startRowIndex, final int startColIndex, final Object... columns) {
+        if (sheet == null || columns == null || startRowIndex < 0 || startColIndex < 0) {
+            return 0;
+        }
+
+        int rowCount = 0;
+        for (final Object column : columns) {
+            if (column == null) {
+                continue;
+            }
+            if (!column.getClass().isArray()) {
+                log.error("Column must be an array: {}", column.getClass().getName());
+                return 0;
+            }
+            rowCount = Math.max(rowCount, Array.getLength(column));
+        }
+
+        final ExcelStyleRegistry registry = new ExcelStyleRegistry(sheet.getWorkbook());
+        final int[] lengths = new int[columns.length];
+        final CellStyle[] styles = new CellStyle[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != null) {
+                lengths[i] = Array.getLength(columns[i]);
+                styles[i] = getColumnStyle(registry, sheet, startRowIndex, startColIndex + i, null, columns[i].getClass().getComponentType());
+            }
+        }
+
+        for (int r = 0; r < rowCount; r++) {
+            final Row row = getOrCreateRow(sheet, startRowIndex + r);
+            for (int i = 0; i < columns.length; i++) {
+                if (r >= lengths[i]) {
+                    continue;
+                }
+
+                final Cell cell = getOrCreateCell(row, startColIndex + i, styles[i]);
+                final Object column = columns[i];
+                if (column instanceof double[]) {
+                    cell.setCellValue(((double[]) column)[r]);
+                } else if (column instanceof long[]) {
+                    cell.setCellValue(((long[]) column)[r]);
+                } else if (column instanceof int[]) {
+                    cell.setCellValue(((int[]) column)[r]);
+                } else if (column instanceof boolean[]) {
+                    cell.setCellValue(((boolean[]) column)[r]);
+                } else if (column instanceof Object[]) {
+                    ExcelUtils.setCellValue(cell, ((Object[]) column)[r]);
+                } else {
+                    ExcelUtils.setCellValue(cell, Array.get(column, r));
+                }
+            }
+        }
+
+        return rowCount;
+    }
+
+    /**
+     * Beanをシートに書き込む。
+     *
+     * @param sheet シート
+     * @param startRowIndex 書き込み開始行のインデックス
+     * @param type Beanのクラス
+     * @param beans Beanのイテレータ
+     * @param <T> Beanの型
+     * @return 書き込んだ行数
+     */
+    private static <T> int writeBeans(final Sheet sheet, final int startRowIndex, final Class<T> type, final Iterator<? extends T> beans) {
+        if (sheet == null || type == null || beans == null || startRowIndex < 0) {
+            return 0;
+        }
+
+        final ExcelBeanBinding<T> binding = getBinding(type);
+        if (binding == null) {
+            return 0;
+        }
+
+        final Workbook workbook = sheet.getWorkbook();
+        final ExcelBeanBinding.Column[] columns = binding.getColumns();
+        final Object[] headerValues = (binding.hasHeader() && startRowIndex > 0) ? getRowValues(null, workbook, sheet.getRow(startRowIndex - 1)) : null;
+        final int[] colIndexes = binding.resolveColumnIndexes(headerValues);
+
+        final ExcelStyleRegistry registry = new ExcelStyleRegistry(workbook);
+        final CellStyle[] styles = new CellStyle[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            if (colIndexes[i] >= 0) {
+                styles[i] = getColumnStyle(registry, sheet, startRowIndex, colIndexes[i], columns[i].format, columns[i].fieldType);
+            }
+        }
+
+        int rowIndex = startRowIndex;
+        while (beans.hasNext()) {
+            final T bean = beans.next();
+            if (bean == null) {
+                continue;
+            }
+
+            final Row row = getOrCreateRow(sheet, rowIndex++);
+            for (int i = 0; i < columns.length; i++) {
+                if (colIndexes[i] < 0) {
+                    continue;
+                }
+
+                final Object value;
+                try {
+                    value = (Object) columns[i].getter.invokeExact((Object) bean);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+                ExcelUtils.setCellValue(getOrCreateCell(row, colIndexes[i], styles[i]), value);
+            }
+        }
+
+        return rowIndex - startRowIndex;
+    }
+
+    /**
+     * 列のセルスタイルを取得する。<br>
+     * 書き込み開始行の既存セル、列のスタイルの順に元のセルスタイルとする。
+     * 書式を指定しない日付の列で、元のセルスタイルが日付の書式でない場合は日付の書式を付与する。
+     *
+     * @param registry スタイル登録オブジェクト
+     * @param sheet シート
+     * @param rowIndex 書き込み開始行のインデックス
+     * @param colIndex 列インデックス
+     * @param format 書式(指定しない場合はnull)
+     * @param valueType 値の型
+     * @return セルスタイル。元のセルスタイルが無く、書式も付与しない場合はnull。
+     */
+    private static CellStyle getColumnStyle(final ExcelStyleRegistry registry, final Sheet sheet, final int rowIndex, final int colIndex, final String format, final Class<?> valueType) {
+        CellStyle base = null;
+        final Row row = sheet.getRow(rowIndex);
+        if (row != null && row.getCell(colIndex) != null) {
+            base = row.getCell(colIndex).getCellStyle();
+        }
+        if (base == null) {
+            base = sheet.getColumnStyle(colIndex);
+        }
+
+        String dataFormat = format;
+        final boolean dateType = Date.class.isAssignableFrom(valueType) || Calendar.class.isAssignableFrom(valueType)
+                || valueType == LocalDate.class || valueType == LocalDateTime.class;
+        if (dataFormat == null && dateType && (base == null || !DateUtil.isADateFormat(base.getDataFormat(), base.getDataFormatString()))) {
+            dataFormat = (valueType == LocalDate.class) ? DATE_FORMAT : DATETIME_FORMAT;
+        }
+
+        return (dataFormat == null) ? base : registry.getStyle(base, dataFormat);
+    }
+
+    private static Row getOrCreateRow(final Sheet sheet, final int rowIndex) {
+        final Row row = sheet.getRow(rowIndex);
+        return (row != null) ? row : sheet.createRow(rowIndex);
+    }
+
+    private static Cell getOrCreateCell(final Row row, final int colIndex, final CellStyle style) {
+        Cell cell = row.getCell(colIndex);
+        if (cell == null) {
+            cell = row.createCell(colIndex);
+        }
+        if (style != null) {
+            cell.setCellStyle(style);
+        }
+
+        return cell;
+    }
+
+    /**
+     * バインディングを取得する。
+     *
+     * @param type Beanのクラス
+     * @param <T> Beanの型
+     * @return ExcelBeanBindingオブジェクト。アノテーションが不正な場合はnull。
+     */
+    static <T> ExcelBeanBinding<T> getBinding(final Class<T> type) {
+        try {
+            return ExcelBeanBinding.of(type);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 行の値を取得する。
+     *
+     * @param evaluator 数式評価オブジェクト
+     * @param workbook ワークブック
+     * @param row 行
+     * @return 行の値(列インデックス順)。行が存在しない場合はnull。
+     */
+    private static Object[] getRowValues(final FormulaEvaluator evaluator, final Workbook workbook, final Row row) {
+        if (row == null || row.getLastCellNum() < 0) {
+            return null;
+        }
+
+        final Object[] values = new Object[row.getLastCellNum()];
+        for (int colIndex = 0; colIndex < values.length; colIndex++) {
+            values[colIndex] = ExcelUtils.getCellValue(evaluator, workbook, row.getCell(colIndex));
+        }
+
+        return values;
+    }
+
+    /**
+     * 行変換クラス<br>
+     * ヘッダー行を読み込んだ時点で列インデックスを解決する。
+     *
+     * @param <T> Beanの型
+     */
+    private static class RowMapper<T> implements Function<ExcelRow, T> {
+
+        /** バインディング */
+        private final ExcelBeanBinding<T> binding;
+        /** ヘッダー行のインデックス */
+        private final int headerRowIndex;
+        /** 列インデックス(列の順) */
+        private int[] colIndexes;
+
+        private RowMapper(final ExcelBeanBinding<T> binding, final int headerRowIndex) {
+            this.binding = binding;
+            this.headerRowIndex = headerRowIndex;
+        }
+
+        @Override
+        public T apply(final ExcelRow row) {
+            if (row.getRowIndex() <= headerRowIndex) {
+                if (row.getRowIndex() == headerRowIndex) {
+                    colIndexes = binding.resolveColumnIndexes(row.getValues());
+                }
+                return null;
+            }
+
+            if (colIndexes == null) {
+                colIndexes = binding.resolveColumnIndexes(null);
+            }
+
+            return binding.toBean(colIndexes, row::getValue, row.getRowIndex());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package jp.taira.libs.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * キャッシュファイルの共通処理クラス<br>
+ * {@link ExcelRowIndex}・{@link ExcelColumnarCache}のキャッシュファイルの作成・置き換え・メモリマップを行う。<br>
+ * メモリマップは閉じる手段がなく、ガベージコレクションまで解放されない。
+ * Windowsでは、メモリマップしているファイルを置き換えられないため、開いているキャッシュのファイルは作成し直せない。
+ */
+final class ExcelCacheFiles {
+
+    /** ハッシュアルゴリズム */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /** ハッシュ値のバイト数 */
+    static final int HASH_BYTES = 32;
+
+    /** キャッシュのファイル名に使うハッシュ値のバイト数 */
+    private static final int KEY_BYTES = 16;
+
+    /** 読み込みバッファサイズ */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * コンストラクタ
+     */
+    private ExcelCacheFiles() {
+    }
+
+    /**
+     * キャッシュのファイル名(ファイルの絶対パスとシート名のハッシュ値)を取得する。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名
+     * @return ファイル名
+     */
+    static String cacheKey(final Path path, final String sheetName) {
+        final byte[] hash = newDigest().digest((path.toAbsolutePath().normalize() + "\n" + sheetName).getBytes(StandardCharsets.UTF_8));
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < KEY_BYTES; i++) {
+            sb.append(String.format("%02x", hash[i]));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * ファイルの内容のハッシュ値を計算する。
+     *
+     * @param path ファイルのパス
+     * @return ハッシュ値
+     * @throws IOException ファイルの読み込みに失敗した場合
+     */
+    static byte[] hash(final Path path) throws IOException {
+        final MessageDigest digest = newDigest();
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = inputStream.read(buffer)) > 0) {
+                digest.update(buffer, 0, length);
+            }
+        }
+
+        return digest.digest();
+    }
+
+    /**
+     * 作成した一時ファイルで、キャッシュファイルを置き換える。<br>
+     * 一時ファイルに書き出した後に置き換えるため、作成中のファイルを他から参照することはない。
+     * 一時ファイルは、置き換え先と同じディレクトリに作成し、メモリマップへの参照を破棄してから渡すこと。
+     *
+     * @param tempFile 一時ファイル
+     * @param file キャッシュファイル
+     * @throws IOException 置き換えに失敗した場合(Windowsで置き換え先をメモリマップしている場合を含む)
+     */
+    static void replace(final Path tempFile, final Path file) throws IOException {
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * キャッシュファイルを読み込み専用でメモリマップする。
+     *
+     * @param file キャッシュファイル
+     * @return MappedByteBufferオブジェクト
+     * @throws IOException ファイルの読み込みに失敗した場合
+     */
+    static MappedByteBuffer map(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * ハッシュ値の計算オブジェクトを生成する。
+     *
+     * @return MessageDigestオブジェクト
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
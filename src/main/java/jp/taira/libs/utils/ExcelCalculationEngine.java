@@ -0,0 +1,445 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel計算エンジンクラス<br>
+ * 数式を含むワークブックを計算エンジンとして使う。読み込み済みのワークブックと、ワークブックごとに保持し続ける数式評価オブジェクトをプールし、
+ * 入力セルに値を設定して出力セルの計算結果を取得する。<br>
+ * 入力セルの変更は数式評価オブジェクトに通知するため、変更したセルに依存する数式のみを再計算する。
+ * 前回の計算で設定し、今回設定しなかった入力セルは、テンプレートの値に戻す(どのワークブックで計算しても結果は同じ)。<br>
+ * 入力セルは数式でないセルとする。入力・出力のセルは、名前(名前の定義)、またはセル参照("Sheet1!B2"。シート名を省略した場合は先頭のシート)で指定する。<br>
+ * 計算はスレッドセーフ。同時に計算できる数はプールのワークブック数まで。
+ */
+@Slf4j
+public class ExcelCalculationEngine implements Closeable {
+
+    /** プール(待機中のワークブック) */
+    private final BlockingQueue<Instance> pool;
+
+    /** 全てのワークブック */
+    private final List<Instance> instances;
+
+    /** 閉じたか */
+    private volatile boolean closed;
+
+    /** プールへの返却と閉じる処理の排他用ロック */
+    private final Object lock = new Object();
+
+    /** プールの待機時間(ミリ秒)。待機中に閉じられた場合に、待機を終了するための間隔。 */
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    /**
+     * コンストラクタ
+     *
+     * @param instances ワークブック
+     */
+    private ExcelCalculationEngine(final List<Instance> instances) {
+        this.instances = instances;
+        this.pool = new ArrayBlockingQueue<>(instances.size(), false, instances);
+    }
+
+    /**
+     * 計算エンジンを生成する。<br>
+     * ファイルを1回だけ読み込み、指定した数のワークブックを生成する。
+     * 各ワークブックの全ての数式を事前に評価し、数式評価オブジェクトのキャッシュを作成しておく。
+     *
+     * @param path ファイルのパス
+     * @param poolSize プールするワークブック数
+     * @return ExcelCalculationEngineオブジェクト。ファイルの読み込みに失敗した場合はnull。
+     */
+    public static ExcelCalculationEngine create(final Path path, final int poolSize) {
+        if (path == null) {
+            log.error("path is null.");
+            return null;
+        }
+
+        if (poolSize < 1) {
+            log.error("Pool size must be positive: {}", poolSize);
+            return null;
+        }
+
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return null;
+        }
+
+        final List<Instance> instances = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            final Workbook workbook = ExcelUtils.getWorkbook(new ByteArrayInputStream(bytes));
+            if (workbook == null) {
+                instances.forEach(Instance::close);
+                return null;
+            }
+
+            final Instance instance = new Instance(workbook);
+            try {
+                instance.evaluator.evaluateAll();
+            } catch (RuntimeException e) {
+                // 評価できない数式がある場合も、計算時に出力セルごとに評価する
+                log.warn(e.getMessage());
+            }
+            instances.add(instance);
+        }
+
+        return new ExcelCalculationEngine(instances);
+    }
+
+    /**
+     * プールするワークブック数を取得する。
+     *
+     * @return ワークブック数
+     */
+    public int getPoolSize() {
+        return instances.size();
+    }
+
+    /**
+     * 入力セルに値を設定し、出力セルの計算結果を取得する。
+     *
+     * @param inputs 入力(名前またはセル参照と値)
+     * @param outputs 出力(名前またはセル参照)
+     * @return 出力ごとの計算結果(出力の順)。名前・セル参照が不正な場合、または計算に失敗した場合はnull。
+     * @see #calculate(Map, Collection)
+     */
+    public Map<String, Object> calculate(final Map<String, ?> inputs, final String... outputs) {
+        return calculate(inputs, Arrays.asList(outputs));
+    }
+
+    /**
+     * 入力セルに値を設定し、出力セルの計算結果を取得する。<br>
+     * 値は{@link ExcelUtils#setCellValue(Cell, Object)}で設定する。
+     * 計算結果は、数値はDouble、文字列はString、真偽はBoolean、エラーはエラー文字列("#DIV/0!")、空白はnullで返す。
+     * 出力セルが数式でない場合は{@link ExcelUtils#getCellValue(Workbook, Cell)}の値を返す。
+     *
+     * @param inputs 入力(名前またはセル参照と値)
+     * @param outputs 出力(名前またはセル参照)
+     * @return 出力ごとの計算結果(出力の順)。名前・セル参照が不正な場合、または計算に失敗した場合はnull。
+     */
+    public Map<String, Object> calculate(final Map<String, ?> inputs, final Collection<String> outputs) {
+        if (closed) {
+            log.error("Calculation engine is closed.");
+            return null;
+        }
+
+        Instance instance;
+        try {
+            while ((instance = pool.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                if (closed) {
+                    log.error("Calculation engine is closed.");
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error(e.getMessage());
+            return null;
+        }
+
+        try {
+            return instance.calculate(inputs != null ? inputs : new HashMap<>(), outputs);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+            // 途中まで入力を設定した状態を、テンプレートの値に戻す
+            instance.reset();
+            return null;
+        } finally {
+            release(instance);
+        }
+    }
+
+    /**
+     * ワークブックをプールに返却する。閉じた後の場合は、ワークブックを閉じる。<br>
+     * 閉じたかの確認と返却は、閉じる処理と排他する(閉じた後に返却したワークブックが閉じられずに残らないようにする)。
+     *
+     * @param instance ワークブック
+     */
+    private void release(final Instance instance) {
+        synchronized (lock) {
+            if (!closed) {
+                pool.add(instance);
+                return;
+            }
+        }
+        instance.close();
+    }
+
+    /**
+     * 全てのワークブックを閉じる。<br>
+     * 計算中のワークブックは、計算が終わった時点で閉じる。
+     */
+    @Override
+    public void close() {
+        final List<Instance> idle = new ArrayList<>();
+        synchronized (lock) {
+            closed = true;
+            pool.drainTo(idle);
+        }
+        idle.forEach(Instance::close);
+    }
+
+    /**
+     * プールするワークブック<br>
+     * 1つのスレッドからのみ使用する。
+     */
+    private static class Instance {
+
+        /** ワークブック */
+        private final Workbook workbook;
+
+        /** 数式評価オブジェクト(ワークブックを閉じるまで保持する) */
+        private final FormulaEvaluator evaluator;
+
+        /** 名前・セル参照ごとのセル */
+        private final Map<String, Cell> cells = new HashMap<>();
+
+        /** 入力セルのテンプレートの値 */
+        private final Map<String, Object> originals = new HashMap<>();
+
+        /** 直前の計算で設定した入力 */
+        private final Map<String, Object> lastInputs = new HashMap<>();
+
+        /**
+         * コンストラクタ
+         *
+         * @param workbook ワークブック
+         */
+        Instance(final Workbook workbook) {
+            this.workbook = workbook;
+            this.evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+
+        /**
+         * 入力セルに値を設定し、出力セルの計算結果を取得する。
+         *
+         * @param inputs 入力
+         * @param outputs 出力
+         * @return 出力ごとの計算結果。名前・セル参照が不正な場合はnull。
+         */
+        Map<String, Object> calculate(final Map<String, ?> inputs, final Collection<String> outputs) {
+            // 前回設定して今回設定しない入力セルは、テンプレートの値に戻す
+            for (final String name : new ArrayList<>(lastInputs.keySet())) {
+                if (!inputs.containsKey(name)) {
+                    update(cells.get(name), originals.get(name));
+                    lastInputs.remove(name);
+                }
+            }
+
+            for (final Map.Entry<String, ?> input : inputs.entrySet()) {
+                final Cell cell = getCell(input.getKey());
+                if (cell == null) {
+                    return null;
+                }
+                if (cell.getCellType() == CellType.FORMULA) {
+                    log.error("Input cell must not be a formula: {}", input.getKey());
+                    return null;
+                }
+                if (!originals.containsKey(input.getKey())) {
+                    originals.put(input.getKey(), ExcelUtils.getCellValue(workbook, cell));
+                }
+                update(cell, input.getValue());
+                lastInputs.put(input.getKey(), input.getValue());
+            }
+
+            final Map<String, Object> results = new LinkedHashMap<>();
+            for (final String output : outputs) {
+                final Cell cell = getCell(output);
+                if (cell == null) {
+                    return null;
+                }
+                results.put(output, evaluate(cell));
+            }
+
+            return results;
+        }
+
+        /**
+         * セルの値を変更し、数式評価オブジェクトに通知する。<br>
+         * 値が同じ場合は何もしない(依存する数式の再計算を避ける)。
+         *
+         * @param cell セル
+         * @param value 値
+         */
+        private void update(final Cell cell, final Object value) {
+            if (isSameValue(ExcelUtils.getCellValue(workbook, cell), value)) {
+                return;
+            }
+
+            ExcelUtils.setCellValue(cell, value);
+            evaluator.notifyUpdateCell(cell);
+        }
+
+        /**
+         * セルの計算結果を取得する。
+         *
+         * @param cell セル
+         * @return 計算結果
+         */
+        private Object evaluate(final Cell cell) {
+            if (cell.getCellType() != CellType.FORMULA) {
+                return ExcelUtils.getCellValue(workbook, cell);
+            }
+
+            final CellValue cellValue = evaluator.evaluate(cell);
+            if (cellValue == null) {
+                return null;
+            }
+
+            switch (cellValue.getCellType()) {
+                case NUMERIC:
+                    return cellValue.getNumberValue();
+                case STRING:
+                    return cellValue.getStringValue();
+                case BOOLEAN:
+                    return cellValue.getBooleanValue();
+                case ERROR:
+                    return FormulaError.forInt(cellValue.getErrorValue()).getString();
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * 名前・セル参照のセルを取得する。<br>
+         * セルが存在しない場合は生成する。
+         *
+         * @param name 名前またはセル参照
+         * @return Cellオブジェクト。名前・セル参照が不正な場合はnull。
+         */
+        private Cell getCell(final String name) {
+            Cell cell = cells.get(name);
+            if (cell != null) {
+                return cell;
+            }
+
+            final CellReference reference = resolve(name);
+            if (reference == null) {
+                log.error("Invalid name or cell reference: {}", name);
+                return null;
+            }
+
+            final Sheet sheet = reference.getSheetName() != null ? workbook.getSheet(reference.getSheetName()) : workbook.getSheetAt(0);
+            if (sheet == null) {
+                log.error("sheet({}) is not found.", reference.getSheetName());
+                return null;
+            }
+
+            Row row = sheet.getRow(reference.getRow());
+            if (row == null) {
+                row = sheet.createRow(reference.getRow());
+            }
+            cell = row.getCell(reference.getCol());
+            if (cell == null) {
+                cell = row.createCell(reference.getCol());
+            }
+
+            cells.put(name, cell);
+            return cell;
+        }
+
+        /**
+         * 名前・セル参照を解決する。<br>
+         * 名前の定義(ワークブック全体)を優先し、単一のセルを参照する名前のみを対象とする。
+         *
+         * @param name 名前またはセル参照
+         * @return CellReferenceオブジェクト。解決できない場合はnull。
+         */
+        private CellReference resolve(final String name) {
+            if (StringUtils.isEmpty(name)) {
+                return null;
+            }
+
+            try {
+                final Name definedName = workbook.getName(name);
+                if (definedName != null) {
+                    if (definedName.isFunctionName() || definedName.getRefersToFormula() == null) {
+                        return null;
+                    }
+                    final AreaReference area = new AreaReference(definedName.getRefersToFormula(), workbook.getSpreadsheetVersion());
+                    return area.isSingleCell() ? area.getFirstCell() : null;
+                }
+
+                return new CellReference(name);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 入力を初期状態に戻す。<br>
+         * 設定した入力セルをテンプレートの値に戻し、数式評価オブジェクトのキャッシュを破棄する。
+         */
+        void reset() {
+            for (final String name : lastInputs.keySet()) {
+                final Cell cell = cells.get(name);
+                if (cell != null && originals.containsKey(name)) {
+                    ExcelUtils.setCellValue(cell, originals.get(name));
+                }
+            }
+            lastInputs.clear();
+            evaluator.clearAllCachedResultValues();
+        }
+
+        /**
+         * ワークブックを閉じる。
+         */
+        void close() {
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                log.warn(e.getMessage());
+            }
+        }
+
+        /**
+         * 値が同じかを判断する。<br>
+         * 数値は型によらず値で比較する。
+         *
+         * @param current 現在の値
+         * @param value 設定する値
+         * @return 同じ場合はtrue、そうでない場合はfalse。
+         */
+        private static boolean isSameValue(final Object current, final Object value) {
+            if (current instanceof Number && value instanceof Number) {
+                return Double.compare(((Number) current).doubleValue(), ((Number) value).doubleValue()) == 0;
+            }
+            if (current instanceof RichTextString && value instanceof String) {
+                return ((RichTextString) current).getString().equals(value);
+            }
+
+            return Objects.equals(current, value);
+        }
+    }
+}
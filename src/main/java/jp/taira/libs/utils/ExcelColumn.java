@@ -0,0 +1,40 @@
+package jp.taira.libs.utils;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Excel列アノテーション<br>
+ * フィールドに対応する列を、列名(A, B, ...)またはヘッダー名で指定する。どちらか一方のみ指定すること。
+ *
+ * @see ExcelBeanUtils
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ExcelColumn {
+
+    /**
+     * 列名(A, B, ...)
+     *
+     * @return 列名
+     */
+    String value() default "";
+
+    /**
+     * ヘッダー名
+     *
+     * @return ヘッダー名
+     */
+    String header() default "";
+
+    /**
+     * 書式(書き込み時のデータ書式。例: "yyyy/m/d", "#,##0")
+     *
+     * @return 書式
+     */
+    String format() default "";
+}
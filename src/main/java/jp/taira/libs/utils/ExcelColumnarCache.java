@@ -0,0 +1,640 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Excel列指向キャッシュクラス<br>
+ * シートを1回だけ読み込み、列ごとに型付けしたバイナリのキャッシュファイルに変換する。
+ * 以降はキャッシュファイルをメモリマップ({@link FileChannel#map})して読むため、zip・XMLの解析を行わず、ヒープもほとんど使わない。<br>
+ * キャッシュファイルの形式は次のとおり。
+ * <ul>
+ *     <li>ヘッダー: 元ファイルのサイズ・更新日時・SHA-256ハッシュ値、シート名、行数、列数、列ごとの型と各領域の位置</li>
+ *     <li>列ごとのnullビットマップ(1行1ビット。値がある場合は1)</li>
+ *     <li>列ごとのデータ(数値: double、日付: エポックミリ秒のlong、真偽: byte、文字列: 辞書の番号のint)</li>
+ *     <li>文字列の列ごとの辞書(重複を除いた文字列のUTF-8)</li>
+ * </ul>
+ * 行は行インデックス0から最終行までを保持する(値を持たない行は全ての列がnull)。
+ * 列の値が全て同じ型の場合はその型とし、型が混在する列は文字列({@link ExcelExportUtils}と同じ表記)とする。<br>
+ * セルの値は{@link ExcelScanUtils}と同じ規則で解決する。キャッシュファイルは2GB未満とする。参照はスレッドセーフ。<br>
+ * 開いているキャッシュはキャッシュファイルをメモリマップし続ける(閉じた後もガベージコレクションまで解放されない)。
+ * Windowsでは、その間は同じキャッシュファイルを作成し直せない。
+ */
+@Slf4j
+public class ExcelColumnarCache implements Closeable {
+
+    /**
+     * 列の型
+     */
+    public enum ColumnType {
+        /** 値なし(全てnull) */
+        EMPTY(0),
+        /** 数値 */
+        NUMBER(Double.BYTES),
+        /** 日付 */
+        DATE(Long.BYTES),
+        /** 真偽 */
+        BOOLEAN(1),
+        /** 文字列 */
+        STRING(Integer.BYTES);
+
+        /** 1行分のバイト数 */
+        private final int width;
+
+        ColumnType(final int width) {
+            this.width = width;
+        }
+    }
+
+    /** キャッシュファイルの識別子("XCOL") */
+    private static final int MAGIC = 0x58434F4C;
+
+    /** キャッシュファイルの形式のバージョン */
+    private static final int VERSION = 1;
+
+    /** ハッシュ値のバイト数 */
+    private static final int HASH_BYTES = ExcelCacheFiles.HASH_BYTES;
+
+    /** 列の定義のバイト数(型 + nullビットマップの位置 + データの位置 + 辞書の位置 + 辞書の件数) */
+    private static final int COLUMN_BYTES = 1 + Long.BYTES * 3 + Integer.BYTES;
+
+    /** 型の判定: 数値 */
+    private static final int HAS_NUMBER = 1;
+
+    /** 型の判定: 日付 */
+    private static final int HAS_DATE = 2;
+
+    /** 型の判定: 真偽 */
+    private static final int HAS_BOOLEAN = 4;
+
+    /** 型の判定: 文字列 */
+    private static final int HAS_STRING = 8;
+
+    /** キャッシュファイル(メモリマップ) */
+    private final MappedByteBuffer buffer;
+
+    /** 行数 */
+    private final int rowCount;
+
+    /** 列ごとの型 */
+    private final ColumnType[] types;
+
+    /** 列ごとのnullビットマップの位置 */
+    private final int[] nullOffsets;
+
+    /** 列ごとのデータの位置 */
+    private final int[] dataOffsets;
+
+    /** 列ごとの辞書の位置 */
+    private final int[] dictionaryOffsets;
+
+    /** 列ごとの辞書の件数 */
+    private final int[] dictionarySizes;
+
+    /** 列ごとの復号済みの辞書(参照した文字列のみ) */
+    private final String[][] dictionaries;
+
+    /**
+     * コンストラクタ
+     *
+     * @param buffer キャッシュファイル(メモリマップ)
+     */
+    private ExcelColumnarCache(final MappedByteBuffer buffer) {
+        this.buffer = buffer;
+
+        int position = Integer.BYTES * 2 + Long.BYTES * 2 + HASH_BYTES;
+        position += Integer.BYTES + buffer.getInt(position);
+        this.rowCount = buffer.getInt(position);
+        final int colCount = buffer.getInt(position + Integer.BYTES);
+        position += Integer.BYTES * 2;
+
+        this.types = new ColumnType[colCount];
+        this.nullOffsets = new int[colCount];
+        this.dataOffsets = new int[colCount];
+        this.dictionaryOffsets = new int[colCount];
+        this.dictionarySizes = new int[colCount];
+        this.dictionaries = new String[colCount][];
+        for (int i = 0; i < colCount; i++) {
+            types[i] = ColumnType.values()[buffer.get(position)];
+            nullOffsets[i] = (int) buffer.getLong(position + 1);
+            dataOffsets[i] = (int) buffer.getLong(position + 1 + Long.BYTES);
+            dictionaryOffsets[i] = (int) buffer.getLong(position + 1 + Long.BYTES * 2);
+            dictionarySizes[i] = buffer.getInt(position + 1 + Long.BYTES * 3);
+            if (types[i] == ColumnType.STRING) {
+                dictionaries[i] = new String[dictionarySizes[i]];
+            }
+            position += COLUMN_BYTES;
+        }
+    }
+
+    /**
+     * キャッシュを開く。<br>
+     * キャッシュファイルが元ファイル(サイズ・更新日時)・シート名と一致しない場合は、作成し直してから開く。
+     *
+     * @param source 元ファイルのパス(xls/xlsx)
+     * @param sheetName シート名
+     * @param cacheFile キャッシュファイルのパス
+     * @return ExcelColumnarCacheオブジェクト。キャッシュファイルの作成・読み込みに失敗した場合はnull。
+     */
+    public static ExcelColumnarCache open(final Path source, final String sheetName, final Path cacheFile) {
+        return open(source, sheetName, cacheFile, false);
+    }
+
+    /**
+     * キャッシュを開く。<br>
+     * キャッシュファイルが元ファイル・シート名と一致しない場合は、作成し直してから開く。
+     * verifyHashがtrueの場合は、サイズ・更新日時に加えて内容のハッシュ値も比較する(元ファイルを全て読み込む)。
+     *
+     * @param source 元ファイルのパス(xls/xlsx)
+     * @param sheetName シート名
+     * @param cacheFile キャッシュファイルのパス
+     * @param verifyHash 内容のハッシュ値も比較する場合はtrue
+     * @return ExcelColumnarCacheオブジェクト。キャッシュファイルの作成・読み込みに失敗した場合はnull。
+     */
+    public static ExcelColumnarCache open(final Path source, final String sheetName, final Path cacheFile, final boolean verifyHash) {
+        if (source == null || sheetName == null || cacheFile == null) {
+            log.error("source, sheetName or cacheFile is null.");
+            return null;
+        }
+
+        try {
+            if (!isValid(source, sheetName, cacheFile, verifyHash) && !write(source, sheetName, cacheFile)) {
+                return null;
+            }
+
+            return new ExcelColumnarCache(ExcelCacheFiles.map(cacheFile));
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * キャッシュファイルが有効かを判断する。
+     *
+     * @param source 元ファイルのパス
+     * @param sheetName シート名
+     * @param cacheFile キャッシュファイルのパス
+     * @param verifyHash 内容のハッシュ値も比較する場合はtrue
+     * @return 有効な場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isValid(final Path source, final String sheetName, final Path cacheFile, final boolean verifyHash) {
+        if (source == null || sheetName == null || cacheFile == null || !Files.isRegularFile(source) || !Files.isRegularFile(cacheFile)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            final byte[] name = sheetName.getBytes(StandardCharsets.UTF_8);
+            final int headerLength = Integer.BYTES * 3 + Long.BYTES * 2 + HASH_BYTES + name.length;
+            if (channel.size() < headerLength) {
+                return false;
+            }
+
+            final ByteBuffer header = ByteBuffer.allocate(headerLength);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // ヘッダーを全て読み込む
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getLong() != Files.size(source)
+                    || header.getLong() != Files.getLastModifiedTime(source).toMillis()) {
+                return false;
+            }
+
+            final byte[] hash = new byte[HASH_BYTES];
+            header.get(hash);
+            final byte[] storedName = new byte[header.getInt()];
+            if (storedName.length != name.length) {
+                return false;
+            }
+            header.get(storedName);
+            if (!Arrays.equals(storedName, name)) {
+                return false;
+            }
+
+            return !verifyHash || Arrays.equals(hash, ExcelCacheFiles.hash(source));
+        } catch (IOException e) {
+            log.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * シートをキャッシュファイルに変換する。<br>
+     * シートを2回走査する(1回目で列の型・行数・列数を判定し、2回目で値を書き込む)。
+     * 一時ファイルに書き出した後に置き換える({@link ExcelCacheFiles#replace(Path, Path)})。
+     * 同じキャッシュファイルを開いているExcelColumnarCacheがある場合、Windowsでは置き換えに失敗する。
+     *
+     * @param source 元ファイルのパス(xls/xlsx)
+     * @param sheetName シート名
+     * @param cacheFile キャッシュファイルのパス
+     * @return 変換に成功した場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean write(final Path source, final String sheetName, final Path cacheFile) {
+        if (source == null || sheetName == null || cacheFile == null) {
+            log.error("source, sheetName or cacheFile is null.");
+            return false;
+        }
+
+        // 1回目: 列の型・行数・列数を判定する
+        final int[][] flags = { new int[16] };
+        final int[] size = { 0, 0 };
+        final long scanned = ExcelScanUtils.scan(source, sheetName, null, null, row -> {
+            size[0] = row.getRowIndex() + 1;
+            size[1] = Math.max(size[1], row.getLastCellNum());
+            if (flags[0].length < size[1]) {
+                flags[0] = Arrays.copyOf(flags[0], Math.max(size[1], flags[0].length * 2));
+            }
+            for (int i = 0; i < row.getLastCellNum(); i++) {
+                flags[0][i] |= typeFlag(row.getValue(i));
+            }
+        });
+        if (scanned < 0) {
+            return false;
+        }
+
+        final int rowCount = size[0];
+        final int colCount = size[1];
+        final ColumnType[] types = new ColumnType[colCount];
+        for (int i = 0; i < colCount; i++) {
+            types[i] = toColumnType(flags[0][i]);
+        }
+
+        Path tempFile = null;
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            tempFile = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), "columnar", ".tmp");
+            // 一時ファイルのメモリマップはwriteFile内でのみ参照し、置き換える時点では参照を残さない
+            if (!writeFile(tempFile, source, sheetName, types, rowCount)) {
+                return false;
+            }
+
+            ExcelCacheFiles.replace(tempFile, cacheFile);
+            return true;
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return false;
+        } finally {
+            ExcelUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * シートの値を一時ファイルに書き込む(2回目の走査)。
+     *
+     * @param tempFile 一時ファイルのパス
+     * @param source 元ファイルのパス(xls/xlsx)
+     * @param sheetName シート名
+     * @param types 列ごとの型
+     * @param rowCount 行数
+     * @return 書き込みに成功した場合はtrue、そうでない場合はfalse。
+     * @throws IOException ファイルの読み込み・書き込みに失敗した場合
+     */
+    private static boolean writeFile(final Path tempFile, final Path source, final String sheetName, final ColumnType[] types, final int rowCount) throws IOException {
+        final int colCount = types.length;
+        final long sourceSize = Files.size(source);
+        final long sourceModified = Files.getLastModifiedTime(source).toMillis();
+        final byte[] sourceHash = ExcelCacheFiles.hash(source);
+        final byte[] name = sheetName.getBytes(StandardCharsets.UTF_8);
+
+        // 領域の位置を決める
+        final int headerLength = Integer.BYTES * 3 + Long.BYTES * 2 + HASH_BYTES + name.length + Integer.BYTES * 2;
+        final long[] nullOffsets = new long[colCount];
+        final long[] dataOffsets = new long[colCount];
+        long position = headerLength + (long) COLUMN_BYTES * colCount;
+        for (int i = 0; i < colCount; i++) {
+            if (types[i] == ColumnType.EMPTY) {
+                continue;
+            }
+            nullOffsets[i] = position;
+            position += (rowCount + 7) / 8;
+            dataOffsets[i] = position;
+            position += (long) types[i].width * rowCount;
+        }
+        final long fixedLength = position;
+        if (fixedLength > Integer.MAX_VALUE) {
+            log.error("Cache file is too large: {}", fixedLength);
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer output = channel.map(FileChannel.MapMode.READ_WRITE, 0, fixedLength);
+            output.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified).put(sourceHash);
+            output.putInt(name.length).put(name).putInt(rowCount).putInt(colCount);
+
+            // 2回目: 値を書き込む
+            final List<Map<String, Integer>> codes = new ArrayList<>(colCount);
+            for (int i = 0; i < colCount; i++) {
+                codes.add(types[i] == ColumnType.STRING ? new HashMap<>() : null);
+            }
+            final long written = ExcelScanUtils.scan(source, sheetName, null, null, row -> {
+                final int rowIndex = row.getRowIndex();
+                for (int i = 0; i < Math.min(row.getLastCellNum(), colCount); i++) {
+                    final Object value = row.getValue(i);
+                    if (value == null || types[i] == ColumnType.EMPTY) {
+                        continue;
+                    }
+
+                    final int nullIndex = (int) nullOffsets[i] + (rowIndex >>> 3);
+                    output.put(nullIndex, (byte) (output.get(nullIndex) | (1 << (rowIndex & 7))));
+
+                    final int dataIndex = (int) dataOffsets[i] + types[i].width * rowIndex;
+                    switch (types[i]) {
+                        case NUMBER:
+                            output.putDouble(dataIndex, (Double) value);
+                            break;
+                        case DATE:
+                            output.putLong(dataIndex, ((Date) value).getTime());
+                            break;
+                        case BOOLEAN:
+                            output.put(dataIndex, (byte) ((Boolean) value ? 1 : 0));
+                            break;
+                        default:
+                            final Map<String, Integer> dictionary = codes.get(i);
+                            output.putInt(dataIndex, dictionary.computeIfAbsent(ExcelExportUtils.toText(value), key -> dictionary.size()));
+                            break;
+                    }
+                }
+            });
+            if (written < 0) {
+                return false;
+            }
+
+            // 列の定義と辞書を書き込む
+            long dictionaryOffset = fixedLength;
+            for (int i = 0; i < colCount; i++) {
+                final int column = headerLength + COLUMN_BYTES * i;
+                output.put(column, (byte) types[i].ordinal());
+                output.putLong(column + 1, nullOffsets[i]);
+                output.putLong(column + 1 + Long.BYTES, dataOffsets[i]);
+                if (types[i] != ColumnType.STRING) {
+                    continue;
+                }
+
+                final byte[] dictionary = encodeDictionary(codes.get(i));
+                channel.write(ByteBuffer.wrap(dictionary), dictionaryOffset);
+                output.putLong(column + 1 + Long.BYTES * 2, dictionaryOffset);
+                output.putInt(column + 1 + Long.BYTES * 3, codes.get(i).size());
+                dictionaryOffset += dictionary.length;
+            }
+            if (dictionaryOffset > Integer.MAX_VALUE) {
+                log.error("Cache file is too large: {}", dictionaryOffset);
+                return false;
+            }
+
+            output.force();
+            return true;
+        }
+    }
+
+    /**
+     * 行数(行インデックス0から最終行まで)を取得する。
+     *
+     * @return 行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 列数を取得する。
+     *
+     * @return 列数
+     */
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    /**
+     * 列の型を取得する。
+     *
+     * @param colIndex 列インデックス
+     * @return 列の型。列が存在しない場合はEMPTY。
+     */
+    public ColumnType getColumnType(final int colIndex) {
+        return colIndex >= 0 && colIndex < types.length ? types[colIndex] : ColumnType.EMPTY;
+    }
+
+    /**
+     * セルの値がnullかを判断する。
+     *
+     * @param rowIndex 行インデックス
+     * @param colIndex 列インデックス
+     * @return 値がない場合はtrue、そうでない場合はfalse。
+     */
+    public boolean isNull(final int rowIndex, final int colIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount || getColumnType(colIndex) == ColumnType.EMPTY) {
+            return true;
+        }
+
+        return (buffer.get(nullOffsets[colIndex] + (rowIndex >>> 3)) & (1 << (rowIndex & 7))) == 0;
+    }
+
+    /**
+     * セルの値を取得する。<br>
+     * 数値はDouble、日付はDate、真偽はBoolean、文字列はStringで返す。
+     *
+     * @param rowIndex 行インデックス
+     * @param colIndex 列インデックス
+     * @return セルの値。値がない場合はnull。
+     */
+    public Object getValue(final int rowIndex, final int colIndex) {
+        if (isNull(rowIndex, colIndex)) {
+            return null;
+        }
+
+        final int dataIndex = dataOffsets[colIndex] + types[colIndex].width * rowIndex;
+        switch (types[colIndex]) {
+            case NUMBER:
+                return buffer.getDouble(dataIndex);
+            case DATE:
+                return new Date(buffer.getLong(dataIndex));
+            case BOOLEAN:
+                return buffer.get(dataIndex) != 0;
+            default:
+                return getDictionaryValue(colIndex, buffer.getInt(dataIndex));
+        }
+    }
+
+    /**
+     * セルの値を数値で取得する。<br>
+     * 数値の列が対象。
+     *
+     * @param rowIndex 行インデックス
+     * @param colIndex 列インデックス
+     * @param defaultValue 値がない場合、または数値の列でない場合の値
+     * @return セルの値
+     */
+    public double getDouble(final int rowIndex, final int colIndex, final double defaultValue) {
+        if (getColumnType(colIndex) != ColumnType.NUMBER || isNull(rowIndex, colIndex)) {
+            return defaultValue;
+        }
+
+        return buffer.getDouble(dataOffsets[colIndex] + Double.BYTES * rowIndex);
+    }
+
+    /**
+     * セルの値を文字列で取得する。<br>
+     * 文字列以外の列は{@link ExcelExportUtils}と同じ表記に変換する。
+     *
+     * @param rowIndex 行インデックス
+     * @param colIndex 列インデックス
+     * @return セルの値。値がない場合はnull。
+     */
+    public String getString(final int rowIndex, final int colIndex) {
+        final Object value = getValue(rowIndex, colIndex);
+        return value != null ? ExcelExportUtils.toText(value) : null;
+    }
+
+    /**
+     * 行を取得する。
+     *
+     * @param rowIndex 行インデックス
+     * @return 行データ。行インデックスが範囲外の場合はnull。
+     */
+    public ExcelRow getRow(final int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            return null;
+        }
+
+        final Object[] values = new Object[types.length];
+        int lastCol = -1;
+        for (int i = 0; i < types.length; i++) {
+            values[i] = getValue(rowIndex, i);
+            if (values[i] != null) {
+                lastCol = i;
+            }
+        }
+
+        return new ExcelRow(rowIndex, Arrays.copyOf(values, lastCol + 1));
+    }
+
+    /**
+     * キャッシュを閉じる。<br>
+     * 復号済みの辞書を破棄する。メモリマップは解放されず、オブジェクトがガベージコレクションされるまでキャッシュファイルをマップしたままとなる。
+     */
+    @Override
+    public void close() {
+        Arrays.fill(dictionaries, null);
+    }
+
+    /**
+     * 辞書の文字列を取得する。<br>
+     * 復号した文字列は列ごとに保持する。
+     *
+     * @param colIndex 列インデックス
+     * @param code 辞書の番号
+     * @return 文字列
+     */
+    private String getDictionaryValue(final int colIndex, final int code) {
+        final String[] dictionary = dictionaries[colIndex];
+        String value = dictionary != null ? dictionary[code] : null;
+        if (value != null) {
+            return value;
+        }
+
+        // 辞書: 件数、文字列の開始位置(件数+1個)、UTF-8のバイト列
+        final int offsets = dictionaryOffsets[colIndex] + Integer.BYTES;
+        final int base = offsets + Integer.BYTES * (dictionarySizes[colIndex] + 1);
+        final int start = buffer.getInt(offsets + Integer.BYTES * code);
+        final int end = buffer.getInt(offsets + Integer.BYTES * (code + 1));
+        final byte[] bytes = new byte[end - start];
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(base + start);
+        duplicate.get(bytes);
+
+        value = new String(bytes, StandardCharsets.UTF_8);
+        if (dictionary != null) {
+            dictionary[code] = value;
+        }
+        return value;
+    }
+
+    /**
+     * 辞書をバイト列に変換する。
+     *
+     * @param codes 文字列ごとの番号
+     * @return バイト列
+     */
+    private static byte[] encodeDictionary(final Map<String, Integer> codes) {
+        final byte[][] values = new byte[codes.size()][];
+        int length = 0;
+        for (final Map.Entry<String, Integer> entry : codes.entrySet()) {
+            values[entry.getValue()] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            length += values[entry.getValue()].length;
+        }
+
+        final ByteBuffer dictionary = ByteBuffer.allocate(Integer.BYTES * (values.length + 2) + length);
+        dictionary.putInt(values.length);
+        int offset = 0;
+        for (final byte[] value : values) {
+            dictionary.putInt(offset);
+            offset += value.length;
+        }
+        dictionary.putInt(offset);
+        for (final byte[] value : values) {
+            dictionary.put(value);
+        }
+
+        return dictionary.array();
+    }
+
+    /**
+     * 値の型の判定を取得する。
+     *
+     * @param value セルの値
+     * @return 型の判定
+     */
+    private static int typeFlag(final Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Double) {
+            return HAS_NUMBER;
+        }
+        if (value instanceof Date) {
+            return HAS_DATE;
+        }
+        if (value instanceof Boolean) {
+            return HAS_BOOLEAN;
+        }
+        return HAS_STRING;
+    }
+
+    /**
+     * 型の判定から列の型を決める。
+     *
+     * @param flag 型の判定
+     * @return 列の型
+     */
+    private static ColumnType toColumnType(final int flag) {
+        switch (flag) {
+            case 0:
+                return ColumnType.EMPTY;
+            case HAS_NUMBER:
+                return ColumnType.NUMBER;
+            case HAS_DATE:
+                return ColumnType.DATE;
+            case HAS_BOOLEAN:
+                return ColumnType.BOOLEAN;
+            default:
+                return ColumnType.STRING;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Excel復号ファイルクラス<br>
+ * パスワードで暗号化されたxlsx(OLE2コンテナのEncryptedPackage)を、復号ストリームで一時ファイルに書き出す。
+ * 暗号化されたパッケージ・復号したパッケージのいずれもメモリに展開しないため、ヒープ使用量はファイルサイズによらない。<br>
+ * 復号したファイルは通常のxlsxとして、{@link ExcelUtils#getWorkbook(Path)}・{@link ExcelStreamReader}・{@link ExcelScanUtils}などで読み込める。
+ * 暗号化されていないファイルの場合は、元のファイルをそのまま返す。一時ファイルは{@link #close()}で削除する。
+ */
+@Slf4j
+public class ExcelDecryptedFile implements Closeable {
+
+    /** ファイルのパス(復号した場合は一時ファイル) */
+    private final Path path;
+
+    /** 復号したか */
+    private final boolean decrypted;
+
+    /**
+     * コンストラクタ
+     *
+     * @param path ファイルのパス
+     * @param decrypted 復号した場合はtrue
+     */
+    private ExcelDecryptedFile(final Path path, final boolean decrypted) {
+        this.path = path;
+        this.decrypted = decrypted;
+    }
+
+    /**
+     * ファイルを復号する。<br>
+     * 暗号化されたxlsxの場合は一時ファイルに復号する。それ以外(暗号化されていないファイル、xls)の場合は元のファイルを返す。
+     *
+     * @param path ファイルのパス
+     * @param password パスワード
+     * @return ExcelDecryptedFileオブジェクト。パスワードが一致しない場合、または復号に失敗した場合はnull。
+     */
+    public static ExcelDecryptedFile decrypt(final Path path, final String password) {
+        if (path == null) {
+            log.error("path is null.");
+            return null;
+        }
+
+        try {
+            if (FileMagic.valueOf(path.toFile()) != FileMagic.OLE2) {
+                return new ExcelDecryptedFile(path, false);
+            }
+
+            try (POIFSFileSystem fileSystem = new POIFSFileSystem(path.toFile(), true)) {
+                if (!fileSystem.getRoot().hasEntry(Decryptor.DEFAULT_POIFS_ENTRY)) {
+                    return new ExcelDecryptedFile(path, false);
+                }
+
+                final Decryptor decryptor = new EncryptionInfo(fileSystem).getDecryptor();
+                if (!decryptor.verifyPassword(password != null ? password : Decryptor.DEFAULT_PASSWORD)) {
+                    log.error("Password is incorrect: {}", path);
+                    return null;
+                }
+
+                final Path tempFile = Files.createTempFile("decrypted", ".xlsx");
+                try (InputStream inputStream = decryptor.getDataStream(fileSystem)) {
+                    Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(tempFile);
+                    throw e;
+                }
+
+                return new ExcelDecryptedFile(tempFile, true);
+            }
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * ファイルのパスを取得する。
+     *
+     * @return ファイルのパス(復号した場合は一時ファイル、そうでない場合は元のファイル)
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 復号したかを判断する。
+     *
+     * @return 復号した場合はtrue、暗号化されていなかった場合はfalse。
+     */
+    public boolean isDecrypted() {
+        return decrypted;
+    }
+
+    /**
+     * 一時ファイルを削除する。<br>
+     * 復号していない場合(元のファイル)は何もしない。
+     */
+    @Override
+    public void close() {
+        if (decrypted) {
+            ExcelUtils.deleteQuietly(path);
+        }
+    }
+}
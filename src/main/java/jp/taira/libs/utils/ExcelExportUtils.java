@@ -0,0 +1,470 @@
+package jp.taira.libs.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Excel出力ユーティリティクラス<br>
+ * シートをCSV/TSV/NDJSONに変換して出力する。行ごとに書き出すため、メモリ使用量は行数によらず一定。<br>
+ * セルの値は{@link ExcelUtils#getCellValue(Workbook, org.apache.poi.ss.usermodel.Cell)}と同じ規則で取得し、
+ * 整数は小数点以下を付けず、日付は"yyyy/MM/dd"(時刻がある場合は"yyyy/MM/dd HH:mm:ss")、真偽は"TRUE"/"FALSE"で出力する。
+ */
+@Slf4j
+public class ExcelExportUtils {
+
+    /**
+     * 出力形式
+     */
+    public enum Format {
+        /** CSV(カンマ区切り) */
+        CSV(',', ".csv"),
+        /** TSV(タブ区切り) */
+        TSV('\t', ".tsv"),
+        /** NDJSON(1行1オブジェクトのJSON。範囲の先頭行を項目名とする) */
+        NDJSON('\0', ".ndjson");
+
+        /** 区切り文字 */
+        private final char delimiter;
+        /** 拡張子 */
+        private final String extension;
+
+        Format(final char delimiter, final String extension) {
+            this.delimiter = delimiter;
+            this.extension = extension;
+        }
+
+        /**
+         * 拡張子を取得する。
+         *
+         * @return 拡張子
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** CSV/TSVの改行(Excel互換) */
+    private static final String CRLF = "\r\n";
+
+    /** 出力バッファサイズ */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** 日付の書式 */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DateTimeUtils.DATE_FORMAT_FIXED);
+
+    /** 日時の書式 */
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(DateTimeUtils.DATETIME_FORMAT_FULL_FIXED);
+
+    /** JSON生成 */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null);
+
+    private ExcelExportUtils() {
+        throw new IllegalAccessError("Constants class.");
+    }
+
+    /**
+     * シートを出力する。
+     *
+     * @param sheet シート
+     * @param format 出力形式
+     * @param writer 出力先(閉じない)
+     */
+    public static void export(final Sheet sheet, final Format format, final Writer writer) {
+        if (sheet == null) {
+            return;
+        }
+
+        export(sheet, 0, sheet.getLastRowNum(), format, writer);
+    }
+
+    /**
+     * シートの行範囲を出力する。<br>
+     * CSV/TSVは、範囲内の存在しない行を空行として出力する。
+     *
+     * @param sheet シート
+     * @param firstRowIndex 開始行インデックス
+     * @param lastRowIndex 終了行インデックス
+     * @param format 出力形式
+     * @param writer 出力先(閉じない)
+     */
+    public static void export(final Sheet sheet, final int firstRowIndex, final int lastRowIndex, final Format format, final Writer writer) {
+        if (sheet == null || format == null || writer == null) {
+            return;
+        }
+
+        final Workbook workbook = sheet.getWorkbook();
+        final FormulaEvaluator evaluator = ExcelUtils.createFormulaEvaluator(workbook);
+        try {
+            final RowWriter rowWriter = new RowWriter(format, writer, Math.max(firstRowIndex, 0));
+            for (int rowIndex = Math.max(firstRowIndex, 0); rowIndex <= Math.min(lastRowIndex, sheet.getLastRowNum()); rowIndex++) {
+                final Row row = sheet.getRow(rowIndex);
+                if (row == null || row.getLastCellNum() <= 0) {
+                    continue;
+                }
+                rowWriter.write(rowIndex, row.getLastCellNum(), colIndex -> ExcelUtils.getCellValue(evaluator, workbook, row.getCell(colIndex)));
+            }
+            rowWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * シートをファイルに出力する。
+     *
+     * @param sheet シート
+     * @param format 出力形式
+     * @param path 出力先のパス
+     * @param charset 文字コード
+     * @param bom UTF-8でBOMを付ける場合はtrue
+     */
+    public static void export(final Sheet sheet, final Format format, final Path path, final Charset charset, final boolean bom) {
+        try (Writer writer = newWriter(path, charset, bom)) {
+            export(sheet, format, writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * ワークブックの全シートを、シートごとのファイルに出力する。<br>
+     * ファイル名は「シート名 + 拡張子」。数式の評価を伴う場合があるため、シートは順に出力する。
+     *
+     * @param workbook ワークブック
+     * @param format 出力形式
+     * @param directory 出力先のディレクトリ
+     * @param charset 文字コード
+     * @param bom UTF-8でBOMを付ける場合はtrue
+     * @return 出力したファイルのパスのリスト
+     */
+    public static List<Path> exportAll(final Workbook workbook, final Format format, final Path directory, final Charset charset, final boolean bom) {
+        if (workbook == null || format == null || directory == null) {
+            return null;
+        }
+
+        final List<Path> paths = new ArrayList<>(workbook.getNumberOfSheets());
+        for (final Sheet sheet : workbook) {
+            final Path path = directory.resolve(toFileName(sheet.getSheetName()) + format.getExtension());
+            export(sheet, format, path, charset, bom);
+            paths.add(path);
+        }
+
+        return paths;
+    }
+
+    /**
+     * ストリーミング読み込みでシートを出力する。
+     *
+     * @param reader ExcelStreamReaderオブジェクト
+     * @param sheetName シート名
+     * @param format 出力形式
+     * @param writer 出力先(閉じない)
+     */
+    public static void export(final ExcelStreamReader reader, final String sheetName, final Format format, final Writer writer) {
+        export(reader, sheetName, 0, Integer.MAX_VALUE, format, writer);
+    }
+
+    /**
+     * ストリーミング読み込みでシートの行範囲を出力する。<br>
+     * CSV/TSVは、範囲内の存在しない行を空行として出力する。
+     *
+     * @param reader ExcelStreamReaderオブジェクト
+     * @param sheetName シート名
+     * @param firstRowIndex 開始行インデックス
+     * @param lastRowIndex 終了行インデックス
+     * @param format 出力形式
+     * @param writer 出力先(閉じない)
+     */
+    public static void export(final ExcelStreamReader reader, final String sheetName, final int firstRowIndex, final int lastRowIndex, final Format format, final Writer writer) {
+        if (reader == null || format == null || writer == null) {
+            return;
+        }
+
+        try (Stream<ExcelRow> rows = reader.rows(sheetName)) {
+            if (rows == null) {
+                return;
+            }
+            write(rows, firstRowIndex, lastRowIndex, format, writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * xlsxファイルの全シートを、ストリーミング読み込みでシートごとのファイルに出力する。<br>
+     * ファイル名は「シート名 + 拡張子」。シートが複数ある場合は並列で出力する。
+     *
+     * @param path xlsxファイルのパス
+     * @param format 出力形式
+     * @param directory 出力先のディレクトリ
+     * @param charset 文字コード
+     * @param bom UTF-8でBOMを付ける場合はtrue
+     * @param parallelism 並列数
+     * @return 出力したファイルのパスのリスト(シートの順)
+     */
+    public static List<Path> exportAll(final Path path, final Format format, final Path directory, final Charset charset, final boolean bom, final int parallelism) {
+        if (format == null || directory == null) {
+            return null;
+        }
+        if (parallelism < 1) {
+            log.error("Parallelism must be positive: {}", parallelism);
+            return null;
+        }
+
+        try (ExcelStreamReader reader = ExcelStreamReader.open(path)) {
+            if (reader == null) {
+                return null;
+            }
+
+            final int numberOfSheets = reader.getNumberOfSheets();
+            final ExecutorService executor = Executors.newFixedThreadPool(Math.max(Math.min(parallelism, numberOfSheets), 1));
+            try {
+                final List<Future<Path>> futures = new ArrayList<>(numberOfSheets);
+                for (int i = 0; i < numberOfSheets; i++) {
+                    final String sheetName = reader.getSheetNames().get(i);
+                    final Path output = directory.resolve(toFileName(sheetName) + format.getExtension());
+                    futures.add(executor.submit(() -> {
+                        try (Writer writer = newWriter(output, charset, bom)) {
+                            export(reader, sheetName, format, writer);
+                        }
+                        return output;
+                    }));
+                }
+
+                final List<Path> paths = new ArrayList<>(numberOfSheets);
+                for (final Future<Path> future : futures) {
+                    paths.add(future.get());
+                }
+                return paths;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error(e.getMessage());
+                return null;
+            } catch (ExecutionException e) {
+                log.error(e.getMessage());
+                return null;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * セルの値を文字列に変換する。
+     *
+     * @param value セルの値
+     * @return 文字列
+     */
+    static String toText(final Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof RichTextString) {
+            return ((RichTextString) value).getString();
+        }
+        if (value instanceof Double) {
+            final double number = (Double) value;
+            if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                return Long.toString((long) number);
+            }
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                return Double.toString(number);
+            }
+            return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? "TRUE" : "FALSE";
+        }
+        if (value instanceof Date) {
+            // POIは既定のタイムゾーンで日付を生成する。
+            final LocalDateTime localDateTime = LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+            return localDateTime.toLocalTime().equals(LocalTime.MIDNIGHT) ? DATE_FORMATTER.format(localDateTime) : DATETIME_FORMATTER.format(localDateTime);
+        }
+
+        return value.toString();
+    }
+
+    private static void write(final Stream<ExcelRow> rows, final int firstRowIndex, final int lastRowIndex, final Format format, final Writer writer) throws IOException {
+        final RowWriter rowWriter = new RowWriter(format, writer, Math.max(firstRowIndex, 0));
+        final Iterator<ExcelRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            final ExcelRow row = iterator.next();
+            if (row.getRowIndex() > lastRowIndex) {
+                break;
+            }
+            if (row.getRowIndex() < firstRowIndex) {
+                continue;
+            }
+            rowWriter.write(row.getRowIndex(), row.getLastCellNum(), row::getValue);
+        }
+        rowWriter.flush();
+    }
+
+    private static Writer newWriter(final Path path, final Charset charset, final boolean bom) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), charset), BUFFER_SIZE);
+        if (bom && StandardCharsets.UTF_8.equals(charset)) {
+            writer.write('\uFEFF');
+        }
+
+        return writer;
+    }
+
+    private static String toFileName(final String sheetName) {
+        return sheetName.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+
+    /**
+     * 行出力クラス
+     */
+    private static class RowWriter {
+
+        /** 出力形式 */
+        private final Format format;
+        /** 出力先 */
+        private final Writer writer;
+        /** JSON出力(NDJSONの場合のみ) */
+        private final JsonGenerator generator;
+        /** 次に出力する行インデックス(CSV/TSVの空行出力用) */
+        private int nextRowIndex;
+        /** 項目名(NDJSONの場合のみ) */
+        private String[] keys;
+
+        private RowWriter(final Format format, final Writer writer, final int firstRowIndex) throws IOException {
+            this.format = format;
+            this.writer = writer;
+            this.generator = (format == Format.NDJSON) ? JSON_FACTORY.createGenerator(writer) : null;
+            this.nextRowIndex = firstRowIndex;
+        }
+
+        private void write(final int rowIndex, final int cellCount, final IntFunction<Object> values) throws IOException {
+            if (format == Format.NDJSON) {
+                writeJson(cellCount, values);
+                return;
+            }
+
+            for (; nextRowIndex < rowIndex; nextRowIndex++) {
+                writer.write(CRLF);
+            }
+            for (int colIndex = 0; colIndex < cellCount; colIndex++) {
+                if (colIndex > 0) {
+                    writer.write(format.delimiter);
+                }
+                writeField(toText(values.apply(colIndex)));
+            }
+            writer.write(CRLF);
+            nextRowIndex = rowIndex + 1;
+        }
+
+        /**
+         * 項目を出力する。<br>
+         * 区切り文字・ダブルクォート・改行を含む場合はダブルクォートで囲み、ダブルクォートは2つ重ねる(Excel互換)。
+         *
+         * @param text 項目
+         * @throws IOException 出力に失敗した場合
+         */
+        private void writeField(final String text) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < text.length(); i++) {
+                final char c = text.charAt(i);
+                if (c == format.delimiter || c == '"' || c == '\r' || c == '\n') {
+                    quote = true;
+                    break;
+                }
+            }
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+
+            writer.write('"');
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    writer.write(text, start, i - start + 1);
+                    writer.write('"');
+                    start = i + 1;
+                }
+            }
+            writer.write(text, start, text.length() - start);
+            writer.write('"');
+        }
+
+        private void writeJson(final int cellCount, final IntFunction<Object> values) throws IOException {
+            if (keys == null) {
+                keys = new String[cellCount];
+                for (int colIndex = 0; colIndex < cellCount; colIndex++) {
+                    final String key = toText(values.apply(colIndex)).trim();
+                    keys[colIndex] = key.isEmpty() ? CellReference.convertNumToColString(colIndex) : key;
+                }
+                return;
+            }
+
+            generator.writeStartObject();
+            for (int colIndex = 0; colIndex < cellCount; colIndex++) {
+                final Object value = values.apply(colIndex);
+                if (value == null) {
+                    continue;
+                }
+
+                generator.writeFieldName((colIndex < keys.length) ? keys[colIndex] : CellReference.convertNumToColString(colIndex));
+                if (value instanceof Double) {
+                    final double number = (Double) value;
+                    if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                        generator.writeNumber((long) number);
+                    } else {
+                        generator.writeNumber(number);
+                    }
+                } else if (value instanceof Boolean) {
+                    generator.writeBoolean((Boolean) value);
+                } else {
+                    generator.writeString(toText(value));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        private void flush() throws IOException {
+            if (generator != null) {
+                generator.flush();
+            }
+            writer.flush();
+        }
+    }
+}
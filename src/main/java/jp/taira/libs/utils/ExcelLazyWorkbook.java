@@ -0,0 +1,652 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetVisibility;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Excel(xlsx)遅延読み込みワークブッククラス<br>
+ * 開く際はワークブックXML(シート名・順序・表示状態)のみを解析し、シートXMLは{@link #getSheet(String)}で初めて取得する際に解析する。<br>
+ * シートは、そのシート以外のシートパートを除いたパッケージを一時ファイルに出力し、一時ファイルから読み込むため、
+ * 1シート分の時間・ヒープで取得できる。(共有文字列テーブル・スタイルテーブルはシートごとに解析する)<br>
+ * 一時ファイルは{@link #close()}で削除する。<br>
+ * 取得したシートは、それぞれ別のワークブックに属する。他のシートを参照する数式は評価できないが、保存されている計算結果は取得できる。
+ */
+@Slf4j
+public class ExcelLazyWorkbook implements Closeable {
+
+    /** XMLInputFactory */
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLHelper.newXMLInputFactory();
+
+    /** XMLOutputFactory */
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    /** XMLEventFactory */
+    private static final XMLEventFactory XML_EVENT_FACTORY = XMLEventFactory.newInstance();
+
+    /** コンテンツタイプのパート名 */
+    private static final String CONTENT_TYPES = "[Content_Types].xml";
+
+    /** パッケージのリレーションシップのパート名 */
+    private static final String PACKAGE_RELATIONSHIPS = "_rels/.rels";
+
+    /** ファイル */
+    private final ZipFile zipFile;
+
+    /** ワークブックXMLのパート名 */
+    private final String workbookPartName;
+
+    /** ワークブックのリレーションシップのパート名 */
+    private final String workbookRelationshipsPartName;
+
+    /** シートのリスト(シートの順) */
+    private final List<SheetEntry> sheetEntries;
+
+    /** 参照先のパートがないため除いたシートのリレーションシップID */
+    private final Set<String> skippedRelationshipIds;
+
+    /** 読み込んだワークブック(シートインデックスごと) */
+    private final Map<Integer, XSSFWorkbook> workbooks = new HashMap<>();
+
+    /** 読み込んだワークブックの一時ファイル(シートインデックスごと) */
+    private final Map<Integer, Path> tempFiles = new HashMap<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param zipFile ファイル
+     * @param workbookPartName ワークブックXMLのパート名
+     * @param sheetEntries シートのリスト
+     * @param skippedRelationshipIds 除いたシートのリレーションシップID
+     */
+    private ExcelLazyWorkbook(final ZipFile zipFile, final String workbookPartName, final List<SheetEntry> sheetEntries, final Set<String> skippedRelationshipIds) {
+        this.zipFile = zipFile;
+        this.workbookPartName = workbookPartName;
+        this.workbookRelationshipsPartName = getRelationshipsPartName(workbookPartName);
+        this.sheetEntries = sheetEntries;
+        this.skippedRelationshipIds = skippedRelationshipIds;
+    }
+
+    /**
+     * ワークブックを開く。<br>
+     * ファイルは読み取り専用で開き、{@link #close()}で閉じる。リレーションシップに参照先のパートがないシートは除く。
+     *
+     * @param path ファイルのパス
+     * @return ExcelLazyWorkbookオブジェクト。xlsx形式でない場合はnull。
+     */
+    public static ExcelLazyWorkbook open(final Path path) {
+        ZipFile zipFile = null;
+        try {
+            zipFile = new ZipFile(path.toFile());
+
+            final String workbookPartName = findTarget(zipFile, PACKAGE_RELATIONSHIPS, "", "/officeDocument");
+            if (workbookPartName == null) {
+                throw new IOException("officeDocument is not found.");
+            }
+
+            final Map<String, String> targets = getTargets(zipFile, getRelationshipsPartName(workbookPartName), workbookPartName);
+            final List<SheetEntry> sheetEntries = new ArrayList<>();
+            final Set<String> skippedRelationshipIds = new HashSet<>();
+            try (InputStream inputStream = getInputStream(zipFile, workbookPartName)) {
+                final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+                try {
+                    int position = 0;
+                    while (reader.hasNext()) {
+                        if (reader.next() != XMLStreamConstants.START_ELEMENT || !"sheet".equals(reader.getLocalName())) {
+                            continue;
+                        }
+
+                        String relationshipId = null;
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            if ("id".equals(reader.getAttributeLocalName(i)) && !StringUtils.isEmpty(reader.getAttributeNamespace(i))) {
+                                relationshipId = reader.getAttributeValue(i);
+                            }
+                        }
+                        final String name = reader.getAttributeValue(null, "name");
+                        final String partName = targets.get(relationshipId);
+                        if (partName == null) {
+                            log.error("sheet({}) has no relationship: {}", name, relationshipId);
+                            skippedRelationshipIds.add(relationshipId);
+                        } else {
+                            sheetEntries.add(new SheetEntry(name, relationshipId, partName, toSheetVisibility(reader.getAttributeValue(null, "state")), position));
+                        }
+                        position++;
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+
+            return new ExcelLazyWorkbook(zipFile, workbookPartName, sheetEntries, skippedRelationshipIds);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            if (zipFile != null) {
+                try {
+                    zipFile.close();
+                } catch (IOException ex) {
+                    log.warn(ex.getMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * シート数を取得する。
+     *
+     * @return シート数
+     */
+    public int getNumberOfSheets() {
+        return sheetEntries.size();
+    }
+
+    /**
+     * シート名のリストを取得する。
+     *
+     * @return シート名のリスト(シートの順)
+     */
+    public List<String> getSheetNames() {
+        final List<String> sheetNames = new ArrayList<>(sheetEntries.size());
+        for (final SheetEntry entry : sheetEntries) {
+            sheetNames.add(entry.name);
+        }
+
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    /**
+     * シートインデックスを取得する。
+     *
+     * @param sheetName シート名
+     * @return シートインデックス。シートが存在しない場合は-1。
+     */
+    public int getSheetIndex(final String sheetName) {
+        for (int i = 0; i < sheetEntries.size(); i++) {
+            if (sheetEntries.get(i).name.equalsIgnoreCase(sheetName)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * シートの表示状態を取得する。
+     *
+     * @param sheetIndex シートインデックス
+     * @return シートの表示状態
+     */
+    public SheetVisibility getSheetVisibility(final int sheetIndex) {
+        return sheetEntries.get(sheetIndex).visibility;
+    }
+
+    /**
+     * シートを取得する。<br>
+     * 初めて取得する場合は、シートXMLを解析する。
+     *
+     * @param sheetName シート名
+     * @return Sheetオブジェクト。シートが存在しない場合はnull。
+     */
+    public Sheet getSheet(final String sheetName) {
+        final int sheetIndex = getSheetIndex(sheetName);
+        if (sheetIndex < 0) {
+            log.error("sheetName({}) is not found.", sheetName);
+            return null;
+        }
+
+        return getSheet(sheetIndex);
+    }
+
+    /**
+     * シートを取得する。<br>
+     * 初めて取得する場合は、シートXMLを解析する。
+     *
+     * @param sheetIndex シートインデックス
+     * @return Sheetオブジェクト。シートが存在しない場合はnull。
+     */
+    public synchronized Sheet getSheet(final int sheetIndex) {
+        if (sheetIndex < 0 || sheetIndex >= sheetEntries.size()) {
+            log.error("sheetIndex({}) is invalid.", sheetIndex);
+            return null;
+        }
+
+        XSSFWorkbook workbook = workbooks.get(sheetIndex);
+        if (workbook == null) {
+            Path tempFile = null;
+            try {
+                tempFile = Files.createTempFile("lazy-sheet", ".xlsx");
+                extractSheet(sheetIndex, tempFile);
+                // 一時ファイルを読み取り専用で開き、パッケージ全体をメモリに展開しない
+                final OPCPackage opcPackage = OPCPackage.open(tempFile.toFile(), PackageAccess.READ);
+                try {
+                    workbook = new XSSFWorkbook(opcPackage);
+                } catch (IOException | RuntimeException e) {
+                    opcPackage.revert();
+                    throw e;
+                }
+            } catch (Exception e) {
+                log.error(e.getMessage());
+                ExcelUtils.deleteQuietly(tempFile);
+                return null;
+            }
+            workbooks.put(sheetIndex, workbook);
+            tempFiles.put(sheetIndex, tempFile);
+        }
+
+        return workbook.getSheetAt(0);
+    }
+
+    /**
+     * 解析済みのシートの数を取得する。
+     *
+     * @return 解析済みのシートの数
+     */
+    public synchronized int getNumberOfLoadedSheets() {
+        return workbooks.size();
+    }
+
+    /**
+     * 読み込んだワークブックとファイルを閉じ、一時ファイルを削除する。
+     */
+    @Override
+    public synchronized void close() {
+        for (final XSSFWorkbook workbook : workbooks.values()) {
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                log.warn(e.getMessage());
+            }
+        }
+        workbooks.clear();
+
+        for (final Path tempFile : tempFiles.values()) {
+            ExcelUtils.deleteQuietly(tempFile);
+        }
+        tempFiles.clear();
+
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            log.warn(e.getMessage());
+        }
+    }
+
+    /**
+     * 指定したシートのみを含むパッケージをファイルに出力する。<br>
+     * 他のシートのパート・計算チェーンを除き、ワークブックXML・リレーションシップ・コンテンツタイプから他のシートへの参照を除く。
+     *
+     * @param sheetIndex シートインデックス
+     * @param path 出力先のファイルのパス
+     * @throws IOException 読み込み・書き込みに失敗した場合
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private void extractSheet(final int sheetIndex, final Path path) throws IOException, XMLStreamException {
+        final Set<String> removedRelationshipIds = new HashSet<>(skippedRelationshipIds);
+        final Set<String> removedParts = new HashSet<>();
+        for (int i = 0; i < sheetEntries.size(); i++) {
+            final SheetEntry entry = sheetEntries.get(i);
+            if (i != sheetIndex) {
+                removedRelationshipIds.add(entry.relationshipId);
+                removedParts.add(entry.partName);
+                removedParts.add(getRelationshipsPartName(entry.partName));
+            }
+        }
+        final String calcChain = findTarget(zipFile, workbookRelationshipsPartName, workbookPartName, "/calcChain");
+        if (calcChain != null) {
+            removedParts.add(calcChain);
+        }
+
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            // 解析用の一時ファイルのため圧縮しない
+            zipOutputStream.setLevel(Deflater.NO_COMPRESSION);
+
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry zipEntry = entries.nextElement();
+                final String name = zipEntry.getName();
+                if (zipEntry.isDirectory() || removedParts.contains(name)) {
+                    continue;
+                }
+
+                zipOutputStream.putNextEntry(new ZipEntry(name));
+                try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+                    if (name.equals(workbookPartName)) {
+                        filterWorkbook(inputStream, zipOutputStream, removedRelationshipIds, sheetEntries.get(sheetIndex).position);
+                    } else if (name.equals(workbookRelationshipsPartName)) {
+                        filter(inputStream, zipOutputStream, element -> "Relationship".equals(element.getLocalName())
+                                && (removedRelationshipIds.contains(getAttribute(element, "Id")) || getAttribute(element, "Type").endsWith("/calcChain")));
+                    } else if (name.equals(CONTENT_TYPES)) {
+                        filter(inputStream, zipOutputStream, element -> "Override".equals(element.getLocalName())
+                                && removedParts.contains(getAttribute(element, "PartName").substring(1)));
+                    } else {
+                        copy(inputStream, zipOutputStream);
+                    }
+                }
+                zipOutputStream.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * ワークブックXMLから、他のシート・他のシートに限定した名前・表示中のシートの指定を除く。
+     *
+     * @param inputStream 入力ストリーム
+     * @param outputStream 出力ストリーム
+     * @param removedRelationshipIds 除くシートのリレーションシップID
+     * @param position 残すシートのワークブックXML上の位置
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static void filterWorkbook(final InputStream inputStream, final OutputStream outputStream, final Set<String> removedRelationshipIds, final int position) throws XMLStreamException {
+        final String localSheetId = String.valueOf(position);
+        filter(inputStream, outputStream, element -> {
+            switch (element.getLocalName()) {
+                case "sheet":
+                    return removedRelationshipIds.contains(getRelationshipId(element));
+                case "definedName":
+                    final String value = getAttribute(element, "localSheetId");
+                    return !value.isEmpty() && !value.equals(localSheetId);
+                default:
+                    return false;
+            }
+        }, element -> {
+            switch (element.getLocalName()) {
+                case "definedName":
+                    return replaceAttribute(element, "localSheetId", "0");
+                case "workbookView":
+                    return replaceAttribute(replaceAttribute(element, "activeTab", null), "firstSheet", null);
+                default:
+                    return element;
+            }
+        });
+    }
+
+    /**
+     * XMLから、条件に一致する要素を除いて出力する。
+     *
+     * @param inputStream 入力ストリーム
+     * @param outputStream 出力ストリーム
+     * @param removed 除く要素の条件
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static void filter(final InputStream inputStream, final OutputStream outputStream, final Predicate<StartElement> removed) throws XMLStreamException {
+        filter(inputStream, outputStream, removed, element -> element);
+    }
+
+    /**
+     * XMLから、条件に一致する要素を除き、要素を変換して出力する。
+     *
+     * @param inputStream 入力ストリーム
+     * @param outputStream 出力ストリーム
+     * @param removed 除く要素の条件
+     * @param converter 要素の変換
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static void filter(final InputStream inputStream, final OutputStream outputStream, final Predicate<StartElement> removed,
+                               final UnaryOperator<StartElement> converter) throws XMLStreamException {
+        final XMLEventReader reader = XML_INPUT_FACTORY.createXMLEventReader(inputStream);
+        final XMLEventWriter writer = XML_OUTPUT_FACTORY.createXMLEventWriter(outputStream, "UTF-8");
+        try {
+            int skipDepth = 0;
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (skipDepth > 0) {
+                    if (event.isStartElement()) {
+                        skipDepth++;
+                    } else if (event.isEndElement()) {
+                        skipDepth--;
+                    }
+                    continue;
+                }
+
+                if (event.isStartElement()) {
+                    final StartElement element = event.asStartElement();
+                    if (removed.test(element)) {
+                        skipDepth = 1;
+                        continue;
+                    }
+                    writer.add(converter.apply(element));
+                } else {
+                    writer.add(event);
+                }
+            }
+            writer.flush();
+        } finally {
+            reader.close();
+            writer.close();
+        }
+    }
+
+    /**
+     * 要素の属性を置き換える。
+     *
+     * @param element 要素
+     * @param name 属性名
+     * @param value 属性値(nullの場合は属性を除く)
+     * @return 置き換えた要素。属性が存在しない場合は元の要素。
+     */
+    private static StartElement replaceAttribute(final StartElement element, final String name, final String value) {
+        if (getAttribute(element, name).isEmpty()) {
+            return element;
+        }
+
+        final List<Attribute> attributes = new ArrayList<>();
+        final Iterator<?> iterator = element.getAttributes();
+        while (iterator.hasNext()) {
+            final Attribute attribute = (Attribute) iterator.next();
+            if (!name.equals(attribute.getName().getLocalPart()) || !attribute.getName().getNamespaceURI().isEmpty()) {
+                attributes.add(attribute);
+            } else if (value != null) {
+                attributes.add(XML_EVENT_FACTORY.createAttribute(name, value));
+            }
+        }
+
+        return XML_EVENT_FACTORY.createStartElement(element.getName(), attributes.iterator(), element.getNamespaces());
+    }
+
+    /**
+     * 要素のリレーションシップIDを取得する。
+     *
+     * @param element 要素
+     * @return リレーションシップID。存在しない場合はnull。
+     */
+    private static String getRelationshipId(final StartElement element) {
+        final Iterator<?> iterator = element.getAttributes();
+        while (iterator.hasNext()) {
+            final Attribute attribute = (Attribute) iterator.next();
+            if ("id".equals(attribute.getName().getLocalPart()) && !attribute.getName().getNamespaceURI().isEmpty()) {
+                return attribute.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 要素の属性値を取得する。
+     *
+     * @param element 要素
+     * @param name 属性名(名前空間なし)
+     * @return 属性値。属性が存在しない場合は空文字。
+     */
+    private static String getAttribute(final StartElement element, final String name) {
+        final Attribute attribute = element.getAttributeByName(new QName(name));
+        return (attribute == null) ? "" : attribute.getValue();
+    }
+
+    /**
+     * リレーションシップから、指定した種類の参照先のパート名を取得する。
+     *
+     * @param zipFile ファイル
+     * @param relationshipsPartName リレーションシップのパート名
+     * @param sourcePartName 参照元のパート名
+     * @param typeSuffix リレーションシップの種類(末尾)
+     * @return パート名。存在しない場合はnull。
+     * @throws IOException 読み込みに失敗した場合
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static String findTarget(final ZipFile zipFile, final String relationshipsPartName, final String sourcePartName, final String typeSuffix) throws IOException, XMLStreamException {
+        final ZipEntry zipEntry = zipFile.getEntry(relationshipsPartName);
+        if (zipEntry == null) {
+            return null;
+        }
+
+        try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(reader.getLocalName())
+                            && reader.getAttributeValue(null, "Type").endsWith(typeSuffix)) {
+                        return resolve(sourcePartName, reader.getAttributeValue(null, "Target"));
+                    }
+                }
+                return null;
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * リレーションシップの、IDごとの参照先のパート名を取得する。
+     *
+     * @param zipFile ファイル
+     * @param relationshipsPartName リレーションシップのパート名
+     * @param sourcePartName 参照元のパート名
+     * @return 参照先のパート名(リレーションシップIDごと)
+     * @throws IOException 読み込みに失敗した場合
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static Map<String, String> getTargets(final ZipFile zipFile, final String relationshipsPartName, final String sourcePartName) throws IOException, XMLStreamException {
+        final Map<String, String> targets = new HashMap<>();
+        try (InputStream inputStream = getInputStream(zipFile, relationshipsPartName)) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(reader.getLocalName())
+                            && !"External".equals(reader.getAttributeValue(null, "TargetMode"))) {
+                        targets.put(reader.getAttributeValue(null, "Id"), resolve(sourcePartName, reader.getAttributeValue(null, "Target")));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        return targets;
+    }
+
+    private static InputStream getInputStream(final ZipFile zipFile, final String partName) throws IOException {
+        final ZipEntry zipEntry = zipFile.getEntry(partName);
+        if (zipEntry == null) {
+            throw new IOException(partName + " is not found.");
+        }
+
+        return zipFile.getInputStream(zipEntry);
+    }
+
+    /**
+     * 参照先のパート名を解決する。
+     *
+     * @param sourcePartName 参照元のパート名(先頭の"/"なし)
+     * @param target 参照先(相対パス、または"/"で始まる絶対パス)
+     * @return パート名(先頭の"/"なし)
+     */
+    private static String resolve(final String sourcePartName, final String target) {
+        return URI.create("/" + sourcePartName).resolve(target).normalize().getPath().substring(1);
+    }
+
+    /**
+     * パートのリレーションシップのパート名を取得する。
+     *
+     * @param partName パート名
+     * @return リレーションシップのパート名
+     */
+    private static String getRelationshipsPartName(final String partName) {
+        final int index = partName.lastIndexOf('/');
+        return partName.substring(0, index + 1) + "_rels/" + partName.substring(index + 1) + ".rels";
+    }
+
+    private static void copy(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        final byte[] buffer = new byte[8192];
+        int length;
+        while ((length = inputStream.read(buffer)) > 0) {
+            outputStream.write(buffer, 0, length);
+        }
+    }
+
+    private static SheetVisibility toSheetVisibility(final String state) {
+        if ("hidden".equals(state)) {
+            return SheetVisibility.HIDDEN;
+        }
+        if ("veryHidden".equals(state)) {
+            return SheetVisibility.VERY_HIDDEN;
+        }
+
+        return SheetVisibility.VISIBLE;
+    }
+
+    /**
+     * シート情報クラス
+     */
+    private static class SheetEntry {
+
+        /** シート名 */
+        private final String name;
+        /** リレーションシップID */
+        private final String relationshipId;
+        /** パート名 */
+        private final String partName;
+        /** 表示状態 */
+        private final SheetVisibility visibility;
+        /** ワークブックXML上の位置(除いたシートを含む。名前のlocalSheetIdと対応する) */
+        private final int position;
+
+        private SheetEntry(final String name, final String relationshipId, final String partName, final SheetVisibility visibility, final int position) {
+            this.name = name;
+            this.relationshipId = relationshipId;
+            this.partName = partName;
+            this.visibility = visibility;
+            this.position = position;
+        }
+    }
+}
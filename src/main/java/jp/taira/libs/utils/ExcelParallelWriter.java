@@ -0,0 +1,275 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Excel(xlsx)並列書き込みクラス<br>
+ * テンプレートシートから複数のシートを生成し、シートごとのデータ行を複数のスレッドで並列に書き込む。<br>
+ * シートの生成・セルスタイルの生成は呼び出し元のスレッドで行い、各スレッドは自分のシートの行のみを生成する。
+ * 各シートの行は、シートごとの一時ファイルにSXSSFで書き出し(文字列はインライン文字列とし、共有文字列テーブルは使わない)、
+ * 出力時に1つのパッケージにまとめる。スタイルテーブルはワークブックで1つ。<br>
+ * 書き込み中にセルスタイル・フォントを生成してはならない。必要なセルスタイルは{@link #getWorkbook()}で事前に生成すること。
+ */
+@Slf4j
+public class ExcelParallelWriter implements Closeable {
+
+    /** ストリーミング書き込み(シートの生成・出力に使う) */
+    private final ExcelStreamWriter streamWriter;
+
+    /** シートごとの書き込み */
+    private final List<SheetRows> sheetRows;
+
+    /**
+     * コンストラクタ
+     *
+     * @param streamWriter ストリーミング書き込み
+     * @param sheetRows シートごとの書き込み
+     */
+    private ExcelParallelWriter(final ExcelStreamWriter streamWriter, final List<SheetRows> sheetRows) {
+        this.streamWriter = streamWriter;
+        this.sheetRows = sheetRows;
+    }
+
+    /**
+     * 並列書き込みを開始する。<br>
+     * 行ウィンドウは既定値({@value ExcelStreamWriter#DEFAULT_ROW_WINDOW}行)とする。
+     *
+     * @param workbook テンプレートのワークブック(xlsx)
+     * @param templateSheetName テンプレートシート名
+     * @param headerRowCount テンプレートシートから引き継ぐヘッダー行数
+     * @param sheetNames シート名配列
+     * @return ExcelParallelWriterオブジェクト
+     */
+    public static ExcelParallelWriter create(final Workbook workbook, final String templateSheetName, final int headerRowCount, final String... sheetNames) {
+        return create(workbook, templateSheetName, headerRowCount, ExcelStreamWriter.DEFAULT_ROW_WINDOW, sheetNames);
+    }
+
+    /**
+     * 並列書き込みを開始する。<br>
+     * テンプレートシートから、指定した名称分のシートを生成する。
+     * 指定したワークブックは、このオブジェクトを閉じる際に閉じる。
+     *
+     * @param workbook テンプレートのワークブック(xlsx)
+     * @param templateSheetName テンプレートシート名
+     * @param headerRowCount テンプレートシートから引き継ぐヘッダー行数
+     * @param rowWindow 行ウィンドウ(シートごとにメモリに保持する行数)
+     * @param sheetNames シート名配列
+     * @return ExcelParallelWriterオブジェクト
+     */
+    public static ExcelParallelWriter create(final Workbook workbook, final String templateSheetName, final int headerRowCount, final int rowWindow, final String... sheetNames) {
+        if (sheetNames == null || sheetNames.length < 1) {
+            log.error("sheetNames is empty.");
+            return null;
+        }
+
+        final ExcelStreamWriter streamWriter = ExcelStreamWriter.create(workbook, templateSheetName, sheetNames[0], headerRowCount, rowWindow);
+        if (streamWriter == null) {
+            return null;
+        }
+
+        final List<SheetRows> sheetRows = new ArrayList<>(sheetNames.length);
+        sheetRows.add(new SheetRows(streamWriter, streamWriter.getSheet()));
+        for (int i = 1; i < sheetNames.length; i++) {
+            final Sheet sheet = streamWriter.createSheet(sheetNames[i]);
+            if (sheet == null) {
+                streamWriter.close();
+                return null;
+            }
+            sheetRows.add(new SheetRows(streamWriter, sheet));
+        }
+
+        return new ExcelParallelWriter(streamWriter, sheetRows);
+    }
+
+    /**
+     * ワークブックを取得する。
+     *
+     * @return Workbookオブジェクト
+     */
+    public Workbook getWorkbook() {
+        return streamWriter.getWorkbook();
+    }
+
+    /**
+     * シートごとの書き込みのリストを取得する。
+     *
+     * @return シートごとの書き込みのリスト(シート名の順)
+     */
+    public List<SheetRows> getSheetRows() {
+        return Collections.unmodifiableList(sheetRows);
+    }
+
+    /**
+     * 全てのシートのデータ行を並列に書き込む。<br>
+     * シートごとに、指定した処理を1つのスレッドで呼び出す。処理は、引数のシート以外のシート・ワークブックを変更してはならない。
+     *
+     * @param filler シートの書き込み処理(シート名、シートの書き込み)
+     * @param parallelism 並列数
+     * @return 全てのシートの書き込みに成功した場合はtrue、そうでない場合はfalse。
+     */
+    public boolean write(final BiConsumer<String, SheetRows> filler, final int parallelism) {
+        if (filler == null) {
+            log.error("filler is null.");
+            return false;
+        }
+
+        if (parallelism < 1) {
+            log.error("Parallelism must be positive: {}", parallelism);
+            return false;
+        }
+
+        if (parallelism == 1 || sheetRows.size() == 1) {
+            try {
+                for (final SheetRows rows : sheetRows) {
+                    filler.accept(rows.getSheetName(), rows);
+                }
+                return true;
+            } catch (RuntimeException e) {
+                log.error(e.getMessage());
+                return false;
+            }
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, sheetRows.size()));
+        try {
+            final List<Future<?>> futures = new ArrayList<>(sheetRows.size());
+            for (final SheetRows rows : sheetRows) {
+                futures.add(executor.submit(() -> filler.accept(rows.getSheetName(), rows)));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error(e.getMessage());
+            return false;
+        } catch (ExecutionException e) {
+            log.error(e.getMessage());
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Excelファイルを指定パスに出力する。<br>
+     * 各シートの条件付き書式の適用範囲をデータ行の最終行まで広げ、テンプレートシートを削除する。出力は1回のみ可能。
+     *
+     * @param path ファイルのパス
+     */
+    public void output(final Path path) {
+        for (final SheetRows rows : sheetRows) {
+            if (rows.getRowCount() > 0) {
+                ExcelUtils.conditionalFormat(rows.getSheet(), streamWriter.getHeaderRowCount());
+            }
+        }
+        streamWriter.output(path);
+    }
+
+    /**
+     * 一時ファイルを削除し、ワークブックを閉じる。
+     */
+    @Override
+    public void close() {
+        streamWriter.close();
+    }
+
+    /**
+     * シートの書き込みクラス<br>
+     * 1つのシートのデータ行を生成する。スレッドセーフではないため、1つのスレッドから使用すること。
+     */
+    public static class SheetRows {
+
+        /** ストリーミング書き込み */
+        private final ExcelStreamWriter streamWriter;
+
+        /** シート */
+        private final Sheet sheet;
+
+        /** 次に書き込む行インデックス */
+        private int nextRowIndex;
+
+        private SheetRows(final ExcelStreamWriter streamWriter, final Sheet sheet) {
+            this.streamWriter = streamWriter;
+            this.sheet = sheet;
+            this.nextRowIndex = streamWriter.getHeaderRowCount();
+        }
+
+        /**
+         * シート名を取得する。
+         *
+         * @return シート名
+         */
+        public String getSheetName() {
+            return sheet.getSheetName();
+        }
+
+        /**
+         * シートを取得する。
+         *
+         * @return Sheetオブジェクト
+         */
+        public Sheet getSheet() {
+            return sheet;
+        }
+
+        /**
+         * 書き込んだデータ行数を取得する。
+         *
+         * @return データ行数
+         */
+        public int getRowCount() {
+            return nextRowIndex - streamWriter.getHeaderRowCount();
+        }
+
+        /**
+         * データ行を生成する。
+         *
+         * @return Rowオブジェクト。シートの最大行数に達している場合はnull。
+         */
+        public Row createRow() {
+            if (nextRowIndex >= streamWriter.getMaxRows()) {
+                log.error("sheet({}) is full.", sheet.getSheetName());
+                return null;
+            }
+
+            return streamWriter.createRow(sheet, nextRowIndex++);
+        }
+
+        /**
+         * データ行を書き込む。
+         *
+         * @param values セルの値(列インデックス順)
+         * @return 書き込んだRowオブジェクト
+         */
+        public Row writeRow(final Object... values) {
+            final Row row = createRow();
+            if (row == null || values == null) {
+                return row;
+            }
+
+            for (int i = 0; i < values.length; i++) {
+                final Cell cell = row.getCell(i);
+                ExcelUtils.setCellValue(cell != null ? cell : row.createCell(i), values[i]);
+            }
+
+            return row;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.util.CellReference;
+
+import java.util.Arrays;
+
+/**
+ * 行データを表すクラス<br>
+ * ストリーミング読み込みで取得した1行分のセルの値を、列インデックス順に保持する。
+ */
+public class ExcelRow {
+
+    /** 行インデックス */
+    private final int rowIndex;
+
+    /** セルの値(列インデックス順) */
+    private final Object[] values;
+
+    /**
+     * コンストラクタ
+     *
+     * @param rowIndex 行インデックス
+     * @param values セルの値(列インデックス順)
+     */
+    public ExcelRow(final int rowIndex, final Object[] values) {
+        this.rowIndex = rowIndex;
+        this.values = values;
+    }
+
+    /**
+     * 行インデックスを取得する。
+     *
+     * @return 行インデックス
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * 最終セルの列インデックス+1を取得する。<br>
+     * {@link org.apache.poi.ss.usermodel.Row#getLastCellNum()}と同じく、セルが存在しない場合は0を返す。
+     *
+     * @return 最終セルの列インデックス+1
+     */
+    public int getLastCellNum() {
+        return values.length;
+    }
+
+    /**
+     * セルの値を取得する。
+     *
+     * @param colIndex 列インデックス
+     * @return セルの値。セルが存在しない場合はnull。
+     */
+    public Object getValue(final int colIndex) {
+        if (colIndex < 0 || colIndex >= values.length) {
+            return null;
+        }
+
+        return values[colIndex];
+    }
+
+    /**
+     * セルの値を取得する。
+     *
+     * @param columnName 列名("A", "B", ...)
+     * @return セルの値。セルが存在しない場合はnull。
+     */
+    public Object getValue(final String columnName) {
+        if (StringUtils.isEmpty(columnName)) {
+            return null;
+        }
+
+        return getValue(CellReference.convertColStringToIndex(columnName));
+    }
+
+    /**
+     * セルの値の配列を取得する。
+     *
+     * @return セルの値の配列(コピー)
+     */
+    public Object[] getValues() {
+        return Arrays.copyOf(values, values.length);
+    }
+
+    /**
+     * 値を持つセルが存在しないかを判断する。
+     *
+     * @return 値を持つセルが存在しない場合はtrue、そうでない場合はfalse。
+     */
+    public boolean isEmpty() {
+        for (final Object value : values) {
+            if (value != null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * オブジェクトの文字列表現を返す。
+     *
+     * @return このオブジェクトの文字列表現
+     */
+    @Override
+    public String toString() {
+        return "[" + rowIndex + " : " + Arrays.toString(values) + "]";
+    }
+}
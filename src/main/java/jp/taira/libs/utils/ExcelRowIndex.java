@@ -0,0 +1,738 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Excel(xlsx)行インデックスクラス<br>
+ * シートXMLを1回だけ先頭から走査し、展開したシートXMLと、行ごとのバイト位置のインデックスをファイルに保存する。
+ * 以降の行・セルの参照は、インデックス(メモリマップ)を二分探索し、該当する行の範囲のみを読み込んで解析する。<br>
+ * インデックスはキャッシュディレクトリに保存し、元ファイルのサイズ・更新日時が変わらない限り、開き直しても再利用する。<br>
+ * インデックスファイルは、有効であることを確認した後(または作成し直した後)にのみメモリマップする。
+ * メモリマップは閉じた後もガベージコレクションまで解放されないため、Windowsでは、同じファイル・シートのインデックスを開いている間
+ * (閉じた直後を含む)に元ファイルが変わると、インデックスファイルを置き換えられず作成し直しに失敗する。<br>
+ * セルの値は{@link ExcelStreamReader}と同じ規則で解決する。参照はスレッドセーフ。
+ */
+@Slf4j
+public class ExcelRowIndex implements Closeable {
+
+    /** インデックスファイルの識別子("XRIX") */
+    private static final int MAGIC = 0x58524958;
+
+    /** インデックスファイルの形式のバージョン */
+    private static final int VERSION = 1;
+
+    /** インデックスの1行分のバイト数(行インデックス + バイト位置) */
+    private static final int ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+
+    /** 保持するタグの最大バイト数(ルート要素の開始タグを保存するため) */
+    private static final int MAX_TAG_BYTES = 64 * 1024;
+
+    /** 読み込みバッファサイズ */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** 既定のキャッシュディレクトリ */
+    private static final Path DEFAULT_CACHE_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "excel-row-index");
+
+    /** XMLInputFactory */
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLHelper.newXMLInputFactory();
+
+    /** ストリーミング読み込み(共有文字列テーブル・スタイルテーブル) */
+    private final ExcelStreamReader streamReader;
+
+    /** 展開したシートXMLのチャネル */
+    private final FileChannel xmlChannel;
+
+    /** インデックスファイル(メモリマップ) */
+    private final MappedByteBuffer index;
+
+    /** インデックスの先頭位置 */
+    private final int entriesOffset;
+
+    /** インデックスの行数 */
+    private final int rowCount;
+
+    /** シートデータの終端(sheetData要素の終了タグ)のバイト位置 */
+    private final long sheetDataEnd;
+
+    /** ルート要素の開始タグ(名前空間の宣言を引き継ぐため、行の前に付ける) */
+    private final byte[] rootTag;
+
+    /** スレッドごとの行解析オブジェクト */
+    private final ThreadLocal<XlsxRowParser> parsers;
+
+    /**
+     * コンストラクタ
+     *
+     * @param streamReader ストリーミング読み込み
+     * @param xmlChannel 展開したシートXMLのチャネル
+     * @param index インデックスファイル(メモリマップ)
+     */
+    private ExcelRowIndex(final ExcelStreamReader streamReader, final FileChannel xmlChannel, final MappedByteBuffer index) {
+        this.streamReader = streamReader;
+        this.xmlChannel = xmlChannel;
+        this.index = index;
+        this.parsers = ThreadLocal.withInitial(streamReader::newRowParser);
+
+        // ヘッダー: 識別子、バージョン、元ファイルのサイズ・更新日時、シートXMLのサイズ、シートデータの終端、行数、ルート要素の開始タグ
+        int position = Integer.BYTES * 2 + Long.BYTES * 3;
+        this.sheetDataEnd = index.getLong(position);
+        position += Long.BYTES;
+        this.rowCount = index.getInt(position);
+        position += Integer.BYTES;
+        final int rootTagLength = index.getInt(position);
+        position += Integer.BYTES;
+        this.rootTag = new byte[rootTagLength];
+        for (int i = 0; i < rootTagLength; i++) {
+            rootTag[i] = index.get(position + i);
+        }
+        this.entriesOffset = position + rootTagLength;
+    }
+
+    /**
+     * 行インデックスを開く。<br>
+     * キャッシュディレクトリは既定(一時ディレクトリ配下)とする。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名
+     * @return ExcelRowIndexオブジェクト。xlsx形式でない場合、またはシートが存在しない場合はnull。
+     */
+    public static ExcelRowIndex open(final Path path, final String sheetName) {
+        return open(path, sheetName, DEFAULT_CACHE_DIR);
+    }
+
+    /**
+     * 行インデックスを開く。<br>
+     * キャッシュディレクトリに有効なインデックスがある場合はそれを使い、ない場合はシートを走査して作成する。
+     * 元ファイルのサイズ・更新日時が変わった場合は作成し直す。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名
+     * @param cacheDir キャッシュディレクトリ
+     * @return ExcelRowIndexオブジェクト。xlsx形式でない場合、またはシートが存在しない場合はnull。
+     */
+    public static ExcelRowIndex open(final Path path, final String sheetName, final Path cacheDir) {
+        if (path == null || sheetName == null || cacheDir == null) {
+            log.error("path, sheetName or cacheDir is null.");
+            return null;
+        }
+
+        final ExcelStreamReader streamReader = ExcelStreamReader.open(path);
+        if (streamReader == null) {
+            return null;
+        }
+
+        FileChannel xmlChannel = null;
+        try {
+            final int sheetIndex = streamReader.getSheetNames().indexOf(sheetName);
+            if (sheetIndex < 0) {
+                log.error("sheet({}) is not found.", sheetName);
+                streamReader.close();
+                return null;
+            }
+
+            final long sourceSize = Files.size(path);
+            final long sourceModified = Files.getLastModifiedTime(path).toMillis();
+            final String key = ExcelCacheFiles.cacheKey(path, sheetName);
+            final Path xmlFile = cacheDir.resolve(key + ".xml");
+            final Path indexFile = cacheDir.resolve(key + ".idx");
+
+            // 置き換える可能性のあるインデックスファイルはメモリマップせずに確認する
+            if (!isValid(indexFile, xmlFile, sourceSize, sourceModified)) {
+                Files.createDirectories(cacheDir);
+                try (InputStream inputStream = streamReader.getSheetInputStream(sheetIndex)) {
+                    build(inputStream, xmlFile, indexFile, sourceSize, sourceModified);
+                }
+            }
+
+            xmlChannel = FileChannel.open(xmlFile, StandardOpenOption.READ);
+            return new ExcelRowIndex(streamReader, xmlChannel, ExcelCacheFiles.map(indexFile));
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            closeQuietly(xmlChannel);
+            streamReader.close();
+            return null;
+        }
+    }
+
+    /**
+     * インデックスの行数(シートXMLのrow要素の数)を取得する。
+     *
+     * @return 行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 最終行の行インデックスを取得する。
+     *
+     * @return 最終行の行インデックス。行が存在しない場合は-1。
+     */
+    public int getLastRowIndex() {
+        return rowCount == 0 ? -1 : rowIndexAt(rowCount - 1);
+    }
+
+    /**
+     * 行を取得する。
+     *
+     * @param rowIndex 行インデックス
+     * @return 行データ。行が存在しない場合はnull。
+     */
+    public ExcelRow getRow(final int rowIndex) {
+        final int entry = search(rowIndex);
+        if (entry < 0) {
+            return null;
+        }
+
+        final List<ExcelRow> rows = readRows(entry, entry + 1, rowIndex);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 範囲内の行のリストを取得する。<br>
+     * 範囲の先頭行の位置から、範囲の最終行までのみを読み込む。
+     *
+     * @param firstRowIndex 先頭行の行インデックス
+     * @param lastRowIndex 最終行の行インデックス
+     * @return 行データのリスト(行インデックス順)。範囲内に行が存在しない場合は空のリスト。
+     */
+    public List<ExcelRow> getRows(final int firstRowIndex, final int lastRowIndex) {
+        final int from = lowerBound(firstRowIndex);
+        final int to = lastRowIndex == Integer.MAX_VALUE ? rowCount : lowerBound(lastRowIndex + 1);
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+
+        return readRows(from, to, lastRowIndex);
+    }
+
+    /**
+     * セルの値を取得する。
+     *
+     * @param rowIndex 行インデックス
+     * @param colIndex 列インデックス
+     * @return セルの値。行・セルが存在しない場合はnull。
+     */
+    public Object getCellValue(final int rowIndex, final int colIndex) {
+        final ExcelRow row = getRow(rowIndex);
+        return row != null ? row.getValue(colIndex) : null;
+    }
+
+    /**
+     * セルの値を取得する。
+     *
+     * @param cellName セル名("B12345")
+     * @return セルの値。行・セルが存在しない場合はnull。
+     */
+    public Object getCellValue(final String cellName) {
+        final CellReference cellReference = new CellReference(cellName);
+        return getCellValue(cellReference.getRow(), cellReference.getCol());
+    }
+
+    /**
+     * ファイルを閉じる。<br>
+     * キャッシュディレクトリのインデックスは削除しない。
+     */
+    @Override
+    public void close() {
+        closeQuietly(xmlChannel);
+        streamReader.close();
+    }
+
+    /**
+     * インデックスの範囲の行を読み込む。
+     *
+     * @param from 先頭のインデックスの位置
+     * @param to 最終のインデックスの位置+1
+     * @param lastRowIndex 読み込む最終行の行インデックス
+     * @return 行データのリスト
+     */
+    private List<ExcelRow> readRows(final int from, final int to, final int lastRowIndex) {
+        final long start = offsetAt(from);
+        final long end = to < rowCount ? offsetAt(to) : sheetDataEnd;
+
+        final List<ExcelRow> rows = new ArrayList<>(to - from);
+        final InputStream region = new BufferedInputStream(new RegionInputStream(xmlChannel, start, end), (int) Math.min(BUFFER_SIZE, Math.max(1, end - start)));
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new SequenceInputStream(new ByteArrayInputStream(rootTag), region), StandardCharsets.UTF_8.name());
+            final XlsxRowParser parser = parsers.get();
+
+            // ルート要素の開始タグを読み飛ばす
+            reader.nextTag();
+            int lastIndex = rowIndexAt(from) - 1;
+            while (rows.size() < to - from && reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+                    final ExcelRow row = parser.parseRow(reader, lastIndex + 1);
+                    if (row.getRowIndex() > lastRowIndex) {
+                        break;
+                    }
+                    lastIndex = row.getRowIndex();
+                    rows.add(row);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    log.warn(e.getMessage());
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * 行インデックスに一致するインデックスの位置を二分探索する。
+     *
+     * @param rowIndex 行インデックス
+     * @return インデックスの位置。存在しない場合は-1。
+     */
+    private int search(final int rowIndex) {
+        final int position = lowerBound(rowIndex);
+        return position < rowCount && rowIndexAt(position) == rowIndex ? position : -1;
+    }
+
+    /**
+     * 行インデックス以上となる最初のインデックスの位置を二分探索する。
+     *
+     * @param rowIndex 行インデックス
+     * @return インデックスの位置。存在しない場合は行数。
+     */
+    private int lowerBound(final int rowIndex) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (rowIndexAt(mid) < rowIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * インデックスの位置の行インデックスを取得する。
+     *
+     * @param position インデックスの位置
+     * @return 行インデックス
+     */
+    private int rowIndexAt(final int position) {
+        return index.getInt(entriesOffset + position * ENTRY_BYTES);
+    }
+
+    /**
+     * インデックスの位置の行のバイト位置を取得する。
+     *
+     * @param position インデックスの位置
+     * @return バイト位置
+     */
+    private long offsetAt(final int position) {
+        return index.getLong(entriesOffset + position * ENTRY_BYTES + Integer.BYTES);
+    }
+
+    /**
+     * インデックスが有効かを判断する。<br>
+     * ヘッダーはチャネルから読み込む(作成し直す場合に置き換えられるよう、メモリマップしない)。
+     *
+     * @param indexFile インデックスファイル
+     * @param xmlFile 展開したシートXML
+     * @param sourceSize 元ファイルのサイズ
+     * @param sourceModified 元ファイルの更新日時
+     * @return 有効な場合はtrue、そうでない場合はfalse。
+     * @throws IOException ファイルの読み込みに失敗した場合
+     */
+    private static boolean isValid(final Path indexFile, final Path xmlFile, final long sourceSize, final long sourceModified) throws IOException {
+        if (!Files.isRegularFile(indexFile) || !Files.isRegularFile(xmlFile)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() < Integer.BYTES * 4 + Long.BYTES * 4) {
+                return false;
+            }
+
+            // ヘッダー: 識別子、バージョン、元ファイルのサイズ・更新日時、シートXMLのサイズ
+            final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2 + Long.BYTES * 3);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // ヘッダーを全て読み込む
+            }
+            header.flip();
+
+            return header.getInt() == MAGIC
+                    && header.getInt() == VERSION
+                    && header.getLong() == sourceSize
+                    && header.getLong() == sourceModified
+                    && header.getLong() == Files.size(xmlFile);
+        }
+    }
+
+    /**
+     * シートXMLを走査し、展開したシートXMLとインデックスファイルを作成する。<br>
+     * 一時ファイルに書き出した後に置き換える({@link ExcelCacheFiles#replace(Path, Path)})。
+     *
+     * @param inputStream シートXMLの入力ストリーム
+     * @param xmlFile 展開したシートXML
+     * @param indexFile インデックスファイル
+     * @param sourceSize 元ファイルのサイズ
+     * @param sourceModified 元ファイルの更新日時
+     * @throws IOException ファイルの書き込みに失敗した場合
+     */
+    private static void build(final InputStream inputStream, final Path xmlFile, final Path indexFile, final long sourceSize, final long sourceModified) throws IOException {
+        final Path tempXmlFile = Files.createTempFile(xmlFile.getParent(), "row-index", ".tmp");
+        final Path tempIndexFile = Files.createTempFile(indexFile.getParent(), "row-index", ".tmp");
+        try {
+            final RowScanner scanner = new RowScanner();
+            try (OutputStream outputStream = Files.newOutputStream(tempXmlFile)) {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int length;
+                while ((length = inputStream.read(buffer)) > 0) {
+                    scanner.scan(buffer, length);
+                    outputStream.write(buffer, 0, length);
+                }
+            }
+
+            if (scanner.rootTag == null) {
+                throw new IOException("Sheet XML has no root element.");
+            }
+
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempIndexFile), BUFFER_SIZE))) {
+                outputStream.writeInt(MAGIC);
+                outputStream.writeInt(VERSION);
+                outputStream.writeLong(sourceSize);
+                outputStream.writeLong(sourceModified);
+                outputStream.writeLong(scanner.position);
+                outputStream.writeLong(scanner.sheetDataEnd >= 0 ? scanner.sheetDataEnd : scanner.position);
+                outputStream.writeInt(scanner.rowCount);
+                outputStream.writeInt(scanner.rootTag.length);
+                outputStream.write(scanner.rootTag);
+                for (int i = 0; i < scanner.rowCount; i++) {
+                    outputStream.writeInt(scanner.rowIndexes[i]);
+                    outputStream.writeLong(scanner.offsets[i]);
+                }
+            }
+
+            ExcelCacheFiles.replace(tempXmlFile, xmlFile);
+            ExcelCacheFiles.replace(tempIndexFile, indexFile);
+        } finally {
+            Files.deleteIfExists(tempXmlFile);
+            Files.deleteIfExists(tempIndexFile);
+        }
+    }
+
+    /**
+     * チャネルを閉じる。<br>
+     * 失敗した場合はログを出力する。
+     *
+     * @param channel チャネル
+     */
+    private static void closeQuietly(final FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn(e.getMessage());
+        }
+    }
+
+    /**
+     * シートXMLのバイト列から、row要素の開始タグの位置と行インデックスを収集するクラス<br>
+     * 入力を分割して渡しても同じ結果になるよう、タグの途中の状態を保持する。
+     */
+    private static class RowScanner {
+
+        /** 処理済みのバイト数 */
+        private long position;
+
+        /** タグの中か */
+        private boolean inTag;
+
+        /** タグ内の引用符(引用符の外の場合は0) */
+        private byte quote;
+
+        /** タグの開始位置 */
+        private long tagStart;
+
+        /** タグのバイト列('<'と'>'を除く) */
+        private byte[] tag = new byte[256];
+
+        /** タグのバイト数 */
+        private int tagLength;
+
+        /** ルート要素の開始タグ */
+        private byte[] rootTag;
+
+        /** sheetData要素の終了タグの位置 */
+        private long sheetDataEnd = -1;
+
+        /** 行数 */
+        private int rowCount;
+
+        /** 行インデックス */
+        private int[] rowIndexes = new int[1024];
+
+        /** 行のバイト位置 */
+        private long[] offsets = new long[1024];
+
+        /**
+         * バイト列を走査する。
+         *
+         * @param bytes バイト列
+         * @param length バイト数
+         */
+        void scan(final byte[] bytes, final int length) {
+            for (int i = 0; i < length; i++) {
+                final byte b = bytes[i];
+                if (!inTag) {
+                    if (b == '<') {
+                        inTag = true;
+                        tagStart = position + i;
+                        tagLength = 0;
+                    }
+                    continue;
+                }
+
+                if (quote != 0) {
+                    if (b == quote) {
+                        quote = 0;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                } else if (b == '>') {
+                    inTag = false;
+                    handleTag();
+                    continue;
+                }
+
+                if (tagLength < tag.length) {
+                    tag[tagLength] = b;
+                } else if (tag.length < MAX_TAG_BYTES) {
+                    tag = Arrays.copyOf(tag, Math.min(tag.length * 2, MAX_TAG_BYTES));
+                    tag[tagLength] = b;
+                }
+                tagLength++;
+            }
+            position += length;
+        }
+
+        /**
+         * タグを処理する。
+         */
+        private void handleTag() {
+            final int length = Math.min(tagLength, tag.length);
+            if (length == 0 || tag[0] == '?' || tag[0] == '!') {
+                return;
+            }
+
+            if (tag[0] == '/') {
+                if (isLocalName(1, length, "sheetData")) {
+                    sheetDataEnd = tagStart;
+                }
+                return;
+            }
+
+            if (rootTag == null) {
+                if (tagLength > tag.length) {
+                    throw new IllegalStateException("Root element is too large.");
+                }
+                rootTag = new byte[length + 2];
+                rootTag[0] = '<';
+                System.arraycopy(tag, 0, rootTag, 1, length);
+                rootTag[length + 1] = '>';
+                return;
+            }
+
+            if (!isLocalName(0, length, "row")) {
+                return;
+            }
+
+            final int r = parseRowAttribute(length);
+            final int rowIndex = r > 0 ? r - 1 : (rowCount > 0 ? rowIndexes[rowCount - 1] + 1 : 0);
+            if (rowCount > 0 && rowIndex <= rowIndexes[rowCount - 1]) {
+                throw new IllegalStateException("Rows are not in ascending order: " + (rowIndex + 1));
+            }
+
+            if (rowCount == rowIndexes.length) {
+                rowIndexes = Arrays.copyOf(rowIndexes, rowCount * 2);
+                offsets = Arrays.copyOf(offsets, rowCount * 2);
+            }
+            rowIndexes[rowCount] = rowIndex;
+            offsets[rowCount] = tagStart;
+            rowCount++;
+        }
+
+        /**
+         * タグ名(接頭辞を除く)が一致するかを判断する。
+         *
+         * @param from タグ名の開始位置
+         * @param length タグのバイト数
+         * @param localName タグ名
+         * @return 一致する場合はtrue、そうでない場合はfalse。
+         */
+        private boolean isLocalName(final int from, final int length, final String localName) {
+            int end = from;
+            int start = from;
+            while (end < length && !isNameEnd(tag[end])) {
+                if (tag[end] == ':') {
+                    start = end + 1;
+                }
+                end++;
+            }
+
+            if (end - start != localName.length()) {
+                return false;
+            }
+            for (int i = 0; i < localName.length(); i++) {
+                if (tag[start + i] != localName.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * タグからr属性(行番号)を取得する。
+         *
+         * @param length タグのバイト数
+         * @return 行番号。r属性が存在しない場合は0。
+         */
+        private int parseRowAttribute(final int length) {
+            for (int i = 1; i + 1 < length; i++) {
+                if (tag[i] != 'r' || !isWhitespace(tag[i - 1])) {
+                    continue;
+                }
+
+                int j = i + 1;
+                while (j < length && isWhitespace(tag[j])) {
+                    j++;
+                }
+                if (j >= length || tag[j] != '=') {
+                    continue;
+                }
+                j++;
+                while (j < length && isWhitespace(tag[j])) {
+                    j++;
+                }
+                if (j >= length || (tag[j] != '"' && tag[j] != '\'')) {
+                    continue;
+                }
+                j++;
+
+                int value = 0;
+                while (j < length && tag[j] >= '0' && tag[j] <= '9') {
+                    value = value * 10 + (tag[j] - '0');
+                    j++;
+                }
+                return value;
+            }
+
+            return 0;
+        }
+
+        /**
+         * タグ名の終端の文字かを判断する。
+         *
+         * @param b 文字
+         * @return タグ名の終端の場合はtrue、そうでない場合はfalse。
+         */
+        private static boolean isNameEnd(final byte b) {
+            return isWhitespace(b) || b == '/';
+        }
+
+        /**
+         * 空白文字かを判断する。
+         *
+         * @param b 文字
+         * @return 空白文字の場合はtrue、そうでない場合はfalse。
+         */
+        private static boolean isWhitespace(final byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+    }
+
+    /**
+     * ファイルの範囲の入力ストリーム<br>
+     * チャネルの位置を変更せずに読み込むため、複数のスレッドから同じチャネルを読み込める。
+     */
+    private static class RegionInputStream extends InputStream {
+
+        /** チャネル */
+        private final FileChannel channel;
+
+        /** 現在の位置 */
+        private long position;
+
+        /** 範囲の終端 */
+        private final long end;
+
+        /**
+         * コンストラクタ
+         *
+         * @param channel チャネル
+         * @param start 範囲の開始位置
+         * @param end 範囲の終端
+         */
+        RegionInputStream(final FileChannel channel, final long start, final long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+
+            final int length = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (length > 0) {
+                position += length;
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.hssf.OldExcelFormatException;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Excel走査ユーティリティクラス<br>
+ * ワークブックを生成せずにシートを先頭から走査し、指定した列(射影)のみを読み込み、条件を満たす行のみを処理する。<br>
+ * 射影外のセルは解析時に読み飛ばし、Cellオブジェクトの生成・共有文字列の参照・日付判定を行わない。
+ * セルの値は{@link ExcelUtils#getCellValue(org.apache.poi.ss.usermodel.Workbook, org.apache.poi.ss.usermodel.Cell)}と同じ規則で解決する。
+ * ただし、文字列はStringで返し、数式は評価せずに保存されている計算結果を返す({@link ExcelStreamReader}と同じ)。<br>
+ * 行の条件には射影した列の値のみを持つ行データを渡すため、条件で参照する列は射影に含めること。
+ * 射影した列に値を持たない行は処理しない。xls(BIFF8)・xlsxが対象。
+ */
+@Slf4j
+public class ExcelScanUtils {
+
+    /**
+     * コンストラクタ
+     */
+    private ExcelScanUtils() {
+        throw new IllegalAccessError("Constants class.");
+    }
+
+    /**
+     * シートを走査する。<br>
+     * 指定したシート名のシートの、指定した列のみを読み込み、条件を満たす行ごとに処理を呼び出す。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     * @param filter 行の条件。nullの場合は全ての行を対象とする。
+     * @param action 行の処理
+     * @return 処理した行数。シートが存在しない場合、または読み込みに失敗した場合は-1。
+     */
+    public static long scan(final Path path, final String sheetName, final int[] columns, final Predicate<ExcelRow> filter, final Consumer<ExcelRow> action) {
+        if (sheetName == null) {
+            log.error("sheetName is null.");
+            return -1;
+        }
+
+        return scan(path, sheetName, -1, columns, filter, action);
+    }
+
+    /**
+     * シートを走査する。<br>
+     * 指定したインデックスのシートの、指定した列のみを読み込み、条件を満たす行ごとに処理を呼び出す。
+     *
+     * @param path ファイルのパス
+     * @param sheetIndex シートのインデックス
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     * @param filter 行の条件。nullの場合は全ての行を対象とする。
+     * @param action 行の処理
+     * @return 処理した行数。シートが存在しない場合、または読み込みに失敗した場合は-1。
+     */
+    public static long scan(final Path path, final int sheetIndex, final int[] columns, final Predicate<ExcelRow> filter, final Consumer<ExcelRow> action) {
+        if (sheetIndex < 0) {
+            log.error("sheetIndex({}) is invalid.", sheetIndex);
+            return -1;
+        }
+
+        return scan(path, null, sheetIndex, columns, filter, action);
+    }
+
+    /**
+     * シートを走査し、条件を満たす行のリストを取得する。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     * @param filter 行の条件。nullの場合は全ての行を対象とする。
+     * @return 行データのリスト。シートが存在しない場合、または読み込みに失敗した場合はnull。
+     */
+    public static List<ExcelRow> list(final Path path, final String sheetName, final int[] columns, final Predicate<ExcelRow> filter) {
+        final List<ExcelRow> rows = new ArrayList<>();
+        return scan(path, sheetName, columns, filter, rows::add) < 0 ? null : rows;
+    }
+
+    /**
+     * シートを走査する。<br>
+     * ファイルの形式(xls/xlsx)を判定して、対応する解析処理で走査する。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名(nullの場合はシートのインデックスで指定する)
+     * @param sheetIndex シートのインデックス
+     * @param columns 列インデックス配列
+     * @param filter 行の条件
+     * @param action 行の処理
+     * @return 処理した行数。シートが存在しない場合、または読み込みに失敗した場合は-1。
+     */
+    private static long scan(final Path path, final String sheetName, final int sheetIndex, final int[] columns, final Predicate<ExcelRow> filter, final Consumer<ExcelRow> action) {
+        if (path == null || action == null) {
+            log.error("path or action is null.");
+            return -1;
+        }
+
+        final FileMagic fileMagic;
+        try {
+            fileMagic = FileMagic.valueOf(path.toFile());
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return -1;
+        }
+
+        if (fileMagic == FileMagic.OOXML) {
+            return scanXlsx(path, sheetName, sheetIndex, columns, filter, action);
+        }
+        if (fileMagic == FileMagic.OLE2) {
+            return scanXls(path, sheetName, sheetIndex, columns, filter, action);
+        }
+
+        log.error("Unsupported file format: {}", fileMagic);
+        return -1;
+    }
+
+    /**
+     * xlsxのシートを走査する。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名(nullの場合はシートのインデックスで指定する)
+     * @param sheetIndex シートのインデックス
+     * @param columns 列インデックス配列
+     * @param filter 行の条件
+     * @param action 行の処理
+     * @return 処理した行数。シートが存在しない場合、または読み込みに失敗した場合は-1。
+     */
+    private static long scanXlsx(final Path path, final String sheetName, final int sheetIndex, final int[] columns, final Predicate<ExcelRow> filter, final Consumer<ExcelRow> action) {
+        try (ExcelStreamReader reader = ExcelStreamReader.open(path)) {
+            if (reader == null) {
+                return -1;
+            }
+
+            final Iterator<ExcelRow> iterator = reader.iterator(sheetName != null ? reader.getSheetNames().indexOf(sheetName) : sheetIndex, columns);
+            if (iterator == null) {
+                return -1;
+            }
+
+            long count = 0;
+            while (iterator.hasNext()) {
+                final ExcelRow row = iterator.next();
+                if (filter == null || filter.test(row)) {
+                    count++;
+                    action.accept(row);
+                }
+            }
+
+            return count;
+        } catch (IllegalStateException e) {
+            log.error(e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * xlsのシートを走査する。
+     *
+     * @param path ファイルのパス
+     * @param sheetName シート名(nullの場合はシートのインデックスで指定する)
+     * @param sheetIndex シートのインデックス
+     * @param columns 列インデックス配列
+     * @param filter 行の条件
+     * @param action 行の処理
+     * @return 処理した行数。シートが存在しない場合、または読み込みに失敗した場合は-1。
+     */
+    private static long scanXls(final Path path, final String sheetName, final int sheetIndex, final int[] columns, final Predicate<ExcelRow> filter, final Consumer<ExcelRow> action) {
+        final XlsRowScanner scanner;
+        try {
+            scanner = new XlsRowScanner(sheetName, sheetIndex, columns, filter, action);
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            return -1;
+        }
+
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(path.toFile(), true)) {
+            final HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(scanner);
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fileSystem);
+        } catch (IOException | HSSFUserException | OldExcelFormatException e) {
+            log.error(e.getMessage());
+            return -1;
+        }
+
+        if (!scanner.isFound()) {
+            log.error("sheet({}) is not found.", sheetName != null ? sheetName : sheetIndex);
+            return -1;
+        }
+
+        return scanner.getCount();
+    }
+}
@@ -0,0 +1,386 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Excel(xlsx)ストリーミング読み込みクラス<br>
+ * ワークブック全体をメモリに展開せず、シートXMLを先頭から順に解析して1行ずつ返す。<br>
+ * セルの値は{@link ExcelUtils#getCellValue(org.apache.poi.ss.usermodel.Workbook, org.apache.poi.ss.usermodel.Cell)}と同じ規則で解決する。
+ * ただし、文字列はStringで返し、計算結果が保存されていない数式は評価せずに数式文字列を返す。<br>
+ * 値を持たない行は返さない。
+ */
+@Slf4j
+public class ExcelStreamReader implements Closeable {
+
+    /** XMLInputFactory */
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLHelper.newXMLInputFactory();
+
+    /** パッケージ */
+    private final OPCPackage opcPackage;
+
+    /** 共有文字列テーブル */
+    private final SharedStrings sharedStrings;
+
+    /** スタイルテーブル */
+    private final StylesTable stylesTable;
+
+    /** 1904年基準の日付か */
+    private final boolean date1904;
+
+    /** シート名のリスト */
+    private final List<String> sheetNames = new ArrayList<>();
+
+    /** シートパートのリスト */
+    private final List<PackagePart> sheetParts = new ArrayList<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param opcPackage パッケージ
+     * @throws IOException パッケージの読み込みに失敗した場合
+     * @throws OpenXML4JException パッケージの形式が不正な場合
+     * @throws SAXException 共有文字列テーブルの解析に失敗した場合
+     * @throws XMLStreamException ワークブックの解析に失敗した場合
+     */
+    private ExcelStreamReader(final OPCPackage opcPackage) throws IOException, OpenXML4JException, SAXException, XMLStreamException {
+        this.opcPackage = opcPackage;
+
+        final XSSFReader xssfReader = new XSSFReader(opcPackage);
+        this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+        this.stylesTable = xssfReader.getStylesTable();
+
+        try (InputStream inputStream = xssfReader.getWorkbookData()) {
+            this.date1904 = isDate1904(inputStream);
+        }
+
+        final XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        while (iterator.hasNext()) {
+            try (InputStream ignored = iterator.next()) {
+                sheetNames.add(iterator.getSheetName());
+                sheetParts.add(iterator.getSheetPart());
+            }
+        }
+    }
+
+    /**
+     * ストリーミング読み込みを開始する。<br>
+     * ファイルは読み取り専用で開き、{@link #close()}で閉じる。
+     *
+     * @param path ファイルのパス
+     * @return ExcelStreamReaderオブジェクト。xlsx形式でない場合はnull。
+     */
+    public static ExcelStreamReader open(final Path path) {
+        OPCPackage opcPackage = null;
+        try {
+            opcPackage = OPCPackage.open(path.toFile(), PackageAccess.READ);
+            return new ExcelStreamReader(opcPackage);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            if (opcPackage != null) {
+                opcPackage.revert();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * シート名のリストを取得する。
+     *
+     * @return シート名のリスト
+     */
+    public List<String> getSheetNames() {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    /**
+     * シート数を取得する。
+     *
+     * @return シート数
+     */
+    public int getNumberOfSheets() {
+        return sheetNames.size();
+    }
+
+    /**
+     * 行のストリームを取得する。<br>
+     * 0番目のシートを読み込む。
+     *
+     * @return 行のストリーム
+     */
+    public Stream<ExcelRow> rows() {
+        return rows(0);
+    }
+
+    /**
+     * 行のストリームを取得する。<br>
+     * 指定したシート名のシートを読み込む。
+     *
+     * @param sheetName シート名
+     * @return 行のストリーム。シートが存在しない場合はnull。
+     */
+    public Stream<ExcelRow> rows(final String sheetName) {
+        return rows(sheetNames.indexOf(sheetName));
+    }
+
+    /**
+     * 行のストリームを取得する。<br>
+     * 指定したインデックスのシートを読み込む。ストリームは使用後に閉じること。
+     *
+     * @param sheetIndex シートのインデックス
+     * @return 行のストリーム。シートが存在しない場合はnull。
+     */
+    public Stream<ExcelRow> rows(final int sheetIndex) {
+        return rows(sheetIndex, null);
+    }
+
+    /**
+     * 行のストリームを取得する。<br>
+     * 指定したシート名のシートの、指定した列のみを読み込む。
+     *
+     * @param sheetName シート名
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     * @return 行のストリーム。シートが存在しない場合はnull。
+     * @see #rows(int, int[])
+     */
+    public Stream<ExcelRow> rows(final String sheetName, final int[] columns) {
+        return rows(sheetNames.indexOf(sheetName), columns);
+    }
+
+    /**
+     * 行のストリームを取得する。<br>
+     * 指定したインデックスのシートの、指定した列のみを読み込む。
+     * 指定した列以外のセルは値を解決せずに読み飛ばし、行データでは値を持たないセルとして扱う(列インデックスは元のまま)。
+     * 指定した列に値を持たない行は返さない。ストリームは使用後に閉じること。
+     *
+     * @param sheetIndex シートのインデックス
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     * @return 行のストリーム。シートが存在しない場合はnull。
+     */
+    public Stream<ExcelRow> rows(final int sheetIndex, final int[] columns) {
+        final RowIterator iterator = (RowIterator) iterator(sheetIndex, columns);
+        if (iterator == null) {
+            return null;
+        }
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 行のイテレータを取得する。<br>
+     * 指定したインデックスのシートを読み込む。最終行まで読み込んだ時点でシートを閉じる。
+     *
+     * @param sheetIndex シートのインデックス
+     * @return 行のイテレータ。シートが存在しない場合はnull。
+     */
+    public Iterator<ExcelRow> iterator(final int sheetIndex) {
+        return iterator(sheetIndex, null);
+    }
+
+    /**
+     * 行のイテレータを取得する。<br>
+     * 指定したインデックスのシートの、指定した列のみを読み込む。最終行まで読み込んだ時点でシートを閉じる。
+     *
+     * @param sheetIndex シートのインデックス
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     * @return 行のイテレータ。シートが存在しない場合、または列インデックスが負の場合はnull。
+     */
+    public Iterator<ExcelRow> iterator(final int sheetIndex, final int[] columns) {
+        if (sheetIndex < 0 || sheetIndex >= sheetParts.size()) {
+            log.error("sheetIndex({}) is invalid.", sheetIndex);
+            return null;
+        }
+
+        try {
+            final XlsxRowParser parser = newRowParser();
+            parser.setProjection(columns);
+            return new RowIterator(sheetParts.get(sheetIndex).getInputStream(), parser);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * シートXMLの入力ストリームを取得する。
+     *
+     * @param sheetIndex シートのインデックス
+     * @return シートXMLの入力ストリーム
+     * @throws IOException シートの読み込みに失敗した場合
+     */
+    InputStream getSheetInputStream(final int sheetIndex) throws IOException {
+        return sheetParts.get(sheetIndex).getInputStream();
+    }
+
+    /**
+     * 行解析オブジェクトを生成する。
+     *
+     * @return XlsxRowParserオブジェクト
+     */
+    XlsxRowParser newRowParser() {
+        return new XlsxRowParser(sharedStrings, stylesTable, date1904);
+    }
+
+    /**
+     * ファイルを閉じる。
+     */
+    @Override
+    public void close() {
+        opcPackage.revert();
+    }
+
+    /**
+     * ワークブックが1904年基準の日付かを判断する。
+     *
+     * @param inputStream ワークブックXMLの入力ストリーム
+     * @return 1904年基準の日付の場合はtrue、そうでない場合はfalse。
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static boolean isDate1904(final InputStream inputStream) throws XMLStreamException {
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                final String name = reader.getLocalName();
+                if ("workbookPr".equals(name)) {
+                    final String value = reader.getAttributeValue(null, "date1904");
+                    return "1".equals(value) || "true".equalsIgnoreCase(value);
+                }
+                if ("sheets".equals(name)) {
+                    return false;
+                }
+            }
+            return false;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 行のイテレータ
+     */
+    private static class RowIterator implements Iterator<ExcelRow>, Closeable {
+
+        /** 入力ストリーム */
+        private final InputStream inputStream;
+
+        /** XMLリーダー */
+        private final XMLStreamReader reader;
+
+        /** 行解析オブジェクト */
+        private final XlsxRowParser parser;
+
+        /** 次の行 */
+        private ExcelRow next;
+
+        /** 直前の行インデックス */
+        private int lastRowIndex = -1;
+
+        /** 読み込みが終了したか */
+        private boolean finished;
+
+        /**
+         * コンストラクタ
+         *
+         * @param inputStream シートXMLの入力ストリーム
+         * @param parser 行解析オブジェクト
+         * @throws XMLStreamException XMLの解析に失敗した場合
+         */
+        RowIterator(final InputStream inputStream, final XlsxRowParser parser) throws XMLStreamException {
+            this.inputStream = inputStream;
+            this.reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = advance();
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public ExcelRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final ExcelRow row = next;
+            next = null;
+            return row;
+        }
+
+        /**
+         * 次の値を持つ行まで読み進める。
+         *
+         * @return 行データ。最終行に達した場合はnull。
+         */
+        private ExcelRow advance() {
+            try {
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+                        final ExcelRow row = parser.parseRow(reader, lastRowIndex + 1);
+                        lastRowIndex = row.getRowIndex();
+                        if (!row.isEmpty()) {
+                            return row;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(reader.getLocalName())) {
+                        break;
+                    }
+                }
+            } catch (XMLStreamException e) {
+                close();
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+
+            close();
+            return null;
+        }
+
+        /**
+         * シートを閉じる。
+         */
+        @Override
+        public void close() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            try {
+                reader.close();
+                inputStream.close();
+            } catch (Exception e) {
+                log.warn(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.PaneInformation;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Excel(xlsx)ストリーミング書き込みクラス<br>
+ * テンプレートシートのヘッダー行・書式・印刷設定を引き継いだシートを生成し、データ行をSXSSFで一時ファイルに書き出す。<br>
+ * メモリに保持するのは行ウィンドウ分の行のみで、シートの最大行数に達した場合は新しいシートを生成して書き込みを続ける。<br>
+ * テンプレートシートから引き継ぐ内容は生成時に1回だけ取得するため、{@link #createSheet(String)}で多数のシートを生成しても
+ * シートごとの処理時間は一定(シートのクローンは行わない)。
+ */
+@Slf4j
+public class ExcelStreamWriter implements Closeable {
+
+    /** 行ウィンドウ(メモリに保持する行数)の既定値 */
+    public static final int DEFAULT_ROW_WINDOW = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+    /** シート名の最大文字数 */
+    private static final int SHEET_NAME_MAX_LENGTH = 31;
+
+    /** 1つの条件付き書式の最大規則数 */
+    private static final int MAX_CONDITIONAL_FORMATTING_RULES = 3;
+
+    /** ワークブック */
+    private final SXSSFWorkbook workbook;
+
+    /** テンプレートシート */
+    private final XSSFSheet templateSheet;
+
+    /** テンプレートシート名 */
+    private final String templateSheetName;
+
+    /** 書き込み中のシート名(2シート目以降のシート名の元) */
+    private String sheetName;
+
+    /** ヘッダー行数 */
+    private final int headerRowCount;
+
+    /** データ行の書式(テンプレートシートのヘッダー行直後の行) */
+    private final CellStyle[] dataStyles;
+
+    /** データ行の高さ */
+    private final short dataRowHeight;
+
+    /** 列幅をコピーする列数 */
+    private final int templateLastCol;
+
+    /** ヘッダー行内の結合セル */
+    private final List<CellRangeAddress> headerMergedRegions = new ArrayList<>();
+
+    /** 条件付き書式(適用範囲と規則) */
+    private final List<Pair<CellRangeAddress[], ConditionalFormattingRule[]>> conditionalFormattings = new ArrayList<>();
+
+    /** 入力規則 */
+    private final List<DataValidation> dataValidations;
+
+    /** 生成したシートのリスト */
+    private final List<Sheet> sheets = new ArrayList<>();
+
+    /** 1シートの最大行数 */
+    private int maxRows;
+
+    /** 書き込み中のシート */
+    private Sheet sheet;
+
+    /** 書き込み中のシート名から生成したシート数 */
+    private int rolloverCount = 1;
+
+    /** 次に書き込む行インデックス */
+    private int nextRowIndex;
+
+    /** 書き込みを終了したか */
+    private boolean finished;
+
+    /**
+     * コンストラクタ
+     *
+     * @param workbook ワークブック
+     * @param templateSheet テンプレートシート
+     * @param sheetName シート名
+     * @param headerRowCount ヘッダー行数
+     */
+    private ExcelStreamWriter(final SXSSFWorkbook workbook, final XSSFSheet templateSheet, final String sheetName, final int headerRowCount) {
+        this.workbook = workbook;
+        this.templateSheet = templateSheet;
+        this.templateSheetName = templateSheet.getSheetName();
+        this.sheetName = sheetName;
+        this.headerRowCount = headerRowCount;
+        this.maxRows = workbook.getSpreadsheetVersion().getMaxRows();
+
+        final Row dataRow = templateSheet.getRow(headerRowCount);
+        if (dataRow != null && dataRow.getLastCellNum() > 0) {
+            this.dataStyles = new CellStyle[dataRow.getLastCellNum()];
+            for (final Cell cell : dataRow) {
+                this.dataStyles[cell.getColumnIndex()] = cell.getCellStyle();
+            }
+            this.dataRowHeight = dataRow.getHeight();
+        } else {
+            this.dataStyles = new CellStyle[0];
+            this.dataRowHeight = templateSheet.getDefaultRowHeight();
+        }
+
+        int lastCol = dataStyles.length;
+        for (int i = 0; i < headerRowCount; i++) {
+            final Row row = templateSheet.getRow(i);
+            if (row != null) {
+                lastCol = Math.max(lastCol, row.getLastCellNum());
+            }
+        }
+        this.templateLastCol = lastCol;
+
+        for (final CellRangeAddress region : templateSheet.getMergedRegions()) {
+            if (region.getLastRow() < headerRowCount) {
+                headerMergedRegions.add(region);
+            }
+        }
+
+        final SheetConditionalFormatting formatting = templateSheet.getSheetConditionalFormatting();
+        for (int i = 0; i < formatting.getNumConditionalFormattings(); i++) {
+            final ConditionalFormatting format = formatting.getConditionalFormattingAt(i);
+            final ConditionalFormattingRule[] rules = new ConditionalFormattingRule[format.getNumberOfRules()];
+            for (int j = 0; j < rules.length; j++) {
+                rules[j] = format.getRule(j);
+            }
+            conditionalFormattings.add(new Pair<>(format.getFormattingRanges(), rules));
+        }
+
+        this.dataValidations = templateSheet.getDataValidations();
+    }
+
+    /**
+     * ストリーミング書き込みを開始する。<br>
+     * 行ウィンドウは既定値({@value #DEFAULT_ROW_WINDOW}行)とする。
+     *
+     * @param workbook テンプレートのワークブック(xlsx)
+     * @param templateSheetName テンプレートシート名
+     * @param sheetName シート名
+     * @param headerRowCount テンプレートシートから引き継ぐヘッダー行数
+     * @return ExcelStreamWriterオブジェクト
+     */
+    public static ExcelStreamWriter create(final Workbook workbook, final String templateSheetName, final String sheetName, final int headerRowCount) {
+        return create(workbook, templateSheetName, sheetName, headerRowCount, DEFAULT_ROW_WINDOW);
+    }
+
+    /**
+     * ストリーミング書き込みを開始する。<br>
+     * テンプレートシートの、ヘッダー行直後の行の書式をデータ行に適用する。<br>
+     * 指定したワークブックは、このオブジェクトを閉じる際に閉じる。
+     *
+     * @param workbook テンプレートのワークブック(xlsx)
+     * @param templateSheetName テンプレートシート名
+     * @param sheetName シート名
+     * @param headerRowCount テンプレートシートから引き継ぐヘッダー行数
+     * @param rowWindow 行ウィンドウ(メモリに保持する行数)
+     * @return ExcelStreamWriterオブジェクト
+     */
+    public static ExcelStreamWriter create(final Workbook workbook, final String templateSheetName, final String sheetName, final int headerRowCount, final int rowWindow) {
+        if (!(workbook instanceof XSSFWorkbook)) {
+            log.error("workbook is not XSSFWorkbook.");
+            return null;
+        }
+
+        if (StringUtils.isEmpty(templateSheetName)) {
+            log.error("templateSheetName is null.");
+            return null;
+        }
+
+        final XSSFSheet templateSheet = ((XSSFWorkbook) workbook).getSheet(templateSheetName);
+        if (templateSheet == null) {
+            log.error("templateSheet is null.");
+            return null;
+        }
+
+        if (StringUtils.isBlank(sheetName) || sheetName.equals(templateSheetName)) {
+            log.error("sheetName({}) is invalid.", sheetName);
+            return null;
+        }
+
+        if (headerRowCount < 0) {
+            log.error("headerRowCount({}) is invalid.", headerRowCount);
+            return null;
+        }
+
+        if (rowWindow < 1) {
+            log.error("rowWindow({}) is invalid.", rowWindow);
+            return null;
+        }
+
+        final SXSSFWorkbook sxssfWorkbook = new SXSSFWorkbook((XSSFWorkbook) workbook, rowWindow);
+        final ExcelStreamWriter writer = new ExcelStreamWriter(sxssfWorkbook, templateSheet, sheetName, headerRowCount);
+        writer.nextSheet(sheetName);
+
+        return writer;
+    }
+
+    /**
+     * 1シートの最大行数(ヘッダー行を含む)をセットする。<br>
+     * 既定値はファイル形式の最大行数。
+     *
+     * @param maxRows 1シートの最大行数
+     */
+    public void setMaxRows(final int maxRows) {
+        if (maxRows <= headerRowCount || maxRows > workbook.getSpreadsheetVersion().getMaxRows()) {
+            log.error("maxRows({}) is invalid.", maxRows);
+            return;
+        }
+
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * ワークブックを取得する。
+     *
+     * @return Workbookオブジェクト
+     */
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * 書き込み中のシートを取得する。
+     *
+     * @return Sheetオブジェクト
+     */
+    public Sheet getSheet() {
+        return sheet;
+    }
+
+    /**
+     * 生成したシートのリストを取得する。
+     *
+     * @return Sheetオブジェクトのリスト
+     */
+    public List<Sheet> getSheets() {
+        return Collections.unmodifiableList(sheets);
+    }
+
+    /**
+     * 新しいシートを生成し、書き込み先を切り替える。<br>
+     * テンプレートシートのヘッダー行・列幅・結合セル・条件付き書式・入力規則・印刷設定を引き継ぐ。
+     * 以降の行はこのシートに書き込み、最大行数に達した場合は「シート名(番号)」のシートを生成する。
+     *
+     * @param sheetName シート名
+     * @return 生成したSheetオブジェクト
+     */
+    public Sheet createSheet(final String sheetName) {
+        if (finished) {
+            log.error("writer is already finished.");
+            return null;
+        }
+
+        if (StringUtils.isBlank(sheetName) || sheetName.equals(templateSheetName) || workbook.getSheet(sheetName) != null) {
+            log.error("sheetName({}) is invalid.", sheetName);
+            return null;
+        }
+
+        this.sheetName = sheetName;
+        this.rolloverCount = 1;
+        nextSheet(sheetName);
+
+        return sheet;
+    }
+
+    /**
+     * データ行を生成する。<br>
+     * シートの最大行数に達している場合は、新しいシートを生成してから行を生成する。
+     *
+     * @return Rowオブジェクト
+     */
+    public Row createRow() {
+        if (finished) {
+            log.error("writer is already finished.");
+            return null;
+        }
+
+        if (nextRowIndex >= maxRows) {
+            nextSheet(getRolloverSheetName());
+        }
+
+        return createRow(sheet, nextRowIndex++);
+    }
+
+    /**
+     * 指定したシートにデータ行を生成する。<br>
+     * テンプレートシートのデータ行の高さ・書式を適用する。
+     *
+     * @param target シート
+     * @param rowIndex 行インデックス
+     * @return Rowオブジェクト
+     */
+    Row createRow(final Sheet target, final int rowIndex) {
+        final Row row = target.createRow(rowIndex);
+        row.setHeight(dataRowHeight);
+        for (int i = 0; i < dataStyles.length; i++) {
+            if (dataStyles[i] != null) {
+                row.createCell(i).setCellStyle(dataStyles[i]);
+            }
+        }
+
+        return row;
+    }
+
+    /**
+     * ヘッダー行数を取得する。
+     *
+     * @return ヘッダー行数
+     */
+    int getHeaderRowCount() {
+        return headerRowCount;
+    }
+
+    /**
+     * 1シートの最大行数を取得する。
+     *
+     * @return 1シートの最大行数
+     */
+    int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * データ行を書き込む。
+     *
+     * @param values セルの値(列インデックス順)
+     * @return 書き込んだRowオブジェクト
+     */
+    public Row writeRow(final Object... values) {
+        final Row row = createRow();
+        if (row == null || values == null) {
+            return row;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            final Cell cell = row.getCell(i);
+            ExcelUtils.setCellValue(cell != null ? cell : row.createCell(i), values[i]);
+        }
+
+        return row;
+    }
+
+    /**
+     * Excelファイルを指定パスに出力する。<br>
+     * テンプレートシートは削除する。出力は1回のみ可能。
+     *
+     * @param path ファイルのパス
+     */
+    public void output(final Path path) {
+        finish();
+        ExcelUtils.output(workbook, path);
+    }
+
+    /**
+     * 一時ファイルを削除し、ワークブックを閉じる。
+     */
+    @Override
+    public void close() {
+        workbook.dispose();
+        try {
+            workbook.close();
+        } catch (Exception e) {
+            log.warn(e.getMessage());
+        }
+    }
+
+    /**
+     * 書き込みを終了する。<br>
+     * テンプレートシートを削除する。
+     */
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        completeSheet();
+
+        final int templateIndex = workbook.getSheetIndex(templateSheetName);
+        if (templateIndex >= 0) {
+            workbook.removeSheetAt(templateIndex);
+        }
+    }
+
+    /**
+     * 新しいシートを生成し、書き込み先を切り替える。
+     *
+     * @param name シート名
+     */
+    private void nextSheet(final String name) {
+        completeSheet();
+        sheet = workbook.createSheet(name);
+        copyTemplate(sheet);
+        sheets.add(sheet);
+        nextRowIndex = headerRowCount;
+
+        log.debug("sheet({}) created.", name);
+    }
+
+    /**
+     * 書き込み中のシートの条件付き書式の適用範囲を、データ行の最終行まで広げる。
+     */
+    private void completeSheet() {
+        if (sheet != null && nextRowIndex > headerRowCount) {
+            ExcelUtils.conditionalFormat(sheet, headerRowCount);
+        }
+    }
+
+    /**
+     * 最大行数に達した場合の次のシート名を取得する。<br>
+     * 書き込み中のシート名に、同じシート名から生成したシートの通し番号を付ける。
+     *
+     * @return シート名
+     */
+    private String getRolloverSheetName() {
+        final String suffix = "(" + ++rolloverCount + ")";
+        final String base = sheetName.length() + suffix.length() > SHEET_NAME_MAX_LENGTH
+                ? sheetName.substring(0, SHEET_NAME_MAX_LENGTH - suffix.length()) : sheetName;
+
+        return base + suffix;
+    }
+
+    /**
+     * テンプレートシートのヘッダー行・列幅・結合セル・条件付き書式・入力規則・印刷設定をコピーする。
+     *
+     * @param target コピー先のシート
+     */
+    private void copyTemplate(final Sheet target) {
+        // 列幅・列書式
+        for (int i = 0; i < templateLastCol; i++) {
+            target.setColumnWidth(i, templateSheet.getColumnWidth(i));
+            target.setColumnHidden(i, templateSheet.isColumnHidden(i));
+            final CellStyle columnStyle = templateSheet.getColumnStyle(i);
+            if (columnStyle != null) {
+                target.setDefaultColumnStyle(i, columnStyle);
+            }
+        }
+        target.setDefaultRowHeight(templateSheet.getDefaultRowHeight());
+
+        // ヘッダー行
+        for (int i = 0; i < headerRowCount; i++) {
+            final Row srcRow = templateSheet.getRow(i);
+            if (srcRow == null) {
+                continue;
+            }
+
+            final Row row = target.createRow(i);
+            row.setHeight(srcRow.getHeight());
+            if (srcRow.isFormatted()) {
+                row.setRowStyle(srcRow.getRowStyle());
+            }
+            for (final Cell srcCell : srcRow) {
+                final Cell cell = row.createCell(srcCell.getColumnIndex());
+                cell.setCellStyle(srcCell.getCellStyle());
+                copyCellValue(srcCell, cell);
+            }
+        }
+
+        // 結合セル(ヘッダー行内のみ)
+        for (final CellRangeAddress region : headerMergedRegions) {
+            target.addMergedRegionUnsafe(region.copy());
+        }
+
+        // 条件付き書式・入力規則(データ行の範囲は、シートの書き込み完了時に広げる)
+        final SheetConditionalFormatting formatting = target.getSheetConditionalFormatting();
+        for (final Pair<CellRangeAddress[], ConditionalFormattingRule[]> format : conditionalFormattings) {
+            final CellRangeAddress[] ranges = new CellRangeAddress[format.getKey().length];
+            for (int i = 0; i < ranges.length; i++) {
+                ranges[i] = format.getKey()[i].copy();
+            }
+            // 1つの条件付き書式に登録できる規則は3つまでのため、分けて登録する
+            final ConditionalFormattingRule[] rules = format.getValue();
+            for (int i = 0; i < rules.length; i += MAX_CONDITIONAL_FORMATTING_RULES) {
+                formatting.addConditionalFormatting(ranges, Arrays.copyOfRange(rules, i, Math.min(i + MAX_CONDITIONAL_FORMATTING_RULES, rules.length)));
+            }
+        }
+        for (final DataValidation validation : dataValidations) {
+            target.addValidationData(validation);
+        }
+
+        // ウィンドウ枠の固定
+        final PaneInformation pane = templateSheet.getPaneInformation();
+        if (pane != null && pane.isFreezePane()) {
+            target.createFreezePane(pane.getVerticalSplitPosition(), pane.getHorizontalSplitPosition());
+        }
+
+        // 印刷設定
+        ExcelUtils.copyPrintSetup(templateSheet.getPrintSetup(), target.getPrintSetup());
+        target.setFitToPage(templateSheet.getFitToPage());
+        target.setAutobreaks(templateSheet.getAutobreaks());
+        target.setHorizontallyCenter(templateSheet.getHorizontallyCenter());
+        target.setVerticallyCenter(templateSheet.getVerticallyCenter());
+        if (templateSheet.getRepeatingRows() != null) {
+            target.setRepeatingRows(templateSheet.getRepeatingRows());
+        }
+        if (templateSheet.getRepeatingColumns() != null) {
+            target.setRepeatingColumns(templateSheet.getRepeatingColumns());
+        }
+    }
+
+    /**
+     * セルの値をコピーする。
+     *
+     * @param from コピー元のセル
+     * @param to コピー先のセル
+     */
+    private static void copyCellValue(final Cell from, final Cell to) {
+        switch (from.getCellType()) {
+            case STRING:
+                to.setCellValue(from.getRichStringCellValue());
+                break;
+            case NUMERIC:
+                to.setCellValue(from.getNumericCellValue());
+                break;
+            case BOOLEAN:
+                to.setCellValue(from.getBooleanCellValue());
+                break;
+            case FORMULA:
+                to.setCellFormula(from.getCellFormula());
+                break;
+            case ERROR:
+                to.setCellErrorValue(from.getErrorCellValue());
+                break;
+            default:
+                break;
+        }
+    }
+}
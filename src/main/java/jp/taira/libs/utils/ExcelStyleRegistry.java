@@ -0,0 +1,185 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Excelスタイル登録クラス<br>
+ * フォント・データ書式・セルスタイルを内容で重複排除し、同じ内容のものは既存のオブジェクトを返す。
+ * ワークブックに既に存在するフォント・セルスタイルも対象とするため、何度書き込んでもスタイル数は増えない。
+ * (xlsのセルスタイル数の上限は4000)
+ */
+public class ExcelStyleRegistry {
+
+    /** ワークブック */
+    private final Workbook workbook;
+
+    /** データ書式 */
+    private final DataFormat dataFormat;
+
+    /** 既定のセルスタイル */
+    private final CellStyle defaultStyle;
+
+    /** データ書式のインデックス(書式文字列ごと) */
+    private final Map<String, Short> formats = new HashMap<>();
+
+    /** フォント(内容ごと) */
+    private final Map<List<Object>, Font> fonts = new HashMap<>();
+
+    /** セルスタイル(内容ごと) */
+    private final Map<List<Object>, CellStyle> styles = new HashMap<>();
+
+    /**
+     * コンストラクタ<br>
+     * ワークブックに存在するフォント・セルスタイルを登録する。
+     *
+     * @param workbook ワークブック
+     */
+    public ExcelStyleRegistry(final Workbook workbook) {
+        this.workbook = workbook;
+        this.dataFormat = workbook.createDataFormat();
+
+        // xlsのフォントインデックスは4が欠番
+        final boolean hssf = workbook instanceof HSSFWorkbook;
+        final int fontCount = workbook.getNumberOfFontsAsInt();
+        final int lastFontIndex = (hssf && fontCount > 4) ? fontCount : fontCount - 1;
+        for (int i = 0; i <= lastFontIndex; i++) {
+            if (hssf && i == 4) {
+                continue;
+            }
+            final Font font = workbook.getFontAt(i);
+            fonts.putIfAbsent(keyOf(font), font);
+        }
+        // xlsのセルスタイルインデックス0～14はスタイル用(セルには使わない)
+        final int firstStyleIndex = hssf ? 15 : 0;
+        this.defaultStyle = workbook.getCellStyleAt(firstStyleIndex);
+        for (int i = firstStyleIndex; i < workbook.getNumCellStyles(); i++) {
+            final CellStyle style = workbook.getCellStyleAt(i);
+            styles.putIfAbsent(keyOf(style, style.getDataFormat(), style.getFontIndex()), style);
+        }
+    }
+
+    /**
+     * ワークブックを取得する。
+     *
+     * @return ワークブック
+     */
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * データ書式のインデックスを取得する。存在しない場合は登録する。
+     *
+     * @param format 書式文字列
+     * @return データ書式のインデックス
+     */
+    public short getDataFormat(final String format) {
+        return formats.computeIfAbsent(format, dataFormat::getFormat);
+    }
+
+    /**
+     * フォントを取得する。同じ内容のフォントが存在しない場合は生成する。
+     *
+     * @param fontName フォント名
+     * @param fontHeightInPoints フォントサイズ(ポイント)
+     * @param bold 太字の場合はtrue
+     * @param italic 斜体の場合はtrue
+     * @param color 色(インデックス)
+     * @return Fontオブジェクト
+     */
+    public Font getFont(final String fontName, final short fontHeightInPoints, final boolean bold, final boolean italic, final short color) {
+        final List<Object> key = Arrays.asList(fontName, (short) (fontHeightInPoints * 20), bold, italic, false, Font.SS_NONE, Font.U_NONE, color);
+
+        return fonts.computeIfAbsent(key, k -> {
+            final Font font = workbook.createFont();
+            font.setFontName(fontName);
+            font.setFontHeightInPoints(fontHeightInPoints);
+            font.setBold(bold);
+            font.setItalic(italic);
+            font.setColor(color);
+            return font;
+        });
+    }
+
+    /**
+     * セルスタイルを取得する。<br>
+     * 元のセルスタイルのデータ書式を変更したセルスタイルを返す。同じ内容のセルスタイルが存在しない場合は生成する。
+     *
+     * @param base 元のセルスタイル(nullの場合は既定のセルスタイル)
+     * @param format 書式文字列(nullの場合は変更しない)
+     * @return CellStyleオブジェクト
+     */
+    public CellStyle getStyle(final CellStyle base, final String format) {
+        return getStyle(base, format, null);
+    }
+
+    /**
+     * セルスタイルを取得する。<br>
+     * 元のセルスタイルのデータ書式・フォントを変更したセルスタイルを返す。同じ内容のセルスタイルが存在しない場合は生成する。
+     *
+     * @param base 元のセルスタイル(nullの場合は既定のセルスタイル)
+     * @param format 書式文字列(nullの場合は変更しない)
+     * @param font フォント(nullの場合は変更しない)
+     * @return CellStyleオブジェクト
+     */
+    public CellStyle getStyle(final CellStyle base, final String format, final Font font) {
+        final CellStyle from = (base == null) ? defaultStyle : base;
+        final short formatIndex = (format == null) ? from.getDataFormat() : getDataFormat(format);
+        final int fontIndex = (font == null) ? from.getFontIndex() : font.getIndex();
+
+        return styles.computeIfAbsent(keyOf(from, formatIndex, fontIndex), k -> {
+            final CellStyle style = workbook.createCellStyle();
+            style.cloneStyleFrom(from);
+            style.setDataFormat(formatIndex);
+            if (font != null) {
+                style.setFont(font);
+            }
+            return style;
+        });
+    }
+
+    /**
+     * 登録しているセルスタイルの数を取得する。
+     *
+     * @return セルスタイルの数
+     */
+    public int getNumberOfStyles() {
+        return styles.size();
+    }
+
+    /**
+     * フォントの内容を表すキーを生成する。
+     *
+     * @param font フォント
+     * @return キー
+     */
+    private static List<Object> keyOf(final Font font) {
+        return Arrays.asList(font.getFontName(), font.getFontHeight(), font.getBold(), font.getItalic(), font.getStrikeout(),
+                font.getTypeOffset(), font.getUnderline(), font.getColor());
+    }
+
+    /**
+     * セルスタイルの内容を表すキーを生成する。
+     *
+     * @param style セルスタイル
+     * @param formatIndex データ書式のインデックス
+     * @param fontIndex フォントのインデックス
+     * @return キー
+     */
+    private static List<Object> keyOf(final CellStyle style, final short formatIndex, final int fontIndex) {
+        return Arrays.asList(formatIndex, fontIndex, style.getHidden(), style.getLocked(), style.getQuotePrefixed(),
+                style.getAlignment(), style.getVerticalAlignment(), style.getWrapText(), style.getRotation(), style.getIndention(), style.getShrinkToFit(),
+                style.getBorderLeft(), style.getBorderRight(), style.getBorderTop(), style.getBorderBottom(),
+                style.getLeftBorderColor(), style.getRightBorderColor(), style.getTopBorderColor(), style.getBottomBorderColor(),
+                style.getFillPattern(), style.getFillForegroundColorColor(), style.getFillBackgroundColorColor());
+    }
+}
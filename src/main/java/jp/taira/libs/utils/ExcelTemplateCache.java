@@ -0,0 +1,480 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Excelテンプレートキャッシュクラス<br>
+ * テンプレートファイルの内容をメモリに保持し、作業用のワークブックを払い出す。
+ * ファイルはパス・更新日時・サイズで識別し、更新日時・サイズが変わった場合は内容のハッシュで変更の有無を判定する。<br>
+ * xlsxは各パートを無圧縮で格納し直したものを保持するため、作業用のワークブックを生成する際にファイルの読み込み・展開は行わない。
+ * また、解析済みの予備のワークブックをテンプレートごとに保持し、払い出した分はバックグラウンドで補充する。<br>
+ * 保持するテンプレート数が上限を超えた場合は最も長く使われていないものを、一定時間使われていないものは次の払い出しの際に破棄する。<br>
+ * POIのワークブックはスレッドセーフではないが、払い出すワークブックは互いに独立しているため、別のスレッドで使用してよい。
+ */
+@Slf4j
+public class ExcelTemplateCache implements Closeable {
+
+    /** 保持するテンプレート数の既定値 */
+    public static final int DEFAULT_MAX_ENTRIES = 16;
+
+    /** 破棄するまでの未使用時間の既定値 */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    /** テンプレートごとの予備のワークブック数の既定値 */
+    public static final int DEFAULT_SPARES = 2;
+
+    /** ハッシュアルゴリズム */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /** 保持するテンプレート数 */
+    private final int maxEntries;
+
+    /** 破棄するまでの未使用時間(ミリ秒) */
+    private final long idleTimeoutMillis;
+
+    /** テンプレートごとの予備のワークブック数 */
+    private final int spares;
+
+    /** テンプレート(パスごと、使用順) */
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** 予備のワークブックを生成するスレッド */
+    private final ExecutorService executor;
+
+    /** ヒット数(メモリのテンプレートから払い出した数) */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** ミス数(ファイルを読み込んだ数) */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /** 予備のワークブックを払い出した数 */
+    private final AtomicLong spareHitCount = new AtomicLong();
+
+    /** 破棄したテンプレート数 */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * コンストラクタ<br>
+     * 既定値で生成する。
+     */
+    public ExcelTemplateCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_IDLE_TIMEOUT, DEFAULT_SPARES);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param maxEntries 保持するテンプレート数
+     * @param idleTimeout 破棄するまでの未使用時間
+     * @param spares テンプレートごとの予備のワークブック数(0の場合は予備を持たない)
+     */
+    public ExcelTemplateCache(final int maxEntries, final Duration idleTimeout, final int spares) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        if (idleTimeout == null || idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("idleTimeout is invalid: " + idleTimeout);
+        }
+        if (spares < 0) {
+            throw new IllegalArgumentException("spares must not be negative: " + spares);
+        }
+
+        this.maxEntries = maxEntries;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.spares = spares;
+        this.executor = (spares > 0) ? Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "excel-template-cache");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * 作業用のワークブックを取得する。<br>
+     * テンプレートファイルを変更しない、独立したワークブックを返す。使用後は呼び出し元で閉じること。
+     *
+     * @param path テンプレートファイルのパス
+     * @return Workbookオブジェクト。読み込みに失敗した場合はnull。
+     */
+    public Workbook checkout(final Path path) {
+        if (path == null) {
+            log.error("path is null.");
+            return null;
+        }
+
+        final Entry entry = getEntry(path.toAbsolutePath().normalize());
+        if (entry == null) {
+            return null;
+        }
+
+        final Workbook spare = entry.spares.pollFirst();
+        if (spare != null) {
+            spareHitCount.incrementAndGet();
+            replenish(entry);
+            return spare;
+        }
+
+        final Workbook workbook = entry.newWorkbook();
+        replenish(entry);
+
+        return workbook;
+    }
+
+    /**
+     * テンプレートを破棄する。
+     *
+     * @param path テンプレートファイルのパス
+     */
+    public void invalidate(final Path path) {
+        final Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(path.toAbsolutePath().normalize());
+        }
+        if (entry != null) {
+            entry.dispose();
+        }
+    }
+
+    /**
+     * 全てのテンプレートを破棄する。
+     */
+    public void invalidateAll() {
+        final List<Entry> removed;
+        synchronized (entries) {
+            removed = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        removed.forEach(Entry::dispose);
+    }
+
+    /**
+     * 保持しているテンプレート数を取得する。
+     *
+     * @return テンプレート数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * ヒット数(メモリのテンプレートから払い出した数)を取得する。
+     *
+     * @return ヒット数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * ミス数(ファイルを読み込んだ数)を取得する。
+     *
+     * @return ミス数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 予備のワークブックを払い出した数を取得する。
+     *
+     * @return 予備のワークブックを払い出した数
+     */
+    public long getSpareHitCount() {
+        return spareHitCount.get();
+    }
+
+    /**
+     * 破棄したテンプレート数を取得する。
+     *
+     * @return 破棄したテンプレート数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * 全てのテンプレートを破棄し、予備のワークブックの生成を停止する。
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        invalidateAll();
+    }
+
+    /**
+     * テンプレートを取得する。<br>
+     * 保持していない場合、またはファイルが変更された場合は読み込む。
+     *
+     * @param path テンプレートファイルのパス(絶対パス)
+     * @return テンプレート。読み込みに失敗した場合はnull。
+     */
+    private Entry getEntry(final Path path) {
+        final long lastModified;
+        final long size;
+        try {
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+            size = Files.size(path);
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            invalidate(path);
+            return null;
+        }
+
+        final long now = System.currentTimeMillis();
+        final List<Entry> evicted = new ArrayList<>();
+        Entry entry;
+        synchronized (entries) {
+            // 一定時間使われていないテンプレートを破棄する(使用順のため先頭から判定する)
+            final Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Entry current = iterator.next().getValue();
+                if (now - current.lastAccess < idleTimeoutMillis) {
+                    break;
+                }
+                iterator.remove();
+                evicted.add(current);
+            }
+            entry = entries.get(path);
+        }
+        evicted.forEach(this::evict);
+
+        if (entry != null && entry.lastModified == lastModified && entry.size == size) {
+            hitCount.incrementAndGet();
+            entry.lastAccess = now;
+            return entry;
+        }
+
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            invalidate(path);
+            return null;
+        }
+        missCount.incrementAndGet();
+
+        final byte[] hash = hash(bytes);
+        if (entry != null && Arrays.equals(entry.hash, hash)) {
+            // 更新日時のみ変わった場合は、解析済みのワークブックを引き続き使う
+            entry.lastModified = lastModified;
+            entry.size = size;
+            entry.lastAccess = now;
+            return entry;
+        }
+
+        final Entry loaded = new Entry(lastModified, size, hash, repack(bytes));
+        loaded.lastAccess = now;
+        final Entry replaced;
+        synchronized (entries) {
+            replaced = entries.put(path, loaded);
+            final Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                final Entry eldest = iterator.next().getValue();
+                iterator.remove();
+                evicted.add(eldest);
+            }
+        }
+        if (replaced != null) {
+            replaced.dispose();
+        }
+        evicted.forEach(this::evict);
+
+        return loaded;
+    }
+
+    /**
+     * テンプレートを破棄し、破棄数を加算する。
+     *
+     * @param entry テンプレート
+     */
+    private void evict(final Entry entry) {
+        evictionCount.incrementAndGet();
+        entry.dispose();
+    }
+
+    /**
+     * 予備のワークブックを補充する。
+     *
+     * @param entry テンプレート
+     */
+    private void replenish(final Entry entry) {
+        if (executor == null || !entry.replenishing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    while (!entry.disposed && entry.spares.size() < spares) {
+                        final Workbook workbook = entry.newWorkbook();
+                        if (workbook == null) {
+                            break;
+                        }
+                        entry.spares.addLast(workbook);
+                    }
+                    if (entry.disposed) {
+                        entry.closeSpares();
+                    }
+                } finally {
+                    entry.replenishing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.replenishing.set(false);
+        }
+    }
+
+    /**
+     * ハッシュ値を計算する。
+     *
+     * @param bytes 内容
+     * @return ハッシュ値
+     */
+    private static byte[] hash(final byte[] bytes) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * xlsxの各パートを無圧縮で格納し直す。<br>
+     * zip形式でない場合(xls)、または格納し直せない場合は元の内容を返す。
+     *
+     * @param bytes ファイルの内容
+     * @return 格納し直した内容
+     */
+    static byte[] repack(final byte[] bytes) {
+        if (bytes.length < 2 || bytes[0] != 'P' || bytes[1] != 'K') {
+            return bytes;
+        }
+
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length * 4);
+            try (ZipOutputStream zipOutputStream = new ZipOutputStream(byteArrayOutputStream)) {
+                final byte[] buffer = new byte[8192];
+                ZipEntry zipEntry;
+                while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+                    final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                    int length;
+                    while ((length = zipInputStream.read(buffer)) > 0) {
+                        content.write(buffer, 0, length);
+                    }
+
+                    final byte[] data = content.toByteArray();
+                    final CRC32 crc32 = new CRC32();
+                    crc32.update(data);
+
+                    final ZipEntry stored = new ZipEntry(zipEntry.getName());
+                    stored.setMethod(ZipEntry.STORED);
+                    stored.setSize(data.length);
+                    stored.setCompressedSize(data.length);
+                    stored.setCrc(crc32.getValue());
+                    zipOutputStream.putNextEntry(stored);
+                    zipOutputStream.write(data);
+                    zipOutputStream.closeEntry();
+                }
+            }
+
+            return byteArrayOutputStream.toByteArray();
+        } catch (Exception e) {
+            log.warn(e.getMessage());
+            return bytes;
+        }
+    }
+
+    /**
+     * テンプレートクラス
+     */
+    private static class Entry {
+
+        /** 更新日時 */
+        private volatile long lastModified;
+        /** サイズ */
+        private volatile long size;
+        /** 内容のハッシュ値 */
+        private final byte[] hash;
+        /** 内容(xlsxは無圧縮で格納し直したもの) */
+        private final byte[] master;
+        /** 最終使用日時 */
+        private volatile long lastAccess;
+        /** 予備のワークブック */
+        private final Deque<Workbook> spares = new ConcurrentLinkedDeque<>();
+        /** 予備のワークブックを補充中か */
+        private final AtomicBoolean replenishing = new AtomicBoolean();
+        /** 破棄済みか */
+        private volatile boolean disposed;
+
+        private Entry(final long lastModified, final long size, final byte[] hash, final byte[] master) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+            this.master = master;
+        }
+
+        /**
+         * ワークブックを生成する。
+         *
+         * @return Workbookオブジェクト。生成に失敗した場合はnull。
+         */
+        private Workbook newWorkbook() {
+            try {
+                return WorkbookFactory.create(new ByteArrayInputStream(master));
+            } catch (Exception e) {
+                log.error(e.getMessage());
+                return null;
+            }
+        }
+
+        private void dispose() {
+            disposed = true;
+            closeSpares();
+        }
+
+        private void closeSpares() {
+            Workbook workbook;
+            while ((workbook = spares.pollFirst()) != null) {
+                try {
+                    workbook.close();
+                } catch (IOException e) {
+                    log.warn(e.getMessage());
+                }
+            }
+        }
+    }
+}
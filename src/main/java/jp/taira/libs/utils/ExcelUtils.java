@@ -1,22 +1,54 @@
 package jp.taira.libs.utils;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.poi.hssf.OldExcelFormatException;
 import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.poifs.crypt.CryptoFunctions;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.FormulaParseException;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
+import org.apache.poi.ss.formula.FormulaShifter;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.AreaReference;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTDataValidation;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTDataValidations;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.LinkedList;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 
 /**
  * Excelユーティリティクラス
@@ -24,6 +56,21 @@ import java.util.Objects;
 @Slf4j
 public class ExcelUtils {
 
+    /** 1899-12-30の1970-01-01からの日数(1900年基準のシリアル値61(1900-03-01)以降は、シリアル値との差がこの日数になる) */
+    private static final long EPOCH_DAY_1900 = -25569;
+
+    /** 1904年基準のシリアル値0の1970-01-01からの日数 */
+    private static final long EPOCH_DAY_1904 = -24107;
+
+    /** zip圧縮レベルの既定値 */
+    public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    /** 出力バッファサイズ */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /** ワークブックごとのセル書式情報(ワークブックが参照されなくなると破棄する) */
+    private static final Map<Workbook, CellFormatCache> CELL_FORMAT_CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
     private ExcelUtils() {
         throw new IllegalAccessError("Constants class.");
     }
@@ -52,8 +99,36 @@ public class ExcelUtils {
      * @return Workbookオブジェクト
      */
     public static Workbook getWorkbook(final Path path) {
+        try (InputStream inputStream = new FileInputStream(path.toAbsolutePath().toString())) {
+            return getWorkbook(inputStream);
+        } catch (OldExcelFormatException e) {
+            throw new OldExcelFormatException(e.getMessage());
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * ワークブックを取得する。<br>
+     * readOnlyがtrueの場合は、ファイルを読み取り専用で直接開く(xlsxはOPCPackage、xlsはPOIFSFileSystem)。
+     * ファイル全体をバイト配列に読み込まず、zipのエントリーをファイルから直接読むため、その分のヒープ使用量と時間を抑えられる。
+     * ただし、xlsxの全てのシートは開く時点で解析する。必要なシートのみ解析する場合は{@link ExcelLazyWorkbook}を使うこと。
+     * 取得したワークブックはファイルを開いたままのため、使用後に閉じること。閉じてもファイルは変更しない。
+     * また、読み取り専用のワークブックは出力できない。<br>
+     * readOnlyがfalseの場合は{@link #getWorkbook(Path)}と同じ。
+     *
+     * @param path ファイルのパス
+     * @param readOnly 読み取り専用で開く場合はtrue、そうでない場合はfalse。
+     * @return Workbookオブジェクト
+     */
+    public static Workbook getWorkbook(final Path path, final boolean readOnly) {
+        if (!readOnly) {
+            return getWorkbook(path);
+        }
+
         try {
-            return getWorkbook(new FileInputStream(path.toAbsolutePath().toString()));
+            return WorkbookFactory.create(path.toAbsolutePath().toFile(), null, true);
         } catch (OldExcelFormatException e) {
             throw new OldExcelFormatException(e.getMessage());
         } catch (Exception e) {
@@ -63,22 +138,76 @@ public class ExcelUtils {
     }
 
     /**
-     * ワークブックを取得する。
+     * パスワードで暗号化されたワークブックを取得する。<br>
+     * 暗号化されたxlsxは、{@link ExcelDecryptedFile}で一時ファイルに復号してから読み込む(一時ファイルは読み込み後に削除する)。
+     * 復号したパッケージをメモリに保持しないため、ヒープ使用量は暗号化されていないファイルを読み込む場合と同じ。
+     * 暗号化されたxlsは、パスワードを指定してそのまま読み込む。暗号化されていないファイルはパスワードを無視する。<br>
+     * passwordがnullの場合は{@link #getWorkbook(Path)}と同じ。
+     *
+     * @param path ファイルのパス
+     * @param password パスワード
+     * @return Workbookオブジェクト。パスワードが一致しない場合はnull。
+     */
+    public static Workbook getWorkbook(final Path path, final String password) {
+        if (password == null) {
+            return getWorkbook(path);
+        }
+
+        try (ExcelDecryptedFile decryptedFile = ExcelDecryptedFile.decrypt(path, password)) {
+            if (decryptedFile == null) {
+                return null;
+            }
+
+            try (InputStream inputStream = Files.newInputStream(decryptedFile.getPath())) {
+                return WorkbookFactory.create(inputStream, password);
+            }
+        } catch (OldExcelFormatException e) {
+            throw new OldExcelFormatException(e.getMessage());
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * ワークブックを取得する。<br>
+     * ワークブックを一時ファイルに書き出し、その入力ストリームを返す。一時ファイルは入力ストリームを閉じる際に削除する。
      *
      * @param workbook ワークブック
      * @return 入力ストリーム
      */
     public static InputStream getWorkbook(final Workbook workbook) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Path tempFile = null;
         try {
-            workbook.write(baos);
+            tempFile = Files.createTempFile("workbook", ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                output(workbook, outputStream);
+            }
+
+            return Files.newInputStream(tempFile, StandardOpenOption.DELETE_ON_CLOSE);
         } catch (Exception e) {
             log.error(e.getMessage());
+            deleteQuietly(tempFile);
             return null;
         }
-        byte[] barray = baos.toByteArray();
+    }
 
-        return new ByteArrayInputStream(barray);
+    /**
+     * ファイルを削除する。<br>
+     * 削除に失敗した場合はログを出力する。
+     *
+     * @param path ファイルのパス
+     */
+    static void deleteQuietly(final Path path) {
+        if (path == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn(e.getMessage());
+        }
     }
 
     /**
@@ -188,35 +317,18 @@ public class ExcelUtils {
             return null;
         }
 
-        List<Sheet> sheetList = new LinkedList<>();
+        List<Sheet> sheetList = new ArrayList<>(sheetNames.length);
+        final int templateIndex = workbook.getSheetIndex(templateSheet);
         final PrintSetup templatePs = templateSheet.getPrintSetup();
         for (final String sheetName : sheetNames) {
             if (StringUtils.isBlank(sheetName)) {
                 continue;
             }
 
-            final Sheet sheet = workbook.cloneSheet(workbook.getSheetIndex(templateSheetName));
-            workbook.setSheetName(workbook.getSheetIndex(sheet), sheetName);
+            final Sheet sheet = cloneSheet(workbook, templateIndex, sheetName);
 
             // 印刷設定
-            final PrintSetup ps = sheet.getPrintSetup();
-            ps.setCopies(templatePs.getCopies());
-            ps.setDraft(templatePs.getDraft());
-            ps.setFitHeight(templatePs.getFitHeight());
-            ps.setFitWidth(templatePs.getFitWidth());
-            ps.setFooterMargin(templatePs.getFooterMargin());
-            ps.setHeaderMargin(templatePs.getHeaderMargin());
-            ps.setHResolution(templatePs.getHResolution());
-            ps.setLandscape(templatePs.getLandscape());
-            ps.setLeftToRight(templatePs.getLeftToRight());
-            ps.setNoColor(templatePs.getNoColor());
-            ps.setNoOrientation(templatePs.getNoOrientation());
-            ps.setNotes(templatePs.getNotes());
-            ps.setPaperSize(templatePs.getPaperSize());
-            ps.setScale(templatePs.getScale());
-            ps.setUsePage(templatePs.getUsePage());
-            ps.setValidSettings(templatePs.getValidSettings());
-            ps.setVResolution(templatePs.getVResolution());
+            copyPrintSetup(templatePs, sheet.getPrintSetup());
 
             sheetList.add(sheet);
         }
@@ -228,6 +340,52 @@ public class ExcelUtils {
         return sheetList;
     }
 
+    /**
+     * シートをクローンする。<br>
+     * クローンしたシートはワークブックの末尾に追加する。xlsxは仮のシート名を生成せずに、指定したシート名で直接生成する。
+     *
+     * @param workbook ワークブック
+     * @param sheetIndex クローン元のシートインデックス
+     * @param sheetName シート名
+     * @return クローンしたSheetオブジェクト
+     */
+    private static Sheet cloneSheet(final Workbook workbook, final int sheetIndex, final String sheetName) {
+        if (workbook instanceof XSSFWorkbook) {
+            return ((XSSFWorkbook) workbook).cloneSheet(sheetIndex, sheetName);
+        }
+
+        final Sheet sheet = workbook.cloneSheet(sheetIndex);
+        workbook.setSheetName(workbook.getNumberOfSheets() - 1, sheetName);
+
+        return sheet;
+    }
+
+    /**
+     * 印刷設定をコピーする。
+     *
+     * @param from コピー元の印刷設定
+     * @param to コピー先の印刷設定
+     */
+    static void copyPrintSetup(final PrintSetup from, final PrintSetup to) {
+        to.setCopies(from.getCopies());
+        to.setDraft(from.getDraft());
+        to.setFitHeight(from.getFitHeight());
+        to.setFitWidth(from.getFitWidth());
+        to.setFooterMargin(from.getFooterMargin());
+        to.setHeaderMargin(from.getHeaderMargin());
+        to.setHResolution(from.getHResolution());
+        to.setLandscape(from.getLandscape());
+        to.setLeftToRight(from.getLeftToRight());
+        to.setNoColor(from.getNoColor());
+        to.setNoOrientation(from.getNoOrientation());
+        to.setNotes(from.getNotes());
+        to.setPaperSize(from.getPaperSize());
+        to.setScale(from.getScale());
+        to.setUsePage(from.getUsePage());
+        to.setValidSettings(from.getValidSettings());
+        to.setVResolution(from.getVResolution());
+    }
+
     /**
      * シートをコピーする。
      *
@@ -438,6 +596,235 @@ public class ExcelUtils {
         return cell != null ? cell : row.createCell(colIndex);
     }
 
+    /**
+     * 行を挿入する。<br>
+     * 挿入位置以降の行を1回の移動でまとめて下にずらし、テンプレート行の高さ・書式・数式・行内の結合セルを挿入した各行にコピーする。
+     * コピーした数式の相対参照は、挿入した行に合わせて調整する。<br>
+     * 数式の参照・結合セル・条件付き書式・名前の範囲は、行の移動に合わせて調整する。
+     * さらに、テンプレート行を含み挿入位置に接する条件付き書式・入力規則・名前の範囲は、挿入した行を含むように広げる。
+     * (入力規則の調整はxlsxのみ)<br>
+     * ストリーミング書き込み(SXSSF)のシートには挿入できない。
+     *
+     * @param sheet シート
+     * @param rowIndex 挿入位置の行インデックス
+     * @param count 挿入する行数
+     * @param templateRowIndex テンプレート行の行インデックス(挿入前)
+     * @return 挿入した行数
+     */
+    public static int insertRows(final Sheet sheet, final int rowIndex, final int count, final int templateRowIndex) {
+        if (sheet == null) {
+            log.error("sheet is null.");
+            return 0;
+        }
+
+        if (sheet instanceof SXSSFSheet) {
+            log.error("SXSSFSheet is not supported.");
+            return 0;
+        }
+
+        if (rowIndex < 0 || count < 1) {
+            log.error("rowIndex({}) / count({}) is invalid.", rowIndex, count);
+            return 0;
+        }
+
+        final Row templateRow = sheet.getRow(templateRowIndex);
+        if (templateRow == null) {
+            log.error("templateRow(rowIndex={}) is invalid.", templateRowIndex);
+            return 0;
+        }
+
+        final Workbook workbook = sheet.getWorkbook();
+        final SpreadsheetVersion version = workbook.getSpreadsheetVersion();
+        final int lastRowNum = sheet.getLastRowNum();
+        if (Math.max(lastRowNum, rowIndex) + count > version.getLastRowIndex()) {
+            log.error("count({}) is too large.", count);
+            return 0;
+        }
+
+        // 行の移動(数式の参照・結合セル・条件付き書式・名前の範囲はPOIが調整する)
+        if (rowIndex <= lastRowNum) {
+            sheet.shiftRows(rowIndex, lastRowNum, count, true, false);
+        }
+        final int templateIndex = templateRow.getRowNum();
+
+        // テンプレート行の内容を1回だけ取得する
+        final int sheetIndex = workbook.getSheetIndex(sheet);
+        final int lastCol = Math.max(templateRow.getLastCellNum(), 0);
+        final CellStyle[] styles = new CellStyle[lastCol];
+        final Ptg[][] formulas = new Ptg[lastCol][];
+        FormulaRenderingWorkbook renderingWorkbook = null;
+        for (final Cell cell : templateRow) {
+            styles[cell.getColumnIndex()] = cell.getCellStyle();
+            if (cell.getCellType() != CellType.FORMULA) {
+                continue;
+            }
+
+            if (renderingWorkbook == null) {
+                renderingWorkbook = (workbook instanceof HSSFWorkbook)
+                        ? HSSFEvaluationWorkbook.create((HSSFWorkbook) workbook) : XSSFEvaluationWorkbook.create((XSSFWorkbook) workbook);
+            }
+            formulas[cell.getColumnIndex()] = FormulaParser.parse(cell.getCellFormula(), (FormulaParsingWorkbook) renderingWorkbook, FormulaType.CELL, sheetIndex);
+        }
+        final List<CellRangeAddress> templateMergedRegions = new ArrayList<>();
+        for (final CellRangeAddress region : sheet.getMergedRegions()) {
+            if (region.getFirstRow() == templateIndex && region.getLastRow() == templateIndex) {
+                templateMergedRegions.add(region);
+            }
+        }
+
+        // 挿入した行にコピーする
+        for (int i = 0; i < count; i++) {
+            final int targetIndex = rowIndex + i;
+            final Row row = sheet.createRow(targetIndex);
+            row.setHeight(templateRow.getHeight());
+            if (templateRow.isFormatted()) {
+                row.setRowStyle(templateRow.getRowStyle());
+            }
+
+            final FormulaShifter shifter = (renderingWorkbook == null) ? null
+                    : FormulaShifter.createForRowCopy(sheetIndex, sheet.getSheetName(), templateIndex, templateIndex, targetIndex - templateIndex, version);
+            for (int colIndex = 0; colIndex < lastCol; colIndex++) {
+                if (styles[colIndex] == null) {
+                    continue;
+                }
+
+                final Cell cell = row.createCell(colIndex);
+                cell.setCellStyle(styles[colIndex]);
+                if (formulas[colIndex] != null) {
+                    final Ptg[] ptgs = new Ptg[formulas[colIndex].length];
+                    for (int j = 0; j < ptgs.length; j++) {
+                        ptgs[j] = formulas[colIndex][j].copy();
+                    }
+                    shifter.adjustFormula(ptgs, sheetIndex);
+                    cell.setCellFormula(FormulaRenderer.toFormulaString(renderingWorkbook, ptgs));
+                }
+            }
+
+            for (final CellRangeAddress region : templateMergedRegions) {
+                sheet.addMergedRegionUnsafe(new CellRangeAddress(targetIndex, targetIndex, region.getFirstColumn(), region.getLastColumn()));
+            }
+        }
+
+        // 条件付き書式・入力規則・名前の範囲を広げる
+        final SheetConditionalFormatting formatting = sheet.getSheetConditionalFormatting();
+        for (int i = 0; i < formatting.getNumConditionalFormattings(); i++) {
+            final ConditionalFormatting format = formatting.getConditionalFormattingAt(i);
+            final CellRangeAddress[] ranges = format.getFormattingRanges();
+            boolean changed = false;
+            for (int j = 0; j < ranges.length; j++) {
+                final CellRangeAddress extended = extendRange(ranges[j], rowIndex, count, templateIndex);
+                if (extended != null) {
+                    ranges[j] = extended;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                format.setFormattingRanges(ranges);
+            }
+        }
+        if (sheet instanceof XSSFSheet) {
+            shiftDataValidations((XSSFSheet) sheet, rowIndex, count, templateIndex);
+        }
+        extendNames(workbook, sheet.getSheetName(), rowIndex, count, templateIndex);
+
+        return count;
+    }
+
+    /**
+     * テンプレート行を含み挿入位置に接する範囲を、挿入した行を含むように広げる。
+     *
+     * @param range 範囲(行の移動後)
+     * @param rowIndex 挿入位置の行インデックス
+     * @param count 挿入した行数
+     * @param templateIndex テンプレート行の行インデックス(行の移動後)
+     * @return 広げた範囲。広げない場合はnull。
+     */
+    private static CellRangeAddress extendRange(final CellRangeAddress range, final int rowIndex, final int count, final int templateIndex) {
+        if (range.getFirstRow() > templateIndex || range.getLastRow() < templateIndex) {
+            return null;
+        }
+
+        if (range.getLastRow() == rowIndex - 1) {
+            return new CellRangeAddress(range.getFirstRow(), range.getLastRow() + count, range.getFirstColumn(), range.getLastColumn());
+        }
+        if (range.getFirstRow() == rowIndex + count) {
+            return new CellRangeAddress(rowIndex, range.getLastRow(), range.getFirstColumn(), range.getLastColumn());
+        }
+
+        return null;
+    }
+
+    /**
+     * 入力規則の範囲を、行の挿入に合わせて移動し、広げる。<br>
+     * POIの行の移動は入力規則を調整しないため、範囲を直接書き換える。
+     *
+     * @param sheet シート
+     * @param rowIndex 挿入位置の行インデックス
+     * @param count 挿入した行数
+     * @param templateIndex テンプレート行の行インデックス(行の移動後)
+     */
+    private static void shiftDataValidations(final XSSFSheet sheet, final int rowIndex, final int count, final int templateIndex) {
+        final CTDataValidations validations = sheet.getCTWorksheet().getDataValidations();
+        if (validations == null) {
+            return;
+        }
+
+        for (final CTDataValidation validation : validations.getDataValidationArray()) {
+            final List<String> refs = new ArrayList<>();
+            for (final Object ref : validation.getSqref()) {
+                CellRangeAddress range = CellRangeAddress.valueOf(ref.toString());
+                if (range.getFirstRow() >= rowIndex) {
+                    range = new CellRangeAddress(range.getFirstRow() + count, range.getLastRow() + count, range.getFirstColumn(), range.getLastColumn());
+                } else if (range.getLastRow() >= rowIndex) {
+                    range = new CellRangeAddress(range.getFirstRow(), range.getLastRow() + count, range.getFirstColumn(), range.getLastColumn());
+                }
+                final CellRangeAddress extended = extendRange(range, rowIndex, count, templateIndex);
+                refs.add((extended != null ? extended : range).formatAsString());
+            }
+            validation.setSqref(refs);
+        }
+    }
+
+    /**
+     * 名前の範囲を、挿入した行を含むように広げる。<br>
+     * 対象は、指定したシートの連続した範囲を参照する名前のみ。
+     *
+     * @param workbook ワークブック
+     * @param sheetName シート名
+     * @param rowIndex 挿入位置の行インデックス
+     * @param count 挿入した行数
+     * @param templateIndex テンプレート行の行インデックス(行の移動後)
+     */
+    private static void extendNames(final Workbook workbook, final String sheetName, final int rowIndex, final int count, final int templateIndex) {
+        final SpreadsheetVersion version = workbook.getSpreadsheetVersion();
+        for (final Name name : workbook.getAllNames()) {
+            final String formula = name.getRefersToFormula();
+            if (formula == null || name.isFunctionName() || !AreaReference.isContiguous(formula)) {
+                continue;
+            }
+
+            try {
+                final AreaReference area = new AreaReference(formula, version);
+                final CellReference first = area.getFirstCell();
+                final CellReference last = area.getLastCell();
+                if (!sheetName.equals(first.getSheetName()) || area.isWholeColumnReference()) {
+                    continue;
+                }
+
+                final CellRangeAddress extended = extendRange(new CellRangeAddress(first.getRow(), last.getRow(), first.getCol(), last.getCol()), rowIndex, count, templateIndex);
+                if (extended != null) {
+                    name.setRefersToFormula(new AreaReference(
+                            new CellReference(sheetName, extended.getFirstRow(), extended.getFirstColumn(), first.isRowAbsolute(), first.isColAbsolute()),
+                            new CellReference(sheetName, extended.getLastRow(), extended.getLastColumn(), last.isRowAbsolute(), last.isColAbsolute()),
+                            version).formatAsString());
+                }
+            } catch (FormulaParseException | IllegalArgumentException e) {
+                // 参照先を解析できない名前(#REF!など)は広げずに残す
+                log.error("Failed to extend name: {} ({}): {}", name.getNameName(), formula, e.getMessage());
+            }
+        }
+    }
+
     /**
      * セルの書式を指定して、値を取得する。
      *
@@ -447,11 +834,24 @@ public class ExcelUtils {
      * @return セルの値
      */
     public static Object getCellValue(final Workbook workbook, final Cell cell, final CellType cellType) {
+        return getCellValue(null, workbook, cell, cellType);
+    }
+
+    /**
+     * セルの書式を指定して、値を取得する。<br>
+     * 計算結果を保持していない数式は、指定した数式評価オブジェクトで評価する。
+     *
+     * @param evaluator 数式評価オブジェクト({@link #createFormulaEvaluator(Workbook)})。nullの場合は評価のたびに生成する。
+     * @param workbook ワークブック
+     * @param cell セル
+     * @param cellType セルの書式
+     * @return セルの値
+     */
+    public static Object getCellValue(final FormulaEvaluator evaluator, final Workbook workbook, final Cell cell, final CellType cellType) {
         if (workbook == null || cell == null) {
             return null;
         }
 
-        final String cellCoordinate = "(" + cell.getRowIndex() + "," + cell.getColumnIndex() + ")";
         Object result;
 
         if (cellType == CellType.BLANK) {
@@ -465,19 +865,19 @@ public class ExcelUtils {
                 FormulaError formulaError = FormulaError.forInt(errorCode);
                 errorResult = formulaError.getString();
             } catch (RuntimeException e) {
-                log.debug("Getting error code for {} failed!: {}", cellCoordinate, e.getMessage());
+                log.debug("Getting error code for ({},{}) failed!: {}", cell.getRowIndex(), cell.getColumnIndex(), e.getMessage());
                 if (cell instanceof XSSFCell) {
                     errorResult = ((XSSFCell)cell).getErrorCellString();
                 } else {
-                    log.error("Couldn't handle unexpected error scenario in cell: " + cellCoordinate, e);
+                    log.error("Couldn't handle unexpected error scenario in cell: (" + cell.getRowIndex() + "," + cell.getColumnIndex() + ")", e);
                     throw e;
                 }
             }
             result = errorResult;
         } else if (cellType == CellType.FORMULA) {
-            result = getFormulaCellValue(workbook, cell);
+            result = getFormulaCellValue(evaluator, workbook, cell);
         } else if (cellType == CellType.NUMERIC) {
-            if (DateUtil.isCellDateFormatted(cell)) {
+            if (isDateFormatted(cell)) {
                 result = cell.getDateCellValue();
             } else {
                 result = cell.getNumericCellValue();
@@ -489,7 +889,9 @@ public class ExcelUtils {
             throw new IllegalStateException("Unknown cell type: " + cell.getCellType());
         }
 
-        log.debug("cell{} resolved to value: {}", cellCoordinate, result);
+        if (log.isDebugEnabled()) {
+            log.debug("cell({},{}) resolved to value: {}", cell.getRowIndex(), cell.getColumnIndex(), result);
+        }
 
         return result;
     }
@@ -509,6 +911,24 @@ public class ExcelUtils {
         return getCellValue(workbook, cell, cell.getCellType());
     }
 
+    /**
+     * セルの値を取得する。<br>
+     * 計算結果を保持していない数式は、指定した数式評価オブジェクトで評価する。
+     * 多数のセルの値を取得する場合は、1つの数式評価オブジェクトを使い回すことで、数式の評価結果のキャッシュを共有する。
+     *
+     * @param evaluator 数式評価オブジェクト({@link #createFormulaEvaluator(Workbook)})。nullの場合は評価のたびに生成する。
+     * @param workbook ワークブック
+     * @param cell セル
+     * @return セルの値
+     */
+    public static Object getCellValue(final FormulaEvaluator evaluator, final Workbook workbook, final Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+
+        return getCellValue(evaluator, workbook, cell, cell.getCellType());
+    }
+
     /**
      * セルの値を取得する。
      *
@@ -526,6 +946,364 @@ public class ExcelUtils {
         return getCellValue(sheet.getWorkbook(), row.getCell(cellReference.getCol()));
     }
 
+    /**
+     * セルが日付の書式かを判断する。<br>
+     * {@link DateUtil#isCellDateFormatted(Cell)}と同じ判定を、書式の解析結果をワークブックごとにセルスタイルのインデックスでキャッシュして行う。
+     * セルスタイルの書式を変更した場合は、{@link #clearCellFormatCache(Workbook)}で破棄すること。
+     *
+     * @param cell セル
+     * @return 日付の書式である場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isDateFormatted(final Cell cell) {
+        if (cell == null) {
+            return false;
+        }
+
+        final double value = cell.getNumericCellValue();
+        if (!DateUtil.isValidExcelDate(value)) {
+            return false;
+        }
+
+        return getCellFormatCache(cell.getSheet().getWorkbook()).isDateStyle(cell.getCellStyle());
+    }
+
+    /**
+     * ワークブックのセル書式情報のキャッシュを破棄する。
+     *
+     * @param workbook ワークブック
+     */
+    public static void clearCellFormatCache(final Workbook workbook) {
+        if (workbook == null) {
+            return;
+        }
+
+        CELL_FORMAT_CACHES.remove(workbook);
+    }
+
+    /**
+     * セルの値を数値で取得する。<br>
+     * 数値のセルと、結果が数値の数式のセルが対象。日付のセルはシリアル値を返す。
+     *
+     * @param cell セル
+     * @param defaultValue セルが数値でない場合の値
+     * @return セルの値
+     */
+    public static double getDouble(final Cell cell, final double defaultValue) {
+        if (cell == null) {
+            return defaultValue;
+        }
+
+        final CellType cellType = cell.getCellType();
+        if (cellType == CellType.NUMERIC || (cellType == CellType.FORMULA && cell.getCachedFormulaResultType() == CellType.NUMERIC)) {
+            return cell.getNumericCellValue();
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * セルの値を整数で取得する。<br>
+     * 数値のセルと、結果が数値の数式のセルが対象。小数部分は切り捨てる。
+     *
+     * @param cell セル
+     * @param defaultValue セルが数値でない場合の値
+     * @return セルの値
+     */
+    public static long getLong(final Cell cell, final long defaultValue) {
+        if (cell == null) {
+            return defaultValue;
+        }
+
+        final CellType cellType = cell.getCellType();
+        if (cellType == CellType.NUMERIC || (cellType == CellType.FORMULA && cell.getCachedFormulaResultType() == CellType.NUMERIC)) {
+            return (long) cell.getNumericCellValue();
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * セルの値を文字列で取得する。<br>
+     * 整数の数値は小数点以下を付けない。真偽は"TRUE"/"FALSE"、数式は計算結果(キャッシュ)を返す。
+     *
+     * @param cell セル
+     * @return セルの値。空白・エラーのセルの場合はnull。
+     */
+    public static String getString(final Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+
+        CellType cellType = cell.getCellType();
+        if (cellType == CellType.FORMULA) {
+            cellType = cell.getCachedFormulaResultType();
+        }
+
+        switch (cellType) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                final double value = cell.getNumericCellValue();
+                if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                    return Long.toString((long) value);
+                }
+                return Double.toString(value);
+            case BOOLEAN:
+                return cell.getBooleanCellValue() ? "TRUE" : "FALSE";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * セルの日付を1970-01-01からの日数で取得する。<br>
+     * 数値のセルと、結果が数値の数式のセルが対象。時刻は切り捨てる。ワークブックの1904年基準にも対応する。
+     *
+     * @param cell セル
+     * @param defaultValue セルが数値でない場合の値
+     * @return 1970-01-01からの日数({@link java.time.LocalDate#ofEpochDay(long)}で変換できる)
+     */
+    public static long getEpochDay(final Cell cell, final long defaultValue) {
+        final double value = getDouble(cell, Double.NaN);
+        if (Double.isNaN(value) || !DateUtil.isValidExcelDate(value)) {
+            return defaultValue;
+        }
+
+        return toEpochDay((long) Math.floor(value), getCellFormatCache(cell.getSheet().getWorkbook()).date1904);
+    }
+
+    /**
+     * シリアル値(日付部分)を1970-01-01からの日数に変換する。<br>
+     * 1900年基準は1900/2/29(シリアル値60)が存在するものとして扱われるため、シリアル値61未満は1日ずらす。
+     *
+     * @param serial シリアル値
+     * @param date1904 1904年基準の場合はtrue
+     * @return 1970-01-01からの日数
+     */
+    static long toEpochDay(final long serial, final boolean date1904) {
+        if (date1904) {
+            return serial + EPOCH_DAY_1904;
+        }
+
+        return serial + ((serial < 61) ? EPOCH_DAY_1900 + 1 : EPOCH_DAY_1900);
+    }
+
+    /**
+     * 1970-01-01からの日数を1900年基準のシリアル値に変換する({@link #toEpochDay(long, boolean)}の逆変換)。
+     *
+     * @param epochDay 1970-01-01からの日数
+     * @return シリアル値
+     */
+    static long toSerial(final long epochDay) {
+        final long serial = epochDay - EPOCH_DAY_1900;
+
+        return (serial < 61) ? serial - 1 : serial;
+    }
+
+    /**
+     * セルが空白かを判断する。<br>
+     * セルが存在しない場合、空白のセル、空白文字のみの文字列のセルは空白とする。
+     *
+     * @param cell セル
+     * @return 空白である場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isBlank(final Cell cell) {
+        if (cell == null) {
+            return true;
+        }
+
+        final CellType cellType = cell.getCellType();
+        if (cellType == CellType.BLANK) {
+            return true;
+        }
+        if (cellType != CellType.STRING) {
+            return false;
+        }
+
+        final String value = cell.getStringCellValue();
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i)) && value.charAt(i) != '\u3000') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 列の値を数値で取得する。
+     *
+     * @param sheet シート
+     * @param colIndex 列インデックス
+     * @param firstRowIndex 開始行インデックス
+     * @param lastRowIndex 終了行インデックス
+     * @param defaultValue セルが数値でない場合の値
+     * @return 列の値(開始行から終了行まで)
+     */
+    public static double[] getDoubles(final Sheet sheet, final int colIndex, final int firstRowIndex, final int lastRowIndex, final double defaultValue) {
+        final double[] values = new double[Math.max(lastRowIndex - firstRowIndex + 1, 0)];
+        getDoubles(sheet, colIndex, firstRowIndex, values, defaultValue);
+
+        return values;
+    }
+
+    /**
+     * 列の値を数値で取得し、配列に格納する。<br>
+     * 開始行から配列の長さ分の行を対象とする。
+     *
+     * @param sheet シート
+     * @param colIndex 列インデックス
+     * @param firstRowIndex 開始行インデックス
+     * @param values 格納先の配列
+     * @param defaultValue セルが数値でない場合の値
+     */
+    public static void getDoubles(final Sheet sheet, final int colIndex, final int firstRowIndex, final double[] values, final double defaultValue) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getDouble(getColumnCell(sheet, firstRowIndex + i, colIndex), defaultValue);
+        }
+    }
+
+    /**
+     * 列の値を整数で取得する。
+     *
+     * @param sheet シート
+     * @param colIndex 列インデックス
+     * @param firstRowIndex 開始行インデックス
+     * @param lastRowIndex 終了行インデックス
+     * @param defaultValue セルが数値でない場合の値
+     * @return 列の値(開始行から終了行まで)
+     */
+    public static long[] getLongs(final Sheet sheet, final int colIndex, final int firstRowIndex, final int lastRowIndex, final long defaultValue) {
+        final long[] values = new long[Math.max(lastRowIndex - firstRowIndex + 1, 0)];
+        getLongs(sheet, colIndex, firstRowIndex, values, defaultValue);
+
+        return values;
+    }
+
+    /**
+     * 列の値を整数で取得し、配列に格納する。<br>
+     * 開始行から配列の長さ分の行を対象とする。
+     *
+     * @param sheet シート
+     * @param colIndex 列インデックス
+     * @param firstRowIndex 開始行インデックス
+     * @param values 格納先の配列
+     * @param defaultValue セルが数値でない場合の値
+     */
+    public static void getLongs(final Sheet sheet, final int colIndex, final int firstRowIndex, final long[] values, final long defaultValue) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getLong(getColumnCell(sheet, firstRowIndex + i, colIndex), defaultValue);
+        }
+    }
+
+    /**
+     * 列の値を文字列で取得する。
+     *
+     * @param sheet シート
+     * @param colIndex 列インデックス
+     * @param firstRowIndex 開始行インデックス
+     * @param lastRowIndex 終了行インデックス
+     * @return 列の値(開始行から終了行まで)
+     */
+    public static String[] getStrings(final Sheet sheet, final int colIndex, final int firstRowIndex, final int lastRowIndex) {
+        final String[] values = new String[Math.max(lastRowIndex - firstRowIndex + 1, 0)];
+        getStrings(sheet, colIndex, firstRowIndex, values);
+
+        return values;
+    }
+
+    /**
+     * 列の値を文字列で取得し、配列に格納する。<br>
+     * 開始行から配列の長さ分の行を対象とする。
+     *
+     * @param sheet シート
+     * @param colIndex 列インデックス
+     * @param firstRowIndex 開始行インデックス
+     * @param values 格納先の配列
+     */
+    public static void getStrings(final Sheet sheet, final int colIndex, final int firstRowIndex, final String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getString(getColumnCell(sheet, firstRowIndex + i, colIndex));
+        }
+    }
+
+    private static Cell getColumnCell(final Sheet sheet, final int rowIndex, final int colIndex) {
+        final Row row = (sheet == null || rowIndex < 0) ? null : sheet.getRow(rowIndex);
+
+        return (row == null || colIndex < 0) ? null : row.getCell(colIndex);
+    }
+
+    private static CellFormatCache getCellFormatCache(final Workbook workbook) {
+        synchronized (CELL_FORMAT_CACHES) {
+            CellFormatCache cache = CELL_FORMAT_CACHES.get(workbook);
+            if (cache == null) {
+                cache = new CellFormatCache(isDate1904(workbook));
+                CELL_FORMAT_CACHES.put(workbook, cache);
+            }
+            return cache;
+        }
+    }
+
+    private static boolean isDate1904(final Workbook workbook) {
+        if (workbook instanceof XSSFWorkbook) {
+            return ((XSSFWorkbook) workbook).isDate1904();
+        }
+        if (workbook instanceof SXSSFWorkbook) {
+            return ((SXSSFWorkbook) workbook).getXSSFWorkbook().isDate1904();
+        }
+        if (workbook instanceof HSSFWorkbook) {
+            return ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+        }
+
+        return false;
+    }
+
+    /**
+     * セル書式情報クラス
+     */
+    private static class CellFormatCache {
+
+        /** 未判定 */
+        private static final byte UNKNOWN = 0;
+        /** 日付の書式 */
+        private static final byte DATE = 1;
+        /** 日付以外の書式 */
+        private static final byte OTHER = 2;
+
+        /** 1904年基準の場合はtrue */
+        private final boolean date1904;
+        /** 日付の書式かの判定結果(セルスタイルのインデックスごと) */
+        private volatile byte[] dateStyles = new byte[64];
+
+        private CellFormatCache(final boolean date1904) {
+            this.date1904 = date1904;
+        }
+
+        private boolean isDateStyle(final CellStyle style) {
+            if (style == null) {
+                return false;
+            }
+
+            final int index = style.getIndex();
+            byte[] styles = dateStyles;
+            if (index < styles.length && styles[index] != UNKNOWN) {
+                return styles[index] == DATE;
+            }
+
+            final boolean date = DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            synchronized (this) {
+                styles = dateStyles;
+                if (index >= styles.length) {
+                    styles = Arrays.copyOf(styles, Math.max(styles.length * 2, index + 1));
+                }
+                styles[index] = date ? DATE : OTHER;
+                dateStyles = styles;
+            }
+
+            return date;
+        }
+    }
+
     /**
      * セル(数式)の値を取得する。
      *
@@ -534,6 +1312,19 @@ public class ExcelUtils {
      * @return セルの値
      */
     protected static Object getFormulaCellValue(final Workbook workbook, final Cell cell) {
+        return getFormulaCellValue(null, workbook, cell);
+    }
+
+    /**
+     * セル(数式)の値を取得する。<br>
+     * 計算結果を保持していない場合は、指定した数式評価オブジェクトで評価する。
+     *
+     * @param evaluator 数式評価オブジェクト。nullの場合は生成する。
+     * @param workbook ワークブック
+     * @param cell セル
+     * @return セルの値
+     */
+    protected static Object getFormulaCellValue(final FormulaEvaluator evaluator, final Workbook workbook, final Cell cell) {
         final CellType cachedFormulaResultType = cell.getCachedFormulaResultType();
         try {
             if (cachedFormulaResultType == CellType.NUMERIC) {
@@ -548,9 +1339,9 @@ public class ExcelUtils {
 
         try {
             log.info("cell({},{}) is a formula. Attempting to evaluate: {}", cell.getRowIndex(), cell.getColumnIndex(), cell.getCellFormula());
-            final FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
-            final Cell evaluatedCell = evaluator.evaluateInCell(cell);
-            return getCellValue(workbook, evaluatedCell);
+            final FormulaEvaluator formulaEvaluator = (evaluator != null) ? evaluator : createFormulaEvaluator(workbook);
+            final Cell evaluatedCell = formulaEvaluator.evaluateInCell(cell);
+            return getCellValue(formulaEvaluator, workbook, evaluatedCell);
         } catch (Exception e) {
             log.warn("Exception occurred while evaluating formula at position ({},{}): {}", cell.getRowIndex(), cell.getColumnIndex(), e.getMessage());
 
@@ -566,6 +1357,187 @@ public class ExcelUtils {
         return cell.getCellFormula();
     }
 
+    /**
+     * ワークブックの数式評価オブジェクトを生成する。<br>
+     * 数式評価オブジェクトは評価結果をキャッシュし、ワークブックを参照する。呼び出し元で保持して、
+     * {@link #getCellValue(FormulaEvaluator, Workbook, Cell)}・{@link #evaluateRange(FormulaEvaluator, Sheet, CellRangeAddress)}・
+     * {@link #evaluateSheet(FormulaEvaluator, Sheet)}に渡して使い回し、
+     * ワークブックと共に破棄すること。
+     * 数式評価後にセルの値を変更した場合は、{@link FormulaEvaluator#notifyUpdateCell(Cell)}を呼ぶか、{@link FormulaEvaluator#clearAllCachedResultValues()}を呼ぶこと。
+     *
+     * @param workbook ワークブック
+     * @return 数式評価オブジェクト
+     */
+    public static FormulaEvaluator createFormulaEvaluator(final Workbook workbook) {
+        if (workbook == null) {
+            return null;
+        }
+
+        return workbook.getCreationHelper().createFormulaEvaluator();
+    }
+
+    /**
+     * 範囲内の数式を評価し、結果をセルに保存する。数式は残る。
+     *
+     * @param sheet シート
+     * @param range 範囲(行・列が-1の場合は全体)
+     * @return 評価した数式の数
+     */
+    public static int evaluateRange(final Sheet sheet, final CellRangeAddress range) {
+        if (sheet == null) {
+            return 0;
+        }
+
+        return evaluateRange(createFormulaEvaluator(sheet.getWorkbook()), sheet, range);
+    }
+
+    /**
+     * 数式評価オブジェクトを指定して、範囲内の数式を評価し、結果をセルに保存する。数式は残る。
+     *
+     * @param evaluator 数式評価オブジェクト({@link #createFormulaEvaluator(Workbook)})
+     * @param sheet シート
+     * @param range 範囲(行・列が-1の場合は全体)
+     * @return 評価した数式の数
+     */
+    public static int evaluateRange(final FormulaEvaluator evaluator, final Sheet sheet, final CellRangeAddress range) {
+        if (evaluator == null || sheet == null || range == null) {
+            return 0;
+        }
+
+        final int firstRow = Math.max(range.getFirstRow(), sheet.getFirstRowNum());
+        final int lastRow = (range.getLastRow() < 0) ? sheet.getLastRowNum() : Math.min(range.getLastRow(), sheet.getLastRowNum());
+        int count = 0;
+        for (int rowIndex = Math.max(firstRow, 0); rowIndex <= lastRow; rowIndex++) {
+            final Row row = sheet.getRow(rowIndex);
+            if (row == null) {
+                continue;
+            }
+
+            final int firstCol = Math.max(range.getFirstColumn(), row.getFirstCellNum());
+            final int lastCol = (range.getLastColumn() < 0) ? row.getLastCellNum() - 1 : Math.min(range.getLastColumn(), row.getLastCellNum() - 1);
+            for (int colIndex = Math.max(firstCol, 0); colIndex <= lastCol; colIndex++) {
+                final Cell cell = row.getCell(colIndex);
+                if (cell != null && cell.getCellType() == CellType.FORMULA && evaluateFormulaCell(evaluator, cell)) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * シートの数式を全て評価し、結果をセルに保存する。数式は残る。
+     *
+     * @param sheet シート
+     * @return 評価した数式の数
+     */
+    public static int evaluateSheet(final Sheet sheet) {
+        if (sheet == null) {
+            return 0;
+        }
+
+        return evaluateSheet(createFormulaEvaluator(sheet.getWorkbook()), sheet);
+    }
+
+    /**
+     * 数式評価オブジェクトを指定して、シートの数式を全て評価し、結果をセルに保存する。数式は残る。
+     *
+     * @param evaluator 数式評価オブジェクト({@link #createFormulaEvaluator(Workbook)})
+     * @param sheet シート
+     * @return 評価した数式の数
+     */
+    public static int evaluateSheet(final FormulaEvaluator evaluator, final Sheet sheet) {
+        if (evaluator == null || sheet == null) {
+            return 0;
+        }
+
+        int count = 0;
+        for (final Row row : sheet) {
+            for (final Cell cell : row) {
+                if (cell.getCellType() == CellType.FORMULA && evaluateFormulaCell(evaluator, cell)) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * ワークブックの数式を全て評価し、結果をセルに保存する。数式は残る。<br>
+     * シートをまたぐ参照の評価結果を再利用するため、全シートで1つの数式評価オブジェクトを使い、シートの順に評価する。
+     * POIのワークブックは複数のスレッドから同時に参照できないため、並列には評価しない。
+     *
+     * @param workbook ワークブック
+     * @return シート名と評価時間(ミリ秒)のリスト
+     */
+    public static List<Pair<String, Long>> evaluateAll(final Workbook workbook) {
+        if (workbook == null) {
+            return null;
+        }
+
+        final List<Pair<String, Long>> result = new ArrayList<>(workbook.getNumberOfSheets());
+        final FormulaEvaluator evaluator = createFormulaEvaluator(workbook);
+        for (final Sheet sheet : workbook) {
+            final long start = System.nanoTime();
+            evaluateSheet(evaluator, sheet);
+            result.add(new Pair<>(sheet.getSheetName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+
+        return result;
+    }
+
+    /**
+     * 数式を評価し、結果をセルに保存する。
+     *
+     * @param evaluator 数式評価オブジェクト
+     * @param cell セル
+     * @return 評価できた場合はtrue、そうでない場合はfalse。
+     */
+    private static boolean evaluateFormulaCell(final FormulaEvaluator evaluator, final Cell cell) {
+        try {
+            evaluator.evaluateFormulaCell(cell);
+            return true;
+        } catch (Exception e) {
+            log.error("Exception occurred while evaluating formula at position ({},{}): {}", cell.getRowIndex(), cell.getColumnIndex(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * セルに値をセットする。<br>
+     * nullの場合は空白セルにする。数値はdoubleに、未対応の型は文字列に変換してセットする。
+     *
+     * @param cell セル
+     * @param value 値
+     */
+    public static void setCellValue(final Cell cell, final Object value) {
+        if (cell == null) {
+            return;
+        }
+
+        if (value == null) {
+            cell.setBlank();
+        } else if (value instanceof Number) {
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        } else if (value instanceof Date) {
+            cell.setCellValue((Date) value);
+        } else if (value instanceof LocalDateTime) {
+            cell.setCellValue((LocalDateTime) value);
+        } else if (value instanceof LocalDate) {
+            cell.setCellValue((LocalDate) value);
+        } else if (value instanceof Calendar) {
+            cell.setCellValue((Calendar) value);
+        } else if (value instanceof RichTextString) {
+            cell.setCellValue((RichTextString) value);
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
     /**
      * セル種別をセットする。
      *
@@ -632,16 +1604,97 @@ public class ExcelUtils {
      * @param path ファイルのパス
      */
     public static void output(final Workbook workbook, final Path path) {
-        try (BufferedInputStream bis = new BufferedInputStream(new ByteArrayInputStream(Objects.requireNonNull(getBytes(workbook))));
-             BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(path.toAbsolutePath().toString()))) {
-            byte[] buff = new byte[4096];
-            int len = 0;
-            while ((len = bis.read(buff)) != -1) {
-                bos.write(buff, 0, len);
-            }
-            bos.flush();
+        output(workbook, path, DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * zip圧縮レベルを指定して、Excelファイルを指定パスに出力する。<br>
+     * ワークブックをバイト配列に変換せず、ファイルチャネルに直接書き込む。
+     *
+     * @param workbook ワークブック
+     * @param path ファイルのパス
+     * @param compressionLevel zip圧縮レベル(0-9、{@link #DEFAULT_COMPRESSION_LEVEL})
+     */
+    public static void output(final Workbook workbook, final Path path, final int compressionLevel) {
+        try (FileChannel channel = FileChannel.open(path.toAbsolutePath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            output(workbook, channel, compressionLevel);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Excelファイルをチャネルに出力する。<br>
+     * チャネルは閉じない。
+     *
+     * @param workbook ワークブック
+     * @param channel 出力先のチャネル
+     * @param compressionLevel zip圧縮レベル(0-9、{@link #DEFAULT_COMPRESSION_LEVEL})
+     */
+    public static void output(final Workbook workbook, final WritableByteChannel channel, final int compressionLevel) {
+        output(workbook, Channels.newOutputStream(channel), compressionLevel);
+    }
+
+    /**
+     * Excelファイルを出力ストリームに出力する。<br>
+     * 出力ストリームは閉じない。
+     *
+     * @param workbook ワークブック
+     * @param outputStream 出力ストリーム
+     */
+    public static void output(final Workbook workbook, final OutputStream outputStream) {
+        output(workbook, outputStream, DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * zip圧縮レベルを指定して、Excelファイルを出力ストリームに出力する。<br>
+     * 出力ストリームは閉じない。圧縮レベルはxlsx(XSSFWorkbook)の場合のみ有効。
+     *
+     * @param workbook ワークブック
+     * @param outputStream 出力ストリーム
+     * @param compressionLevel zip圧縮レベル(0-9、{@link #DEFAULT_COMPRESSION_LEVEL})
+     */
+    public static void output(final Workbook workbook, final OutputStream outputStream, final int compressionLevel) {
+        try {
+            final OutputStream out = new BufferedOutputStream(new NonClosingOutputStream(outputStream), OUTPUT_BUFFER_SIZE);
+            if (workbook instanceof XSSFWorkbook && compressionLevel != DEFAULT_COMPRESSION_LEVEL) {
+                // ZipArchiveOutputStreamを渡した場合、POIはそのストリームにエントリを書き込む
+                final ZipArchiveOutputStream zos = new ZipArchiveOutputStream(out);
+                zos.setLevel(compressionLevel);
+                workbook.write(zos);
+                zos.close();
+            } else {
+                workbook.write(out);
+            }
+            out.flush();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * closeで下位のストリームを閉じない出力ストリーム
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        /**
+         * コンストラクタ
+         *
+         * @param out 下位の出力ストリーム
+         */
+        NonClosingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 }
@@ -172,6 +172,27 @@ public class StringUtils {
         FULL_HALF_SYMBOL = Collections.unmodifiableMap(map);
     }
 
+    /** 全角半角の種別: 数字 */
+    private static final int WIDTH_NUMBER = 1 << 16;
+
+    /** 全角半角の種別: 大文字 */
+    private static final int WIDTH_UPPER = 1 << 17;
+
+    /** 全角半角の種別: 小文字 */
+    private static final int WIDTH_LOWER = 1 << 18;
+
+    /** 全角半角の種別: 記号 */
+    private static final int WIDTH_SYMBOL = 1 << 19;
+
+    /** 全角半角の種別: ASCII(数字・英字・記号) */
+    private static final int WIDTH_ASCII = WIDTH_NUMBER | WIDTH_UPPER | WIDTH_LOWER | WIDTH_SYMBOL;
+
+    /** 全角から半角への変換表 */
+    private static final int[][] FULL_TO_HALF_TABLE = createWidthTable(true);
+
+    /** 半角から全角への変換表 */
+    private static final int[][] HALF_TO_FULL_TABLE = createWidthTable(false);
+
     /** ひらがな */
     public static final String HIRAGANA_PATTERN = "あいうえおかがきぎくぐけげこごさざしじすずせぜそぞただちぢつづてでとどなにぬねのはばぱひびぴふぶぷへべぺほぼぽまみむめもゃやゅゆょよらりるれろわをんゔぁぃぅぇぉっ";
 
@@ -184,6 +205,114 @@ public class StringUtils {
     /** メールアドレス */
     public static final String EMAIL_PATTERN = "^(?:[\\w!#$%&'*+\\/\\-=?^`{|}~]+(?:\\.[\\w!#$%&'*+\\/\\-=?^`{|}~]+)*)@(?:[a-zA-Z]+[a-zA-Z0-9-]*[a-zA-Z0-9](?:\\.[a-zA-Z]+[a-zA-Z0-9-]*[a-zA-Z0-9])*(?:\\.[a-zA-Z0-9]+))$";
 
+    /** 半角カタカナの変換表の先頭の文字 */
+    private static final char HALF_KATAKANA_FIRST = '\uFF61';
+
+    /** 全角カタカナの変換表の先頭の文字(結合用濁点) */
+    private static final char FULL_KATAKANA_FIRST = '\u3099';
+
+    /** 半角濁点 */
+    private static final char HALF_DAKUTEN = 'ﾞ';
+
+    /** 半角半濁点 */
+    private static final char HALF_HANDAKUTEN = 'ﾟ';
+
+    /** 半角カタカナから全角カタカナへの変換表(半角カタカナ - {@link #HALF_KATAKANA_FIRST}で引く。0は変換しない) */
+    private static final char[] HALF_TO_FULL_KATAKANA = new char[0x3F];
+
+    /** 半角カタカナ + 半角濁点から全角カタカナへの変換表 */
+    private static final char[] HALF_TO_FULL_KATAKANA_DAKUTEN = new char[0x3F];
+
+    /** 半角カタカナ + 半角半濁点から全角カタカナへの変換表 */
+    private static final char[] HALF_TO_FULL_KATAKANA_HANDAKUTEN = new char[0x3F];
+
+    /** 全角カタカナから半角カタカナへの変換表(全角カタカナ - {@link #FULL_KATAKANA_FIRST}で引く。下位16ビットは半角カタカナ、上位16ビットは濁点・半濁点。0は変換しない) */
+    private static final int[] FULL_TO_HALF_KATAKANA = new int[0x67];
+    static {
+        // 半角カタカナのパターンは、濁点・半濁点を含めて全角カタカナのパターンと同じ順に並ぶ
+        int index = 0;
+        for (int i = 0; i < HALF_KATAKANA_PATTERN.length(); i++) {
+            final char half = HALF_KATAKANA_PATTERN.charAt(i);
+            final char full = KATAKANA_PATTERN.charAt(index++);
+            final char mark = (i + 1 < HALF_KATAKANA_PATTERN.length()) ? HALF_KATAKANA_PATTERN.charAt(i + 1) : 0;
+            if (mark == HALF_DAKUTEN || mark == HALF_HANDAKUTEN) {
+                (mark == HALF_DAKUTEN ? HALF_TO_FULL_KATAKANA_DAKUTEN : HALF_TO_FULL_KATAKANA_HANDAKUTEN)[half - HALF_KATAKANA_FIRST] = full;
+                FULL_TO_HALF_KATAKANA[full - FULL_KATAKANA_FIRST] = (mark << 16) | half;
+                i++;
+            } else {
+                HALF_TO_FULL_KATAKANA[half - HALF_KATAKANA_FIRST] = full;
+                FULL_TO_HALF_KATAKANA[full - FULL_KATAKANA_FIRST] = half;
+            }
+        }
+
+        // 長音・濁点・半濁点(結合用濁点・半濁点は半角にのみ変換する)
+        HALF_TO_FULL_KATAKANA['ｰ' - HALF_KATAKANA_FIRST] = 'ー';
+        HALF_TO_FULL_KATAKANA[HALF_DAKUTEN - HALF_KATAKANA_FIRST] = '゛';
+        HALF_TO_FULL_KATAKANA[HALF_HANDAKUTEN - HALF_KATAKANA_FIRST] = '゜';
+        FULL_TO_HALF_KATAKANA['ー' - FULL_KATAKANA_FIRST] = 'ｰ';
+        FULL_TO_HALF_KATAKANA['゛' - FULL_KATAKANA_FIRST] = HALF_DAKUTEN;
+        FULL_TO_HALF_KATAKANA['゜' - FULL_KATAKANA_FIRST] = HALF_HANDAKUTEN;
+        FULL_TO_HALF_KATAKANA['\u3099' - FULL_KATAKANA_FIRST] = HALF_DAKUTEN;
+        FULL_TO_HALF_KATAKANA['\u309A' - FULL_KATAKANA_FIRST] = HALF_HANDAKUTEN;
+    }
+
+    /** ひらがなカタカナの種別: ひらがなからカタカナ */
+    private static final int KANA_TO_KATAKANA = 1 << 16;
+
+    /** ひらがなカタカナの種別: カタカナからひらがな */
+    private static final int KANA_TO_HIRAGANA = 1 << 17;
+
+    /** ひらがなカタカナの変換表(ぁ～ゖ・ゝゞとァ～ヶ・ヽヾ) */
+    private static final int[][] KANA_TABLE = new int[256][];
+    static {
+        final int[] page = new int[256];
+        for (char c = 'ぁ'; c <= 'ゖ'; c++) {
+            page[c & 0xFF] = KANA_TO_KATAKANA | (c + 0x60);
+            page[(c + 0x60) & 0xFF] = KANA_TO_HIRAGANA | c;
+        }
+        for (char c = 'ゝ'; c <= 'ゞ'; c++) {
+            page[c & 0xFF] = KANA_TO_KATAKANA | (c + 0x60);
+            page[(c + 0x60) & 0xFF] = KANA_TO_HIRAGANA | c;
+        }
+        KANA_TABLE['ぁ' >>> 8] = page;
+    }
+
+    /** 先頭・末尾から削除する空白文字(全角、半角) */
+    private static final String TRIM_CHARS = HALF_SPACE + FULL_SPACE + "\t\u00a0\u1680\u180e\u2000\u200a\u202f\u205f";
+
+    /** 文字種別: 空白(全角スペース、半角スペース) */
+    private static final int CHAR_SPACE = 1;
+
+    /** 文字種別: 先頭・末尾から削除する空白文字 */
+    private static final int CHAR_TRIM = 1 << 1;
+
+    /** 文字種別: 半角英字 */
+    private static final int CHAR_ALPHA = 1 << 2;
+
+    /** 文字種別: 半角数字 */
+    private static final int CHAR_DIGIT = 1 << 3;
+
+    /** 文字種別: ひらがな */
+    private static final int CHAR_HIRAGANA = 1 << 4;
+
+    /** 文字種別: 全角カタカナ */
+    private static final int CHAR_KATAKANA = 1 << 5;
+
+    /** 文字種別: 半角カタカナ */
+    private static final int CHAR_HALF_KATAKANA = 1 << 6;
+
+    /** 文字種別の表(BMPの文字で引く。要素は文字種別のビット和) */
+    private static final byte[] CHAR_TYPES = new byte[Character.MAX_VALUE + 1];
+    static {
+        putCharTypes(HALF_SPACE + FULL_SPACE, CHAR_SPACE);
+        putCharTypes(TRIM_CHARS, CHAR_TRIM);
+        putCharTypes("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", CHAR_ALPHA);
+        putCharTypes("0123456789", CHAR_DIGIT);
+        putCharTypes(HIRAGANA_PATTERN, CHAR_HIRAGANA);
+        putCharTypes(KATAKANA_PATTERN, CHAR_KATAKANA);
+        putCharTypes(HALF_KATAKANA_PATTERN, CHAR_HALF_KATAKANA);
+    }
+
     private StringUtils() {
         throw new IllegalAccessError("Constants class.");
     }
@@ -205,9 +334,17 @@ public class StringUtils {
      * @return 全角スペースか半角スペースである場合はtrue、そうでない場合はfalse。
      */
     public static boolean isBlank(final String target) {
-        String str = target == null ? null : target.replaceAll("[" + HALF_SPACE + FULL_SPACE + "]", "");
+        return isBlank((CharSequence) target);
+    }
 
-        return isEmpty(str);
+    /**
+     * 全角スペースか半角スペースかを判断する。
+     *
+     * @param target 対象文字列
+     * @return 全角スペースか半角スペースである場合(nullと空文字を含む)はtrue、そうでない場合はfalse。
+     */
+    public static boolean isBlank(final CharSequence target) {
+        return target == null || isAll(target, CHAR_SPACE);
     }
 
     /**
@@ -266,24 +403,22 @@ public class StringUtils {
             return null;
         }
 
-        // startWith, endWithの処理をする前に、それぞれが削除対象か否かを取得する
-        boolean startsWith = target.startsWith(trimString);
-        boolean endsWith = target.endsWith(trimString);
+        if (isEmpty(trimString)) {
+            return target;
+        }
 
-        String result = target;
-        if (startsWith) {
-            while (result.startsWith(trimString)) {
-                result = result.substring(trimString.length());
-            }
+        final int length = trimString.length();
+        int start = 0;
+        while (target.startsWith(trimString, start)) {
+            start += length;
         }
 
-        if (endsWith && result.length() >= trimString.length()) {
-            while (result.endsWith(trimString)) {
-                result = result.substring(0, result.length() - trimString.length());
-            }
+        int end = target.length();
+        while (end - length >= start && target.startsWith(trimString, end - length)) {
+            end -= length;
         }
 
-        return result;
+        return target.substring(start, end);
     }
 
     /**
@@ -297,9 +432,24 @@ public class StringUtils {
             return null;
         }
 
-        final String pattern = HALF_SPACE + FULL_SPACE + "\t\u00a0\u1680\u180e\u2000\u200a\u202f\u205f";
+        int start = 0;
+        int end = target.length();
+        while (start < end && isType(target.charAt(start), CHAR_TRIM)) {
+            start++;
+        }
+
+        // 末尾が改行の場合は、改行の直前の空白文字を削除する(正規表現"[...]+$"の"$"と同じ)
+        final int lineEnd = end - getLineTerminatorLength(target, start);
+        int trimmedEnd = lineEnd;
+        while (trimmedEnd > start && isType(target.charAt(trimmedEnd - 1), CHAR_TRIM)) {
+            trimmedEnd--;
+        }
+
+        if (trimmedEnd == lineEnd || lineEnd == end) {
+            return target.substring(start, trimmedEnd + (end - lineEnd));
+        }
 
-        return target.replaceAll("^[" + pattern + "]+", "").replaceAll("[" + pattern + "]+$", "");
+        return target.substring(start, trimmedEnd) + target.substring(lineEnd);
     }
 
     /**
@@ -309,7 +459,27 @@ public class StringUtils {
      * @return ASCIIのみである場合はtrue、そうでない場合はfalse。
      */
     public static boolean isAscii(final String target) {
-        return !isEmpty(target) && StandardCharsets.US_ASCII.newEncoder().canEncode(target);
+        return isAscii((CharSequence) target);
+    }
+
+    /**
+     * ASCIIのみかを判断する。
+     *
+     * @param target 対象文字列
+     * @return ASCIIのみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isAscii(final CharSequence target) {
+        if (target == null || target.length() == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < target.length(); i++) {
+            if (target.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
@@ -319,7 +489,17 @@ public class StringUtils {
      * @return 英字のみである場合はtrue、そうでない場合はfalse。
      */
     public static boolean isAlpha(final String target) {
-        return !isEmpty(target) && target.matches("^[a-zA-Z]+$");
+        return isAlpha((CharSequence) target);
+    }
+
+    /**
+     * 英字のみかを判断する。
+     *
+     * @param target 対象文字列
+     * @return 英字のみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isAlpha(final CharSequence target) {
+        return target != null && target.length() > 0 && isAll(target, CHAR_ALPHA);
     }
 
     /**
@@ -329,7 +509,17 @@ public class StringUtils {
      * @return 半角英数字のみである場合はtrue、そうでない場合はfalse。
      */
     public static boolean isHalfAlphaNumeric(final String target) {
-        return !isEmpty(target) && target.matches("^[0-9a-zA-Z]+$");
+        return isHalfAlphaNumeric((CharSequence) target);
+    }
+
+    /**
+     * 半角英数字のみかを判断する。
+     *
+     * @param target 対象文字列
+     * @return 半角英数字のみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isHalfAlphaNumeric(final CharSequence target) {
+        return target != null && target.length() > 0 && isAll(target, CHAR_ALPHA | CHAR_DIGIT);
     }
 
     /**
@@ -340,13 +530,18 @@ public class StringUtils {
      * @return ひらがなのみである場合はtrue、そうでない場合はfalse。
      */
     public static boolean isHiragana(final String target, final boolean containsSpace) {
-        if (isBlank(target)) {
-            return false;
-        }
-
-        final String pattern = HIRAGANA_PATTERN + (containsSpace ? HALF_SPACE + FULL_SPACE : "");
+        return isHiragana((CharSequence) target, containsSpace);
+    }
 
-        return target.matches("^[" + pattern + "]+$");
+    /**
+     * ひらがなのみかを判断する。
+     *
+     * @param target 対象文字列
+     * @param containsSpace trueの場合は空白文字を含める。falseの場合は空白文字を含めない。
+     * @return ひらがなのみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isHiragana(final CharSequence target, final boolean containsSpace) {
+        return !isBlank(target) && isAll(target, CHAR_HIRAGANA | (containsSpace ? CHAR_SPACE : 0));
     }
 
     /**
@@ -359,6 +554,16 @@ public class StringUtils {
         return isHiragana(target, false);
     }
 
+    /**
+     * ひらがなのみかを判断する。
+     *
+     * @param target 対象文字列
+     * @return ひらがなのみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isHiragana(final CharSequence target) {
+        return isHiragana(target, false);
+    }
+
     /**
      * カタカナのみかを判断する。
      *
@@ -367,13 +572,18 @@ public class StringUtils {
      * @return カタカナのみである場合はtrue、そうでない場合はfalse。
      */
     public static boolean isKatakana(final String target, final boolean containsSpace) {
-        if (isBlank(target)) {
-            return false;
-        }
-
-        final String pattern = KATAKANA_PATTERN + (containsSpace ? HALF_SPACE + FULL_SPACE : "");
+        return isKatakana((CharSequence) target, containsSpace);
+    }
 
-        return target.matches("^[" + pattern + "]+$");
+    /**
+     * カタカナのみかを判断する。
+     *
+     * @param target 対象文字列
+     * @param containsSpace trueの場合は空白文字を含める。falseの場合は空白文字を含めない。
+     * @return カタカナのみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isKatakana(final CharSequence target, final boolean containsSpace) {
+        return !isBlank(target) && isAll(target, CHAR_KATAKANA | (containsSpace ? CHAR_SPACE : 0));
     }
 
     /**
@@ -386,6 +596,16 @@ public class StringUtils {
         return isKatakana(target, false);
     }
 
+    /**
+     * カタカナのみかを判断する。
+     *
+     * @param target 対象文字列
+     * @return カタカナのみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isKatakana(final CharSequence target) {
+        return isKatakana(target, false);
+    }
+
     /**
      * 半角カタカナのみかを判断する。
      *
@@ -394,13 +614,18 @@ public class StringUtils {
      * @return カタカナのみである場合はtrue、そうでない場合はfalse。
      */
     public static boolean isHalfKatakana(final String target, final boolean containsSpace) {
-        if (isBlank(target)) {
-            return false;
-        }
-
-        final String pattern = HALF_KATAKANA_PATTERN + (containsSpace ? HALF_SPACE + FULL_SPACE : "");
+        return isHalfKatakana((CharSequence) target, containsSpace);
+    }
 
-        return target.matches("^[" + pattern + "]+$");
+    /**
+     * 半角カタカナのみかを判断する。
+     *
+     * @param target 対象文字列
+     * @param containsSpace trueの場合は空白文字を含める。falseの場合は空白文字を含めない。
+     * @return カタカナのみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isHalfKatakana(final CharSequence target, final boolean containsSpace) {
+        return !isBlank(target) && isAll(target, CHAR_HALF_KATAKANA | (containsSpace ? CHAR_SPACE : 0));
     }
 
     /**
@@ -413,6 +638,84 @@ public class StringUtils {
         return isHalfKatakana(target, false);
     }
 
+    /**
+     * 半角カタカナのみかを判断する。
+     *
+     * @param target 対象文字列
+     * @return カタカナのみである場合はtrue、そうでない場合はfalse。
+     */
+    public static boolean isHalfKatakana(final CharSequence target) {
+        return isHalfKatakana(target, false);
+    }
+
+    /**
+     * 文字種別の表に文字を登録する。
+     *
+     * @param chars 文字
+     * @param type 文字種別
+     */
+    private static void putCharTypes(final String chars, final int type) {
+        for (int i = 0; i < chars.length(); i++) {
+            CHAR_TYPES[chars.charAt(i)] |= type;
+        }
+    }
+
+    /**
+     * 文字が文字種別のいずれかに該当するかを判断する。
+     *
+     * @param c 文字
+     * @param types 文字種別のビット和
+     * @return 該当する場合はtrue、そうでない場合はfalse。
+     */
+    private static boolean isType(final char c, final int types) {
+        return (CHAR_TYPES[c] & types) != 0;
+    }
+
+    /**
+     * すべての文字が文字種別のいずれかに該当するかを判断する。
+     *
+     * @param target 対象文字列
+     * @param types 文字種別のビット和
+     * @return すべての文字が該当する場合(空文字を含む)はtrue、そうでない場合はfalse。
+     */
+    private static boolean isAll(final CharSequence target, final int types) {
+        for (int i = 0; i < target.length(); i++) {
+            if ((CHAR_TYPES[target.charAt(i)] & types) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 末尾の改行の文字数を取得する。
+     *
+     * @param target 対象文字列
+     * @param start 対象とする先頭のインデックス
+     * @return 末尾の改行の文字数("\r\n"は2、その他の改行は1、改行でない場合は0)
+     */
+    private static int getLineTerminatorLength(final String target, final int start) {
+        final int length = target.length();
+        if (length - start >= 2 && target.charAt(length - 2) == '\r' && target.charAt(length - 1) == '\n') {
+            return 2;
+        }
+        if (length - start >= 1) {
+            switch (target.charAt(length - 1)) {
+                case '\n':
+                case '\r':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    return 1;
+                default:
+                    break;
+            }
+        }
+
+        return 0;
+    }
+
     /**
      * 全角文字(数字)を半角文字(数字)に変換する。
      *
@@ -420,7 +723,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toHalfOfNumber(final String target) {
-        return toHalfString(target, FULL_HALF_NUMBER);
+        return convertChars(target, FULL_TO_HALF_TABLE, WIDTH_NUMBER);
     }
 
     /**
@@ -430,11 +733,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toHalfOfAlpha(final String target) {
-        Map<String, String> map = new HashMap<String, String>();
-        map.putAll(FULL_HALF_UPPER);
-        map.putAll(FULL_HALF_LOWER);
-
-        return toHalfString(target, map);
+        return convertChars(target, FULL_TO_HALF_TABLE, WIDTH_UPPER | WIDTH_LOWER);
     }
 
     /**
@@ -444,7 +743,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toHalfOfAlphaUpper(final String target) {
-        return toHalfString(target, FULL_HALF_UPPER);
+        return convertChars(target, FULL_TO_HALF_TABLE, WIDTH_UPPER);
     }
 
     /**
@@ -454,7 +753,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toHalfOfAlphaLower(final String target) {
-        return toHalfString(target, FULL_HALF_LOWER);
+        return convertChars(target, FULL_TO_HALF_TABLE, WIDTH_LOWER);
     }
 
     /**
@@ -464,7 +763,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toHalfOfSymbol(final String target) {
-        return toHalfString(target, FULL_HALF_SYMBOL);
+        return convertChars(target, FULL_TO_HALF_TABLE, WIDTH_SYMBOL);
     }
 
     /**
@@ -474,33 +773,19 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toHalfOfAscii(final String target) {
-        Map<String, String> map = new HashMap<String, String>();
-        map.putAll(FULL_HALF_NUMBER);
-        map.putAll(FULL_HALF_UPPER);
-        map.putAll(FULL_HALF_LOWER);
-        map.putAll(FULL_HALF_SYMBOL);
-
-        return toHalfString(target, map);
+        return convertChars(target, FULL_TO_HALF_TABLE, WIDTH_ASCII);
     }
 
     /**
-     * 半角文字に変換する。
+     * 全角文字(ASCII)を半角文字(ASCII)に変換し、バッファに追加する。<br>
+     * 変換しない部分はまとめて追加するため、同じバッファを使い回せば文字列を生成しない。
      *
      * @param target 対象文字列
-     * @param convertMap 文字列リストのセット
-     * @return 変換された文字列
+     * @param buffer 追加先のバッファ
+     * @return 追加先のバッファ。追加先のバッファがnullの場合はnull。
      */
-    private static String toHalfString(final String target, final Map<String, String> convertMap) {
-        if (isEmpty(target)) {
-            return target;
-        }
-
-        String result = target;
-        for (Map.Entry<String, String> map : convertMap.entrySet()) {
-            result = result.replace(map.getKey(), map.getValue());
-        }
-
-        return result;
+    public static StringBuilder toHalfOfAscii(final CharSequence target, final StringBuilder buffer) {
+        return convertChars(target, buffer, FULL_TO_HALF_TABLE, WIDTH_ASCII);
     }
 
     /**
@@ -510,7 +795,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toFullOfNumber(final String target) {
-        return toFullString(target, FULL_HALF_NUMBER);
+        return convertChars(target, HALF_TO_FULL_TABLE, WIDTH_NUMBER);
     }
 
     /**
@@ -520,11 +805,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toFullOfAlpha(final String target) {
-        Map<String, String> map = new HashMap<String, String>();
-        map.putAll(FULL_HALF_UPPER);
-        map.putAll(FULL_HALF_LOWER);
-
-        return toFullString(target, map);
+        return convertChars(target, HALF_TO_FULL_TABLE, WIDTH_UPPER | WIDTH_LOWER);
     }
 
     /**
@@ -534,7 +815,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toFullOfAlphaUpper(final String target) {
-        return toFullString(target, FULL_HALF_UPPER);
+        return convertChars(target, HALF_TO_FULL_TABLE, WIDTH_UPPER);
     }
 
     /**
@@ -544,7 +825,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toFullOfAlphaLower(final String target) {
-        return toFullString(target, FULL_HALF_LOWER);
+        return convertChars(target, HALF_TO_FULL_TABLE, WIDTH_LOWER);
     }
 
     /**
@@ -554,7 +835,7 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toFullOfSymbol(final String target) {
-        return toFullString(target, FULL_HALF_SYMBOL);
+        return convertChars(target, HALF_TO_FULL_TABLE, WIDTH_SYMBOL);
     }
 
     /**
@@ -564,33 +845,259 @@ public class StringUtils {
      * @return 変換された文字列
      */
     public static String toFullOfAscii(final String target) {
-        Map<String, String> map = new HashMap<String, String>();
-        map.putAll(FULL_HALF_NUMBER);
-        map.putAll(FULL_HALF_UPPER);
-        map.putAll(FULL_HALF_LOWER);
-        map.putAll(FULL_HALF_SYMBOL);
+        return convertChars(target, HALF_TO_FULL_TABLE, WIDTH_ASCII);
+    }
+
+    /**
+     * 半角文字(ASCII)を全角文字(ASCII)に変換し、バッファに追加する。<br>
+     * 変換しない部分はまとめて追加するため、同じバッファを使い回せば文字列を生成しない。
+     *
+     * @param target 対象文字列
+     * @param buffer 追加先のバッファ
+     * @return 追加先のバッファ。追加先のバッファがnullの場合はnull。
+     */
+    public static StringBuilder toFullOfAscii(final CharSequence target, final StringBuilder buffer) {
+        return convertChars(target, buffer, HALF_TO_FULL_TABLE, WIDTH_ASCII);
+    }
+
+    /**
+     * 半角カタカナを全角カタカナに変換する。<br>
+     * 濁点・半濁点の付いた半角カタカナ(例: "ｶﾞ"・"ﾊﾟ")は1文字の全角カタカナ(例: "ガ"・"パ")にする。
+     * 長音・単独の濁点・半濁点も全角にする。対象文字列を1回だけ走査し、変換する文字がない場合は対象文字列をそのまま返す。
+     *
+     * @param target 対象文字列
+     * @return 変換された文字列
+     */
+    public static String toFullOfKatakana(final String target) {
+        if (isEmpty(target)) {
+            return target;
+        }
+
+        final int length = target.length();
+        StringBuilder sb = null;
+        for (int i = 0; i < length; i++) {
+            final char c = target.charAt(i);
+            final int index = c - HALF_KATAKANA_FIRST;
+            char converted = (index >= 0 && index < HALF_TO_FULL_KATAKANA.length) ? HALF_TO_FULL_KATAKANA[index] : 0;
+            if (converted == 0) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+
+            if (sb == null) {
+                sb = new StringBuilder(length).append(target, 0, i);
+            }
+
+            // 濁点・半濁点を合成する
+            final char mark = (i + 1 < length) ? target.charAt(i + 1) : 0;
+            final char composed = (mark == HALF_DAKUTEN) ? HALF_TO_FULL_KATAKANA_DAKUTEN[index]
+                    : (mark == HALF_HANDAKUTEN) ? HALF_TO_FULL_KATAKANA_HANDAKUTEN[index] : 0;
+            if (composed != 0) {
+                converted = composed;
+                i++;
+            }
+            sb.append(converted);
+        }
+
+        return (sb != null) ? sb.toString() : target;
+    }
+
+    /**
+     * 全角カタカナを半角カタカナに変換する。<br>
+     * 濁点・半濁点の付いた全角カタカナ(例: "ガ"・"パ")は半角カタカナと濁点・半濁点の2文字(例: "ｶﾞ"・"ﾊﾟ")にする。
+     * 長音・濁点・半濁点も半角にする。半角カタカナがない文字(例: "ヮ"・"ヵ")は変換しない。
+     * 対象文字列を1回だけ走査し、変換する文字がない場合は対象文字列をそのまま返す。
+     *
+     * @param target 対象文字列
+     * @return 変換された文字列
+     */
+    public static String toHalfOfKatakana(final String target) {
+        if (isEmpty(target)) {
+            return target;
+        }
+
+        final int length = target.length();
+        StringBuilder sb = null;
+        for (int i = 0; i < length; i++) {
+            final char c = target.charAt(i);
+            final int index = c - FULL_KATAKANA_FIRST;
+            final int converted = (index >= 0 && index < FULL_TO_HALF_KATAKANA.length) ? FULL_TO_HALF_KATAKANA[index] : 0;
+            if (converted == 0) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
 
-        return toFullString(target, map);
+            if (sb == null) {
+                sb = new StringBuilder(length + 8).append(target, 0, i);
+            }
+            sb.append((char) converted);
+            if ((converted >>> 16) != 0) {
+                sb.append((char) (converted >>> 16));
+            }
+        }
+
+        return (sb != null) ? sb.toString() : target;
+    }
+
+    /**
+     * ひらがなをカタカナに変換する。<br>
+     * 対象文字列を1回だけ走査し、変換する文字がない場合は対象文字列をそのまま返す。
+     *
+     * @param target 対象文字列
+     * @return 変換された文字列
+     */
+    public static String toKatakana(final String target) {
+        return convertChars(target, KANA_TABLE, KANA_TO_KATAKANA);
     }
 
     /**
-     * 全角文字に変換する。
+     * カタカナをひらがなに変換する。<br>
+     * ひらがながない文字(例: "ヷ")は変換しない。対象文字列を1回だけ走査し、変換する文字がない場合は対象文字列をそのまま返す。
      *
      * @param target 対象文字列
-     * @param convertMap 文字列リストのセット
      * @return 変換された文字列
      */
-    private static String toFullString(final String target, final Map<String, String> convertMap) {
+    public static String toHiragana(final String target) {
+        return convertChars(target, KANA_TABLE, KANA_TO_HIRAGANA);
+    }
+
+    /**
+     * 文字列を標準の正規化({@link TextNormalizer#STANDARD})で正規化する。<br>
+     * 全角英数字・記号を半角、半角カタカナを全角にし、波ダッシュ・ハイフンを統一して、空白文字の圧縮・前後の削除を1回の走査で行う。
+     *
+     * @param target 対象文字列
+     * @return 正規化された文字列
+     */
+    public static String normalize(final String target) {
+        return TextNormalizer.STANDARD.normalize(target);
+    }
+
+    /**
+     * 全角半角の変換表を生成する。<br>
+     * 変換表は文字の上位8ビットで引くページ(256文字)の配列で、変換対象の文字を含むページのみ生成する。
+     * 要素は、変換後の文字(下位16ビット)と種別(上位16ビット)。
+     *
+     * @param toHalf 全角から半角への変換表の場合はtrue、半角から全角への変換表の場合はfalse
+     * @return 変換表
+     */
+    private static int[][] createWidthTable(final boolean toHalf) {
+        final int[][] table = new int[256][];
+        putWidthTable(table, FULL_HALF_NUMBER, WIDTH_NUMBER, toHalf);
+        putWidthTable(table, FULL_HALF_UPPER, WIDTH_UPPER, toHalf);
+        putWidthTable(table, FULL_HALF_LOWER, WIDTH_LOWER, toHalf);
+        putWidthTable(table, FULL_HALF_SYMBOL, WIDTH_SYMBOL, toHalf);
+
+        return table;
+    }
+
+    /**
+     * 変換表に全角半角の対応を登録する。
+     *
+     * @param table 変換表
+     * @param convertMap 全角半角の対応
+     * @param kind 種別
+     * @param toHalf 全角から半角への変換表の場合はtrue、半角から全角への変換表の場合はfalse
+     */
+    private static void putWidthTable(final int[][] table, final Map<String, String> convertMap, final int kind, final boolean toHalf) {
+        for (final Map.Entry<String, String> entry : convertMap.entrySet()) {
+            final char from = (toHalf ? entry.getKey() : entry.getValue()).charAt(0);
+            final char to = (toHalf ? entry.getValue() : entry.getKey()).charAt(0);
+            if (table[from >>> 8] == null) {
+                table[from >>> 8] = new int[256];
+            }
+            table[from >>> 8][from & 0xFF] = kind | to;
+        }
+    }
+
+    /**
+     * 変換表で文字を変換する。
+     *
+     * @param table 変換表
+     * @param c 文字
+     * @param kinds 変換する種別
+     * @return 変換後の文字。変換しない場合は-1。
+     */
+    private static int convertChar(final int[][] table, final char c, final int kinds) {
+        final int[] page = table[c >>> 8];
+        if (page == null) {
+            return -1;
+        }
+
+        final int entry = page[c & 0xFF];
+        return ((entry & kinds) != 0) ? (char) entry : -1;
+    }
+
+    /**
+     * 変換表で1文字ずつ変換する。<br>
+     * 対象文字列を1回だけ走査する。変換する文字がない場合は、対象文字列をそのまま返す。
+     *
+     * @param target 対象文字列
+     * @param table 変換表
+     * @param kinds 変換する種別
+     * @return 変換された文字列
+     */
+    private static String convertChars(final String target, final int[][] table, final int kinds) {
         if (isEmpty(target)) {
             return target;
         }
 
-        String result = target;
-        for (Map.Entry<String, String> map : convertMap.entrySet()) {
-            result = result.replace(map.getValue(), map.getKey());
+        final int length = target.length();
+        for (int i = 0; i < length; i++) {
+            int converted = convertChar(table, target.charAt(i), kinds);
+            if (converted < 0) {
+                continue;
+            }
+
+            // 最初に変換する文字以降のみ、文字配列で変換する(変換は1文字対1文字)
+            final char[] chars = target.toCharArray();
+            chars[i] = (char) converted;
+            for (int j = i + 1; j < length; j++) {
+                converted = convertChar(table, chars[j], kinds);
+                if (converted >= 0) {
+                    chars[j] = (char) converted;
+                }
+            }
+
+            return new String(chars);
+        }
+
+        return target;
+    }
+
+    /**
+     * 変換表で1文字ずつ変換し、バッファに追加する。
+     *
+     * @param target 対象文字列
+     * @param buffer 追加先のバッファ
+     * @param table 変換表
+     * @param kinds 変換する種別
+     * @return 追加先のバッファ。追加先のバッファがnullの場合はnull。
+     */
+    private static StringBuilder convertChars(final CharSequence target, final StringBuilder buffer, final int[][] table, final int kinds) {
+        if (buffer == null) {
+            log.error("buffer is null.");
+            return null;
+        }
+
+        if (target == null) {
+            return buffer;
+        }
+
+        final int length = target.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final int converted = convertChar(table, target.charAt(i), kinds);
+            if (converted >= 0) {
+                buffer.append(target, start, i).append((char) converted);
+                start = i + 1;
+            }
         }
 
-        return result;
+        return buffer.append(target, start, length);
     }
 
     /**
@@ -692,11 +1199,12 @@ public class StringUtils {
     }
 
     /**
-     * 文字のエンコーディングを行う。
+     * 文字のエンコーディングを行う。<br>
+     * 対象バイト配列全体をメモリ上で変換する。大きなデータ・ファイルは{@link CharsetTranscoder}でストリーミング変換すること。
      *
      * @param target 対象バイト配列
-     * @param sourceCharset チェックする文字コード
-     * @param targetCharset チェックする文字コード
+     * @param sourceCharset 変換元の文字コード
+     * @param targetCharset 変換先の文字コード
      * @return 文字エンコーディングしたバイト配列
      */
     public static byte[] encodeCharset(final byte[] target, final Charset sourceCharset, final Charset targetCharset) {
@@ -704,7 +1212,9 @@ public class StringUtils {
         final CharBuffer charBuffer = sourceCharset.decode(inputBuffer);
         final ByteBuffer outputBuffer = targetCharset.encode(charBuffer);
 
-        return outputBuffer.array();
+        // 内部配列は容量分確保されているため、有効な範囲のみを返す
+        return Arrays.copyOfRange(outputBuffer.array(), outputBuffer.arrayOffset() + outputBuffer.position(),
+                outputBuffer.arrayOffset() + outputBuffer.limit());
     }
 
     /**
@@ -0,0 +1,446 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * テキスト正規化クラス<br>
+ * 全角半角・ひらがなカタカナの変換、空白文字の圧縮・削除、波ダッシュ・ハイフンの統一を、指定した{@link Option}の組み合わせで1回の走査で行う。<br>
+ * 生成時に、BMPの全文字について{@link StringUtils}の各変換を適用した結果を1つの変換表にまとめるため、
+ * 正規化の結果は各変換を順に適用した結果と同じ(変換の順序は{@link Option}の定義順)。
+ * 生成には時間がかかるため、定数として使い回すこと。生成後は不変で、複数のスレッドから使える。<br>
+ * 文字列のほか、{@link Reader}から{@link Writer}へのストリームも一定のメモリで正規化する。
+ */
+@Slf4j
+public class TextNormalizer {
+
+    /**
+     * 正規化の内容
+     */
+    public enum Option {
+        /** 全角英数字・記号(ASCII)を半角にする。全角スペースは半角スペースにする({@link StringUtils#toHalfOfAscii(String)}のうち、変換後がASCIIの文字) */
+        HALF_ASCII,
+        /** 半角カタカナ・句読点・括弧・長音を全角にし、濁点・半濁点を合成する({@link StringUtils#toFullOfKatakana(String)}) */
+        FULL_KATAKANA,
+        /** 波ダッシュ・全角チルダなどを波ダッシュ(U+301C)に統一する */
+        WAVE_DASH,
+        /** ハイフン・マイナス記号などを半角ハイフンマイナスに統一する */
+        HYPHEN,
+        /** ひらがなをカタカナにする({@link StringUtils#toKatakana(String)}) */
+        KATAKANA,
+        /** カタカナをひらがなにする({@link StringUtils#toHiragana(String)}) */
+        HIRAGANA,
+        /** 連続する空白文字({@link StringUtils#trim(String)}で削除する文字)を半角スペース1文字にする */
+        COLLAPSE_SPACE,
+        /** 各行の先頭・末尾の空白文字を削除する(空白文字を圧縮しない場合、行の途中で8192文字を超えて連続する空白文字は、行末でも削除しない) */
+        TRIM
+    }
+
+    /** 標準の正規化(半角英数字・全角カタカナ・波ダッシュ・ハイフンの統一、空白文字の圧縮・削除) */
+    public static final TextNormalizer STANDARD = of(Option.HALF_ASCII, Option.FULL_KATAKANA, Option.WAVE_DASH, Option.HYPHEN,
+            Option.COLLAPSE_SPACE, Option.TRIM);
+
+    /** 波ダッシュに統一する文字(全角チルダ、波ダッシュ、チルダ演算子、反転チルダ、スワングダッシュ) */
+    private static final String WAVE_DASH_CHARS = "～〜∼∾⁓";
+
+    /** 波ダッシュ */
+    private static final char WAVE_DASH = '〜';
+
+    /** ハイフンマイナスに統一する文字 */
+    private static final String HYPHEN_CHARS = "˗֊‐‑‒–⁃⁻₋−﹣－";
+
+    /** 半角カタカナの先頭の文字 */
+    private static final char HALF_KATAKANA_FIRST = '｡';
+
+    /** 半角カタカナの末尾の文字 */
+    private static final char HALF_KATAKANA_LAST = 'ﾟ';
+
+    /** 半角濁点 */
+    private static final char HALF_DAKUTEN = 'ﾞ';
+
+    /** 半角半濁点 */
+    private static final char HALF_HANDAKUTEN = 'ﾟ';
+
+    /** 変換表の要素: 変換する */
+    private static final int FLAG_MAPPED = 1 << 16;
+
+    /** 変換表の要素: 空白文字 */
+    private static final int FLAG_SPACE = 1 << 17;
+
+    /** 変換表の要素: 濁点・半濁点を合成する文字 */
+    private static final int FLAG_COMPOSE = 1 << 18;
+
+    /** ストリームの読み込み・書き込みバッファサイズ */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /** 正規化の内容 */
+    private final Set<Option> options;
+
+    /** 変換表(文字の上位8ビットで引くページの配列。要素は変換後の文字(下位16ビット)とフラグ) */
+    private final int[][] table = new int[256][];
+
+    /** 半角カタカナ + 半角濁点の変換後の文字(半角カタカナ - {@link #HALF_KATAKANA_FIRST}で引く) */
+    private final char[] dakuten = new char[HALF_KATAKANA_LAST - HALF_KATAKANA_FIRST + 1];
+
+    /** 半角カタカナ + 半角半濁点の変換後の文字 */
+    private final char[] handakuten = new char[HALF_KATAKANA_LAST - HALF_KATAKANA_FIRST + 1];
+
+    /** 空白文字を圧縮するか */
+    private final boolean collapseSpace;
+
+    /** 各行の先頭・末尾の空白文字を削除するか */
+    private final boolean trim;
+
+    /**
+     * 正規化の状態(ストリームの読み込み単位をまたいで引き継ぐ)
+     */
+    private static final class State {
+        /** 濁点・半濁点の合成を待っている半角カタカナ(ない場合は0) */
+        private char pendingKana;
+        /** 出力を保留している空白文字の数 */
+        private int spaceCount;
+        /** 出力を保留している空白文字(空白文字を圧縮せず、行の先頭でない場合のみ使う。バッファサイズまで) */
+        private StringBuilder spaces;
+        /** 行の先頭か */
+        private boolean lineStart = true;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param options 正規化の内容
+     */
+    private TextNormalizer(final Set<Option> options) {
+        this.options = Collections.unmodifiableSet(options);
+        this.collapseSpace = options.contains(Option.COLLAPSE_SPACE);
+        this.trim = options.contains(Option.TRIM);
+
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (Character.isSurrogate((char) c)) {
+                continue;
+            }
+
+            final String target = String.valueOf((char) c);
+            final String converted = convert(target);
+            int flags = converted.equals(target) ? 0 : FLAG_MAPPED;
+            if ((collapseSpace || trim) && StringUtils.trim(target).isEmpty()) {
+                flags |= FLAG_SPACE;
+            }
+            if (flags != 0) {
+                put((char) c, flags | converted.charAt(0));
+            }
+        }
+
+        if (options.contains(Option.FULL_KATAKANA)) {
+            for (char c = HALF_KATAKANA_FIRST; c <= HALF_KATAKANA_LAST; c++) {
+                dakuten[c - HALF_KATAKANA_FIRST] = compose(c, HALF_DAKUTEN);
+                handakuten[c - HALF_KATAKANA_FIRST] = compose(c, HALF_HANDAKUTEN);
+                if (dakuten[c - HALF_KATAKANA_FIRST] != 0 || handakuten[c - HALF_KATAKANA_FIRST] != 0) {
+                    put(c, lookup(c) | FLAG_COMPOSE);
+                }
+            }
+        }
+    }
+
+    /**
+     * 正規化の内容を指定して生成する。
+     *
+     * @param options 正規化の内容
+     * @return TextNormalizerオブジェクト。{@link Option#KATAKANA}と{@link Option#HIRAGANA}を両方指定した場合はnull。
+     */
+    public static TextNormalizer of(final Option... options) {
+        final Set<Option> set = EnumSet.noneOf(Option.class);
+        if (options != null) {
+            for (final Option option : options) {
+                if (option != null) {
+                    set.add(option);
+                }
+            }
+        }
+
+        if (set.contains(Option.KATAKANA) && set.contains(Option.HIRAGANA)) {
+            log.error("KATAKANA and HIRAGANA cannot be specified together.");
+            return null;
+        }
+
+        return new TextNormalizer(set);
+    }
+
+    /**
+     * 正規化の内容を取得する。
+     *
+     * @return 正規化の内容
+     */
+    public Set<Option> getOptions() {
+        return options;
+    }
+
+    /**
+     * 文字列を正規化する。<br>
+     * 正規化しても変わらない場合は、対象文字列をそのまま返す。
+     *
+     * @param target 対象文字列
+     * @return 正規化された文字列
+     */
+    public String normalize(final String target) {
+        if (StringUtils.isEmpty(target)) {
+            return target;
+        }
+
+        final StringBuilder out = new StringBuilder(target.length());
+        final State state = new State();
+        for (int i = 0; i < target.length(); i++) {
+            process(target.charAt(i), state, out);
+        }
+        finish(state, out);
+
+        return (out.length() == target.length() && target.contentEquals(out)) ? target : out.toString();
+    }
+
+    /**
+     * ストリームを正規化する。<br>
+     * 一定の大きさのバッファで読み込み・書き込みを行うため、メモリ使用量はストリームの大きさによらない。
+     * 行の区切り("\r"・"\n")はそのまま出力する。ストリームは閉じない。
+     *
+     * @param reader 読み込み元
+     * @param writer 書き込み先
+     * @return 書き込んだ文字数。読み込み・書き込みに失敗した場合は-1。
+     */
+    public long normalize(final Reader reader, final Writer writer) {
+        if (reader == null || writer == null) {
+            log.error("reader or writer is null.");
+            return -1;
+        }
+
+        final char[] buffer = new char[BUFFER_SIZE];
+        final StringBuilder out = new StringBuilder(BUFFER_SIZE * 2);
+        final State state = new State();
+        long count = 0;
+        try {
+            int length;
+            while ((length = reader.read(buffer)) >= 0) {
+                for (int i = 0; i < length; i++) {
+                    process(buffer[i], state, out);
+                }
+                if (out.length() >= BUFFER_SIZE) {
+                    count += write(out, writer);
+                }
+            }
+            finish(state, out);
+            count += write(out, writer);
+            writer.flush();
+
+            return count;
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 1文字を正規化する。
+     *
+     * @param c 文字
+     * @param state 正規化の状態
+     * @param out 出力先
+     */
+    private void process(final char c, final State state, final StringBuilder out) {
+        // 濁点・半濁点の合成
+        if (state.pendingKana != 0) {
+            final char kana = state.pendingKana;
+            state.pendingKana = 0;
+            final char composed = (c == HALF_DAKUTEN) ? dakuten[kana - HALF_KATAKANA_FIRST]
+                    : (c == HALF_HANDAKUTEN) ? handakuten[kana - HALF_KATAKANA_FIRST] : 0;
+            if (composed != 0) {
+                out.append(composed);
+                return;
+            }
+            out.append((char) lookup(kana));
+        }
+
+        final int entry = lookup(c);
+
+        // 空白文字は、次の文字まで出力を保留する(圧縮する場合・行の先頭で削除する場合は数のみ数える)
+        if ((entry & FLAG_SPACE) != 0) {
+            state.spaceCount++;
+            if (collapseSpace || (trim && state.lineStart)) {
+                return;
+            }
+
+            if (state.spaces == null) {
+                state.spaces = new StringBuilder();
+            }
+            state.spaces.append((char) entry);
+            // 一定のメモリで正規化するため、バッファサイズを超えて保留せずに出力する
+            if (state.spaces.length() >= BUFFER_SIZE) {
+                out.append(state.spaces);
+                clearSpaces(state);
+            }
+            return;
+        }
+
+        if (c == '\n' || c == '\r') {
+            if (!trim) {
+                appendSpaces(state, out);
+            }
+            clearSpaces(state);
+            out.append(c);
+            state.lineStart = true;
+            return;
+        }
+
+        if (!(trim && state.lineStart)) {
+            appendSpaces(state, out);
+        }
+        clearSpaces(state);
+        state.lineStart = false;
+
+        if ((entry & FLAG_COMPOSE) != 0) {
+            state.pendingKana = c;
+            return;
+        }
+        out.append((char) entry);
+    }
+
+    /**
+     * 正規化を終了し、保留している文字を出力する。
+     *
+     * @param state 正規化の状態
+     * @param out 出力先
+     */
+    private void finish(final State state, final StringBuilder out) {
+        if (state.pendingKana != 0) {
+            out.append((char) lookup(state.pendingKana));
+            state.pendingKana = 0;
+        }
+        if (!trim) {
+            appendSpaces(state, out);
+        }
+        clearSpaces(state);
+    }
+
+    /**
+     * 保留している空白文字を出力する。
+     *
+     * @param state 正規化の状態
+     * @param out 出力先
+     */
+    private void appendSpaces(final State state, final StringBuilder out) {
+        if (state.spaceCount == 0) {
+            return;
+        }
+
+        if (collapseSpace) {
+            out.append(' ');
+        } else {
+            out.append(state.spaces);
+        }
+    }
+
+    /**
+     * 保留している空白文字を破棄する。
+     *
+     * @param state 正規化の状態
+     */
+    private static void clearSpaces(final State state) {
+        state.spaceCount = 0;
+        if (state.spaces != null) {
+            state.spaces.setLength(0);
+        }
+    }
+
+    /**
+     * 出力先の内容を書き込み、出力先を空にする。
+     *
+     * @param out 出力先
+     * @param writer 書き込み先
+     * @return 書き込んだ文字数
+     * @throws IOException 入出力エラー
+     */
+    private static int write(final StringBuilder out, final Writer writer) throws IOException {
+        final int length = out.length();
+        writer.append(out);
+        out.setLength(0);
+
+        return length;
+    }
+
+    /**
+     * 変換表を引く。
+     *
+     * @param c 文字
+     * @return 変換表の要素(変換しない文字は文字そのもの)
+     */
+    private int lookup(final char c) {
+        final int[] page = table[c >>> 8];
+        return (page == null || page[c & 0xFF] == 0) ? c : page[c & 0xFF];
+    }
+
+    /**
+     * 変換表に登録する。
+     *
+     * @param c 文字
+     * @param entry 変換表の要素
+     */
+    private void put(final char c, final int entry) {
+        if (table[c >>> 8] == null) {
+            table[c >>> 8] = new int[256];
+        }
+        table[c >>> 8][c & 0xFF] = entry;
+    }
+
+    /**
+     * 1文字の文字列に、正規化の内容の変換を順に適用する。
+     *
+     * @param target 1文字の文字列
+     * @return 変換された文字列
+     */
+    private String convert(final String target) {
+        String result = target;
+        if (options.contains(Option.HALF_ASCII)) {
+            final String half = StringUtils.toHalfOfAscii(result);
+            if (half.charAt(0) < 0x80) {
+                result = half;
+            }
+        }
+        if (options.contains(Option.FULL_KATAKANA)) {
+            result = StringUtils.toFullOfKatakana(result);
+            if (result.charAt(0) >= HALF_KATAKANA_FIRST && result.charAt(0) <= HALF_KATAKANA_LAST) {
+                // 半角の句読点・括弧・中点
+                result = StringUtils.toFullOfSymbol(result);
+            }
+        }
+        if (options.contains(Option.WAVE_DASH) && WAVE_DASH_CHARS.indexOf(result.charAt(0)) >= 0) {
+            result = String.valueOf(WAVE_DASH);
+        }
+        if (options.contains(Option.HYPHEN) && HYPHEN_CHARS.indexOf(result.charAt(0)) >= 0) {
+            result = "-";
+        }
+        if (options.contains(Option.KATAKANA)) {
+            result = StringUtils.toKatakana(result);
+        }
+        if (options.contains(Option.HIRAGANA)) {
+            result = StringUtils.toHiragana(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * 半角カタカナと濁点・半濁点を合成し、正規化の内容の変換を適用する。
+     *
+     * @param kana 半角カタカナ
+     * @param mark 半角濁点・半角半濁点
+     * @return 合成した文字。合成できない場合は0。
+     */
+    private char compose(final char kana, final char mark) {
+        final String composed = StringUtils.toFullOfKatakana(String.valueOf(kana) + mark);
+        return (composed.length() == 1) ? convert(composed).charAt(0) : 0;
+    }
+}
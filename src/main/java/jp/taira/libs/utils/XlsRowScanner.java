@@ -0,0 +1,318 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * xlsのレコード(イベントモデル)による行走査クラス<br>
+ * HSSFWorkbookを生成せずにレコードを先頭から順に処理し、対象シートの行を1行ずつ返す。<br>
+ * セルの値は{@link XlsxRowParser}と同じ規則で解決する(文字列はString、数式は保存されている計算結果、数式の計算結果(数値)は日付判定しない)。
+ * 読み込む列以外のセルは、共有文字列の参照・日付判定を行わずに読み飛ばす。<br>
+ * 対象シートの終端に達した時点で処理を中断する。値を持たない行は返さない。
+ */
+final class XlsRowScanner extends AbortableHSSFListener {
+
+    /** 処理の継続 */
+    private static final short CONTINUE = 0;
+
+    /** 処理の中断 */
+    private static final short ABORT = 1;
+
+    /** 日付書式判定: 未判定 */
+    private static final byte STYLE_UNKNOWN = 0;
+
+    /** 日付書式判定: 日付書式 */
+    private static final byte STYLE_DATE = 1;
+
+    /** 日付書式判定: 日付書式以外 */
+    private static final byte STYLE_NOT_DATE = 2;
+
+    /** 対象シート名(nullの場合はシートのインデックスで判断する) */
+    private final String sheetName;
+
+    /** 対象シートのインデックス */
+    private final int sheetIndex;
+
+    /** 列の射影(nullの場合は全ての列を読み込む) */
+    private final boolean[] projection;
+
+    /** 行の条件 */
+    private final Predicate<ExcelRow> filter;
+
+    /** 行の処理 */
+    private final Consumer<ExcelRow> action;
+
+    /** シート名のリスト(BoundSheetレコードの順) */
+    private final List<String> sheetNames = new ArrayList<>();
+
+    /** 書式インデックスごとの書式文字列 */
+    private final Map<Integer, String> formatStrings = new HashMap<>();
+
+    /** XFインデックスごとの書式インデックス */
+    private final List<Integer> formatIndexes = new ArrayList<>();
+
+    /** XFインデックスごとの日付書式判定結果 */
+    private byte[] dateStyles = new byte[0];
+
+    /** 共有文字列テーブル */
+    private SSTRecord sstRecord;
+
+    /** 1904年基準の日付か */
+    private boolean date1904;
+
+    /** BOF/EOFの入れ子の深さ */
+    private int depth;
+
+    /** 処理中のサブストリーム(ワークブック全体を除く)のインデックス */
+    private int substreamIndex = -1;
+
+    /** 対象シートを処理中か */
+    private boolean inTargetSheet;
+
+    /** 処理中の行インデックス */
+    private int rowIndex = -1;
+
+    /** 処理中の行の最終列インデックス */
+    private int lastCol = -1;
+
+    /** 文字列の計算結果を待っている数式セルの列インデックス */
+    private int pendingStringCol = -1;
+
+    /** 行バッファ */
+    private Object[] buffer = new Object[16];
+
+    /** 条件を満たした行数 */
+    private long count;
+
+    /** 対象シートが見つかったか */
+    private boolean found;
+
+    /**
+     * コンストラクタ
+     *
+     * @param sheetName 対象シート名(nullの場合はシートのインデックスで指定する)
+     * @param sheetIndex 対象シートのインデックス
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     * @param filter 行の条件。nullの場合は全ての行を対象とする。
+     * @param action 行の処理
+     */
+    XlsRowScanner(final String sheetName, final int sheetIndex, final int[] columns, final Predicate<ExcelRow> filter, final Consumer<ExcelRow> action) {
+        this.sheetName = sheetName;
+        this.sheetIndex = sheetIndex;
+        this.projection = XlsxRowParser.toProjection(columns);
+        this.filter = filter;
+        this.action = action;
+    }
+
+    /**
+     * 条件を満たした行数を取得する。
+     *
+     * @return 行数
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * 対象シートが見つかったかを判断する。
+     *
+     * @return 見つかった場合はtrue、そうでない場合はfalse。
+     */
+    boolean isFound() {
+        return found;
+    }
+
+    @Override
+    public short abortableProcessRecord(final Record record) {
+        switch (record.getSid()) {
+            case BOFRecord.sid:
+                depth++;
+                if (depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    substreamIndex++;
+                    inTargetSheet = substreamIndex == resolveSheetIndex();
+                    found |= inTargetSheet;
+                }
+                return CONTINUE;
+            case EOFRecord.sid:
+                depth--;
+                if (depth == 0 && inTargetSheet) {
+                    flushRow();
+                    return ABORT;
+                }
+                return CONTINUE;
+            case BoundSheetRecord.sid:
+                sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                return CONTINUE;
+            case SSTRecord.sid:
+                sstRecord = (SSTRecord) record;
+                return CONTINUE;
+            case DateWindow1904Record.sid:
+                date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                return CONTINUE;
+            case FormatRecord.sid:
+                final FormatRecord formatRecord = (FormatRecord) record;
+                formatStrings.put(formatRecord.getIndexCode(), formatRecord.getFormatString());
+                return CONTINUE;
+            case ExtendedFormatRecord.sid:
+                formatIndexes.add((int) ((ExtendedFormatRecord) record).getFormatIndex());
+                return CONTINUE;
+            default:
+                break;
+        }
+
+        if (!inTargetSheet || depth != 1) {
+            return CONTINUE;
+        }
+
+        if (record instanceof StringRecord) {
+            if (pendingStringCol >= 0) {
+                buffer[pendingStringCol] = ((StringRecord) record).getString();
+                pendingStringCol = -1;
+            }
+            return CONTINUE;
+        }
+
+        if (record instanceof CellValueRecordInterface) {
+            processCell((CellValueRecordInterface) record);
+        }
+
+        return CONTINUE;
+    }
+
+    /**
+     * セルのレコードを処理する。
+     *
+     * @param cell セルのレコード
+     */
+    private void processCell(final CellValueRecordInterface cell) {
+        if (cell.getRow() != rowIndex) {
+            flushRow();
+            rowIndex = cell.getRow();
+        }
+        pendingStringCol = -1;
+
+        final int colIndex = cell.getColumn();
+        if (projection != null && (colIndex >= projection.length || !projection[colIndex])) {
+            return;
+        }
+
+        final Object value;
+        if (cell instanceof NumberRecord) {
+            final double number = ((NumberRecord) cell).getValue();
+            value = isDateStyle(cell.getXFIndex()) && DateUtil.isValidExcelDate(number) ? DateUtil.getJavaDate(number, date1904) : number;
+        } else if (cell instanceof LabelSSTRecord) {
+            value = sstRecord != null ? sstRecord.getString(((LabelSSTRecord) cell).getSSTIndex()).getString() : null;
+        } else if (cell instanceof LabelRecord) {
+            value = ((LabelRecord) cell).getValue();
+        } else if (cell instanceof BoolErrRecord) {
+            final BoolErrRecord boolErrRecord = (BoolErrRecord) cell;
+            value = boolErrRecord.isBoolean() ? (Object) boolErrRecord.getBooleanValue() : FormulaError.forInt(boolErrRecord.getErrorValue()).getString();
+        } else if (cell instanceof FormulaRecord) {
+            value = resolveFormula((FormulaRecord) cell, colIndex);
+        } else {
+            // 空白セル
+            return;
+        }
+
+        if (colIndex >= buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(colIndex + 1, buffer.length * 2));
+        }
+        for (int i = lastCol + 1; i < colIndex; i++) {
+            buffer[i] = null;
+        }
+        buffer[colIndex] = value;
+        lastCol = Math.max(lastCol, colIndex);
+    }
+
+    /**
+     * 数式セルの計算結果を解決する。<br>
+     * 計算結果が文字列の場合は、直後のStringレコードで値を設定する。
+     *
+     * @param formulaRecord 数式のレコード
+     * @param colIndex 列インデックス
+     * @return 計算結果
+     */
+    private Object resolveFormula(final FormulaRecord formulaRecord, final int colIndex) {
+        final CellType cellType = formulaRecord.getCachedResultTypeEnum();
+        if (cellType == CellType.STRING) {
+            pendingStringCol = colIndex;
+            return null;
+        }
+        if (cellType == CellType.BOOLEAN) {
+            return formulaRecord.getCachedBooleanValue();
+        }
+        if (cellType == CellType.ERROR) {
+            return FormulaError.forInt(formulaRecord.getCachedErrorValue()).getString();
+        }
+
+        return formulaRecord.getValue();
+    }
+
+    /**
+     * 処理中の行を確定し、条件を満たす場合は行の処理を呼び出す。
+     */
+    private void flushRow() {
+        if (lastCol < 0) {
+            return;
+        }
+
+        final ExcelRow row = new ExcelRow(rowIndex, Arrays.copyOf(buffer, lastCol + 1));
+        lastCol = -1;
+        if (row.isEmpty() || (filter != null && !filter.test(row))) {
+            return;
+        }
+
+        count++;
+        action.accept(row);
+    }
+
+    /**
+     * 対象シートのインデックスを解決する。
+     *
+     * @return シートのインデックス。シートが存在しない場合は-1。
+     */
+    private int resolveSheetIndex() {
+        return sheetName != null ? sheetNames.indexOf(sheetName) : sheetIndex;
+    }
+
+    /**
+     * XFが日付書式かを判断する。
+     *
+     * @param xfIndex XFインデックス
+     * @return 日付書式である場合はtrue、そうでない場合はfalse。
+     */
+    private boolean isDateStyle(final short xfIndex) {
+        if (xfIndex < 0 || xfIndex >= formatIndexes.size()) {
+            return false;
+        }
+
+        if (xfIndex >= dateStyles.length) {
+            dateStyles = Arrays.copyOf(dateStyles, formatIndexes.size());
+        }
+
+        byte cached = dateStyles[xfIndex];
+        if (cached == STYLE_UNKNOWN) {
+            final int formatIndex = formatIndexes.get(xfIndex);
+            String formatString = formatStrings.get(formatIndex);
+            if (formatString == null) {
+                formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+            }
+            cached = formatString != null && DateUtil.isADateFormat(formatIndex, formatString) ? STYLE_DATE : STYLE_NOT_DATE;
+            dateStyles[xfIndex] = cached;
+        }
+
+        return cached == STYLE_DATE;
+    }
+}
@@ -0,0 +1,355 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.Arrays;
+
+/**
+ * xlsxのシートXML(行要素)解析クラス<br>
+ * {@link ExcelUtils#getCellValue(org.apache.poi.ss.usermodel.Workbook, org.apache.poi.ss.usermodel.Cell)}と同じ規則でセルの値を解決する。<br>
+ * 文字列はRichTextStringではなくStringで返す。<br>
+ * 状態(行バッファ)を持つため、スレッド間で共有しないこと。
+ */
+final class XlsxRowParser {
+
+    /** 日付書式判定: 未判定 */
+    private static final byte STYLE_UNKNOWN = 0;
+
+    /** 日付書式判定: 日付書式 */
+    private static final byte STYLE_DATE = 1;
+
+    /** 日付書式判定: 日付書式以外 */
+    private static final byte STYLE_NOT_DATE = 2;
+
+    /** 共有文字列テーブル */
+    private final SharedStrings sharedStrings;
+
+    /** スタイルテーブル */
+    private final StylesTable stylesTable;
+
+    /** 1904年基準の日付か */
+    private final boolean date1904;
+
+    /** スタイルインデックスごとの日付書式判定結果 */
+    private byte[] dateStyles = new byte[0];
+
+    /** 行バッファ */
+    private Object[] buffer = new Object[16];
+
+    /** 列の射影(列インデックスごとに読み込む場合はtrue)。nullの場合は全ての列を読み込む。 */
+    private boolean[] projection;
+
+    /**
+     * コンストラクタ
+     *
+     * @param sharedStrings 共有文字列テーブル
+     * @param stylesTable スタイルテーブル
+     * @param date1904 1904年基準の日付の場合はtrue
+     */
+    XlsxRowParser(final SharedStrings sharedStrings, final StylesTable stylesTable, final boolean date1904) {
+        this.sharedStrings = sharedStrings;
+        this.stylesTable = stylesTable;
+        this.date1904 = date1904;
+    }
+
+    /**
+     * 読み込む列を設定する。<br>
+     * 指定した列以外のセル要素は、値を解決せず(共有文字列の参照・日付判定を行わず)に読み飛ばす。
+     *
+     * @param columns 列インデックス配列。nullの場合は全ての列を読み込む。
+     */
+    void setProjection(final int[] columns) {
+        projection = toProjection(columns);
+    }
+
+    /**
+     * 行要素を解析する。<br>
+     * 行要素の開始タグに位置する状態で呼び出し、行要素の終了タグまで読み進める。
+     *
+     * @param reader XMLリーダー
+     * @param defaultRowIndex r属性が省略されている場合の行インデックス
+     * @return 行データ
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    ExcelRow parseRow(final XMLStreamReader reader, final int defaultRowIndex) throws XMLStreamException {
+        final int rowIndex = parseRowIndex(reader.getAttributeValue(null, "r"), defaultRowIndex);
+
+        int lastCol = -1;
+        int nextCol = 0;
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(reader.getLocalName())) {
+                final int colIndex = parseColumnIndex(reader.getAttributeValue(null, "r"), nextCol);
+                nextCol = colIndex + 1;
+                if (projection != null && (colIndex >= projection.length || !projection[colIndex])) {
+                    skipElement(reader);
+                    continue;
+                }
+
+                final Object value = parseCell(reader);
+
+                ensureCapacity(colIndex + 1);
+                for (int i = lastCol + 1; i < colIndex; i++) {
+                    buffer[i] = null;
+                }
+                buffer[colIndex] = value;
+                lastCol = Math.max(lastCol, colIndex);
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+                break;
+            }
+        }
+
+        return new ExcelRow(rowIndex, Arrays.copyOf(buffer, lastCol + 1));
+    }
+
+    /**
+     * セル要素を解析する。<br>
+     * セル要素の開始タグに位置する状態で呼び出し、セル要素の終了タグまで読み進める。
+     *
+     * @param reader XMLリーダー
+     * @return セルの値
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private Object parseCell(final XMLStreamReader reader) throws XMLStreamException {
+        final String type = reader.getAttributeValue(null, "t");
+        final String style = reader.getAttributeValue(null, "s");
+
+        String value = null;
+        String formula = null;
+        String inline = null;
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                final String name = reader.getLocalName();
+                if ("v".equals(name)) {
+                    value = reader.getElementText();
+                } else if ("f".equals(name)) {
+                    formula = reader.getElementText();
+                } else if ("is".equals(name)) {
+                    inline = parseInlineString(reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(reader.getLocalName())) {
+                break;
+            }
+        }
+
+        return resolve(type, style, value, formula, inline);
+    }
+
+    /**
+     * 要素を読み飛ばす。<br>
+     * 要素の開始タグに位置する状態で呼び出し、要素の終了タグまで読み進める。
+     *
+     * @param reader XMLリーダー
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * インライン文字列要素を解析する。<br>
+     * ふりがな(rPh)は含めない。
+     *
+     * @param reader XMLリーダー
+     * @return 文字列
+     * @throws XMLStreamException XMLの解析に失敗した場合
+     */
+    private static String parseInlineString(final XMLStreamReader reader) throws XMLStreamException {
+        final StringBuilder sb = new StringBuilder();
+        int phonetic = 0;
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                final String name = reader.getLocalName();
+                if ("rPh".equals(name)) {
+                    phonetic++;
+                } else if ("t".equals(name) && phonetic == 0) {
+                    sb.append(reader.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                final String name = reader.getLocalName();
+                if ("rPh".equals(name)) {
+                    phonetic--;
+                } else if ("is".equals(name)) {
+                    break;
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * セルの値を解決する。
+     *
+     * @param type セル種別(t属性)
+     * @param style スタイルインデックス(s属性)
+     * @param value 値(v要素)
+     * @param formula 数式(f要素)
+     * @param inline インライン文字列(is要素)
+     * @return セルの値
+     */
+    Object resolve(final String type, final String style, final String value, final String formula, final String inline) {
+        if (type == null || "n".equals(type)) {
+            if (StringUtils.isEmpty(value)) {
+                // 計算結果が保存されていない数式は、数式文字列を返す
+                return formula;
+            }
+
+            final double number = Double.parseDouble(value);
+            // 数式の計算結果(数値)は日付判定しない
+            if (formula == null && isDateStyle(style) && DateUtil.isValidExcelDate(number)) {
+                return DateUtil.getJavaDate(number, date1904);
+            }
+
+            return number;
+        }
+
+        switch (type) {
+            case "s":
+                if (StringUtils.isEmpty(value) || sharedStrings == null) {
+                    return null;
+                }
+                return sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+            case "inlineStr":
+                return inline != null ? inline : value;
+            case "b":
+                if (value == null) {
+                    return formula;
+                }
+                return "1".equals(value) || "true".equalsIgnoreCase(value);
+            case "str":
+            case "e":
+                return value != null ? value : formula;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * スタイルが日付書式かを判断する。
+     *
+     * @param style スタイルインデックス(s属性)
+     * @return 日付書式である場合はtrue、そうでない場合はfalse。
+     */
+    boolean isDateStyle(final String style) {
+        if (stylesTable == null) {
+            return false;
+        }
+
+        final int styleIndex = style == null ? 0 : Integer.parseInt(style);
+        if (styleIndex < 0 || styleIndex >= stylesTable.getNumCellStyles()) {
+            return false;
+        }
+
+        if (styleIndex >= dateStyles.length) {
+            dateStyles = Arrays.copyOf(dateStyles, Math.max(styleIndex + 1, dateStyles.length * 2));
+        }
+
+        byte cached = dateStyles[styleIndex];
+        if (cached == STYLE_UNKNOWN) {
+            final XSSFCellStyle cellStyle = stylesTable.getStyleAt(styleIndex);
+            final boolean date = cellStyle != null && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+            cached = date ? STYLE_DATE : STYLE_NOT_DATE;
+            dateStyles[styleIndex] = cached;
+        }
+
+        return cached == STYLE_DATE;
+    }
+
+    /**
+     * 行バッファの容量を確保する。
+     *
+     * @param capacity 容量
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+
+    /**
+     * セル参照("AB12")から列インデックスを取得する。
+     *
+     * @param reference セル参照
+     * @param defaultIndex セル参照が省略されている場合の列インデックス
+     * @return 列インデックス
+     */
+    static int parseColumnIndex(final String reference, final int defaultIndex) {
+        if (reference == null) {
+            return defaultIndex;
+        }
+
+        int col = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            final char c = reference.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                col = col * 26 + (c - 'A' + 1);
+            } else if (c >= 'a' && c <= 'z') {
+                col = col * 26 + (c - 'a' + 1);
+            } else {
+                break;
+            }
+        }
+
+        return col == 0 ? defaultIndex : col - 1;
+    }
+
+    /**
+     * 列インデックス配列から列の射影を生成する。
+     *
+     * @param columns 列インデックス配列
+     * @return 列インデックスごとに読み込む場合はtrueとなる配列。列インデックス配列がnullの場合はnull。
+     * @throws IllegalArgumentException 列インデックスが負の場合
+     */
+    static boolean[] toProjection(final int[] columns) {
+        if (columns == null) {
+            return null;
+        }
+
+        int lastCol = -1;
+        for (final int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("Column index must not be negative: " + column);
+            }
+            lastCol = Math.max(lastCol, column);
+        }
+
+        final boolean[] projection = new boolean[lastCol + 1];
+        for (final int column : columns) {
+            projection[column] = true;
+        }
+
+        return projection;
+    }
+
+    /**
+     * 行番号(r属性)から行インデックスを取得する。
+     *
+     * @param reference 行番号
+     * @param defaultIndex 行番号が省略されている場合の行インデックス
+     * @return 行インデックス
+     */
+    static int parseRowIndex(final String reference, final int defaultIndex) {
+        if (StringUtils.isEmpty(reference)) {
+            return defaultIndex;
+        }
+
+        return Integer.parseInt(reference) - 1;
+    }
+}
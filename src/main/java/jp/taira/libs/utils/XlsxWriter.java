@@ -0,0 +1,1150 @@
+package jp.taira.libs.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Excel(xlsx)直接書き込みクラス<br>
+ * POIのWorkbookを使わず、シートのXML(SpreadsheetML)とzipのエントリを直接書き出す。テンプレート・数式・書式を必要としない、
+ * 表形式のデータの出力に使う。<br>
+ * セルの値は再利用するバイトバッファにUTF-8で直接書き込むため、セルごとのオブジェクト生成はない
+ * (小数点以下10桁以内で表せない小数のみ{@link Double#toString(double)}を使う)。<br>
+ * 文字列はインライン文字列で書き込む。共有文字列を指定した場合は、重複する文字列を共有文字列テーブルにまとめる
+ * (共有文字列テーブルは出力終了までメモリに保持する)。<br>
+ * 書式は日付("m/d/yy")・日時("m/d/yy h:mm")のみ。XMLで使えない制御文字は出力しない。
+ *
+ * <pre>
+ * try (XlsxWriter writer = XlsxWriter.create(path)) {
+ *     writer.createSheet("Sheet1");
+ *     writer.writeRow("name", "value");
+ *     writer.startRow();
+ *     writer.writeString("abc");
+ *     writer.writeNumber(1.5);
+ * }
+ * </pre>
+ */
+@Slf4j
+public class XlsxWriter implements Closeable {
+
+    /** 1シートの最大行数 */
+    public static final int MAX_ROWS = 1048576;
+
+    /** 1シートの最大列数 */
+    public static final int MAX_COLUMNS = 16384;
+
+    /** シート名の最大文字数 */
+    private static final int SHEET_NAME_MAX_LENGTH = 31;
+
+    /** シート名に使えない文字 */
+    private static final String SHEET_NAME_INVALID_CHARS = "[]:*?/\\";
+
+    /** 書き込みバッファサイズ */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** 1文字の最大バイト数(エスケープ"&amp;quot;"の6バイト) */
+    private static final int MAX_CHAR_BYTES = 6;
+
+    /** 小数で書き込む小数点以下の最大桁数 */
+    private static final int MAX_DECIMAL_SCALE = 10;
+
+    /** 整数で書き込む数値の最大値(2^53) */
+    private static final double MAX_EXACT_LONG = 9007199254740992.0;
+
+    /** 10のべき乗 */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10 };
+
+    /** 1日の秒数 */
+    private static final double SECONDS_PER_DAY = 86400.0;
+
+    /** 日付の書式のインデックス */
+    private static final int STYLE_DATE = 1;
+
+    /** 日時の書式のインデックス */
+    private static final int STYLE_DATE_TIME = 2;
+
+    /** シートのXMLの開始 */
+    private static final byte[] SHEET_START = bytes("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+
+    /** シートのXMLの終了 */
+    private static final byte[] SHEET_END = bytes("</sheetData></worksheet>");
+
+    /** 行の開始 */
+    private static final byte[] ROW_START = bytes("<row r=\"");
+
+    /** 行の開始の終了 */
+    private static final byte[] ROW_START_END = bytes("\">");
+
+    /** 行の終了 */
+    private static final byte[] ROW_END = bytes("</row>");
+
+    /** セルの開始 */
+    private static final byte[] CELL_START = bytes("<c r=\"");
+
+    /** インライン文字列のセル */
+    private static final byte[] CELL_INLINE_STRING = bytes("\" t=\"inlineStr\"><is><t>");
+
+    /** インライン文字列のセル(前後の空白を保持する) */
+    private static final byte[] CELL_INLINE_STRING_PRESERVE = bytes("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+
+    /** インライン文字列のセルの終了 */
+    private static final byte[] CELL_INLINE_STRING_END = bytes("</t></is></c>");
+
+    /** 共有文字列のセル */
+    private static final byte[] CELL_SHARED_STRING = bytes("\" t=\"s\"><v>");
+
+    /** 数値のセル */
+    private static final byte[] CELL_NUMBER = bytes("\"><v>");
+
+    /** 日付のセル */
+    private static final byte[] CELL_DATE = bytes("\" s=\"" + STYLE_DATE + "\"><v>");
+
+    /** 日時のセル */
+    private static final byte[] CELL_DATE_TIME = bytes("\" s=\"" + STYLE_DATE_TIME + "\"><v>");
+
+    /** 真のセル */
+    private static final byte[] CELL_TRUE = bytes("\" t=\"b\"><v>1</v></c>");
+
+    /** 偽のセル */
+    private static final byte[] CELL_FALSE = bytes("\" t=\"b\"><v>0</v></c>");
+
+    /** 数値にできない値(NaN・無限大)のセル */
+    private static final byte[] CELL_NUM_ERROR = bytes("\" t=\"e\"><v>#NUM!</v></c>");
+
+    /** 値のセルの終了 */
+    private static final byte[] CELL_VALUE_END = bytes("</v></c>");
+
+    /** "&amp;"のエスケープ */
+    private static final byte[] ESCAPED_AMP = bytes("&amp;");
+
+    /** "&lt;"のエスケープ */
+    private static final byte[] ESCAPED_LT = bytes("&lt;");
+
+    /** "&gt;"のエスケープ */
+    private static final byte[] ESCAPED_GT = bytes("&gt;");
+
+    /** "&quot;"のエスケープ */
+    private static final byte[] ESCAPED_QUOT = bytes("&quot;");
+
+    /** Long.MIN_VALUE */
+    private static final byte[] LONG_MIN_VALUE = bytes(Long.toString(Long.MIN_VALUE));
+
+    /** zip出力 */
+    private final ZipOutputStream zipOutputStream;
+
+    /** 出力先を閉じるか */
+    private final boolean closeOutput;
+
+    /** 共有文字列を使うか */
+    private final boolean sharedStrings;
+
+    /** 共有文字列のインデックス */
+    private final Map<String, Integer> sharedStringIndexes = new HashMap<>();
+
+    /** 共有文字列(インデックス順) */
+    private final List<String> sharedStringValues = new ArrayList<>();
+
+    /** 共有文字列のセル数 */
+    private long sharedStringCount;
+
+    /** シート名のリスト */
+    private final List<String> sheetNames = new ArrayList<>();
+
+    /** シート名(大文字小文字を区別しない重複の判断用) */
+    private final Set<String> upperSheetNames = new HashSet<>();
+
+    /** 書き込みバッファ */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** 書き込みバッファの位置 */
+    private int position;
+
+    /** 数値・セル参照の作業領域 */
+    private final byte[] scratch = new byte[24];
+
+    /** 書き込み中の行インデックス(行がない場合は-1) */
+    private int rowIndex = -1;
+
+    /** 次に書き込む列インデックス */
+    private int columnIndex;
+
+    /** 行を書き込み中か */
+    private boolean inRow;
+
+    /** シートを書き込み中か */
+    private boolean inSheet;
+
+    /** 書き込みを終了したか */
+    private boolean finished;
+
+    /** 書き込みに失敗したか */
+    private boolean failed;
+
+    /**
+     * コンストラクタ
+     *
+     * @param outputStream 出力先
+     * @param closeOutput 出力先を閉じる場合はtrue
+     * @param sharedStrings 共有文字列を使う場合はtrue
+     */
+    private XlsxWriter(final OutputStream outputStream, final boolean closeOutput, final boolean sharedStrings) {
+        this.zipOutputStream = new ZipOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        this.zipOutputStream.setLevel(ExcelUtils.DEFAULT_COMPRESSION_LEVEL);
+        this.closeOutput = closeOutput;
+        this.sharedStrings = sharedStrings;
+    }
+
+    /**
+     * 書き込みを開始する。<br>
+     * 文字列はインライン文字列で書き込む。
+     *
+     * @param path ファイルのパス
+     * @return XlsxWriterオブジェクト
+     */
+    public static XlsxWriter create(final Path path) {
+        return create(path, false);
+    }
+
+    /**
+     * 書き込みを開始する。
+     *
+     * @param path ファイルのパス
+     * @param sharedStrings 共有文字列を使う場合はtrue、インライン文字列で書き込む場合はfalse
+     * @return XlsxWriterオブジェクト
+     */
+    public static XlsxWriter create(final Path path, final boolean sharedStrings) {
+        if (path == null) {
+            log.error("path is null.");
+            return null;
+        }
+
+        try {
+            return new XlsxWriter(Files.newOutputStream(path), true, sharedStrings);
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 書き込みを開始する。<br>
+     * 出力先は{@link #finish()}で閉じない。
+     *
+     * @param outputStream 出力先
+     * @param sharedStrings 共有文字列を使う場合はtrue、インライン文字列で書き込む場合はfalse
+     * @return XlsxWriterオブジェクト
+     */
+    public static XlsxWriter create(final OutputStream outputStream, final boolean sharedStrings) {
+        if (outputStream == null) {
+            log.error("outputStream is null.");
+            return null;
+        }
+
+        return new XlsxWriter(outputStream, false, sharedStrings);
+    }
+
+    /**
+     * zip圧縮レベルをセットする。<br>
+     * 以降に書き込むエントリに適用する。既定値は{@link ExcelUtils#DEFAULT_COMPRESSION_LEVEL}。
+     *
+     * @param level 圧縮レベル(-1～9)
+     */
+    public void setCompressionLevel(final int level) {
+        if (level < -1 || level > 9) {
+            log.error("level({}) is invalid.", level);
+            return;
+        }
+
+        zipOutputStream.setLevel(level);
+    }
+
+    /**
+     * 新しいシートを生成し、書き込み先を切り替える。<br>
+     * 書き込み中のシートは完了する。
+     *
+     * @param sheetName シート名
+     * @return 生成した場合はtrue、シート名が不正な場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean createSheet(final String sheetName) {
+        if (!isWritable()) {
+            return false;
+        }
+
+        if (!isValidSheetName(sheetName) || upperSheetNames.contains(sheetName.toUpperCase(Locale.ROOT))) {
+            log.error("sheetName({}) is invalid.", sheetName);
+            return false;
+        }
+
+        try {
+            completeSheet();
+            zipOutputStream.putNextEntry(new ZipEntry("xl/worksheets/sheet" + (sheetNames.size() + 1) + ".xml"));
+            sheetNames.add(sheetName);
+            upperSheetNames.add(sheetName.toUpperCase(Locale.ROOT));
+            write(SHEET_START);
+            inSheet = true;
+            rowIndex = -1;
+
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の行の書き込みを開始する。<br>
+     * 書き込み中の行は完了する。
+     *
+     * @return 開始した場合はtrue、シートがない場合、最大行数を超える場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean startRow() {
+        return startRow(rowIndex + 1);
+    }
+
+    /**
+     * 指定した行の書き込みを開始する。<br>
+     * 書き込み中の行は完了する。行インデックスは書き込み済みの行より後であること(間の行は空行となる)。
+     *
+     * @param rowIndex 行インデックス
+     * @return 開始した場合はtrue、シートがない場合、行インデックスが不正な場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean startRow(final int rowIndex) {
+        if (!isWritable()) {
+            return false;
+        }
+
+        if (!inSheet) {
+            log.error("sheet is not created.");
+            return false;
+        }
+
+        if (rowIndex <= this.rowIndex || rowIndex >= MAX_ROWS) {
+            log.error("rowIndex({}) is invalid.", rowIndex);
+            return false;
+        }
+
+        try {
+            completeRow();
+            ensure(ROW_START.length + 10 + ROW_START_END.length);
+            put(ROW_START);
+            putLong(rowIndex + 1L);
+            put(ROW_START_END);
+            this.rowIndex = rowIndex;
+            this.columnIndex = 0;
+            this.inRow = true;
+
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の列を空白にする。
+     *
+     * @return 空白にした場合はtrue、行がない場合、または最大列数を超える場合はfalse。
+     */
+    public boolean skipCell() {
+        if (!isCellWritable()) {
+            return false;
+        }
+
+        columnIndex++;
+        return true;
+    }
+
+    /**
+     * 次の列に文字列を書き込む。
+     *
+     * @param value 値(nullの場合は空白のセル)
+     * @return 書き込んだ場合はtrue、行がない場合、最大列数を超える場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean writeString(final String value) {
+        if (value == null) {
+            return skipCell();
+        }
+
+        if (!isCellWritable()) {
+            return false;
+        }
+
+        try {
+            if (sharedStrings) {
+                Integer index = sharedStringIndexes.get(value);
+                if (index == null) {
+                    index = sharedStringValues.size();
+                    sharedStringIndexes.put(value, index);
+                    sharedStringValues.add(value);
+                }
+                sharedStringCount++;
+
+                putCellStart(CELL_SHARED_STRING);
+                ensure(10 + CELL_VALUE_END.length);
+                putLong(index);
+                put(CELL_VALUE_END);
+            } else {
+                putCellStart(isPreserveSpace(value) ? CELL_INLINE_STRING_PRESERVE : CELL_INLINE_STRING);
+                putText(value);
+                ensure(CELL_INLINE_STRING_END.length);
+                put(CELL_INLINE_STRING_END);
+            }
+
+            columnIndex++;
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の列に数値を書き込む。
+     *
+     * @param value 値
+     * @return 書き込んだ場合はtrue、行がない場合、最大列数を超える場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean writeNumber(final long value) {
+        if (!isCellWritable()) {
+            return false;
+        }
+
+        try {
+            putCellStart(CELL_NUMBER);
+            ensure(20 + CELL_VALUE_END.length);
+            putLong(value);
+            put(CELL_VALUE_END);
+
+            columnIndex++;
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の列に数値を書き込む。<br>
+     * NaN・無限大は"#NUM!"のエラーのセルとする。
+     *
+     * @param value 値
+     * @return 書き込んだ場合はtrue、行がない場合、最大列数を超える場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean writeNumber(final double value) {
+        if (!isCellWritable()) {
+            return false;
+        }
+
+        try {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                putCellStart(CELL_NUM_ERROR);
+            } else {
+                putCellStart(CELL_NUMBER);
+                putDouble(value);
+                ensure(CELL_VALUE_END.length);
+                put(CELL_VALUE_END);
+            }
+
+            columnIndex++;
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の列に真偽を書き込む。
+     *
+     * @param value 値
+     * @return 書き込んだ場合はtrue、行がない場合、最大列数を超える場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean writeBoolean(final boolean value) {
+        if (!isCellWritable()) {
+            return false;
+        }
+
+        try {
+            putCellStart(value ? CELL_TRUE : CELL_FALSE);
+
+            columnIndex++;
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の列に日付を書き込む。<br>
+     * 1900年基準のシリアル値に変換し、日付の書式("m/d/yy")を適用する。
+     *
+     * @param value 値(nullの場合は空白のセル)
+     * @return 書き込んだ場合はtrue、行がない場合、最大列数を超える場合、1900/1/1より前の日付の場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean writeDate(final LocalDate value) {
+        if (value == null) {
+            return skipCell();
+        }
+
+        if (!isCellWritable()) {
+            return false;
+        }
+
+        final long serial = ExcelUtils.toSerial(value.toEpochDay());
+        if (serial < 1) {
+            log.error("value({}) is invalid.", value);
+            return false;
+        }
+
+        try {
+            putCellStart(CELL_DATE);
+            ensure(20 + CELL_VALUE_END.length);
+            putLong(serial);
+            put(CELL_VALUE_END);
+
+            columnIndex++;
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の列に日時を書き込む。<br>
+     * 1900年基準のシリアル値に変換し、日時の書式("m/d/yy h:mm")を適用する。
+     *
+     * @param value 値(nullの場合は空白のセル)
+     * @return 書き込んだ場合はtrue、行がない場合、最大列数を超える場合、1900/1/1より前の日時の場合、または書き込みに失敗した場合はfalse。
+     */
+    public boolean writeDateTime(final LocalDateTime value) {
+        if (value == null) {
+            return skipCell();
+        }
+
+        if (!isCellWritable()) {
+            return false;
+        }
+
+        final long serial = ExcelUtils.toSerial(value.toLocalDate().toEpochDay());
+        if (serial < 1) {
+            log.error("value({}) is invalid.", value);
+            return false;
+        }
+
+        try {
+            putCellStart(CELL_DATE_TIME);
+            putDouble(serial + (value.toLocalTime().toNanoOfDay() / 1e9) / SECONDS_PER_DAY);
+            ensure(CELL_VALUE_END.length);
+            put(CELL_VALUE_END);
+
+            columnIndex++;
+            return true;
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    /**
+     * 次の行を書き込む。<br>
+     * 値の型に応じて、文字列・数値・真偽・日付・日時のセルとする。nullは空白のセル、それ以外の型は{@link Object#toString()}の文字列とする。
+     * {@link Date}は時刻が0時の場合は日付、そうでない場合は日時とする。
+     *
+     * @param values セルの値(列インデックス順)
+     * @return 書き込んだ場合はtrue、そうでない場合はfalse。
+     */
+    public boolean writeRow(final Object... values) {
+        if (!startRow()) {
+            return false;
+        }
+
+        if (values == null) {
+            return true;
+        }
+
+        for (final Object value : values) {
+            if (!writeValue(value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 次の列に値を書き込む。
+     *
+     * @param value 値
+     * @return 書き込んだ場合はtrue、そうでない場合はfalse。
+     */
+    private boolean writeValue(final Object value) {
+        if (value == null) {
+            return skipCell();
+        } else if (value instanceof String) {
+            return writeString((String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < Long.SIZE) {
+            return writeNumber(((BigInteger) value).longValue());
+        } else if (value instanceof Number) {
+            return writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            return writeBoolean((Boolean) value);
+        } else if (value instanceof LocalDate) {
+            return writeDate((LocalDate) value);
+        } else if (value instanceof LocalDateTime) {
+            return writeDateTime((LocalDateTime) value);
+        } else if (value instanceof Date) {
+            final LocalDateTime dateTime = LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+            return dateTime.toLocalTime().equals(LocalTime.MIDNIGHT) ? writeDate(dateTime.toLocalDate()) : writeDateTime(dateTime);
+        } else {
+            return writeString(value.toString());
+        }
+    }
+
+    /**
+     * 書き込みを終了する。<br>
+     * 書き込み中のシートを完了し、ワークブック・スタイル・共有文字列などのエントリを書き出す。
+     * シートを生成していない場合は、空の"Sheet1"を生成する。2回目以降の呼び出しは何もしない。
+     *
+     * @return 出力した場合はtrue、書き込みに失敗した場合はfalse。
+     */
+    public boolean finish() {
+        if (finished) {
+            return !failed;
+        }
+
+        try {
+            if (!failed) {
+                if (sheetNames.isEmpty()) {
+                    createSheet("Sheet1");
+                }
+                completeSheet();
+                writeSharedStrings();
+                writeEntry("xl/workbook.xml", getWorkbookXml());
+                writeEntry("xl/_rels/workbook.xml.rels", getWorkbookRelsXml());
+                writeEntry("xl/styles.xml", getStylesXml());
+                writeEntry("[Content_Types].xml", getContentTypesXml());
+                writeEntry("_rels/.rels", getRelsXml());
+                zipOutputStream.finish();
+                zipOutputStream.flush();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            finished = true;
+            if (closeOutput) {
+                try {
+                    zipOutputStream.close();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        return !failed;
+    }
+
+    /**
+     * 書き込みを終了する。
+     *
+     * @see #finish()
+     */
+    @Override
+    public void close() {
+        finish();
+    }
+
+    /**
+     * 書き込み可能かを判断する。
+     *
+     * @return 書き込み可能な場合はtrue、そうでない場合はfalse。
+     */
+    private boolean isWritable() {
+        if (finished) {
+            log.error("writer is already finished.");
+            return false;
+        }
+
+        return !failed;
+    }
+
+    /**
+     * セルを書き込み可能かを判断する。
+     *
+     * @return 書き込み可能な場合はtrue、そうでない場合はfalse。
+     */
+    private boolean isCellWritable() {
+        if (!isWritable()) {
+            return false;
+        }
+
+        if (!inRow) {
+            log.error("row is not started.");
+            return false;
+        }
+
+        if (columnIndex >= MAX_COLUMNS) {
+            log.error("columnIndex({}) is invalid.", columnIndex);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * 書き込みに失敗した状態にする。<br>
+     * 以降の書き込みは行わない。
+     *
+     * @param e 例外
+     * @return false
+     */
+    private boolean fail(final IOException e) {
+        log.error(e.getMessage());
+        failed = true;
+        return false;
+    }
+
+    /**
+     * 書き込み中の行を完了する。
+     *
+     * @throws IOException 入出力エラー
+     */
+    private void completeRow() throws IOException {
+        if (inRow) {
+            ensure(ROW_END.length);
+            put(ROW_END);
+            inRow = false;
+        }
+    }
+
+    /**
+     * 書き込み中のシートを完了し、エントリを閉じる。
+     *
+     * @throws IOException 入出力エラー
+     */
+    private void completeSheet() throws IOException {
+        if (inSheet) {
+            completeRow();
+            write(SHEET_END);
+            flushBuffer();
+            zipOutputStream.closeEntry();
+            inSheet = false;
+        }
+    }
+
+    /**
+     * 共有文字列テーブルのエントリを書き出す。
+     *
+     * @throws IOException 入出力エラー
+     */
+    private void writeSharedStrings() throws IOException {
+        if (!sharedStrings) {
+            return;
+        }
+
+        zipOutputStream.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+        write(bytes("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"" + sharedStringCount
+                + "\" uniqueCount=\"" + sharedStringValues.size() + "\">"));
+        for (final String value : sharedStringValues) {
+            write(bytes(isPreserveSpace(value) ? "<si><t xml:space=\"preserve\">" : "<si><t>"));
+            putText(value);
+            write(bytes("</t></si>"));
+        }
+        write(bytes("</sst>"));
+        flushBuffer();
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * エントリを書き出す。
+     *
+     * @param name エントリ名
+     * @param xml XML
+     * @throws IOException 入出力エラー
+     */
+    private void writeEntry(final String name, final String xml) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+        zipOutputStream.write(xml.getBytes(StandardCharsets.UTF_8));
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * ワークブックのXMLを取得する。
+     *
+     * @return XML
+     */
+    private String getWorkbookXml() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        sb.append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"");
+        sb.append(" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            sb.append("<sheet name=\"").append(escape(sheetNames.get(i)))
+                    .append("\" sheetId=\"").append(i + 1).append("\" r:id=\"rId").append(i + 1).append("\"/>");
+        }
+        sb.append("</sheets></workbook>");
+
+        return sb.toString();
+    }
+
+    /**
+     * ワークブックのリレーションシップのXMLを取得する。
+     *
+     * @return XML
+     */
+    private String getWorkbookRelsXml() {
+        final String type = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/";
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        sb.append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            sb.append("<Relationship Id=\"rId").append(i + 1).append("\" Type=\"").append(type)
+                    .append("worksheet\" Target=\"worksheets/sheet").append(i + 1).append(".xml\"/>");
+        }
+        sb.append("<Relationship Id=\"rId").append(sheetNames.size() + 1).append("\" Type=\"").append(type)
+                .append("styles\" Target=\"styles.xml\"/>");
+        if (sharedStrings) {
+            sb.append("<Relationship Id=\"rId").append(sheetNames.size() + 2).append("\" Type=\"").append(type)
+                    .append("sharedStrings\" Target=\"sharedStrings.xml\"/>");
+        }
+        sb.append("</Relationships>");
+
+        return sb.toString();
+    }
+
+    /**
+     * スタイルのXMLを取得する。<br>
+     * セルの書式は、標準・日付(組み込み書式14)・日時(組み込み書式22)の3つ。
+     *
+     * @return XML
+     */
+    private static String getStylesXml() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font></fonts>"
+                + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"3\">"
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"22\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "</cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>";
+    }
+
+    /**
+     * コンテンツタイプのXMLを取得する。
+     *
+     * @return XML
+     */
+    private String getContentTypesXml() {
+        final String type = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        sb.append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">");
+        sb.append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>");
+        sb.append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>");
+        sb.append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"").append(type).append("sheet.main+xml\"/>");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            sb.append("<Override PartName=\"/xl/worksheets/sheet").append(i + 1).append(".xml\" ContentType=\"")
+                    .append(type).append("worksheet+xml\"/>");
+        }
+        sb.append("<Override PartName=\"/xl/styles.xml\" ContentType=\"").append(type).append("styles+xml\"/>");
+        if (sharedStrings) {
+            sb.append("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"").append(type).append("sharedStrings+xml\"/>");
+        }
+        sb.append("</Types>");
+
+        return sb.toString();
+    }
+
+    /**
+     * パッケージのリレーションシップのXMLを取得する。
+     *
+     * @return XML
+     */
+    private static String getRelsXml() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\""
+                + " Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>";
+    }
+
+    /**
+     * セルの開始(セル参照を含む)を書き込む。
+     *
+     * @param suffix セル参照の後に続く内容
+     * @throws IOException 入出力エラー
+     */
+    private void putCellStart(final byte[] suffix) throws IOException {
+        ensure(CELL_START.length + 3 + 7 + suffix.length);
+        put(CELL_START);
+
+        // 列名(A～XFD)
+        int col = columnIndex;
+        int length = 0;
+        do {
+            scratch[length++] = (byte) ('A' + col % 26);
+            col = col / 26 - 1;
+        } while (col >= 0);
+        while (length > 0) {
+            buffer[position++] = scratch[--length];
+        }
+
+        putLong(rowIndex + 1L);
+        put(suffix);
+    }
+
+    /**
+     * 数値を書き込む。<br>
+     * 2^53未満の整数は整数、小数点以下{@value #MAX_DECIMAL_SCALE}桁以内で同じ値に戻る小数は小数で書き込み、
+     * それ以外は{@link Double#toString(double)}で書き込む。
+     *
+     * @param value 値
+     * @throws IOException 入出力エラー
+     */
+    private void putDouble(final double value) throws IOException {
+        ensure(32);
+
+        final double abs = Math.abs(value);
+        if (abs < MAX_EXACT_LONG) {
+            for (int scale = 0; scale <= MAX_DECIMAL_SCALE; scale++) {
+                final double scaled = abs * POWERS_OF_TEN[scale];
+                if (scaled >= MAX_EXACT_LONG) {
+                    break;
+                }
+
+                final long unscaled = Math.round(scaled);
+                if (unscaled / POWERS_OF_TEN[scale] == abs) {
+                    if (value < 0 && unscaled != 0) {
+                        buffer[position++] = '-';
+                    }
+                    putDecimal(unscaled, scale);
+                    return;
+                }
+            }
+        }
+
+        final String text = Double.toString(value);
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * 0以上の整数を、小数点以下の桁数を指定して書き込む。
+     *
+     * @param unscaled 小数点を除いた値
+     * @param scale 小数点以下の桁数
+     */
+    private void putDecimal(final long unscaled, final int scale) {
+        long value = unscaled;
+        int length = 0;
+        do {
+            scratch[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0 || length <= scale);
+
+        while (length > 0) {
+            if (length == scale) {
+                buffer[position++] = '.';
+            }
+            buffer[position++] = scratch[--length];
+        }
+    }
+
+    /**
+     * 整数を書き込む(バッファの容量は呼び出し元で確保する)。
+     *
+     * @param value 値
+     */
+    private void putLong(final long value) {
+        if (value == Long.MIN_VALUE) {
+            put(LONG_MIN_VALUE);
+            return;
+        }
+
+        if (value < 0) {
+            buffer[position++] = '-';
+            putDecimal(-value, 0);
+        } else {
+            putDecimal(value, 0);
+        }
+    }
+
+    /**
+     * 文字列をXMLのテキストとしてエスケープし、UTF-8で書き込む。<br>
+     * XMLで使えない制御文字・対にならないサロゲートは出力しない。
+     *
+     * @param value 値
+     * @throws IOException 入出力エラー
+     */
+    private void putText(final String value) throws IOException {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (position + MAX_CHAR_BYTES > buffer.length) {
+                flushBuffer();
+            }
+
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '&':
+                        put(ESCAPED_AMP);
+                        break;
+                    case '<':
+                        put(ESCAPED_LT);
+                        break;
+                    case '>':
+                        put(ESCAPED_GT);
+                        break;
+                    case '"':
+                        put(ESCAPED_QUOT);
+                        break;
+                    default:
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            buffer[position++] = (byte) c;
+                        }
+                        break;
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                if (i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                }
+            } else if (!Character.isLowSurrogate(c) && c != 0xFFFE && c != 0xFFFF) {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * バイト列を書き込む(バッファの容量は呼び出し元で確保する)。
+     *
+     * @param bytes バイト列
+     */
+    private void put(final byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * バイト列を書き込む。
+     *
+     * @param bytes バイト列
+     * @throws IOException 入出力エラー
+     */
+    private void write(final byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+        }
+        if (bytes.length > buffer.length) {
+            zipOutputStream.write(bytes);
+            return;
+        }
+        put(bytes);
+    }
+
+    /**
+     * バッファの空き容量を確保する。
+     *
+     * @param length 必要なバイト数
+     * @throws IOException 入出力エラー
+     */
+    private void ensure(final int length) throws IOException {
+        if (position + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * バッファの内容をzipのエントリに書き出す。
+     *
+     * @throws IOException 入出力エラー
+     */
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            zipOutputStream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * 前後の空白を保持する必要があるかを判断する。
+     *
+     * @param value 値
+     * @return 先頭または末尾が空白文字の場合はtrue、そうでない場合はfalse。
+     */
+    private static boolean isPreserveSpace(final String value) {
+        return !value.isEmpty() && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+    }
+
+    /**
+     * シート名が有効かを判断する。
+     *
+     * @param sheetName シート名
+     * @return 有効な場合はtrue、そうでない場合はfalse。
+     */
+    private static boolean isValidSheetName(final String sheetName) {
+        if (StringUtils.isBlank(sheetName) || sheetName.length() > SHEET_NAME_MAX_LENGTH || sheetName.startsWith("'") || sheetName.endsWith("'")) {
+            return false;
+        }
+
+        for (int i = 0; i < sheetName.length(); i++) {
+            if (SHEET_NAME_INVALID_CHARS.indexOf(sheetName.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 属性値をエスケープする。
+     *
+     * @param value 値
+     * @return エスケープした値
+     */
+    private static String escape(final String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * 文字列をUTF-8のバイト列に変換する。
+     *
+     * @param value 文字列
+     * @return バイト列
+     */
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,162 @@
+package jp.taira.libs.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharsetTranscoderTest {
+
+    private Path source;
+
+    private Path target;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        source = Files.createTempFile("source", ".txt");
+        target = Files.createTempFile("target", ".txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+    }
+
+    @Test
+    public void ofTest() {
+        final CharsetTranscoder transcoder = CharsetTranscoder.of(StringUtils.UTF_8, StringUtils.MS932);
+        assertNotNull(transcoder);
+        assertEquals(StringUtils.UTF_8, transcoder.getSourceCharset());
+        assertEquals(StringUtils.MS932, transcoder.getTargetCharset());
+        assertEquals(CharsetTranscoder.Policy.REPORT, transcoder.getPolicy());
+
+        assertNull(CharsetTranscoder.of(null, StringUtils.MS932));
+        assertNull(CharsetTranscoder.of(StringUtils.UTF_8, null));
+        assertNull(CharsetTranscoder.of(StringUtils.UTF_8, StringUtils.MS932, null));
+
+        { /* 改行の直後で分割できるか */
+            assertTrue(transcoder.isSplittable());
+            assertTrue(CharsetTranscoder.of(StringUtils.EUC_JP, StringUtils.ISO_2022_JP).isSplittable());
+            assertFalse(CharsetTranscoder.of(StringUtils.ISO_2022_JP, StringUtils.UTF_8).isSplittable());
+            assertFalse(CharsetTranscoder.of(StringUtils.UTF_8, Charset.forName("UTF-16")).isSplittable());
+        }
+    }
+
+    @Test
+    public void transcodeTest_Channel() {
+        final String text = "山田 太郎 ABC あいう アイウ\r\n森鴎外\n";
+        for (final Charset[] charsets : new Charset[][] {
+                { StringUtils.UTF_8, StringUtils.MS932 },
+                { StringUtils.MS932, StringUtils.EUC_JP },
+                { StringUtils.EUC_JP, StringUtils.ISO_2022_JP },
+                { StringUtils.ISO_2022_JP, StringUtils.UTF_8 } }) {
+            final byte[] expected = text.getBytes(charsets[1]);
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final long count = CharsetTranscoder.of(charsets[0], charsets[1]).transcode(
+                    Channels.newChannel(new ByteArrayInputStream(text.getBytes(charsets[0]))), Channels.newChannel(outputStream));
+            assertEquals(expected.length, count);
+            assertArrayEquals(expected, outputStream.toByteArray());
+        }
+
+        assertEquals(-1, CharsetTranscoder.of(StringUtils.UTF_8, StringUtils.MS932).transcode(null, Channels.newChannel(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    public void transcodeTest_Policy() {
+        final byte[] bytes = "a한b𠮷c".getBytes(StringUtils.UTF_8);
+
+        { /* 変換を中止する */
+            assertNull(transcode(bytes, StringUtils.UTF_8, StringUtils.MS932, CharsetTranscoder.Policy.REPORT));
+        }
+
+        { /* 置換文字にする */
+            assertEquals("a?b?c", transcode(bytes, StringUtils.UTF_8, StringUtils.MS932, CharsetTranscoder.Policy.REPLACE));
+        }
+
+        { /* 無視する */
+            assertEquals("abc", transcode(bytes, StringUtils.UTF_8, StringUtils.MS932, CharsetTranscoder.Policy.IGNORE));
+        }
+
+        { /* 不正なバイト列 */
+            final byte[] malformed = { 'a', (byte) 0xE3, 'b' };
+            assertNull(transcode(malformed, StringUtils.UTF_8, StringUtils.MS932, CharsetTranscoder.Policy.REPORT));
+            assertEquals("ab", transcode(malformed, StringUtils.UTF_8, StringUtils.MS932, CharsetTranscoder.Policy.IGNORE));
+        }
+    }
+
+    @Test
+    public void transcodeTest_Path() throws Exception {
+        // ISO-2022-JPは、半角カタカナ・機種依存文字を含まない文字列で確認する
+        final String windowsText = createText("あいうアイウｱｲｳ漢字ABC123 ㈱①\n");
+        final String jisText = createText("あいうアイウー漢字ABC123 \n");
+
+        for (final Object[] pattern : new Object[][] {
+                { StringUtils.UTF_8, StringUtils.MS932, windowsText },
+                { StringUtils.MS932, StringUtils.UTF_8, windowsText },
+                { StringUtils.EUC_JP, StringUtils.ISO_2022_JP, jisText },
+                { StringUtils.ISO_2022_JP, StringUtils.EUC_JP, jisText } }) {
+            final Charset sourceCharset = (Charset) pattern[0];
+            final Charset targetCharset = (Charset) pattern[1];
+            final String text = (String) pattern[2];
+            Files.write(source, text.getBytes(sourceCharset));
+            final byte[] expected = text.getBytes(targetCharset);
+
+            { /* 分割しない */
+                assertEquals(expected.length, CharsetTranscoder.of(sourceCharset, targetCharset).transcode(source, target, 1));
+                assertArrayEquals(expected, Files.readAllBytes(target));
+            }
+
+            { /* 改行の直後で分割して並列に変換する(分割できない文字コードは分割しない) */
+                final CharsetTranscoder transcoder = new CharsetTranscoder(sourceCharset, targetCharset, CharsetTranscoder.Policy.REPORT, 1024);
+                assertEquals(expected.length, transcoder.transcode(source, target, 4));
+                assertArrayEquals(expected, Files.readAllBytes(target));
+            }
+        }
+
+        { /* 並列に変換していずれかの区間で失敗した場合 */
+            Files.write(source, (windowsText + "한\n" + windowsText).getBytes(StringUtils.UTF_8));
+            final CharsetTranscoder transcoder = new CharsetTranscoder(StringUtils.UTF_8, StringUtils.MS932, CharsetTranscoder.Policy.REPORT, 1024);
+            assertEquals(-1, transcoder.transcode(source, target, 4));
+            assertEquals(-1, transcoder.transcode(source, target, 0));
+            assertEquals(-1, transcoder.transcode(null, target));
+        }
+    }
+
+    /**
+     * 指定した文字をランダムに並べた文字列を生成する。
+     *
+     * @return 文字列
+     */
+    private static String createText(final String chars) {
+        final StringBuilder builder = new StringBuilder();
+        final Random random = new Random(1);
+        for (int i = 0; i < 300000; i++) {
+            builder.append(chars.charAt(random.nextInt(chars.length())));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * バイト配列の文字コードを変換する。
+     *
+     * @return 変換結果の文字列。変換に失敗した場合はnull。
+     */
+    private static String transcode(final byte[] bytes, final Charset sourceCharset, final Charset targetCharset, final CharsetTranscoder.Policy policy) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final long count = CharsetTranscoder.of(sourceCharset, targetCharset, policy).transcode(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), Channels.newChannel(outputStream));
+
+        return (count < 0) ? null : new String(outputStream.toByteArray(), targetCharset);
+    }
+}
@@ -0,0 +1,266 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelBeanUtilsTest {
+
+    /** 文字列のBean */
+    public static class TextBean {
+        @ExcelColumn(header = "test-2-A1")
+        private String a;
+        @ExcelColumn("B")
+        private String b;
+    }
+
+    /** 型変換のBean */
+    public static class TypedBean {
+        @ExcelColumn(header = "名前")
+        private String name;
+        @ExcelColumn(header = "数量")
+        private int count;
+        @ExcelColumn(header = "金額")
+        private BigDecimal amount;
+        @ExcelColumn(header = "日付")
+        private LocalDate date;
+        @ExcelColumn(header = "有効")
+        private Boolean enabled;
+        @ExcelColumn("F")
+        private Long code;
+    }
+
+    /** 書き込みのBean */
+    public static class WriteBean {
+        @ExcelColumn("A")
+        private String name;
+        @ExcelColumn("B")
+        private Integer count;
+        @ExcelColumn("C")
+        private LocalDate date;
+        @ExcelColumn(value = "D", format = "#,##0")
+        private double amount;
+
+        public WriteBean() {
+        }
+
+        private WriteBean(final String name, final Integer count, final LocalDate date, final double amount) {
+            this.name = name;
+            this.count = count;
+            this.date = date;
+            this.amount = amount;
+        }
+    }
+
+    /** アノテーションが無いBean */
+    public static class NoColumnBean {
+        private String a;
+    }
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Workbook createTypedWorkbook() {
+        final Workbook workbook = new XSSFWorkbook();
+        final Sheet sheet = workbook.createSheet("Sheet1");
+
+        final Row header = sheet.createRow(0);
+        final String[] headers = { "名前", "数量", "金額", "日付", "有効", "コード" };
+        for (int i = 0; i < headers.length; i++) {
+            header.createCell(i).setCellValue(headers[i]);
+        }
+
+        final Row row1 = sheet.createRow(1);
+        ExcelUtils.setCellValue(row1.createCell(0), "りんご");
+        ExcelUtils.setCellValue(row1.createCell(1), 3);
+        ExcelUtils.setCellValue(row1.createCell(2), 120.5);
+        ExcelUtils.setCellValue(row1.createCell(3), "2019/01/02");
+        ExcelUtils.setCellValue(row1.createCell(4), Boolean.TRUE);
+        ExcelUtils.setCellValue(row1.createCell(5), "0123");
+
+        // 空行は変換しない。
+        sheet.createRow(2).createCell(0);
+
+        final Row row3 = sheet.createRow(3);
+        ExcelUtils.setCellValue(row3.createCell(0), 100);
+        ExcelUtils.setCellValue(row3.createCell(1), "2");
+        // 小数は整数に変換しない。
+        ExcelUtils.setCellValue(row3.createCell(5), 1.5);
+
+        return workbook;
+    }
+
+    private void assertTypedBeans(final List<TypedBean> beans) {
+        assertEquals(2, beans.size());
+
+        final TypedBean bean1 = beans.get(0);
+        assertEquals("りんご", bean1.name);
+        assertEquals(3, bean1.count);
+        assertEquals(new BigDecimal("120.5"), bean1.amount);
+        assertEquals(LocalDate.of(2019, 1, 2), bean1.date);
+        assertEquals(Boolean.TRUE, bean1.enabled);
+        assertEquals(Long.valueOf(123), bean1.code);
+
+        final TypedBean bean2 = beans.get(1);
+        assertEquals("100", bean2.name);
+        assertEquals(2, bean2.count);
+        assertNull(bean2.amount);
+        assertNull(bean2.date);
+        assertNull(bean2.enabled);
+        assertNull(bean2.code);
+    }
+
+    @Test
+    public void constractorTest() {
+        assertThrows(IllegalAccessError.class, () -> {
+            try {
+                Constructor<?> constructor = ExcelBeanUtils.class.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                constructor.newInstance();
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @Test
+    public void toBeansTest_Sheet() {
+        assertNull(ExcelBeanUtils.toBeans((Sheet) null, TextBean.class));
+        assertNull(ExcelBeanUtils.toBeans(createTypedWorkbook().getSheetAt(0), NoColumnBean.class));
+
+        { /* 文字列 */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test-multi.xlsx"));
+            final List<TextBean> beans = ExcelBeanUtils.toBeans(Objects.requireNonNull(workbook).getSheet("Sheet2"), TextBean.class, 0);
+
+            assertNotNull(beans);
+            assertEquals(2, beans.size());
+            assertEquals("test-2-A2", beans.get(0).a);
+            assertEquals("test-2-B2", beans.get(0).b);
+            assertEquals("test-2-A3", beans.get(1).a);
+            assertEquals("test-2-B3", beans.get(1).b);
+        }
+
+        { /* ヘッダー行なし(ヘッダー名の列は変換しない) */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test-multi.xls"));
+            final List<TextBean> beans = ExcelBeanUtils.toBeans(Objects.requireNonNull(workbook).getSheet("Sheet2"), TextBean.class);
+
+            assertNotNull(beans);
+            assertEquals(3, beans.size());
+            assertNull(beans.get(0).a);
+            assertEquals("test-2-B1", beans.get(0).b);
+        }
+
+        { /* 型変換 */
+            final List<TypedBean> beans = ExcelBeanUtils.toBeans(createTypedWorkbook().getSheetAt(0), TypedBean.class, 0);
+            assertNotNull(beans);
+            assertTypedBeans(beans);
+        }
+    }
+
+    @Test
+    public void toBeansTest_ExcelStreamReader() throws Exception {
+        assertNull(ExcelBeanUtils.toBeans(null, "Sheet1", TextBean.class, 0));
+
+        { /* 文字列 */
+            try (ExcelStreamReader reader = ExcelStreamReader.open(getResourceFile("testExcel/test-multi.xlsx"))) {
+                assertNull(ExcelBeanUtils.toBeans(reader, "Sheet9999", TextBean.class, 0));
+
+                try (Stream<TextBean> beans = ExcelBeanUtils.toBeans(reader, "Sheet2", TextBean.class, 0)) {
+                    assertNotNull(beans);
+                    final List<TextBean> beanList = beans.collect(Collectors.toList());
+                    assertEquals(2, beanList.size());
+                    assertEquals("test-2-A2", beanList.get(0).a);
+                    assertEquals("test-2-B3", beanList.get(1).b);
+                }
+            }
+        }
+
+        { /* 型変換 */
+            final Path path = Files.createTempFile("ExcelBeanUtilsTest", ".xlsx");
+            try {
+                ExcelUtils.output(createTypedWorkbook(), path);
+
+                try (ExcelStreamReader reader = ExcelStreamReader.open(path);
+                     Stream<TypedBean> beans = ExcelBeanUtils.toBeans(reader, "Sheet1", TypedBean.class, 0)) {
+                    assertNotNull(beans);
+                    assertTypedBeans(beans.collect(Collectors.toList()));
+                }
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void writeBeansTest() {
+        final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+        final Sheet sheet = ExcelUtils.createSheet(workbook, "Sheet1", "Report");
+        assertNotNull(sheet);
+        assertEquals(0, ExcelBeanUtils.writeBeans((Sheet) null, 0, WriteBean.class, new ArrayList<WriteBean>()));
+
+        final List<WriteBean> beans = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            beans.add(new WriteBean("name" + i, i, LocalDate.of(2019, 1, 1).plusDays(i), i * 1000.5));
+        }
+
+        assertEquals(1000, ExcelBeanUtils.writeBeans(sheet, 3, WriteBean.class, beans));
+        // 日付列と書式指定列のセルスタイルのみ増える。
+        final int numCellStyles = Objects.requireNonNull(workbook).getNumCellStyles();
+        assertEquals(1000, ExcelBeanUtils.writeBeans(sheet, 1003, WriteBean.class, beans.stream()));
+        assertEquals(numCellStyles, workbook.getNumCellStyles());
+
+        final Row row = sheet.getRow(4);
+        assertEquals("name1", Objects.requireNonNull(ExcelUtils.getCellValue(workbook, row.getCell(0))).toString());
+        assertEquals(1.0, ExcelUtils.getCellValue(workbook, row.getCell(1)));
+        assertEquals("#,##0", row.getCell(3).getCellStyle().getDataFormatString());
+        assertSame(row.getCell(2).getCellStyle(), sheet.getRow(2002).getCell(2).getCellStyle());
+
+        // 読み込みで元に戻る。
+        final List<WriteBean> readBeans = ExcelBeanUtils.toBeans(sheet, WriteBean.class, 2);
+        assertNotNull(readBeans);
+        assertEquals(2000, readBeans.size());
+        assertEquals(LocalDate.of(2019, 1, 2), readBeans.get(1).date);
+        assertEquals(1000.5, readBeans.get(1).amount);
+    }
+
+    @Test
+    public void writeColumnsTest() {
+        final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xls"));
+        final Sheet sheet = ExcelUtils.getSheet(workbook, 0);
+
+        assertEquals(0, ExcelBeanUtils.writeColumns(sheet, 5, 0, "not array"));
+        assertEquals(3, ExcelBeanUtils.writeColumns(sheet, 5, 0, new double[] { 1.5, 2.5, 3.5 }, new String[] { "a", "b" }, null, new long[] { 10L }));
+
+        assertEquals(2.5, ExcelUtils.getCellValue(sheet, "A7"));
+        assertEquals("b", Objects.requireNonNull(ExcelUtils.getCellValue(sheet, "B7")).toString());
+        assertNull(ExcelUtils.getCellValue(sheet, "B8"));
+        assertNull(ExcelUtils.getCellValue(sheet, "C6"));
+        assertEquals(10.0, ExcelUtils.getCellValue(sheet, "D6"));
+    }
+}
@@ -0,0 +1,162 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelCalculationEngineTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 単価(B1)×数量(B2)=金額(B3)、金額が1000以上の場合に割引(B4)を計算するワークブックを作成する。
+     */
+    private Path createPricingWorkbook() throws Exception {
+        final Path path = Files.createTempFile("pricing", ".xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            final Sheet sheet = workbook.createSheet("calc");
+            final Row row1 = sheet.createRow(0);
+            row1.createCell(0).setCellValue("price");
+            row1.createCell(1).setCellValue(100);
+            final Row row2 = sheet.createRow(1);
+            row2.createCell(0).setCellValue("qty");
+            row2.createCell(1).setCellValue(1);
+            final Row row3 = sheet.createRow(2);
+            row3.createCell(0).setCellValue("amount");
+            row3.createCell(1).setCellFormula("B1*B2");
+            final Row row4 = sheet.createRow(3);
+            row4.createCell(0).setCellValue("discount");
+            row4.createCell(1).setCellFormula("IF(B3>=1000,\"yes\",\"no\")");
+            final Row row5 = sheet.createRow(4);
+            row5.createCell(1).setCellFormula("1/0");
+
+            final Name price = workbook.createName();
+            price.setNameName("price");
+            price.setRefersToFormula("calc!$B$1");
+            final Name qty = workbook.createName();
+            qty.setNameName("qty");
+            qty.setRefersToFormula("calc!$B$2");
+            final Name amount = workbook.createName();
+            amount.setNameName("amount");
+            amount.setRefersToFormula("calc!$B$3");
+
+            ExcelUtils.output(workbook, path);
+        }
+        return path;
+    }
+
+    @Test
+    public void createTest() throws Exception {
+        assertNull(ExcelCalculationEngine.create(null, 1));
+        assertNull(ExcelCalculationEngine.create(getResourceFile("testExcel/test.xlsx"), 0));
+        assertNull(ExcelCalculationEngine.create(getResourceFile("testExcel").resolve("not-found.xlsx"), 1));
+
+        try (ExcelCalculationEngine engine = ExcelCalculationEngine.create(getResourceFile("testExcel/test.xlsx"), 2)) {
+            assertNotNull(engine);
+            assertEquals(2, engine.getPoolSize());
+        }
+    }
+
+    @Test
+    public void calculateTest() throws Exception {
+        final Path path = createPricingWorkbook();
+        try (ExcelCalculationEngine engine = ExcelCalculationEngine.create(path, 1)) {
+            assertNotNull(engine);
+
+            { /* 名前の定義で入力・出力を指定 */
+                final Map<String, Object> inputs = new HashMap<>();
+                inputs.put("price", 250);
+                inputs.put("qty", 4);
+                final Map<String, Object> results = engine.calculate(inputs, "amount", "calc!B4");
+                assertNotNull(results);
+                assertEquals(1000.0, results.get("amount"));
+                assertEquals("yes", results.get("calc!B4"));
+            }
+
+            { /* 設定しなかった入力はテンプレートの値に戻る */
+                final Map<String, Object> results = engine.calculate(Collections.singletonMap("qty", 3), "amount", "calc!B4");
+                assertNotNull(results);
+                assertEquals(300.0, results.get("amount"));
+                assertEquals("no", results.get("calc!B4"));
+
+                assertEquals(100.0, engine.calculate(null, "amount").get("amount"));
+            }
+
+            { /* 数式でない出力・エラー */
+                final Map<String, Object> results = engine.calculate(null, "A1", "B5");
+                assertNotNull(results);
+                assertEquals("price", results.get("A1").toString());
+                assertEquals("#DIV/0!", results.get("B5"));
+            }
+
+            { /* 不正な名前・入力セルが数式 */
+                assertNull(engine.calculate(null, "unknown!!"));
+                assertNull(engine.calculate(Collections.singletonMap("amount", 1), "amount"));
+                assertEquals(100.0, engine.calculate(null, "amount").get("amount"));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void calculateTest_並列() throws Exception {
+        final Path path = createPricingWorkbook();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ExcelCalculationEngine engine = ExcelCalculationEngine.create(path, 2)) {
+            assertNotNull(engine);
+
+            final List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 1; i <= 100; i++) {
+                final int qty = i;
+                futures.add(executor.submit(() -> engine.calculate(Collections.singletonMap("qty", qty), "amount").get("amount")));
+            }
+            for (int i = 1; i <= 100; i++) {
+                assertEquals(100.0 * i, futures.get(i - 1).get());
+            }
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(path);
+        }
+
+        { /* 閉じた後は計算しない */
+            final Path closedPath = createPricingWorkbook();
+            try {
+                final ExcelCalculationEngine engine = ExcelCalculationEngine.create(closedPath, 1);
+                assertNotNull(engine);
+                engine.close();
+                assertNull(engine.calculate(null, "amount"));
+            } finally {
+                Files.deleteIfExists(closedPath);
+            }
+        }
+    }
+}
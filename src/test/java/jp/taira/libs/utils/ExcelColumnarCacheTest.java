@@ -0,0 +1,167 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelColumnarCacheTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 数値(A)・日付(B)・真偽(C)・文字列(D)・混在(E)の列を持つワークブックを作成する。行インデックス2は存在しない。
+     */
+    private Path createMasterWorkbook(final Date date) throws Exception {
+        final Path path = Files.createTempFile("master", ".xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            final CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy/mm/dd"));
+
+            final Sheet sheet = workbook.createSheet("master");
+            for (final int rowIndex : new int[] { 0, 1, 3 }) {
+                final Row row = sheet.createRow(rowIndex);
+                row.createCell(0).setCellValue(rowIndex * 1.5);
+                row.createCell(1).setCellValue(date);
+                row.getCell(1).setCellStyle(dateStyle);
+                row.createCell(2).setCellValue(rowIndex % 2 == 0);
+                row.createCell(3).setCellValue(rowIndex == 3 ? "東京" : "大阪");
+                if (rowIndex == 0) {
+                    row.createCell(4).setCellValue("code");
+                } else {
+                    row.createCell(4).setCellValue(rowIndex);
+                }
+            }
+            ExcelUtils.output(workbook, path);
+        }
+        return path;
+    }
+
+    @Test
+    public void openTest() throws Exception {
+        final Date date = DateTimeUtils.parseToDate("2019" + DateTimeUtils.DATE_SPLIT + "01" + DateTimeUtils.DATE_SPLIT + "01", DateTimeUtils.DATE_FORMAT);
+        final Path source = createMasterWorkbook(date);
+        final Path cacheFile = Files.createTempFile("master", ".col");
+        try (ExcelColumnarCache cache = ExcelColumnarCache.open(source, "master", cacheFile)) {
+            assertNotNull(cache);
+            assertEquals(4, cache.getRowCount());
+            assertEquals(5, cache.getColumnCount());
+
+            { /* 列の型 */
+                assertEquals(ExcelColumnarCache.ColumnType.NUMBER, cache.getColumnType(0));
+                assertEquals(ExcelColumnarCache.ColumnType.DATE, cache.getColumnType(1));
+                assertEquals(ExcelColumnarCache.ColumnType.BOOLEAN, cache.getColumnType(2));
+                assertEquals(ExcelColumnarCache.ColumnType.STRING, cache.getColumnType(3));
+                assertEquals(ExcelColumnarCache.ColumnType.STRING, cache.getColumnType(4));
+                assertEquals(ExcelColumnarCache.ColumnType.EMPTY, cache.getColumnType(5));
+            }
+
+            { /* セルの値 */
+                assertEquals(1.5, cache.getValue(1, 0));
+                assertEquals(4.5, cache.getDouble(3, 0, -1));
+                assertEquals(date, cache.getValue(0, 1));
+                assertEquals(Boolean.TRUE, cache.getValue(0, 2));
+                assertEquals(Boolean.FALSE, cache.getValue(1, 2));
+                assertEquals("大阪", cache.getValue(0, 3));
+                assertEquals("大阪", cache.getValue(1, 3));
+                assertEquals("東京", cache.getString(3, 3));
+                assertEquals("code", cache.getValue(0, 4));
+                assertEquals("3", cache.getValue(3, 4));
+                assertEquals(-1, cache.getDouble(0, 3, -1));
+            }
+
+            { /* 値がない行・範囲外 */
+                assertTrue(cache.isNull(2, 0));
+                assertNull(cache.getValue(2, 3));
+                assertNull(cache.getValue(9999, 0));
+                assertNull(cache.getValue(0, 9999));
+                assertTrue(cache.getRow(2).isEmpty());
+                assertNull(cache.getRow(4));
+            }
+
+            { /* 行 */
+                final ExcelRow row = cache.getRow(3);
+                assertEquals(3, row.getRowIndex());
+                assertEquals("東京", row.getValue("D"));
+                assertEquals(5, row.getLastCellNum());
+            }
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    @Test
+    public void openTest_ファイル形式() throws Exception {
+        for (final String fileName : new String[] { "testExcel/test-multi.xls", "testExcel/test-multi.xlsx" }) {
+            final Path cacheFile = Files.createTempFile("multi", ".col");
+            try (ExcelColumnarCache cache = ExcelColumnarCache.open(getResourceFile(fileName), "Sheet2", cacheFile)) {
+                assertNotNull(cache);
+                assertEquals("test-2-A1", cache.getValue(0, 0));
+                assertEquals("test-2-B3", cache.getValue(2, 1));
+            } finally {
+                Files.deleteIfExists(cacheFile);
+            }
+
+            assertNull(ExcelColumnarCache.open(getResourceFile(fileName), "Sheet9999", cacheFile));
+        }
+
+        assertNull(ExcelColumnarCache.open(null, "Sheet1", Paths.get("cache.col")));
+    }
+
+    @Test
+    public void isValidTest() throws Exception {
+        final Path source = createMasterWorkbook(new Date());
+        final Path cacheFile = Files.createTempFile("master", ".col");
+        try {
+            assertFalse(ExcelColumnarCache.isValid(source, "master", cacheFile, false));
+            assertTrue(ExcelColumnarCache.write(source, "master", cacheFile));
+            assertTrue(ExcelColumnarCache.isValid(source, "master", cacheFile, false));
+            assertTrue(ExcelColumnarCache.isValid(source, "master", cacheFile, true));
+            assertFalse(ExcelColumnarCache.isValid(source, "other", cacheFile, false));
+
+            { /* 更新日時が変わった場合は作成し直す */
+                Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() - 60000));
+                assertFalse(ExcelColumnarCache.isValid(source, "master", cacheFile, false));
+                try (ExcelColumnarCache cache = ExcelColumnarCache.open(source, "master", cacheFile)) {
+                    assertNotNull(cache);
+                }
+                assertTrue(ExcelColumnarCache.isValid(source, "master", cacheFile, false));
+            }
+
+            { /* 内容のみが変わった場合は、ハッシュ値を比較すると無効 */
+                final FileTime modified = Files.getLastModifiedTime(source);
+                final byte[] bytes = Files.readAllBytes(source);
+                bytes[bytes.length - 1] ^= 1;
+                Files.write(source, bytes);
+                Files.setLastModifiedTime(source, modified);
+                assertTrue(ExcelColumnarCache.isValid(source, "master", cacheFile, false));
+                assertFalse(ExcelColumnarCache.isValid(source, "master", cacheFile, true));
+            }
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
+import org.apache.poi.poifs.crypt.Encryptor;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelDecryptedFileTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * xlsxをパスワードで暗号化したファイルを作成する。
+     */
+    private Path encrypt(final Path source, final String password) throws Exception {
+        final Path path = Files.createTempFile("encrypted", ".xlsx");
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem()) {
+            final Encryptor encryptor = new EncryptionInfo(EncryptionMode.agile).getEncryptor();
+            encryptor.confirmPassword(password);
+            try (OutputStream outputStream = encryptor.getDataStream(fileSystem)) {
+                Files.copy(source, outputStream);
+            }
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                fileSystem.writeFilesystem(outputStream);
+            }
+        }
+        return path;
+    }
+
+    @Test
+    public void decryptTest() throws Exception {
+        final Path path = encrypt(getResourceFile("testExcel/test-multi.xlsx"), "secret");
+        try {
+            { /* 復号した一時ファイルは閉じる際に削除する */
+                final Path decryptedPath;
+                try (ExcelDecryptedFile decryptedFile = ExcelDecryptedFile.decrypt(path, "secret")) {
+                    assertNotNull(decryptedFile);
+                    assertTrue(decryptedFile.isDecrypted());
+                    decryptedPath = decryptedFile.getPath();
+                    assertNotEquals(path, decryptedPath);
+
+                    final List<ExcelRow> rows = ExcelScanUtils.list(decryptedPath, "Sheet2", null, null);
+                    assertNotNull(rows);
+                    assertEquals("test-2-A1", rows.get(0).getValue(0));
+                }
+                assertFalse(Files.exists(decryptedPath));
+            }
+
+            { /* パスワードが一致しない */
+                assertNull(ExcelDecryptedFile.decrypt(path, "wrong"));
+                assertNull(ExcelDecryptedFile.decrypt(path, null));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void decryptTest_暗号化されていない() {
+        for (final String fileName : new String[] { "testExcel/test.xls", "testExcel/test.xlsx" }) {
+            final Path path = getResourceFile(fileName);
+            try (ExcelDecryptedFile decryptedFile = ExcelDecryptedFile.decrypt(path, "secret")) {
+                assertNotNull(decryptedFile);
+                assertFalse(decryptedFile.isDecrypted());
+                assertEquals(path, decryptedFile.getPath());
+            }
+            // 元のファイルは削除しない
+            assertTrue(Files.exists(path));
+        }
+
+        assertNull(ExcelDecryptedFile.decrypt(null, "secret"));
+        assertNull(ExcelDecryptedFile.decrypt(Paths.get("not-found.xlsx"), "secret"));
+    }
+}
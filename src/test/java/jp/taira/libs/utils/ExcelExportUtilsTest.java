@@ -0,0 +1,177 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelExportUtilsTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void constructorTest() {
+        assertThrows(IllegalAccessError.class, () -> {
+            try {
+                final Constructor<ExcelExportUtils> constructor = ExcelExportUtils.class.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                constructor.newInstance();
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @Test
+    public void exportTest_Sheet() {
+        for (final String fileName : new String[] { "testExcel/test-cell.xls", "testExcel/test-cell.xlsx" }) {
+            final Workbook workbook = Objects.requireNonNull(ExcelUtils.getWorkbook(getResourceFile(fileName)));
+            final Sheet sheet = workbook.getSheet("Sheet1");
+
+            { /* CSV(存在しない行は空行) */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export(sheet, 0, 6, ExcelExportUtils.Format.CSV, writer);
+                assertEquals("testA1,testB1\r\n1,2\r\n3,4\r\n\r\n   ,   \r\n2019/01/01,2019/01/02\r\nTRUE,FALSE\r\n", writer.toString());
+            }
+
+            { /* TSV(行範囲) */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export(sheet, 1, 2, ExcelExportUtils.Format.TSV, writer);
+                assertEquals("1\t2\r\n3\t4\r\n", writer.toString());
+            }
+
+            { /* NDJSON(先頭行を項目名とする) */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export(sheet, 0, 2, ExcelExportUtils.Format.NDJSON, writer);
+                assertEquals("{\"testA1\":1,\"testB1\":2}\n{\"testA1\":3,\"testB1\":4}\n", writer.toString());
+            }
+
+            { /* nullの場合は何も出力しない */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export((Sheet) null, ExcelExportUtils.Format.CSV, writer);
+                assertEquals("", writer.toString());
+            }
+        }
+    }
+
+    @Test
+    public void exportTest_Quote() throws Exception {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            final Sheet sheet = workbook.createSheet("Sheet1");
+            sheet.createRow(0).createCell(0).setCellValue("a,b");
+            sheet.getRow(0).createCell(1).setCellValue("say \"hi\"");
+            sheet.getRow(0).createCell(2).setCellValue("1\n2");
+            sheet.getRow(0).createCell(3).setCellValue(1.25);
+
+            { /* 区切り文字・ダブルクォート・改行を含む場合はダブルクォートで囲む */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export(sheet, ExcelExportUtils.Format.CSV, writer);
+                assertEquals("\"a,b\",\"say \"\"hi\"\"\",\"1\n2\",1.25\r\n", writer.toString());
+            }
+
+            { /* TSVではカンマを囲まない */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export(sheet, ExcelExportUtils.Format.TSV, writer);
+                assertEquals("a,b\t\"say \"\"hi\"\"\"\t\"1\n2\"\t1.25\r\n", writer.toString());
+            }
+        }
+    }
+
+    @Test
+    public void exportTest_Path() throws Exception {
+        final Workbook workbook = Objects.requireNonNull(ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx")));
+        final Path path = Files.createTempFile("export", ".csv");
+        try {
+            { /* UTF-8(BOMあり) */
+                ExcelExportUtils.export(workbook.getSheet("Sheet1"), ExcelExportUtils.Format.CSV, path, StandardCharsets.UTF_8, true);
+                final byte[] bytes = Files.readAllBytes(path);
+                assertEquals((byte) 0xEF, bytes[0]);
+                assertEquals((byte) 0xBB, bytes[1]);
+                assertEquals((byte) 0xBF, bytes[2]);
+                assertEquals("testA1,testB1\r\ntestA2,testB2\r\ntestA3,testB3\r\n", new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8));
+            }
+
+            { /* MS932(BOMは付けない) */
+                ExcelExportUtils.export(workbook.getSheet("Sheet1"), ExcelExportUtils.Format.CSV, path, StringUtils.MS932, true);
+                assertEquals("testA1,testB1\r\ntestA2,testB2\r\ntestA3,testB3\r\n", new String(Files.readAllBytes(path), StringUtils.MS932));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void exportTest_Stream() {
+        try (ExcelStreamReader reader = Objects.requireNonNull(ExcelStreamReader.open(getResourceFile("testExcel/test.xlsx")))) {
+            { /* CSV */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export(reader, "Sheet1", ExcelExportUtils.Format.CSV, writer);
+                assertEquals("testA1,testB1\r\ntestA2,testB2\r\ntestA3,testB3\r\n", writer.toString());
+            }
+
+            { /* NDJSON(行範囲) */
+                final StringWriter writer = new StringWriter();
+                ExcelExportUtils.export(reader, "Sheet1", 0, 1, ExcelExportUtils.Format.NDJSON, writer);
+                assertEquals("{\"testA1\":\"testA2\",\"testB1\":\"testB2\"}\n", writer.toString());
+            }
+        }
+    }
+
+    @Test
+    public void exportAllTest() throws Exception {
+        final Path directory = Files.createTempDirectory("export");
+        try {
+            { /* ワークブック */
+                final Workbook workbook = Objects.requireNonNull(ExcelUtils.getWorkbook(getResourceFile("testExcel/test-multi.xls")));
+                final List<Path> paths = ExcelExportUtils.exportAll(workbook, ExcelExportUtils.Format.TSV, directory, StandardCharsets.UTF_8, false);
+                assertNotNull(paths);
+                assertEquals(2, paths.size());
+                assertEquals(directory.resolve("Sheet1.tsv"), paths.get(0));
+                assertEquals(directory.resolve("Sheet2.tsv"), paths.get(1));
+                assertTrue(new String(Files.readAllBytes(paths.get(1)), StandardCharsets.UTF_8).startsWith("test-2-A1\t"));
+            }
+
+            { /* ストリーミング読み込み(並列) */
+                final List<Path> paths = ExcelExportUtils.exportAll(getResourceFile("testExcel/test-multi.xlsx"), ExcelExportUtils.Format.CSV, directory, StandardCharsets.UTF_8, false, 2);
+                assertNotNull(paths);
+                assertEquals(2, paths.size());
+                assertTrue(new String(Files.readAllBytes(paths.get(0)), StandardCharsets.UTF_8).startsWith("test-1-A1,"));
+                assertTrue(new String(Files.readAllBytes(paths.get(1)), StandardCharsets.UTF_8).startsWith("test-2-A1,"));
+            }
+
+            { /* 並列数が不正 */
+                assertNull(ExcelExportUtils.exportAll(getResourceFile("testExcel/test-multi.xlsx"), ExcelExportUtils.Format.CSV, directory, StandardCharsets.UTF_8, false, 0));
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (final Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+}
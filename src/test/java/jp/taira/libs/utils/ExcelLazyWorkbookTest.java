@@ -0,0 +1,174 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetVisibility;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelLazyWorkbookTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void openTest() {
+        { /* xls */
+            assertNull(ExcelLazyWorkbook.open(getResourceFile("testExcel/test.xls")));
+        }
+
+        { /* xlsx */
+            try (ExcelLazyWorkbook workbook = ExcelLazyWorkbook.open(getResourceFile("testExcel/test-multi.xlsx"))) {
+                assertNotNull(workbook);
+                assertEquals(2, workbook.getNumberOfSheets());
+                assertEquals(Arrays.asList("Sheet1", "Sheet2"), workbook.getSheetNames());
+                assertEquals(1, workbook.getSheetIndex("Sheet2"));
+                assertEquals(-1, workbook.getSheetIndex("Sheet9999"));
+                assertEquals(SheetVisibility.VISIBLE, workbook.getSheetVisibility(0));
+                // シートは解析しない
+                assertEquals(0, workbook.getNumberOfLoadedSheets());
+            }
+        }
+    }
+
+    @Test
+    public void openTest_参照先のないシート() throws Exception {
+        // Sheet1のリレーションシップを除いたファイルを作成する
+        final Path path = Files.createTempFile("ExcelLazyWorkbookTest", ".xlsx");
+        try {
+            try (ZipFile source = new ZipFile(getResourceFile("testExcel/test-multi.xlsx").toFile());
+                 ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(path))) {
+                final Enumeration<? extends ZipEntry> entries = source.entries();
+                while (entries.hasMoreElements()) {
+                    final ZipEntry entry = entries.nextElement();
+                    outputStream.putNextEntry(new ZipEntry(entry.getName()));
+                    try (InputStream inputStream = source.getInputStream(entry)) {
+                        final byte[] bytes = IOUtils.toByteArray(inputStream);
+                        if (entry.getName().equals("xl/_rels/workbook.xml.rels")) {
+                            outputStream.write(new String(bytes, StandardCharsets.UTF_8)
+                                    .replaceAll("<Relationship Id=\"rId1\"[^>]*/>", "").getBytes(StandardCharsets.UTF_8));
+                        } else {
+                            outputStream.write(bytes);
+                        }
+                    }
+                    outputStream.closeEntry();
+                }
+            }
+
+            try (ExcelLazyWorkbook workbook = ExcelLazyWorkbook.open(path)) {
+                assertNotNull(workbook);
+                assertEquals(Collections.singletonList("Sheet2"), workbook.getSheetNames());
+
+                final Sheet sheet = workbook.getSheet(0);
+                assertNotNull(sheet);
+                assertEquals("Sheet2", sheet.getSheetName());
+                assertEquals("test-2-A1", ExcelUtils.getCellValue(sheet, "A1").toString());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void getSheetTest() {
+        try (ExcelLazyWorkbook workbook = ExcelLazyWorkbook.open(getResourceFile("testExcel/test-multi.xlsx"))) {
+            assertNotNull(workbook);
+
+            { /* 取得したシートのみ解析する */
+                final Sheet sheet = workbook.getSheet("Sheet2");
+                assertNotNull(sheet);
+                assertEquals("Sheet2", sheet.getSheetName());
+                assertEquals("test-2-A1", ExcelUtils.getCellValue(sheet, "A1"));
+                assertEquals("test-2-B3", ExcelUtils.getCellValue(sheet, "B3"));
+                assertEquals(1, sheet.getWorkbook().getNumberOfSheets());
+                assertEquals(1, workbook.getNumberOfLoadedSheets());
+                assertSame(sheet, workbook.getSheet(1));
+            }
+
+            { /* 存在しないシート */
+                assertNull(workbook.getSheet("Sheet9999"));
+                assertNull(workbook.getSheet(2));
+                assertNull(workbook.getSheet(-1));
+            }
+        }
+    }
+
+    @Test
+    public void getSheetTest_一時ファイル() throws Exception {
+        final long count = countTempFiles();
+        try (ExcelLazyWorkbook workbook = ExcelLazyWorkbook.open(getResourceFile("testExcel/test-multi.xlsx"))) {
+            assertNotNull(workbook);
+            assertNotNull(workbook.getSheet(0));
+            assertNotNull(workbook.getSheet(1));
+            // 取得したシートごとに一時ファイルから読み込む
+            assertEquals(count + 2, countTempFiles());
+        }
+        // 閉じると一時ファイルを削除する
+        assertEquals(count, countTempFiles());
+    }
+
+    private long countTempFiles() throws Exception {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("lazy-sheet")).count();
+        }
+    }
+
+    @Test
+    public void getSheetTest_名前() throws Exception {
+        final Path path = Files.createTempFile("ExcelLazyWorkbookTest", ".xlsx");
+        try {
+            try (Workbook source = new XSSFWorkbook()) {
+                for (int i = 1; i <= 3; i++) {
+                    source.createSheet("Sheet" + i).createRow(0).createCell(0).setCellValue("value" + i);
+                }
+                source.setSheetVisibility(1, SheetVisibility.HIDDEN);
+                source.setPrintArea(0, "$A$1:$B$2");
+                source.setPrintArea(2, "$A$1:$C$3");
+                source.setActiveSheet(2);
+                try (OutputStream outputStream = Files.newOutputStream(path)) {
+                    source.write(outputStream);
+                }
+            }
+
+            try (ExcelLazyWorkbook workbook = ExcelLazyWorkbook.open(path)) {
+                assertNotNull(workbook);
+                assertEquals(SheetVisibility.HIDDEN, workbook.getSheetVisibility(1));
+
+                final Sheet sheet = workbook.getSheet("Sheet3");
+                assertNotNull(sheet);
+                assertEquals("value3", ExcelUtils.getCellValue(sheet, "A1"));
+                // シートに限定した名前は、残したシートのもののみ引き継ぐ
+                assertEquals("Sheet3!$A$1:$C$3", sheet.getWorkbook().getPrintArea(0));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
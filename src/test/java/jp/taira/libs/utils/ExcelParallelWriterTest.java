@@ -0,0 +1,103 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelParallelWriterTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void createTest() {
+        { /* シート名(空) */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+            assertNull(ExcelParallelWriter.create(workbook, "Sheet1", 1));
+        }
+
+        { /* シート名(重複) */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+            assertNull(ExcelParallelWriter.create(workbook, "Sheet1", 1, "Report", "Report"));
+        }
+
+        { /* xls */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xls"));
+            assertNull(ExcelParallelWriter.create(workbook, "Sheet1", 1, "Report"));
+        }
+    }
+
+    @Test
+    public void writeTest() throws Exception {
+        final String[] sheetNames = new String[8];
+        for (int i = 0; i < sheetNames.length; i++) {
+            sheetNames[i] = "customer" + i;
+        }
+
+        final Path path = Files.createTempFile("ExcelParallelWriterTest", ".xlsx");
+        try {
+            final Workbook template = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+            try (ExcelParallelWriter writer = ExcelParallelWriter.create(template, "Sheet1", 1, 10, sheetNames)) {
+                assertNotNull(writer);
+                assertEquals(8, writer.getSheetRows().size());
+
+                { /* 並列数(異常) */
+                    assertFalse(writer.write((sheetName, rows) -> rows.writeRow(sheetName), 0));
+                    assertFalse(writer.write(null, 4));
+                }
+
+                { /* 書き込み処理で例外が発生した場合(並列数によらずfalse) */
+                    assertFalse(writer.write((sheetName, rows) -> {
+                        throw new IllegalStateException(sheetName);
+                    }, 1));
+                    assertFalse(writer.write((sheetName, rows) -> {
+                        throw new IllegalStateException(sheetName);
+                    }, 4));
+                }
+
+                assertTrue(writer.write((sheetName, rows) -> {
+                    for (int i = 0; i < 1000; i++) {
+                        rows.writeRow(sheetName + "-" + i, i);
+                    }
+                }, 4));
+
+                for (final ExcelParallelWriter.SheetRows rows : writer.getSheetRows()) {
+                    assertEquals(1000, rows.getRowCount());
+                }
+                writer.output(path);
+            }
+
+            final Workbook workbook = ExcelUtils.getWorkbook(path);
+            assertNotNull(workbook);
+            assertEquals(8, workbook.getNumberOfSheets());
+            assertNull(workbook.getSheet("Sheet1"));
+            for (int i = 0; i < sheetNames.length; i++) {
+                final Sheet sheet = workbook.getSheetAt(i);
+                assertEquals(sheetNames[i], sheet.getSheetName());
+                assertEquals("testA1", ExcelUtils.getCellValue(sheet, "A1").toString());
+                assertEquals(sheetNames[i] + "-0", ExcelUtils.getCellValue(sheet, "A2").toString());
+                assertEquals(sheetNames[i] + "-999", ExcelUtils.getCellValue(sheet, "A1001").toString());
+                assertEquals(999.0, ExcelUtils.getCellValue(sheet, "B1001"));
+                assertEquals(1000, sheet.getLastRowNum());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
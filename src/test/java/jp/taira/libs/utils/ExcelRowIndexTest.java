@@ -0,0 +1,137 @@
+package jp.taira.libs.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelRowIndexTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void deleteDirectory(final Path dir) throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void openTest() throws Exception {
+        final Path cacheDir = Files.createTempDirectory("row-index");
+        try {
+            assertNull(ExcelRowIndex.open(null, "Sheet1", cacheDir));
+            /* xlsは対象外 */
+            assertNull(ExcelRowIndex.open(getResourceFile("testExcel/test.xls"), "Sheet1", cacheDir));
+            assertNull(ExcelRowIndex.open(getResourceFile("testExcel/test-multi.xlsx"), "Sheet9999", cacheDir));
+
+            try (ExcelRowIndex rowIndex = ExcelRowIndex.open(getResourceFile("testExcel/test-multi.xlsx"), "Sheet2", cacheDir)) {
+                assertNotNull(rowIndex);
+                assertEquals(3, rowIndex.getRowCount());
+                assertEquals(2, rowIndex.getLastRowIndex());
+            }
+        } finally {
+            deleteDirectory(cacheDir);
+        }
+    }
+
+    @Test
+    public void getRowTest() throws Exception {
+        final Path cacheDir = Files.createTempDirectory("row-index");
+        try (ExcelRowIndex rowIndex = ExcelRowIndex.open(getResourceFile("testExcel/test-cell.xlsx"), "Sheet1", cacheDir)) {
+            assertNotNull(rowIndex);
+
+            { /* 行 */
+                final ExcelRow row = rowIndex.getRow(0);
+                assertNotNull(row);
+                assertEquals(0, row.getRowIndex());
+                assertEquals("testA1", row.getValue(0));
+            }
+
+            { /* 存在しない行 */
+                assertNull(rowIndex.getRow(3));
+                assertNull(rowIndex.getRow(-1));
+                assertNull(rowIndex.getRow(9999));
+            }
+
+            { /* セルの値 */
+                assertEquals(1.0, rowIndex.getCellValue(1, 0));
+                assertEquals("   ", rowIndex.getCellValue("A5"));
+                assertTrue(rowIndex.getCellValue("A6") instanceof Date);
+                assertEquals(Boolean.FALSE, rowIndex.getCellValue("B7"));
+                assertNull(rowIndex.getCellValue("C7"));
+            }
+
+            { /* 範囲 */
+                final List<ExcelRow> rows = rowIndex.getRows(2, 5);
+                assertEquals(3, rows.size());
+                assertEquals(2, rows.get(0).getRowIndex());
+                assertEquals(4, rows.get(1).getRowIndex());
+                assertEquals(5, rows.get(2).getRowIndex());
+
+                assertEquals(rowIndex.getRowCount(), rowIndex.getRows(0, Integer.MAX_VALUE).size());
+                assertTrue(rowIndex.getRows(3, 3).isEmpty());
+                assertTrue(rowIndex.getRows(5, 2).isEmpty());
+            }
+        } finally {
+            deleteDirectory(cacheDir);
+        }
+    }
+
+    @Test
+    public void openTest_再利用() throws Exception {
+        final Path cacheDir = Files.createTempDirectory("row-index");
+        final Path path = Files.createTempFile("reference", ".xlsx");
+        try {
+            Files.copy(getResourceFile("testExcel/test-multi.xlsx"), path, StandardCopyOption.REPLACE_EXISTING);
+            try (ExcelRowIndex rowIndex = ExcelRowIndex.open(path, "Sheet1", cacheDir)) {
+                assertEquals("test-1-A1", rowIndex.getCellValue("A1"));
+            }
+
+            final Path indexFile;
+            try (Stream<Path> paths = Files.list(cacheDir)) {
+                indexFile = paths.filter(p -> p.toString().endsWith(".idx")).findFirst().orElseThrow(AssertionError::new);
+            }
+            final FileTime indexModified = FileTime.fromMillis(Files.getLastModifiedTime(indexFile).toMillis() - 60000);
+            Files.setLastModifiedTime(indexFile, indexModified);
+
+            { /* 元ファイルが変わらない場合はインデックスを再利用する */
+                try (ExcelRowIndex rowIndex = ExcelRowIndex.open(path, "Sheet1", cacheDir)) {
+                    assertEquals("test-1-A1", rowIndex.getCellValue("A1"));
+                }
+                assertEquals(indexModified, Files.getLastModifiedTime(indexFile));
+            }
+
+            { /* 元ファイルが変わった場合は作成し直す */
+                Files.copy(getResourceFile("testExcel/test-cell.xlsx"), path, StandardCopyOption.REPLACE_EXISTING);
+                Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 60000));
+                try (ExcelRowIndex rowIndex = ExcelRowIndex.open(path, "Sheet1", cacheDir)) {
+                    assertEquals("testA1", rowIndex.getCellValue("A1"));
+                }
+                assertNotEquals(indexModified, Files.getLastModifiedTime(indexFile));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+            deleteDirectory(cacheDir);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package jp.taira.libs.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelScanUtilsTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void scanTest() {
+        for (final String fileName : new String[] { "testExcel/test-multi.xls", "testExcel/test-multi.xlsx" }) {
+            final Path path = getResourceFile(fileName);
+
+            { /* 全ての列 */
+                final List<ExcelRow> rows = new ArrayList<>();
+                assertEquals(3, ExcelScanUtils.scan(path, "Sheet2", null, null, rows::add));
+                assertEquals(0, rows.get(0).getRowIndex());
+                assertEquals("test-2-A1", rows.get(0).getValue(0));
+                assertEquals("test-2-B1", rows.get(0).getValue("B"));
+                assertEquals("test-2-B3", rows.get(2).getValue(1));
+            }
+
+            { /* 列の射影(列インデックスは元のまま) */
+                final List<ExcelRow> rows = ExcelScanUtils.list(path, "Sheet2", new int[] { 1 }, null);
+                assertNotNull(rows);
+                assertEquals(3, rows.size());
+                assertNull(rows.get(0).getValue(0));
+                assertEquals("test-2-B1", rows.get(0).getValue(1));
+                assertEquals(2, rows.get(0).getLastCellNum());
+            }
+
+            { /* 行の条件 */
+                final List<ExcelRow> rows = ExcelScanUtils.list(path, "Sheet2", new int[] { 0, 1 }, row -> "test-2-B3".equals(row.getValue(1)));
+                assertNotNull(rows);
+                assertEquals(1, rows.size());
+                assertEquals(2, rows.get(0).getRowIndex());
+            }
+
+            { /* シートのインデックス */
+                final List<ExcelRow> rows = new ArrayList<>();
+                assertEquals(3, ExcelScanUtils.scan(path, 1, new int[] { 0 }, null, rows::add));
+                assertEquals("test-2-A1", rows.get(0).getValue(0));
+            }
+
+            { /* 存在しないシート・不正な引数 */
+                assertEquals(-1, ExcelScanUtils.scan(path, "Sheet9999", null, null, row -> { }));
+                assertEquals(-1, ExcelScanUtils.scan(path, 9999, null, null, row -> { }));
+                assertEquals(-1, ExcelScanUtils.scan(path, -1, null, null, row -> { }));
+                assertEquals(-1, ExcelScanUtils.scan(path, "Sheet2", new int[] { -1 }, null, row -> { }));
+                assertNull(ExcelScanUtils.list(path, null, null, null));
+            }
+        }
+
+        assertEquals(-1, ExcelScanUtils.scan(getResourceFile("testFile.txt"), 0, null, null, row -> { }));
+        assertEquals(-1, ExcelScanUtils.scan(null, 0, null, null, row -> { }));
+    }
+
+    @Test
+    public void scanTest_セルの値() {
+        for (final String fileName : new String[] { "testExcel/test-cell.xls", "testExcel/test-cell.xlsx" }) {
+            final List<ExcelRow> rows = ExcelScanUtils.list(getResourceFile(fileName), "Sheet1", null, null);
+            assertNotNull(rows);
+
+            { /* 文字列 */
+                assertEquals(0, rows.get(0).getRowIndex());
+                assertEquals("testA1", rows.get(0).getValue(0));
+            }
+
+            { /* 数値 */
+                assertEquals(1.0, rows.get(1).getValue(0));
+                assertEquals(3.0, rows.get(2).getValue(0));
+            }
+
+            { /* 空白3文字(行インデックス3は存在しない) */
+                assertEquals(4, rows.get(3).getRowIndex());
+                assertEquals("   ", rows.get(3).getValue(0));
+            }
+
+            { /* 日付 */
+                assertTrue(rows.get(4).getValue(0) instanceof Date);
+                assertEquals(DateTimeUtils.parseToDate("2019" + DateTimeUtils.DATE_SPLIT + "01" + DateTimeUtils.DATE_SPLIT + "01", DateTimeUtils.DATE_FORMAT), rows.get(4).getValue(0));
+            }
+
+            { /* 真偽 */
+                assertEquals(Boolean.TRUE, rows.get(5).getValue(0));
+                assertEquals(Boolean.FALSE, rows.get(5).getValue(1));
+            }
+
+            { /* エラー */
+                assertEquals("#DIV/0!", rows.get(6).getValue(0));
+            }
+
+            { /* 数式 - 数値 */
+                assertEquals(3.0, rows.get(7).getValue(0));
+            }
+
+            { /* 射影外の列は読み込まない */
+                final List<ExcelRow> projected = ExcelScanUtils.list(getResourceFile(fileName), "Sheet1", new int[] { 1 }, null);
+                assertNotNull(projected);
+                assertEquals(rows.size(), projected.size());
+                assertNull(projected.get(0).getValue(0));
+                assertEquals(Boolean.FALSE, projected.get(5).getValue(1));
+            }
+
+            { /* 射影した列に値を持たない行は処理しない */
+                final List<ExcelRow> projected = ExcelScanUtils.list(getResourceFile(fileName), "Sheet1", new int[] { 2 }, null);
+                assertNotNull(projected);
+                assertTrue(projected.isEmpty());
+            }
+        }
+    }
+}
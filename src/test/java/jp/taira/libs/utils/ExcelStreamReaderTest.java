@@ -0,0 +1,124 @@
+package jp.taira.libs.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelStreamReaderTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void openTest() {
+        assertNull(ExcelStreamReader.open(Paths.get("")));
+        assertNull(ExcelStreamReader.open(getResourceFile("testFile.txt")));
+        /* xlsは対象外 */
+        assertNull(ExcelStreamReader.open(getResourceFile("testExcel/test.xls")));
+
+        try (ExcelStreamReader reader = ExcelStreamReader.open(getResourceFile("testExcel/test-multi.xlsx"))) {
+            assertNotNull(reader);
+            assertEquals(2, reader.getNumberOfSheets());
+            assertEquals("Sheet1", reader.getSheetNames().get(0));
+            assertEquals("Sheet2", reader.getSheetNames().get(1));
+        }
+    }
+
+    @Test
+    public void rowsTest() {
+        try (ExcelStreamReader reader = ExcelStreamReader.open(getResourceFile("testExcel/test-multi.xlsx"))) {
+            assertNotNull(reader);
+
+            try (Stream<ExcelRow> rows = reader.rows("Sheet2")) {
+                final List<ExcelRow> rowList = rows.collect(Collectors.toList());
+
+                assertEquals(3, rowList.size());
+                assertEquals(0, rowList.get(0).getRowIndex());
+                assertEquals("test-2-A1", rowList.get(0).getValue(0));
+                assertEquals("test-2-B1", rowList.get(0).getValue("B"));
+                assertEquals("test-2-B3", rowList.get(2).getValue(1));
+                assertNull(rowList.get(2).getValue(2));
+            }
+
+            assertNull(reader.rows("Sheet9999"));
+            assertNull(reader.rows(-1));
+        }
+    }
+
+    @Test
+    public void rowsTest_セルの値() {
+        try (ExcelStreamReader reader = ExcelStreamReader.open(getResourceFile("testExcel/test-cell.xlsx"))) {
+            assertNotNull(reader);
+
+            final Iterator<ExcelRow> iterator = reader.iterator(0);
+            assertNotNull(iterator);
+
+            { /* 文字列 */
+                final ExcelRow row = iterator.next();
+                assertEquals(0, row.getRowIndex());
+                assertEquals("testA1", row.getValue(0));
+            }
+
+            { /* 数値 */
+                final ExcelRow row = iterator.next();
+                assertEquals(1, row.getRowIndex());
+                assertEquals(1.0, row.getValue(0));
+            }
+
+            { /* 数値セル - 数値 */
+                final ExcelRow row = iterator.next();
+                assertEquals(2, row.getRowIndex());
+                assertEquals(3.0, row.getValue(0));
+            }
+
+            { /* 空白3文字(行インデックス3は存在しない) */
+                final ExcelRow row = iterator.next();
+                assertEquals(4, row.getRowIndex());
+                assertEquals("   ", row.getValue(0));
+            }
+
+            { /* 日付 */
+                final ExcelRow row = iterator.next();
+                assertEquals(5, row.getRowIndex());
+                assertTrue(row.getValue(0) instanceof Date);
+                assertEquals(DateTimeUtils.parseToDate("2019" + DateTimeUtils.DATE_SPLIT + "01" + DateTimeUtils.DATE_SPLIT + "01", DateTimeUtils.DATE_FORMAT), row.getValue(0));
+            }
+
+            { /* 真偽 */
+                final ExcelRow row = iterator.next();
+                assertEquals(Boolean.TRUE, row.getValue(0));
+                assertEquals(Boolean.FALSE, row.getValue(1));
+            }
+
+            { /* エラー */
+                final ExcelRow row = iterator.next();
+                assertEquals("#DIV/0!", row.getValue(0));
+            }
+
+            { /* 数式 - 数値 */
+                final ExcelRow row = iterator.next();
+                assertEquals(3.0, row.getValue(0));
+            }
+
+            assertFalse(iterator.hasNext());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.ComparisonOperator;
+import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetConditionalFormatting;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelStreamWriterTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void createTest() {
+        { /* null */
+            assertNull(ExcelStreamWriter.create(null, "Sheet1", "Report", 1));
+        }
+
+        { /* xls */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xls"));
+            assertNull(ExcelStreamWriter.create(workbook, "Sheet1", "Report", 1));
+        }
+
+        { /* テンプレートシートが存在しない */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+            assertNull(ExcelStreamWriter.create(workbook, "Sheet9999", "Report", 1));
+        }
+
+        { /* シート名(空) */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+            assertNull(ExcelStreamWriter.create(workbook, "Sheet1", "", 1));
+        }
+
+        { /* 行ウィンドウ(異常) */
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+            assertNull(ExcelStreamWriter.create(workbook, "Sheet1", "Report", 1, 0));
+        }
+    }
+
+    @Test
+    public void writeRowTest() throws Exception {
+        final Path path = Files.createTempFile("ExcelStreamWriterTest", ".xlsx");
+        try {
+            final Workbook template = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+            try (ExcelStreamWriter writer = ExcelStreamWriter.create(template, "Sheet1", "Report", 1, 2)) {
+                assertNotNull(writer);
+                // ヘッダー1行 + データ2行でシートを切り替える
+                writer.setMaxRows(3);
+
+                for (int i = 0; i < 5; i++) {
+                    assertNotNull(writer.writeRow("data" + i, i));
+                }
+
+                assertEquals(3, writer.getSheets().size());
+                assertEquals("Report", writer.getSheets().get(0).getSheetName());
+                assertEquals("Report(2)", writer.getSheets().get(1).getSheetName());
+                assertEquals("Report(3)", writer.getSheets().get(2).getSheetName());
+
+                writer.output(path);
+            }
+
+            final Workbook workbook = ExcelUtils.getWorkbook(path);
+            assertNotNull(workbook);
+            // テンプレートシートは存在しない。
+            assertNull(workbook.getSheet("Sheet1"));
+            assertEquals(3, workbook.getNumberOfSheets());
+
+            { /* 1シート目 */
+                final Sheet sheet = workbook.getSheet("Report");
+                assertEquals("testA1", ExcelUtils.getCellValue(sheet, "A1").toString());
+                assertEquals("testB1", ExcelUtils.getCellValue(sheet, "B1").toString());
+                assertEquals("data0", ExcelUtils.getCellValue(sheet, "A2").toString());
+                assertEquals(1.0, ExcelUtils.getCellValue(sheet, "B3"));
+                assertEquals(2, sheet.getLastRowNum());
+            }
+
+            { /* 3シート目 */
+                final Sheet sheet = workbook.getSheet("Report(3)");
+                assertEquals("testA1", ExcelUtils.getCellValue(sheet, "A1").toString());
+                assertEquals("data4", ExcelUtils.getCellValue(sheet, "A2").toString());
+                final Row row = sheet.getRow(2);
+                assertNull(row);
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void createSheetTest() throws Exception {
+        final Path path = Files.createTempFile("ExcelStreamWriterTest", ".xlsx");
+        try {
+            final Workbook template = new XSSFWorkbook();
+            final Sheet templateSheet = template.createSheet("template");
+            templateSheet.createRow(0).createCell(0).setCellValue("title");
+            templateSheet.addMergedRegion(CellRangeAddress.valueOf("A1:B1"));
+            templateSheet.createRow(1).createCell(0).setCellValue("name");
+            templateSheet.getRow(1).createCell(1).setCellValue("amount");
+            templateSheet.setColumnWidth(1, 5000);
+            final SheetConditionalFormatting formatting = templateSheet.getSheetConditionalFormatting();
+            final ConditionalFormattingRule rule = formatting.createConditionalFormattingRule(ComparisonOperator.LT, "0");
+            rule.createFontFormatting().setFontColorIndex((short) 10);
+            formatting.addConditionalFormatting(new CellRangeAddress[] { CellRangeAddress.valueOf("B3:B3") }, rule);
+
+            try (ExcelStreamWriter writer = ExcelStreamWriter.create(template, "template", "customer0", 2)) {
+                assertNotNull(writer);
+                writer.setMaxRows(4);
+
+                for (int i = 0; i < 100; i++) {
+                    if (i > 0) {
+                        assertNotNull(writer.createSheet("customer" + i));
+                    }
+                    writer.writeRow("name" + i, i);
+                    if (i == 0) {
+                        // 最大行数に達した場合は「シート名(番号)」のシートを生成する
+                        writer.writeRow("name0", -1);
+                        writer.writeRow("name0", -2);
+                    }
+                }
+
+                { /* シート名が不正 */
+                    assertNull(writer.createSheet("customer1"));
+                    assertNull(writer.createSheet("template"));
+                    assertNull(writer.createSheet(" "));
+                }
+
+                assertEquals(101, writer.getSheets().size());
+                assertEquals("customer0(2)", writer.getSheets().get(1).getSheetName());
+                writer.output(path);
+            }
+
+            final Workbook workbook = ExcelUtils.getWorkbook(path);
+            assertNotNull(workbook);
+            assertEquals(101, workbook.getNumberOfSheets());
+            assertNull(workbook.getSheet("template"));
+
+            { /* 1シート目(条件付き書式の範囲はデータ行の最終行まで広げる) */
+                final Sheet sheet = workbook.getSheet("customer0");
+                assertEquals("title", ExcelUtils.getCellValue(sheet, "A1").toString());
+                assertEquals("name0", ExcelUtils.getCellValue(sheet, "A3").toString());
+                assertEquals(-1.0, ExcelUtils.getCellValue(sheet, "B4"));
+                assertEquals(1, sheet.getSheetConditionalFormatting().getNumConditionalFormattings());
+                assertEquals("B3:B4", sheet.getSheetConditionalFormatting().getConditionalFormattingAt(0).getFormattingRanges()[0].formatAsString());
+            }
+
+            { /* 生成したシート */
+                final Sheet sheet = workbook.getSheet("customer99");
+                assertEquals("title", ExcelUtils.getCellValue(sheet, "A1").toString());
+                assertEquals("amount", ExcelUtils.getCellValue(sheet, "B2").toString());
+                assertEquals("name99", ExcelUtils.getCellValue(sheet, "A3").toString());
+                assertEquals(99.0, ExcelUtils.getCellValue(sheet, "B3"));
+                assertEquals(1, sheet.getNumMergedRegions());
+                assertEquals(5000, sheet.getColumnWidth(1));
+                assertEquals(1, sheet.getSheetConditionalFormatting().getNumConditionalFormattings());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelStyleRegistryTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void getStyleTest() {
+        for (final String fileName : new String[] { "testExcel/test.xls", "testExcel/test.xlsx" }) {
+            final Workbook workbook = Objects.requireNonNull(ExcelUtils.getWorkbook(getResourceFile(fileName)));
+            final ExcelStyleRegistry registry = new ExcelStyleRegistry(workbook);
+
+            final CellStyle dateStyle = registry.getStyle(null, "yyyy/m/d");
+            assertEquals("yyyy/m/d", dateStyle.getDataFormatString());
+            final int numCellStyles = workbook.getNumCellStyles();
+
+            { /* 同じ内容のセルスタイルは生成しない */
+                assertSame(dateStyle, registry.getStyle(null, "yyyy/m/d"));
+                assertEquals(numCellStyles, workbook.getNumCellStyles());
+            }
+
+            { /* ワークブックに存在するセルスタイルも重複排除する */
+                final ExcelStyleRegistry other = new ExcelStyleRegistry(workbook);
+                assertEquals(dateStyle.getIndex(), other.getStyle(null, "yyyy/m/d").getIndex());
+                assertEquals(numCellStyles, workbook.getNumCellStyles());
+            }
+
+            { /* 書式を変更しない */
+                assertNotNull(registry.getStyle(dateStyle, null));
+                assertEquals(dateStyle.getIndex(), registry.getStyle(dateStyle, null).getIndex());
+            }
+
+            { /* フォント */
+                final Font font = registry.getFont("Arial", (short) 12, true, false, IndexedColors.RED.getIndex());
+                assertSame(font, registry.getFont("Arial", (short) 12, true, false, IndexedColors.RED.getIndex()));
+
+                final CellStyle boldStyle = registry.getStyle(dateStyle, null, font);
+                assertEquals(font.getIndex(), boldStyle.getFontIndex());
+                assertEquals("yyyy/m/d", boldStyle.getDataFormatString());
+                assertSame(boldStyle, registry.getStyle(dateStyle, null, font));
+            }
+        }
+    }
+}
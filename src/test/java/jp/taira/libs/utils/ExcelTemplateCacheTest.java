@@ -0,0 +1,154 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelTemplateCacheTest {
+
+    private Path getResourceFile(final String path) {
+        URI resourceUri;
+        try {
+            resourceUri = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI();
+            return Paths.get(resourceUri);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void constructorTest() {
+        assertThrows(IllegalArgumentException.class, () -> new ExcelTemplateCache(0, Duration.ZERO, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExcelTemplateCache(1, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExcelTemplateCache(1, Duration.ZERO, -1));
+    }
+
+    @Test
+    public void checkoutTest() throws Exception {
+        for (final String fileName : new String[] { "testExcel/test.xls", "testExcel/test.xlsx" }) {
+            try (ExcelTemplateCache cache = new ExcelTemplateCache()) {
+                final Path path = getResourceFile(fileName);
+
+                { /* 初回はファイルを読み込む */
+                    try (Workbook workbook = cache.checkout(path)) {
+                        assertNotNull(workbook);
+                        assertEquals("testA1", ExcelUtils.getCellValue(workbook.getSheet("Sheet1"), "A1"));
+                        workbook.getSheet("Sheet1").getRow(0).getCell(0).setCellValue("changed");
+                    }
+                    assertEquals(0, cache.getHitCount());
+                    assertEquals(1, cache.getMissCount());
+                    assertEquals(1, cache.size());
+                }
+
+                { /* 2回目以降はメモリのテンプレートから払い出す(払い出したワークブックは独立している) */
+                    try (Workbook workbook = cache.checkout(path)) {
+                        assertNotNull(workbook);
+                        assertEquals("testA1", ExcelUtils.getCellValue(workbook.getSheet("Sheet1"), "A1"));
+                    }
+                    assertEquals(1, cache.getHitCount());
+                    assertEquals(1, cache.getMissCount());
+                }
+
+                { /* 存在しないファイル */
+                    assertNull(cache.checkout(path.resolveSibling("not-found.xlsx")));
+                    assertNull(cache.checkout(null));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void checkoutTest_変更検知() throws Exception {
+        final Path path = Files.createTempFile("template", ".xlsx");
+        try (ExcelTemplateCache cache = new ExcelTemplateCache(16, Duration.ofMinutes(1), 0)) {
+            Files.copy(getResourceFile("testExcel/test.xlsx"), path, StandardCopyOption.REPLACE_EXISTING);
+            try (Workbook workbook = cache.checkout(path)) {
+                assertEquals("testA1", ExcelUtils.getCellValue(workbook.getSheet("Sheet1"), "A1"));
+            }
+
+            { /* 更新日時のみ変わった場合 */
+                Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() - 60000));
+                try (Workbook workbook = cache.checkout(path)) {
+                    assertEquals("testA1", ExcelUtils.getCellValue(workbook.getSheet("Sheet1"), "A1"));
+                }
+                assertEquals(2, cache.getMissCount());
+            }
+
+            { /* 内容が変わった場合 */
+                Files.copy(getResourceFile("testExcel/test-multi.xlsx"), path, StandardCopyOption.REPLACE_EXISTING);
+                try (Workbook workbook = cache.checkout(path)) {
+                    assertEquals("test-1-A1", ExcelUtils.getCellValue(workbook.getSheet("Sheet1"), "A1"));
+                }
+                assertEquals(3, cache.getMissCount());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void checkoutTest_予備() throws Exception {
+        try (ExcelTemplateCache cache = new ExcelTemplateCache(16, Duration.ofMinutes(1), 1)) {
+            final Path path = getResourceFile("testExcel/test.xlsx");
+            cache.checkout(path).close();
+
+            // 予備のワークブックの補充を待つ
+            for (int i = 0; i < 100 && cache.getSpareHitCount() == 0; i++) {
+                Thread.sleep(50);
+                try (Workbook workbook = cache.checkout(path)) {
+                    assertEquals("testA1", ExcelUtils.getCellValue(workbook.getSheet("Sheet1"), "A1"));
+                }
+            }
+            assertTrue(cache.getSpareHitCount() > 0);
+        }
+    }
+
+    @Test
+    public void evictionTest() throws Exception {
+        { /* 保持するテンプレート数の上限 */
+            try (ExcelTemplateCache cache = new ExcelTemplateCache(1, Duration.ofMinutes(1), 0)) {
+                cache.checkout(getResourceFile("testExcel/test.xlsx")).close();
+                cache.checkout(getResourceFile("testExcel/test-multi.xlsx")).close();
+                assertEquals(1, cache.size());
+                assertEquals(1, cache.getEvictionCount());
+
+                cache.invalidateAll();
+                assertEquals(0, cache.size());
+            }
+        }
+
+        { /* 未使用時間 */
+            try (ExcelTemplateCache cache = new ExcelTemplateCache(16, Duration.ZERO, 0)) {
+                cache.checkout(getResourceFile("testExcel/test.xlsx")).close();
+                cache.checkout(getResourceFile("testExcel/test-multi.xlsx")).close();
+                assertEquals(1, cache.size());
+                assertEquals(1, cache.getEvictionCount());
+            }
+        }
+    }
+
+    @Test
+    public void repackTest() throws Exception {
+        final byte[] bytes = Files.readAllBytes(getResourceFile("testExcel/test.xlsx"));
+        final byte[] repacked = ExcelTemplateCache.repack(bytes);
+        assertNotSame(bytes, repacked);
+        try (Workbook workbook = ExcelUtils.getWorkbook(new ByteArrayInputStream(repacked))) {
+            assertEquals("testA1", ExcelUtils.getCellValue(workbook.getSheet("Sheet1"), "A1"));
+        }
+
+        final byte[] xls = Files.readAllBytes(getResourceFile("testExcel/test.xls"));
+        assertSame(xls, ExcelTemplateCache.repack(xls));
+    }
+}
@@ -2,25 +2,47 @@ package jp.taira.libs.utils;
 
 import org.apache.poi.hssf.OldExcelFormatException;
 import org.apache.poi.hssf.usermodel.HSSFRichTextString;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
+import org.apache.poi.poifs.crypt.Encryptor;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.ComparisonOperator;
+import org.apache.poi.ss.usermodel.DataValidationConstraint;
+import org.apache.poi.ss.usermodel.DataValidationHelper;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Name;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetConditionalFormatting;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellRangeAddressList;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.zip.Deflater;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -96,6 +118,41 @@ public class ExcelUtilsTest {
         assertNotNull(ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx")));
     }
 
+    @Test
+    public void getWorkbookTest_Path_読み取り専用() throws Exception {
+        assertNull(ExcelUtils.getWorkbook(Paths.get(""), true));
+        assertNull(ExcelUtils.getWorkbook(getResourceFile("testFile.txt"), true));
+
+        /* xls(BIFF5) */
+        assertThrows(OldExcelFormatException.class, () -> ExcelUtils.getWorkbook(getResourceFile("testExcel/test_BIFF5.xls"), true));
+
+        { /* xls */
+            final Path path = getResourceFile("testExcel/test-multi.xls");
+            final long lastModified = Files.getLastModifiedTime(path).toMillis();
+            try (Workbook workbook = ExcelUtils.getWorkbook(path, true)) {
+                assertNotNull(workbook);
+                assertEquals("test-2-A1", Objects.requireNonNull(ExcelUtils.getCellValue(workbook.getSheet("Sheet2"), "A1")).toString());
+            }
+            // 閉じてもファイルは変更しない。
+            assertEquals(lastModified, Files.getLastModifiedTime(path).toMillis());
+        }
+
+        { /* xlsx */
+            final Path path = getResourceFile("testExcel/test-multi.xlsx");
+            final long lastModified = Files.getLastModifiedTime(path).toMillis();
+            try (Workbook workbook = ExcelUtils.getWorkbook(path, true)) {
+                assertNotNull(workbook);
+                assertEquals("test-2-A1", Objects.requireNonNull(ExcelUtils.getCellValue(workbook.getSheet("Sheet2"), "A1")).toString());
+            }
+            // 閉じてもファイルは変更しない。
+            assertEquals(lastModified, Files.getLastModifiedTime(path).toMillis());
+        }
+
+        { /* 読み取り専用でない */
+            assertNotNull(ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"), false));
+        }
+    }
+
     @Test
     public void getSheetTest() {
         // null
@@ -915,6 +972,69 @@ public class ExcelUtilsTest {
         }
     }
 
+    @Test
+    public void insertRowsTest() throws Exception {
+        for (final Workbook workbook : new Workbook[] { new HSSFWorkbook(), new XSSFWorkbook() }) {
+            final Sheet sheet = workbook.createSheet("Sheet1");
+            sheet.createRow(0).createCell(0).setCellValue("header");
+            final Row detail = sheet.createRow(1);
+            detail.setHeight((short) 500);
+            detail.createCell(0).setCellValue(1);
+            detail.createCell(1).setCellFormula("A2*2");
+            detail.createCell(2);
+            detail.createCell(3);
+            sheet.addMergedRegion(CellRangeAddress.valueOf("C2:D2"));
+            sheet.createRow(2).createCell(1).setCellFormula("SUM(B2:B2)");
+
+            final SheetConditionalFormatting formatting = sheet.getSheetConditionalFormatting();
+            formatting.addConditionalFormatting(new CellRangeAddress[] { CellRangeAddress.valueOf("B2:B2") },
+                    formatting.createConditionalFormattingRule(ComparisonOperator.LT, "0"));
+            final Name name = workbook.createName();
+            name.setNameName("detail");
+            name.setRefersToFormula("Sheet1!$A$2:$B$2");
+            final DataValidationHelper helper = sheet.getDataValidationHelper();
+            sheet.addValidationData(helper.createValidation(helper.createIntegerConstraint(DataValidationConstraint.OperatorType.GREATER_THAN, "0", null),
+                    new CellRangeAddressList(1, 1, 0, 0)));
+
+            { /* 異常 */
+                assertEquals(0, ExcelUtils.insertRows(null, 2, 3, 1));
+                assertEquals(0, ExcelUtils.insertRows(sheet, 2, 0, 1));
+                assertEquals(0, ExcelUtils.insertRows(sheet, 2, 3, 9999));
+            }
+
+            assertEquals(3, ExcelUtils.insertRows(sheet, 2, 3, 1));
+
+            { /* 挿入した行(数式の相対参照は行に合わせて調整する) */
+                for (int rowIndex = 2; rowIndex <= 4; rowIndex++) {
+                    final Row row = sheet.getRow(rowIndex);
+                    assertEquals(500, row.getHeight());
+                    assertEquals("A" + (rowIndex + 1) + "*2", row.getCell(1).getCellFormula());
+                }
+                assertEquals(4, sheet.getNumMergedRegions());
+            }
+
+            { /* 移動した行 */
+                assertEquals("SUM(B2:B2)", sheet.getRow(5).getCell(1).getCellFormula());
+                assertNull(sheet.getRow(6));
+            }
+
+            { /* 条件付き書式・名前・入力規則の範囲を広げる */
+                assertEquals("B2:B5", formatting.getConditionalFormattingAt(0).getFormattingRanges()[0].formatAsString());
+                assertEquals("Sheet1!$A$2:$B$5", workbook.getName("detail").getRefersToFormula());
+                if (workbook instanceof XSSFWorkbook) {
+                    assertEquals("A2:A5", sheet.getDataValidations().get(0).getRegions().getCellRangeAddress(0).formatAsString());
+                }
+            }
+
+            { /* SXSSF */
+                try (SXSSFWorkbook sxssfWorkbook = new SXSSFWorkbook()) {
+                    assertEquals(0, ExcelUtils.insertRows(sxssfWorkbook.createSheet(), 0, 1, 0));
+                }
+            }
+            workbook.close();
+        }
+    }
+
     @Test
     public void getCellTest() {
         { /* null */
@@ -1397,4 +1517,303 @@ public class ExcelUtilsTest {
             assertEquals("OK", value.toString());
         }
     }
+
+    @Test
+    public void getTypedCellValueTest() {
+        for (final String fileName : new String[] { "testExcel/test-cell.xls", "testExcel/test-cell.xlsx" }) {
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile(fileName));
+            final Sheet sheet = ExcelUtils.getSheet(workbook, 0);
+
+            { /* null */
+                assertEquals(-1.0, ExcelUtils.getDouble(null, -1.0));
+                assertEquals(-1L, ExcelUtils.getLong(null, -1L));
+                assertNull(ExcelUtils.getString(null));
+                assertEquals(-1L, ExcelUtils.getEpochDay(null, -1L));
+                assertTrue(ExcelUtils.isBlank(null));
+                assertFalse(ExcelUtils.isDateFormatted(null));
+            }
+
+            { /* 文字列 */
+                final Cell cell = ExcelUtils.getCell(sheet, 0, 0);
+                assertEquals(-1.0, ExcelUtils.getDouble(cell, -1.0));
+                assertEquals("testA1", ExcelUtils.getString(cell));
+                assertFalse(ExcelUtils.isBlank(cell));
+            }
+
+            { /* 数値 */
+                final Cell cell = ExcelUtils.getCell(sheet, 1, 0);
+                assertEquals(1.0, ExcelUtils.getDouble(cell, -1.0));
+                assertEquals(1L, ExcelUtils.getLong(cell, -1L));
+                assertEquals("1", ExcelUtils.getString(cell));
+                assertFalse(ExcelUtils.isDateFormatted(cell));
+            }
+
+            { /* 空白3文字 */
+                assertTrue(ExcelUtils.isBlank(ExcelUtils.getCell(sheet, 4, 0)));
+            }
+
+            { /* 日付 */
+                final Cell cell = ExcelUtils.getCell(sheet, 5, 0);
+                assertTrue(ExcelUtils.isDateFormatted(cell));
+                assertEquals(LocalDate.of(2019, 1, 1).toEpochDay(), ExcelUtils.getEpochDay(cell, -1L));
+            }
+
+            { /* 真偽 */
+                assertEquals("TRUE", ExcelUtils.getString(ExcelUtils.getCell(sheet, 6, 0)));
+            }
+
+            { /* 数式 - 数値 */
+                final Cell cell = ExcelUtils.getCell(sheet, 8, 0);
+                assertEquals(3.0, ExcelUtils.getDouble(cell, -1.0));
+                assertEquals("3", ExcelUtils.getString(cell));
+            }
+
+            { /* 列の一括取得(行インデックス3は存在しない) */
+                assertArrayEquals(new double[] { Double.NaN, 1.0, 3.0, Double.NaN }, ExcelUtils.getDoubles(sheet, 0, 0, 3, Double.NaN));
+                assertArrayEquals(new long[] { 0L, 1L, 3L, 0L }, ExcelUtils.getLongs(sheet, 0, 0, 3, 0L));
+                assertArrayEquals(new String[] { "testA1", "1", "3", null }, ExcelUtils.getStrings(sheet, 0, 0, 3));
+
+                final double[] values = new double[2];
+                ExcelUtils.getDoubles(sheet, 0, 1, values, 0.0);
+                assertArrayEquals(new double[] { 1.0, 3.0 }, values);
+            }
+        }
+    }
+
+    @Test
+    public void setCellValueTest() {
+        final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+        final Sheet sheet = ExcelUtils.getSheet(workbook, 0);
+        final Row row = Objects.requireNonNull(sheet).createRow(10);
+
+        { /* null */
+            assertDoesNotThrow(() -> ExcelUtils.setCellValue(null, "value"));
+
+            final Cell cell = row.createCell(0);
+            ExcelUtils.setCellValue(cell, null);
+            assertNull(ExcelUtils.getCellValue(workbook, cell));
+        }
+
+        { /* 文字列 */
+            final Cell cell = row.createCell(1);
+            ExcelUtils.setCellValue(cell, "value");
+            assertEquals("value", Objects.requireNonNull(ExcelUtils.getCellValue(workbook, cell)).toString());
+        }
+
+        { /* 数値 */
+            final Cell cell = row.createCell(2);
+            ExcelUtils.setCellValue(cell, 10);
+            assertEquals(10.0, ExcelUtils.getCellValue(workbook, cell));
+        }
+
+        { /* 真偽 */
+            final Cell cell = row.createCell(3);
+            ExcelUtils.setCellValue(cell, Boolean.TRUE);
+            assertEquals(Boolean.TRUE, ExcelUtils.getCellValue(workbook, cell));
+        }
+    }
+
+    @Test
+    public void createFormulaEvaluatorTest() {
+        assertNull(ExcelUtils.createFormulaEvaluator(null));
+
+        final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+        final FormulaEvaluator evaluator = ExcelUtils.createFormulaEvaluator(workbook);
+        assertNotNull(evaluator);
+        // 数式評価オブジェクトは保持せず、呼び出しごとに生成する。
+        assertNotSame(evaluator, ExcelUtils.createFormulaEvaluator(workbook));
+    }
+
+    @Test
+    public void evaluateAllTest() {
+        assertNull(ExcelUtils.evaluateAll(null));
+
+        for (final String fileName : new String[] { "testExcel/test-multi.xls", "testExcel/test-multi.xlsx" }) {
+            final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile(fileName));
+            assertNotNull(workbook);
+
+            for (final Sheet sheet : workbook) {
+                final Row row = sheet.createRow(10);
+                row.createCell(0).setCellValue(2);
+                row.createCell(1).setCellFormula("A11*3");
+                row.createCell(2).setCellFormula("CONCATENATE(A1,\"-x\")");
+                row.createCell(3).setCellFormula("A11>1");
+            }
+
+            final List<Pair<String, Long>> result = ExcelUtils.evaluateAll(workbook);
+            assertNotNull(result);
+            assertEquals(2, result.size());
+            assertEquals("Sheet1", result.get(0).getKey());
+            assertEquals("Sheet2", result.get(1).getKey());
+
+            { /* 数値 */
+                final Cell cell = workbook.getSheet("Sheet2").getRow(10).getCell(1);
+                assertEquals(CellType.FORMULA, cell.getCellType());
+                assertEquals(CellType.NUMERIC, cell.getCachedFormulaResultType());
+                assertEquals(6.0, cell.getNumericCellValue());
+            }
+
+            { /* 文字列 */
+                final Cell cell = workbook.getSheet("Sheet2").getRow(10).getCell(2);
+                assertEquals(CellType.FORMULA, cell.getCellType());
+                assertEquals("test-2-A1-x", cell.getStringCellValue());
+            }
+
+            { /* 真偽 */
+                final Cell cell = workbook.getSheet("Sheet1").getRow(10).getCell(3);
+                assertEquals(CellType.BOOLEAN, cell.getCachedFormulaResultType());
+                assertTrue(cell.getBooleanCellValue());
+            }
+        }
+    }
+
+    @Test
+    public void evaluateRangeTest() {
+        final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+        final Sheet sheet = ExcelUtils.getSheet(workbook, 0);
+        final Row row = Objects.requireNonNull(sheet).createRow(10);
+        row.createCell(0).setCellValue(2);
+        row.createCell(1).setCellFormula("A11*3");
+        row.createCell(2).setCellFormula("A11*4");
+
+        assertEquals(0, ExcelUtils.evaluateRange(null, CellRangeAddress.valueOf("A1:C11")));
+        assertEquals(1, ExcelUtils.evaluateRange(sheet, CellRangeAddress.valueOf("A1:B11")));
+        assertEquals(6.0, row.getCell(1).getNumericCellValue());
+        assertEquals(2, ExcelUtils.evaluateSheet(sheet));
+        assertEquals(8.0, row.getCell(2).getNumericCellValue());
+
+        { /* 数式評価オブジェクトを使い回す */
+            final FormulaEvaluator evaluator = ExcelUtils.createFormulaEvaluator(workbook);
+            assertEquals(0, ExcelUtils.evaluateRange(null, sheet, CellRangeAddress.valueOf("A1:C11")));
+            assertEquals(0, ExcelUtils.evaluateSheet(null, sheet));
+
+            row.getCell(0).setCellValue(3);
+            assertEquals(2, ExcelUtils.evaluateRange(evaluator, sheet, CellRangeAddress.valueOf("A1:C11")));
+            assertEquals(9.0, row.getCell(1).getNumericCellValue());
+
+            row.getCell(0).setCellValue(5);
+            evaluator.notifyUpdateCell(row.getCell(0));
+            assertEquals(2, ExcelUtils.evaluateSheet(evaluator, sheet));
+            assertEquals(20.0, row.getCell(2).getNumericCellValue());
+        }
+    }
+
+    @Test
+    public void getCellValueTest_数式評価オブジェクト() {
+        final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+        final Sheet sheet = Objects.requireNonNull(ExcelUtils.getSheet(workbook, 0));
+        final Row row = sheet.createRow(10);
+        row.createCell(0).setCellValue(2);
+        row.createCell(1).setCellFormula("A11>1");
+        row.createCell(2).setCellFormula("A11<1");
+
+        final FormulaEvaluator evaluator = ExcelUtils.createFormulaEvaluator(workbook);
+        evaluator.evaluateFormulaCell(row.getCell(1));
+        evaluator.evaluateFormulaCell(row.getCell(2));
+
+        { /* 計算結果が数値・文字列以外の数式は、指定した数式評価オブジェクトで評価する */
+            assertEquals(true, ExcelUtils.getCellValue(evaluator, workbook, row.getCell(1)));
+            assertEquals(CellType.BOOLEAN, row.getCell(1).getCellType());
+        }
+
+        { /* 数式評価オブジェクトを指定しない場合 */
+            assertEquals(false, ExcelUtils.getCellValue(null, workbook, row.getCell(2)));
+            assertEquals(false, ExcelUtils.getCellValue(evaluator, workbook, row.getCell(2)));
+        }
+
+        assertNull(ExcelUtils.getCellValue(evaluator, workbook, null));
+        assertEquals("testA1", ExcelUtils.getCellValue(evaluator, workbook, sheet.getRow(0).getCell(0)).toString());
+    }
+
+    @Test
+    public void getWorkbookTest_Path_パスワード() throws Exception {
+        final Path path = Files.createTempFile("encrypted", ".xlsx");
+        try {
+            try (POIFSFileSystem fileSystem = new POIFSFileSystem()) {
+                final Encryptor encryptor = new EncryptionInfo(EncryptionMode.agile).getEncryptor();
+                encryptor.confirmPassword("secret");
+                try (OutputStream outputStream = encryptor.getDataStream(fileSystem)) {
+                    Files.copy(getResourceFile("testExcel/test-protected.xlsx"), outputStream);
+                }
+                try (OutputStream outputStream = Files.newOutputStream(path)) {
+                    fileSystem.writeFilesystem(outputStream);
+                }
+            }
+
+            { /* 暗号化されたxlsx */
+                try (Workbook workbook = ExcelUtils.getWorkbook(path, "secret")) {
+                    assertNotNull(workbook);
+                    final Sheet sheet = ExcelUtils.getSheet(workbook, 0);
+                    assertTrue(ExcelUtils.isProtectedSheet(sheet));
+                    assertTrue(ExcelUtils.isProtectedSheet(sheet, "pass"));
+                }
+            }
+
+            { /* パスワードが一致しない */
+                assertNull(ExcelUtils.getWorkbook(path, "wrong"));
+            }
+
+            { /* 暗号化されていないファイルはパスワードを無視する */
+                assertNotNull(ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xls"), "secret"));
+                assertNotNull(ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"), "secret"));
+                assertNotNull(ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"), (String) null));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void getWorkbookTest_Workbook() throws Exception {
+        final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test-multi.xlsx"));
+
+        try (InputStream inputStream = ExcelUtils.getWorkbook(Objects.requireNonNull(workbook))) {
+            assertNotNull(inputStream);
+
+            final Workbook copy = ExcelUtils.getWorkbook(inputStream);
+            assertNotNull(copy);
+            assertEquals(2, copy.getNumberOfSheets());
+            assertEquals("test-2-A1", Objects.requireNonNull(ExcelUtils.getCellValue(copy.getSheet("Sheet2"), "A1")).toString());
+        }
+    }
+
+    @Test
+    public void outputTest() throws Exception {
+        final Path fast = Files.createTempFile("ExcelUtilsTest", ".xlsx");
+        final Path small = Files.createTempFile("ExcelUtilsTest", ".xlsx");
+        try {
+            { /* xlsx(圧縮なし・最大圧縮) */
+                final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test-multi.xlsx"));
+                ExcelUtils.output(workbook, fast, Deflater.NO_COMPRESSION);
+                ExcelUtils.output(workbook, small, Deflater.BEST_COMPRESSION);
+
+                assertTrue(Files.size(fast) > Files.size(small));
+                assertEquals(2, Objects.requireNonNull(ExcelUtils.getWorkbook(fast)).getNumberOfSheets());
+                assertEquals(2, Objects.requireNonNull(ExcelUtils.getWorkbook(small)).getNumberOfSheets());
+            }
+
+            { /* xls */
+                final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test-multi.xls"));
+                ExcelUtils.output(workbook, fast);
+
+                assertEquals(Objects.requireNonNull(workbook).getNumberOfSheets(), Objects.requireNonNull(ExcelUtils.getWorkbook(fast)).getNumberOfSheets());
+            }
+
+            { /* 出力ストリーム(閉じない) */
+                final Workbook workbook = ExcelUtils.getWorkbook(getResourceFile("testExcel/test.xlsx"));
+                final ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+                    @Override
+                    public void close() {
+                        fail("outputStream is closed.");
+                    }
+                };
+                ExcelUtils.output(workbook, outputStream);
+
+                assertNotNull(ExcelUtils.getWorkbook(new ByteArrayInputStream(outputStream.toByteArray())));
+            }
+        } finally {
+            Files.deleteIfExists(fast);
+            Files.deleteIfExists(small);
+        }
+    }
 }
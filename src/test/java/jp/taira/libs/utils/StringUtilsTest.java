@@ -41,6 +41,12 @@ public class StringUtilsTest {
         assertTrue(StringUtils.isBlank("  "));
 
         assertFalse(StringUtils.isBlank("AAA"));
+
+        { /* CharSequence */
+            assertTrue(StringUtils.isBlank((CharSequence) null));
+            assertTrue(StringUtils.isBlank(new StringBuilder(" 　")));
+            assertFalse(StringUtils.isBlank(new StringBuilder(" A ")));
+        }
     }
 
     @Test
@@ -237,6 +243,17 @@ public class StringUtilsTest {
             assertEquals(StringUtils.trim("　 A　A　A　 "), "A　A　A");
             assertEquals(StringUtils.trim("　　A　A　A　　"), "A　A　A");
             assertEquals(StringUtils.trim("    A　A　A    "), "A　A　A");
+
+            assertEquals(StringUtils.trim("\t\u00a0A A A\u2000\u205f"), "A A A");
+            assertEquals(StringUtils.trim(" \n A "), "\n A");
+
+            // 変換する文字がない場合は同じ文字列を返す
+            final String target = "A A A";
+            assertSame(target, StringUtils.trim(target));
+        }
+
+        { /* 指定あり(空文字) */
+            assertEquals(StringUtils.trim(" abc ", ""), " abc ");
         }
     }
 
@@ -350,6 +367,33 @@ public class StringUtilsTest {
         assertFalse(StringUtils.isHalfAlphaNumeric("アイウエオ"));
     }
 
+    @Test
+    public void characterClassTest_CharSequence() throws Exception {
+        assertTrue(StringUtils.isAscii(new StringBuilder("abc 012")));
+        assertFalse(StringUtils.isAscii(new StringBuilder("abc　012")));
+        assertFalse(StringUtils.isAscii((CharSequence) null));
+
+        assertTrue(StringUtils.isAlpha(new StringBuilder("abcXYZ")));
+        assertFalse(StringUtils.isAlpha(new StringBuilder("abc012")));
+        assertFalse(StringUtils.isAlpha(new StringBuilder()));
+
+        assertTrue(StringUtils.isHalfAlphaNumeric(new StringBuilder("abc012")));
+        assertFalse(StringUtils.isHalfAlphaNumeric(new StringBuilder("abc 012")));
+
+        assertTrue(StringUtils.isHiragana(new StringBuilder("やまだ")));
+        assertFalse(StringUtils.isHiragana(new StringBuilder("やまだ たろう")));
+        assertTrue(StringUtils.isHiragana(new StringBuilder("やまだ たろう"), true));
+        assertFalse(StringUtils.isHiragana(new StringBuilder(" "), true));
+
+        assertTrue(StringUtils.isKatakana(new StringBuilder("ヤマダ")));
+        assertTrue(StringUtils.isKatakana(new StringBuilder("ヤマダ　タロウ"), true));
+        assertFalse(StringUtils.isKatakana(new StringBuilder("ﾔﾏﾀﾞ")));
+
+        assertTrue(StringUtils.isHalfKatakana(new StringBuilder("ﾔﾏﾀﾞ")));
+        assertTrue(StringUtils.isHalfKatakana(new StringBuilder("ﾔﾏﾀﾞ ﾀﾛｳ"), true));
+        assertFalse(StringUtils.isHalfKatakana(new StringBuilder("ヤマダ")));
+    }
+
     @Test
     public void isHiraganaTest() throws Exception {
         assertFalse(StringUtils.isHiragana(null));
@@ -572,6 +616,128 @@ public class StringUtilsTest {
         assertEquals(StringUtils.toFullOfNumber("abc"), "abc");
     }
 
+    @Test
+    public void toHalfOfAsciiTest() throws Exception {
+        assertNull(StringUtils.toHalfOfAscii(null));
+        assertEquals(StringUtils.toHalfOfAscii(""), "");
+
+        assertEquals(StringUtils.toHalfOfAscii("０１２ＡＢＣａｂｃ！”＃＄￥％＆’（）　。「」、・"), "012ABCabc!\"#$\\%&'() ｡｢｣､･");
+        assertEquals(StringUtils.toHalfOfAscii("東京都港区１－２－３　ＡＢＣビル"), "東京都港区1-2-3 ABCビル");
+
+        // 変換する文字がない場合は同じ文字列を返す
+        final String target = "東京都港区1-2-3 ABCビル";
+        assertSame(target, StringUtils.toHalfOfAscii(target));
+    }
+
+    @Test
+    public void toHalfOfAsciiTest_StringBuilder() throws Exception {
+        final StringBuilder buffer = new StringBuilder();
+        assertSame(buffer, StringUtils.toHalfOfAscii("東京都港区１－２－３", buffer));
+        assertEquals("東京都港区1-2-3", buffer.toString());
+
+        buffer.setLength(0);
+        assertEquals("abc", StringUtils.toHalfOfAscii("abc", buffer).toString());
+        assertEquals("abc", StringUtils.toHalfOfAscii(null, buffer).toString());
+        assertNull(StringUtils.toHalfOfAscii("abc", null));
+    }
+
+    @Test
+    public void toFullOfAsciiTest() throws Exception {
+        assertNull(StringUtils.toFullOfAscii(null));
+        assertEquals(StringUtils.toFullOfAscii(""), "");
+
+        assertEquals(StringUtils.toFullOfAscii("012ABCabc!\"#$\\%&'() ｡｢｣､･"), "０１２ＡＢＣａｂｃ！”＃＄￥％＆’（）　。「」、・");
+        assertEquals(StringUtils.toFullOfAscii("東京都港区1-2-3 ABCビル"), "東京都港区１－２－３　ＡＢＣビル");
+
+        // 変換する文字がない場合は同じ文字列を返す
+        final String target = "東京都港区１－２－３　ＡＢＣビル";
+        assertSame(target, StringUtils.toFullOfAscii(target));
+    }
+
+    @Test
+    public void toFullOfAsciiTest_StringBuilder() throws Exception {
+        final StringBuilder buffer = new StringBuilder("住所:");
+        assertSame(buffer, StringUtils.toFullOfAscii("東京都港区1-2-3", buffer));
+        assertEquals("住所:東京都港区１－２－３", buffer.toString());
+        assertNull(StringUtils.toFullOfAscii("abc", null));
+    }
+
+    @Test
+    public void toFullOfKatakanaTest() throws Exception {
+        assertNull(StringUtils.toFullOfKatakana(null));
+        assertEquals(StringUtils.toFullOfKatakana(""), "");
+
+        assertEquals(StringUtils.toFullOfKatakana(StringUtils.HALF_KATAKANA_PATTERN), StringUtils.KATAKANA_PATTERN);
+        assertEquals(StringUtils.toFullOfKatakana("ｶﾞｯｺｳ ﾊﾟｰﾃｨｰ"), "ガッコウ パーティー");
+        assertEquals(StringUtils.toFullOfKatakana("ﾔﾏﾀﾞ ﾀﾛｳ"), "ヤマダ タロウ");
+
+        // 濁点・半濁点を付けられない文字、単独の濁点・半濁点
+        assertEquals(StringUtils.toFullOfKatakana("ｱﾞ"), "ア゛");
+        assertEquals(StringUtils.toFullOfKatakana("ﾞﾟ"), "゛゜");
+
+        // 変換する文字がない場合は同じ文字列を返す
+        final String target = "山田 太郎 ヤマダ ABC";
+        assertSame(target, StringUtils.toFullOfKatakana(target));
+    }
+
+    @Test
+    public void toHalfOfKatakanaTest() throws Exception {
+        assertNull(StringUtils.toHalfOfKatakana(null));
+        assertEquals(StringUtils.toHalfOfKatakana(""), "");
+
+        assertEquals(StringUtils.toHalfOfKatakana(StringUtils.KATAKANA_PATTERN), StringUtils.HALF_KATAKANA_PATTERN);
+        assertEquals(StringUtils.toHalfOfKatakana("ガッコウ パーティー"), "ｶﾞｯｺｳ ﾊﾟｰﾃｨｰ");
+        assertEquals(StringUtils.toHalfOfKatakana("゛゜"), "ﾞﾟ");
+
+        // 結合用濁点
+        assertEquals(StringUtils.toHalfOfKatakana("カ\u3099"), "ｶﾞ");
+
+        // 半角カタカナがない文字は変換しない
+        assertEquals(StringUtils.toHalfOfKatakana("ヮヵヶ"), "ヮヵヶ");
+
+        final String target = "山田 太郎 ﾔﾏﾀﾞ ABC";
+        assertSame(target, StringUtils.toHalfOfKatakana(target));
+    }
+
+    @Test
+    public void toKatakanaTest() throws Exception {
+        assertNull(StringUtils.toKatakana(null));
+        assertEquals(StringUtils.toKatakana(""), "");
+
+        assertEquals(StringUtils.toKatakana(StringUtils.HIRAGANA_PATTERN), StringUtils.KATAKANA_PATTERN);
+        assertEquals(StringUtils.toKatakana("やまだ たろう ゝゞ"), "ヤマダ タロウ ヽヾ");
+
+        final String target = "山田 太郎 ヤマダ ABC";
+        assertSame(target, StringUtils.toKatakana(target));
+    }
+
+    @Test
+    public void toHiraganaTest() throws Exception {
+        assertNull(StringUtils.toHiragana(null));
+        assertEquals(StringUtils.toHiragana(""), "");
+
+        assertEquals(StringUtils.toHiragana(StringUtils.KATAKANA_PATTERN), StringUtils.HIRAGANA_PATTERN);
+        assertEquals(StringUtils.toHiragana("ヤマダ タロウ ヽヾ"), "やまだ たろう ゝゞ");
+
+        // ひらがながない文字は変換しない
+        assertEquals(StringUtils.toHiragana("ヷー"), "ヷー");
+
+        final String target = "山田 太郎 やまだ ABC";
+        assertSame(target, StringUtils.toHiragana(target));
+    }
+
+    @Test
+    public void normalizeTest() throws Exception {
+        assertNull(StringUtils.normalize(null));
+        assertEquals(StringUtils.normalize(""), "");
+
+        assertEquals(StringUtils.normalize("　東京都千代田区丸の内１－２－３　　ＡＢＣビル（受付）　"), "東京都千代田区丸の内1-2-3 ABCビル(受付)");
+        assertEquals(StringUtils.normalize("ｶﾞｯｺｳ\t ﾊﾟｰﾄ 10時～12時"), "ガッコウ パート 10時〜12時");
+
+        final String target = "東京都千代田区丸の内1-2-3 ABCビル";
+        assertSame(target, StringUtils.normalize(target));
+    }
+
     @Test
     public void isEmailTest() throws Exception {
         // 通常
@@ -781,6 +947,15 @@ public class StringUtilsTest {
         assertTrue(StringUtils.isUTF8("Καλημέρα κόσμε"));
     }
 
+    @Test
+    public void encodeCharsetTest() throws Exception {
+        final String target = "山田 太郎 ABC ｱｲｳ ㈱";
+        assertArrayEquals(target.getBytes(StringUtils.MS932), StringUtils.encodeCharset(target.getBytes(StringUtils.UTF_8), StringUtils.UTF_8, StringUtils.MS932));
+        assertArrayEquals(target.getBytes(StringUtils.UTF_8), StringUtils.encodeCharset(target.getBytes(StringUtils.MS932), StringUtils.MS932, StringUtils.UTF_8));
+        assertArrayEquals("あ".getBytes(StringUtils.EUC_JP), StringUtils.encodeCharset("あ".getBytes(StringUtils.UTF_8), StringUtils.UTF_8, StringUtils.EUC_JP));
+        assertArrayEquals(new byte[0], StringUtils.encodeCharset(new byte[0], StringUtils.UTF_8, StringUtils.MS932));
+    }
+
     @Test
     public void splitReturnCodeTest() throws Exception {
         { /* null */
@@ -0,0 +1,192 @@
+package jp.taira.libs.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.EnumSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextNormalizerTest {
+
+    @Test
+    public void ofTest() {
+        final TextNormalizer normalizer = TextNormalizer.of(TextNormalizer.Option.TRIM, null, TextNormalizer.Option.TRIM);
+        assertNotNull(normalizer);
+        assertEquals(EnumSet.of(TextNormalizer.Option.TRIM), normalizer.getOptions());
+        assertThrows(UnsupportedOperationException.class, () -> normalizer.getOptions().add(TextNormalizer.Option.HYPHEN));
+
+        { /* 変換しない */
+            final TextNormalizer none = TextNormalizer.of();
+            assertNotNull(none);
+            assertEquals("ｶﾞ－　", none.normalize("ｶﾞ－　"));
+        }
+
+        { /* ひらがなとカタカナは同時に指定できない */
+            assertNull(TextNormalizer.of(TextNormalizer.Option.KATAKANA, TextNormalizer.Option.HIRAGANA));
+        }
+    }
+
+    @Test
+    public void normalizeTest() {
+        final TextNormalizer normalizer = TextNormalizer.STANDARD;
+
+        assertNull(normalizer.normalize(null));
+        assertEquals("", normalizer.normalize(""));
+
+        { /* 全角英数字・記号 */
+            assertEquals("ABC123(a)", normalizer.normalize("ＡＢＣ１２３（ａ）"));
+        }
+
+        { /* 半角カタカナ・句読点・濁点の合成 */
+            assertEquals("ガッコウ パート", normalizer.normalize("ｶﾞｯｺｳ ﾊﾟｰﾄ"));
+            assertEquals("。「ア゛」、・", normalizer.normalize("｡｢ｱﾞ｣､･"));
+            assertEquals("タ", normalizer.normalize("ﾀ"));
+        }
+
+        { /* 波ダッシュ・ハイフン */
+            assertEquals("10時〜12時", normalizer.normalize("10時～12時"));
+            assertEquals("1-2-3-4-5", normalizer.normalize("1‐2－3−4–5"));
+        }
+
+        { /* 空白文字の圧縮・各行の前後の削除 */
+            assertEquals("a b", normalizer.normalize("　a \t　b　"));
+            assertEquals("a\nb c\r\nd", normalizer.normalize("  a  \n b   c \r\n d "));
+        }
+
+        { /* 変換しない場合は対象文字列をそのまま返す */
+            final String target = "東京都千代田区丸の内1-2-3 ABCビル";
+            assertSame(target, normalizer.normalize(target));
+        }
+    }
+
+    @Test
+    public void normalizeTest_Option() {
+        { /* ひらがなにする(合成した文字も変換する) */
+            final TextNormalizer normalizer = TextNormalizer.of(TextNormalizer.Option.FULL_KATAKANA, TextNormalizer.Option.HIRAGANA);
+            assertEquals("がっこう ぱーと", normalizer.normalize("ｶﾞｯｺｳ ﾊﾟｰﾄ"));
+        }
+
+        { /* カタカナにする */
+            final TextNormalizer normalizer = TextNormalizer.of(TextNormalizer.Option.KATAKANA);
+            assertEquals("ガッコウ ﾊﾟｰﾄ", normalizer.normalize("がっこう ﾊﾟｰﾄ"));
+        }
+
+        { /* 空白文字の削除のみ(途中の空白文字はそのまま) */
+            final TextNormalizer normalizer = TextNormalizer.of(TextNormalizer.Option.TRIM);
+            assertEquals("a 　b", normalizer.normalize(" 　a 　b\t"));
+        }
+
+        { /* 空白文字の削除のみで、空白文字が長く連続する場合 */
+            final TextNormalizer normalizer = TextNormalizer.of(TextNormalizer.Option.TRIM);
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 10000; i++) {
+                builder.append(" 　");
+            }
+            final String spaces = builder.toString();
+            assertEquals("a\n", normalizer.normalize(spaces + "a\n"));
+            assertEquals("a" + spaces + "b", normalizer.normalize("a" + spaces + "b"));
+
+            final StringWriter writer = new StringWriter();
+            assertEquals(spaces.length() + 3, normalizer.normalize(new StringReader(spaces + "a" + spaces + "b\n"), writer));
+            assertEquals("a" + spaces + "b\n", writer.toString());
+        }
+
+        { /* 空白文字の圧縮のみ */
+            final TextNormalizer normalizer = TextNormalizer.of(TextNormalizer.Option.COLLAPSE_SPACE);
+            assertEquals(" a b ", normalizer.normalize(" 　a 　b\t"));
+        }
+
+        { /* 各変換を順に適用した結果と同じ */
+            final TextNormalizer normalizer = TextNormalizer.of(TextNormalizer.Option.HALF_ASCII, TextNormalizer.Option.FULL_KATAKANA,
+                    TextNormalizer.Option.KATAKANA);
+            final String target = "ＡＢＣ　ﾊﾞｲｵﾘﾝ　ばいおりん　１２３";
+            final String expected = StringUtils.toKatakana(StringUtils.toFullOfKatakana(StringUtils.toHalfOfAscii(target)));
+            assertEquals(expected, normalizer.normalize(target));
+        }
+    }
+
+    @Test
+    public void normalizeTest_Stream() {
+        final StringBuilder builder = new StringBuilder();
+        final String chars = " 　\tｶﾀﾞﾟﾊﾞﾟＡａ１－～\n\r漢かカ";
+        final Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            builder.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        final String target = builder.toString();
+
+        for (final TextNormalizer normalizer : new TextNormalizer[] {
+                TextNormalizer.STANDARD,
+                TextNormalizer.of(TextNormalizer.Option.FULL_KATAKANA, TextNormalizer.Option.HIRAGANA),
+                TextNormalizer.of(TextNormalizer.Option.TRIM) }) {
+            final String expected = normalizer.normalize(target);
+
+            { /* 一括で読み込む */
+                final StringWriter writer = new StringWriter();
+                assertEquals(expected.length(), normalizer.normalize(new StringReader(target), writer));
+                assertEquals(expected, writer.toString());
+            }
+
+            { /* 数文字ずつ読み込む(濁点・空白文字が読み込み単位をまたぐ) */
+                final StringWriter writer = new StringWriter();
+                assertEquals(expected.length(), normalizer.normalize(new ChunkedReader(target, 7), writer));
+                assertEquals(expected, writer.toString());
+            }
+        }
+
+        { /* 読み込み・書き込みエラー */
+            assertEquals(-1, TextNormalizer.STANDARD.normalize(null, new StringWriter()));
+            assertEquals(-1, TextNormalizer.STANDARD.normalize(new StringReader("a"), null));
+            assertEquals(-1, TextNormalizer.STANDARD.normalize(new StringReader("a"), new Writer() {
+                @Override
+                public void write(char[] cbuf, int off, int len) throws IOException {
+                    throw new IOException("write error");
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            }));
+        }
+    }
+
+    /**
+     * 指定した文字数ずつ読み込むReader
+     */
+    private static class ChunkedReader extends Reader {
+        private final String target;
+        private final int chunkSize;
+        private int position;
+
+        ChunkedReader(final String target, final int chunkSize) {
+            this.target = target;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (position >= target.length()) {
+                return -1;
+            }
+            final int length = Math.min(Math.min(len, chunkSize), target.length() - position);
+            target.getChars(position, position + length, cbuf, off);
+            position += length;
+
+            return length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package jp.taira.libs.utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XlsxWriterTest {
+
+    private Path path;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        path = Files.createTempFile("test", ".xlsx");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void writeTest() throws Exception {
+        for (final boolean sharedStrings : new boolean[] { false, true }) {
+            try (XlsxWriter writer = XlsxWriter.create(path, sharedStrings)) {
+                assertNotNull(writer);
+                assertTrue(writer.createSheet("データ"));
+                assertTrue(writer.writeRow("name", "value", "flag", "date", "datetime"));
+                assertTrue(writer.writeRow("a<&>\"b", 12345678901L, true, LocalDate.of(2019, 1, 1), LocalDateTime.of(2019, 1, 1, 12, 30)));
+                assertTrue(writer.writeRow(" 前後の空白 ", -1.25, false, null, "𠮷"));
+                assertTrue(writer.writeRow("name", 0.1, Double.NaN, LocalDate.of(1900, 2, 28), 1.0E20));
+                assertTrue(writer.finish());
+            }
+
+            try (Workbook workbook = ExcelUtils.getWorkbook(path)) {
+                assertNotNull(workbook);
+                final Sheet sheet = workbook.getSheet("データ");
+                assertNotNull(sheet);
+                assertEquals(3, sheet.getLastRowNum());
+
+                { /* 文字列 */
+                    assertEquals("name", sheet.getRow(0).getCell(0).getStringCellValue());
+                    assertEquals("a<&>\"b", sheet.getRow(1).getCell(0).getStringCellValue());
+                    assertEquals(" 前後の空白 ", sheet.getRow(2).getCell(0).getStringCellValue());
+                    assertEquals("𠮷", sheet.getRow(2).getCell(4).getStringCellValue());
+                }
+
+                { /* 数値 */
+                    assertEquals(12345678901.0, sheet.getRow(1).getCell(1).getNumericCellValue());
+                    assertEquals(-1.25, sheet.getRow(2).getCell(1).getNumericCellValue());
+                    assertEquals(0.1, sheet.getRow(3).getCell(1).getNumericCellValue());
+                    assertEquals(1.0E20, sheet.getRow(3).getCell(4).getNumericCellValue());
+                    assertEquals(CellType.ERROR, sheet.getRow(3).getCell(2).getCellType());
+                }
+
+                { /* 真偽 */
+                    assertTrue(sheet.getRow(1).getCell(2).getBooleanCellValue());
+                    assertFalse(sheet.getRow(2).getCell(2).getBooleanCellValue());
+                }
+
+                { /* 日付・日時 */
+                    final Cell date = sheet.getRow(1).getCell(3);
+                    assertTrue(DateUtil.isCellDateFormatted(date));
+                    assertEquals(LocalDateTime.of(2019, 1, 1, 0, 0), date.getLocalDateTimeCellValue());
+
+                    final Cell dateTime = sheet.getRow(1).getCell(4);
+                    assertTrue(DateUtil.isCellDateFormatted(dateTime));
+                    assertEquals(LocalDateTime.of(2019, 1, 1, 12, 30), dateTime.getLocalDateTimeCellValue());
+
+                    assertEquals(59.0, sheet.getRow(3).getCell(3).getNumericCellValue());
+                }
+
+                { /* null は空白のセル */
+                    final Row row = sheet.getRow(2);
+                    assertTrue(row.getCell(3) == null || row.getCell(3).getCellType() == CellType.BLANK);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writeTest_行と列の指定() throws Exception {
+        try (XlsxWriter writer = XlsxWriter.create(path)) {
+            assertNotNull(writer);
+
+            { /* シートを生成していない */
+                assertFalse(writer.startRow());
+            }
+
+            assertTrue(writer.createSheet("Sheet1"));
+
+            { /* 行を開始していない */
+                assertFalse(writer.writeString("a"));
+            }
+
+            assertTrue(writer.startRow(2));
+            assertTrue(writer.skipCell());
+            assertTrue(writer.writeString("B3"));
+            assertTrue(writer.startRow(XlsxWriter.MAX_ROWS - 1));
+            for (int i = 0; i < XlsxWriter.MAX_COLUMNS - 1; i++) {
+                assertTrue(writer.skipCell());
+            }
+            assertTrue(writer.writeNumber(1));
+
+            { /* 範囲外の行・列 */
+                assertFalse(writer.writeNumber(2));
+                assertFalse(writer.startRow());
+                assertFalse(writer.startRow(0));
+            }
+
+            { /* シート名が不正・重複 */
+                assertFalse(writer.createSheet(null));
+                assertFalse(writer.createSheet("sheet1"));
+                assertFalse(writer.createSheet("a/b"));
+                assertFalse(writer.createSheet("12345678901234567890123456789012"));
+            }
+
+            assertTrue(writer.createSheet("Sheet2"));
+            assertTrue(writer.writeRow("Sheet2-A1"));
+            assertTrue(writer.finish());
+
+            { /* 終了後は書き込めない */
+                assertFalse(writer.writeRow("a"));
+                assertFalse(writer.createSheet("Sheet3"));
+                assertTrue(writer.finish());
+            }
+        }
+
+        try (ExcelStreamReader reader = ExcelStreamReader.open(path)) {
+            assertNotNull(reader);
+            assertEquals(2, reader.getSheetNames().size());
+
+            try (Stream<ExcelRow> rows = reader.rows("Sheet1")) {
+                final List<ExcelRow> list = rows.collect(Collectors.toList());
+                assertEquals(2, list.size());
+                assertEquals(2, list.get(0).getRowIndex());
+                assertEquals("B3", list.get(0).getValue("B"));
+                assertEquals(XlsxWriter.MAX_ROWS - 1, list.get(1).getRowIndex());
+                assertEquals(1.0, list.get(1).getValue("XFD"));
+            }
+
+            try (Stream<ExcelRow> rows = reader.rows("Sheet2")) {
+                assertEquals("Sheet2-A1", rows.findFirst().orElseThrow().getValue(0));
+            }
+        }
+    }
+
+    @Test
+    public void writeTest_OutputStream() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (XlsxWriter writer = XlsxWriter.create(outputStream, true)) {
+            assertNotNull(writer);
+            // シートを生成しない場合は空のSheet1を出力する
+        }
+
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            assertEquals("Sheet1", workbook.getSheetName(0));
+        }
+
+        assertNull(XlsxWriter.create((Path) null));
+        assertNull(XlsxWriter.create((OutputStream) null, false));
+    }
+}